@@ -23,11 +23,11 @@ import org.gradle.tooling.GradleConnector
 import org.gradle.tooling.ProjectConnection
 import ratpack.perf.support.HtmlReportGenerator
 import ratpack.perf.support.LatchResultHandler
+import ratpack.perf.support.Profiler
 import ratpack.perf.support.Requester
 import ratpack.perf.support.SessionResults
 
 import java.util.concurrent.CountDownLatch
-import java.util.concurrent.Executors
 
 //@CompileStatic
 @Slf4j
@@ -68,9 +68,6 @@ class Harness {
 
     LinkedList<String> apps = appsBaseDir.listFiles().findAll { File it -> it.directory && (!it.name.startsWith(".")) }.collect { File it -> it.name } as LinkedList<String>
 
-    def concurrency = Math.ceil(Runtime.runtime.availableProcessors() / 2).toInteger()
-    log.debug "Request concurrency: $concurrency"
-    def executor = Executors.newFixedThreadPool(concurrency)
     def requester = new Requester("http://localhost:5050")
 
     // Make sure we can compile each of the apps…
@@ -94,16 +91,27 @@ class Harness {
       }
     }
 
-    def warmup = new Settings(10000, 3, 1)
-    def real = new Settings(100000, 10, 1)
+    def rate = Integer.getInteger("rate", 5000)
+    def connections = Integer.getInteger("connections", 32)
+    log.debug "Request rate: $rate/s over $connections connections"
+
+    def profile = Boolean.getBoolean("profile")
+    def jmxPort = Integer.getInteger("jmxPort", 5051)
+    def jfrDir = Boolean.getBoolean("jfr") ? new File(resultsDir, "jfr") : null
+    if (jfrDir) {
+      assert jfrDir.mkdirs()
+    }
+
+    def warmup = new Settings(10000, 3, 1, rate, connections)
+    def real = new Settings(100000, 10, 1, rate, connections)
 
     if (Boolean.getBoolean("smoke")) {
-      warmup = new Settings(10, 1, 1)
+      warmup = new Settings(10, 1, 1, 10, 1)
       real = warmup
     }
 
     if (Boolean.getBoolean("quick")) {
-      real = new Settings(10000, 5, 1)
+      real = new Settings(10000, 5, 1, rate, connections)
     }
 
     // Start testing…
@@ -136,16 +144,37 @@ class Harness {
             def versionName = version
 
             log.info "starting app…"
-            startApp(connection, endpoint)
+            def runArguments = ["-Pendpoint=$endpoint".toString()]
+            if (profile) {
+              runArguments << "-PjmxPort=$jmxPort".toString()
+            }
+            if (jfrDir) {
+              def jfrFile = new File(jfrDir, "$appName-$endpoint-${version}.jfr".replaceAll("[^\\w.-]", "_"))
+              runArguments << "-PjfrFile=$jfrFile.absolutePath".toString()
+            }
+            startApp(connection, runArguments)
             log.info "app started"
 
             try {
-              requester.run("warmup", warmup, executor, endpoint)
-              def results = requester.run("real", real, executor, endpoint)
+              requester.run("warmup", warmup, endpoint)
 
+              def results = requester.run("real", real, endpoint)
               sessionResults.endpoints[endpointName].results[versionName] = results
 
-              log.info "Average ms per request: " + results.msPerRequest
+              log.info "Latency ms (mean/p50/p99/p99.9): $results.msPerRequest/$results.p50/$results.p99/$results.p999, requests per second: $results.requestsPerSecond"
+
+              // Sampling stacks pauses the app, so profile a round of its own rather than distort the measured latencies
+              if (profile) {
+                def profiler = new Profiler(jmxPort, 10)
+                profiler.start()
+                try {
+                  requester.run("profile", real, endpoint)
+                } finally {
+                  def profileResults = profiler.stop(real.numRequests * real.rounds)
+                  sessionResults.endpoints[endpointName].profiles[versionName] = profileResults
+                  log.info "Allocated MB/s: $profileResults.allocatedMbPerSecond, bytes per request: $profileResults.allocatedBytesPerRequest, GC count: $profileResults.gcCount, GC ms: $profileResults.gcTimeMs"
+                }
+              }
             } catch (Throwable e) {
               log.error "Exception while testing app", e
             } finally {
@@ -181,12 +210,12 @@ class Harness {
     }
   }
 
-  private static void startApp(ProjectConnection connection, String endpoint) {
+  private static void startApp(ProjectConnection connection, List<String> runArguments) {
     def output = new ByteArrayOutputStream()
     def latch = new CountDownLatch(1)
     def resultHandler = new LatchResultHandler(latch)
 
-    connection.newBuild().withArguments("-u", "run", "-Pendpoint=$endpoint").setStandardOutput(output).setStandardError(output).run(resultHandler)
+    connection.newBuild().withArguments((["-u", "run"] + runArguments) as String[]).setStandardOutput(output).setStandardError(output).run(resultHandler)
 
     def timeoutMins = 1
     def retryMs = 500
@@ -21,10 +21,14 @@ class Settings {
   final int numRequests
   final int rounds
   final int cooldown
+  final int requestsPerSecond
+  final int connections
 
-  Settings(int numRequests, int rounds, int cooldown) {
+  Settings(int numRequests, int rounds, int cooldown, int requestsPerSecond, int connections) {
     this.numRequests = numRequests
     this.rounds = rounds
     this.cooldown = cooldown
+    this.requestsPerSecond = requestsPerSecond
+    this.connections = connections
   }
 }
@@ -23,4 +23,6 @@ class EndpointResults {
 
   final Map<String /* version description */, RunResults> results = [:]
 
+  final Map<String /* version description */, ProfileResults> profiles = [:]
+
 }
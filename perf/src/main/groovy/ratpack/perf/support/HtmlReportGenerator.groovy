@@ -49,14 +49,26 @@ abstract class HtmlReportGenerator {
         mkp.yieldUnescaped('''\n//<![CDATA[\n
           $(function() {
             $("body").children().remove();
-            $("body").append("<div id='chart'/>");
-            $("body").append("<table id='data'><thead><tr><th/></tr><tbody/></table>");
+            $("body").append("<h2>Mean latency (ms)</h2><div id='chart'/>");
+            $("body").append("<h2>Throughput (requests per second)</h2><div id='throughput'/>");
+            $("body").append("<table id='data'><thead><tr><th/><th/></tr><tbody/></table>");
+            $("body").append("<div id='percentiles'/>");
 
             var tableBody = $("table#data tbody");
 
             var endpoints = resultData.endpoints;
 
-            var chartData = [];
+            var metrics = [
+              {key: "msPerRequest", label: "mean ms"},
+              {key: "p50", label: "p50 ms"},
+              {key: "p90", label: "p90 ms"},
+              {key: "p99", label: "p99 ms"},
+              {key: "p999", label: "p99.9 ms"},
+              {key: "requestsPerSecond", label: "req/s"},
+              {key: "errors", label: "errors"}
+            ];
+            var percentiles = metrics.slice(1, 5);
+
             var endpointNames = [];
             var versions = [];
             var labels = [];
@@ -66,72 +78,170 @@ abstract class HtmlReportGenerator {
               $.each(data.results, function(version, data) {
                 if ($.inArray(version, versions) < 0) {
                   versions.push(version);
-                  chartData.push([]);
                   labels.push({label: version});
-                  $("<tr class='version " + version + "'>").appendTo(tableBody).append("<th>" + version + "</th>");
+                  $.each(metrics, function(index, metric) {
+                    $("<tr class='version " + version + " " + metric.key + "'>").appendTo(tableBody).append("<th>" + version + "</th><th>" + metric.label + "</th>");
+                  });
                 }
               });
             });
 
-            var maxTime = 0;
+            function value(results, version, key) {
+              return results.hasOwnProperty(version) ? results[version][key] : 0;
+            }
+
+            function width(numCategories) {
+              return (56 + (numCategories * 231) + 2 + 10) + "px";
+            }
+
+            function barChart(id, data, ticks, formatString) {
+              $("#" + id).css({width: width(ticks.length)});
+              $.jqplot(id, data, {
+                seriesDefaults: {
+                  renderer: $.jqplot.BarRenderer,
+                  pointLabels: {
+                    show: true,
+                    location: 'n',
+                    edgeTolerance: -15
+                  },
+                  rendererOptions: {
+                    fillToZero: true
+                  }
+                },
+                axesDefaults: {
+                },
+                series: labels,
+                legend: {
+                  show: true,
+                  location: 'nw',
+                },
+                axes: {
+                  xaxis: {
+                    show: true,
+                    renderer: $.jqplot.CategoryAxisRenderer,
+                    ticks: ticks
+                  },
+                  yaxis: {
+                    pad: 1.2,
+                    min: 0,
+                    tickOptions: {
+                      formatString: formatString
+                    }
+                  }
+                },
+              });
+            }
+
+            var latencyData = $.map(versions, function() { return [[]]; });
+            var throughputData = $.map(versions, function() { return [[]]; });
             $.each(endpoints, function(endpoint, data) {
               var results = data.results;
 
-              $("thead tr").append("<th>" + endpoint + "</td>");
+              $("thead tr").append("<th>" + endpoint + "</th>");
 
               $.each(versions, function(index, version) {
-                var num = 0;
-                if (results.hasOwnProperty(version)) {
-                  num = results[version].msPerRequest;
-                }
+                $.each(metrics, function(i, metric) {
+                  $("tbody tr.version." + version + "." + metric.key).append("<td>" + value(results, version, metric.key) + "</td>");
+                });
 
-                $("tbody tr.version." + version).append("<td>" + num + "</td>");
+                latencyData[index].push(value(results, version, "msPerRequest"));
+                throughputData[index].push(value(results, version, "requestsPerSecond"));
+              });
+            });
+
+            $("#data").css({width: width(endpointNames.length)});
+
+            barChart('chart', latencyData, endpointNames, '%.3f');
+            barChart('throughput', throughputData, endpointNames, '%d');
 
-                maxTime = Math.max(maxTime, num);
-                chartData[index].push(num);
+            var percentileLabels = $.map(percentiles, function(metric) { return metric.label; });
+            $.each(endpointNames, function(index, endpoint) {
+              var id = "percentiles-" + index;
+              $("#percentiles").append("<h2>" + endpoint + " latency percentiles (ms)</h2><div id='" + id + "'/>");
+
+              var percentileData = $.map(versions, function(version) {
+                return [$.map(percentiles, function(metric) { return value(endpoints[endpoint].results, version, metric.key); })];
               });
+
+              barChart(id, percentileData, percentileLabels, '%.3f');
             });
 
-            var width = (56 + (endpointNames.length * 231) + 2 + 10) + "px";
-            $("#chart").css({width: width});
-            $("#data").css({width: width});
+            var profileMetrics = [
+              {key: "allocatedMbPerSecond", label: "alloc MB/s"},
+              {key: "allocatedBytesPerRequest", label: "alloc bytes/req"},
+              {key: "gcCount", label: "GC count"},
+              {key: "gcTimeMs", label: "GC ms"},
+              {key: "samples", label: "CPU samples"}
+            ];
 
-            var scaleIncrement = 0.25;
+            function flameGraph(stacks) {
+              var root = {name: "all", value: 0, children: {}};
+              $.each(stacks, function(stack, count) {
+                var node = root;
+                root.value += count;
+                $.each(stack.split(";"), function(i, frame) {
+                  if (!node.children.hasOwnProperty(frame)) {
+                    node.children[frame] = {name: frame, value: 0, children: {}};
+                  }
+                  node = node.children[frame];
+                  node.value += count;
+                });
+              });
+              return renderFrame(root, root.value, root.value);
+            }
 
-            $.jqplot('chart', chartData, {
-              seriesDefaults: {
-                renderer: $.jqplot.BarRenderer,
-                pointLabels: {
-                  show: true,
-                  location: 'n',
-                  edgeTolerance: -15
-                },
-                rendererOptions: {
-                  fillToZero: true
+            function renderFrame(node, parentValue, totalValue) {
+              var frame = $("<div class='frame'/>").css({width: (node.value * 100 / parentValue) + "%"}).attr("title", node.name + " (" + node.value + " samples)");
+              $("<div class='name'/>").text(node.name).appendTo(frame);
+              var children = $("<div class='children'/>").appendTo(frame);
+              var sorted = $.map(node.children, function(child) { return child; }).sort(function(a, b) { return b.value - a.value; });
+              $.each(sorted, function(i, child) {
+                // frames too narrow to read just slow the page down
+                if (child.value * 1000 >= totalValue) {
+                  children.append(renderFrame(child, node.value, totalValue));
                 }
-              },
-              axesDefaults: {
-              },
-              series: labels,
-              legend: {
-                show: true,
-                location: 'nw',
-              },
-              axes: {
-                xaxis: {
-                  show: true,
-                  renderer: $.jqplot.CategoryAxisRenderer,
-                  ticks: endpointNames
-                },
-                yaxis: {
-                  pad: 1.2,
-                  min: 0,
-                  max: (Math.ceil(maxTime * (1 / scaleIncrement)) * scaleIncrement),
-                  tickOptions: {
-                    formatString: '%.5f\'
-                  }
+              });
+              return frame;
+            }
+
+            $.each(endpointNames, function(index, endpoint) {
+              var profiles = endpoints[endpoint].profiles;
+              if (!profiles || $.isEmptyObject(profiles)) {
+                return;
+              }
+
+              var section = $("<div class='profile'/>").appendTo("body");
+              section.append($("<h2/>").text(endpoint + " profile"));
+              section.append($("<p/>").text("Profiled in a separate round after the measured one, so the latencies above were not affected by profiling."));
+
+              var table = $("<table class='profile'><thead><tr><th/></tr></thead><tbody/></table>").appendTo(section);
+              $.each(versions, function(i, version) {
+                table.find("thead tr").append($("<th/>").text(version));
+              });
+              $.each(profileMetrics, function(i, metric) {
+                var row = $("<tr/>").append($("<th/>").text(metric.label)).appendTo(table.find("tbody"));
+                $.each(versions, function(j, version) {
+                  row.append($("<td/>").text(profiles.hasOwnProperty(version) ? profiles[version][metric.key] : ""));
+                });
+              });
+
+              $.each(versions, function(i, version) {
+                if (!profiles.hasOwnProperty(version)) {
+                  return;
                 }
-              },
+
+                var profile = profiles[version];
+                var column = $("<div class='version-profile'/>").appendTo(section);
+
+                column.append($("<h3/>").text(version + " hotspots"));
+                var hotspots = $("<table class='hotspots'><thead><tr><th>self %</th><th>total %</th><th>method</th></tr></thead><tbody/></table>").appendTo(column);
+                $.each(profile.hotspots, function(j, hotspot) {
+                  $("<tr/>").appendTo(hotspots.find("tbody")).append($("<td/>").text(hotspot.selfPercent), $("<td/>").text(hotspot.totalPercent), $("<td/>").text(hotspot.method));
+                });
+
+                column.append($("<h3/>").text(version + " CPU samples"));
+                $("<div class='flamegraph'/>").appendTo(column).append(flameGraph(profile.stacks));
+              });
             });
           });
         //]]>\n''')
@@ -158,6 +268,41 @@ abstract class HtmlReportGenerator {
           table#data tbody tr.version th {
             width: 56px;
           }
+          table.profile, table.hotspots {
+            border-spacing: 0;
+            border-collapse: collapse;
+            font-family: monospace;
+          }
+          table.profile td, table.profile th, table.hotspots td, table.hotspots th {
+            padding: 2px 10px;
+            border: 1px solid black;
+          }
+          table.profile th, table.hotspots th {
+            background-color: lightgrey;
+          }
+          div.version-profile {
+            display: inline-block;
+            vertical-align: top;
+            width: 49%;
+            margin-right: 1%;
+          }
+          div.flamegraph {
+            font-family: monospace;
+            font-size: 10px;
+          }
+          div.flamegraph div.frame {
+            float: left;
+          }
+          div.flamegraph div.name {
+            height: 14px;
+            overflow: hidden;
+            white-space: nowrap;
+            border: 1px solid white;
+            background-color: #f4a460;
+          }
+          div.flamegraph div.children {
+            overflow: hidden;
+          }
         """)
       }
     }
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.perf.support
+
+import groovy.transform.CompileStatic
+
+import java.math.RoundingMode
+import java.util.concurrent.TimeUnit
+
+@CompileStatic
+class ProfileResults {
+
+  private final static int DECIMAL_ACCURACY = 3
+
+  final BigDecimal durationMs
+  final long allocatedBytes
+  final BigDecimal allocatedMbPerSecond
+  final long allocatedBytesPerRequest
+  final long gcCount
+  final long gcTimeMs
+  final int samples
+  final List<StackSamples.Hotspot> hotspots
+  final Map<String, Integer> stacks
+
+  ProfileResults(long durationNanos, long allocatedBytes, long numRequests, long gcCount, long gcTimeMs, int samples, List<StackSamples.Hotspot> hotspots, Map<String, Integer> stacks) {
+    this.durationMs = new BigDecimal(TimeUnit.NANOSECONDS.toMicros(durationNanos)).movePointLeft(3)
+    this.allocatedBytes = allocatedBytes
+    this.allocatedMbPerSecond = (allocatedBytes / (1024 * 1024) / (durationMs / 1000) as BigDecimal).setScale(DECIMAL_ACCURACY, RoundingMode.HALF_UP)
+    this.allocatedBytesPerRequest = numRequests ? (long) (allocatedBytes / numRequests) : 0
+    this.gcCount = gcCount
+    this.gcTimeMs = gcTimeMs
+    this.samples = samples
+    this.hotspots = hotspots
+    this.stacks = stacks
+  }
+
+}
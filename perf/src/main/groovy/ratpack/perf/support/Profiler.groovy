@@ -0,0 +1,139 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.perf.support
+
+import groovy.transform.CompileStatic
+import groovy.util.logging.Slf4j
+
+import javax.management.MBeanServerConnection
+import javax.management.remote.JMXConnector
+import javax.management.remote.JMXConnectorFactory
+import javax.management.remote.JMXServiceURL
+import java.lang.management.GarbageCollectorMXBean
+import java.lang.management.ManagementFactory
+import java.lang.management.ThreadInfo
+
+/**
+ * Profiles an app under test over remote JMX.
+ * <p>
+ * CPU hotspots are found by periodically sampling the stacks of all runnable threads.
+ * Each sample brings the app to a safepoint, so latencies measured while profiling are not representative.
+ * Allocation is measured with the per thread allocation counters of HotSpot, and GC with the collector MXBeans.
+ */
+@Slf4j
+@CompileStatic
+class Profiler {
+
+  private final static int HOTSPOTS = 25
+  private final static int STACKS = 500
+
+  // Threads that are reported as runnable while actually waiting on IO, and the threads serving our own JMX requests
+  private final static List<String> IDLE_METHODS = ["epollWait", "poll0", "select0", "accept0", "socketAccept", "socketRead0", "kevent0"]
+  private final static List<String> IGNORED_THREAD_PREFIXES = ["RMI ", "JMX "]
+
+  private final int jmxPort
+  private final long intervalMillis
+
+  private JMXConnector connector
+  private com.sun.management.ThreadMXBean threadMXBean
+  private List<GarbageCollectorMXBean> gcMXBeans
+  private Thread sampler
+  private volatile boolean sampling
+
+  private StackSamples samples
+  private Map<Long, Long> allocatedAtStart
+  private long gcCountAtStart
+  private long gcTimeAtStart
+  private long startedAt
+
+  Profiler(int jmxPort, long intervalMillis) {
+    this.jmxPort = jmxPort
+    this.intervalMillis = intervalMillis
+  }
+
+  void start() {
+    connector = JMXConnectorFactory.connect(new JMXServiceURL("service:jmx:rmi:///jndi/rmi://localhost:$jmxPort/jmxrmi"))
+    MBeanServerConnection connection = connector.MBeanServerConnection
+    threadMXBean = ManagementFactory.newPlatformMXBeanProxy(connection, ManagementFactory.THREAD_MXBEAN_NAME, com.sun.management.ThreadMXBean)
+    gcMXBeans = ManagementFactory.getPlatformMXBeans(connection, GarbageCollectorMXBean)
+
+    samples = new StackSamples()
+    allocatedAtStart = allocatedBytes()
+    gcCountAtStart = gcMXBeans.sum(0L) { GarbageCollectorMXBean it -> it.collectionCount } as long
+    gcTimeAtStart = gcMXBeans.sum(0L) { GarbageCollectorMXBean it -> it.collectionTime } as long
+    startedAt = System.nanoTime()
+
+    sampling = true
+    sampler = Thread.start("profiler") {
+      while (sampling) {
+        try {
+          sample()
+        } catch (Exception e) {
+          log.warn "failed to sample app threads", e
+        }
+        sleep(intervalMillis)
+      }
+    }
+  }
+
+  /**
+   * @param numRequests the number of requests that were sent while profiling
+   */
+  ProfileResults stop(long numRequests) {
+    sampling = false
+    sampler.join()
+
+    try {
+      long durationNanos = System.nanoTime() - startedAt
+      def allocatedAtEnd = allocatedBytes()
+      long allocated = allocatedAtEnd.collect { Long id, Long bytes -> bytes - (allocatedAtStart[id] ?: 0L) }.sum(0L) as long
+      long gcCount = (gcMXBeans.sum(0L) { GarbageCollectorMXBean it -> it.collectionCount } as long) - gcCountAtStart
+      long gcTime = (gcMXBeans.sum(0L) { GarbageCollectorMXBean it -> it.collectionTime } as long) - gcTimeAtStart
+
+      log.info "profiled $samples.samples stack samples"
+      new ProfileResults(durationNanos, allocated, numRequests, gcCount, gcTime, samples.samples, samples.hotspots(HOTSPOTS), samples.collapsed(STACKS))
+    } finally {
+      connector.close()
+    }
+  }
+
+  void sample() {
+    for (ThreadInfo info : threadMXBean.dumpAllThreads(false, false)) {
+      if (info != null && info.threadState == Thread.State.RUNNABLE && !ignored(info)) {
+        samples.add(info.stackTrace)
+      }
+    }
+  }
+
+  private static boolean ignored(ThreadInfo info) {
+    def stackTrace = info.stackTrace
+    stackTrace.length == 0 || IDLE_METHODS.contains(stackTrace[0].methodName) || IGNORED_THREAD_PREFIXES.any { String it -> info.threadName.startsWith(it) }
+  }
+
+  private Map<Long, Long> allocatedBytes() {
+    long[] ids = threadMXBean.allThreadIds
+    long[] bytes = threadMXBean.getThreadAllocatedBytes(ids)
+    Map<Long, Long> allocated = [:]
+    for (int i = 0; i < ids.length; ++i) {
+      if (bytes[i] >= 0) {
+        allocated[ids[i]] = bytes[i]
+      }
+    }
+    allocated
+  }
+
+}
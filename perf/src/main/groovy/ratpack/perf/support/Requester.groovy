@@ -17,70 +17,71 @@
 package ratpack.perf.support
 
 import groovy.transform.CompileStatic
-import ratpack.perf.Settings
-
-import java.math.RoundingMode
-import java.util.concurrent.CountDownLatch
-import java.util.concurrent.ExecutorService
-import java.util.concurrent.atomic.AtomicLong
 import groovy.util.logging.Slf4j
-
+import ratpack.perf.Settings
+import ratpack.test.load.LatencyDistribution
+import ratpack.test.load.LoadDriver
+import ratpack.test.load.LoadResult
+import ratpack.test.load.LoadSpec
+
+import java.util.concurrent.TimeUnit
+
+/**
+ * Puts the app under test under load with the open loop {@link LoadDriver} of ratpack-test.
+ * <p>
+ * Requests are issued at a constant arrival rate regardless of how quickly the app responds, over a fixed set of keep-alive connections.
+ * Latency is measured from the time each request was scheduled to be sent rather than when it was actually written,
+ * so that time spent queued behind a slow response is counted instead of hidden (i.e. coordinated omission is corrected for).
+ */
 @Slf4j
 @CompileStatic
 class Requester {
 
-  private final static int DECIMAL_ACCURACY = 5
+  private final static long TIMEOUT_MINUTES = 1
 
   private final String baseUrl
+  private final URI address
 
   Requester(String baseUrl) {
     this.baseUrl = baseUrl
+    this.address = new URI(baseUrl)
   }
 
-  RunResults run(String name, Settings settings, ExecutorService executor, String endpoint) {
-    List<BigDecimal> roundResults = []
-    log.info "starting $name... ($settings.numRequests requests per round)"
-    settings.rounds.times { int it ->
-      log.debug "  round ${it + 1} of $settings.rounds"
-      roundResults << runRound(settings.numRequests, executor, endpoint)
+  RunResults run(String name, Settings settings, String endpoint) {
+    LatencyDistribution latency = null
+    def requestsPerSecond = BigDecimal.ZERO
+    long errors = 0
+
+    log.info "starting $name... ($settings.numRequests requests per round at $settings.requestsPerSecond/s over $settings.connections connections)"
+    for (int i = 0; i < settings.rounds; ++i) {
+      log.debug "  round ${i + 1} of $settings.rounds"
+      def result = round(settings, endpoint)
+      latency = latency == null ? result.latency : latency.plus(result.latency)
+      requestsPerSecond += result.requestsPerSecond
+      errors += result.requestCount - (result.statusCounts[200] ?: 0L)
       log.debug "  cooldown"
       sleep(settings.cooldown * 1000)
     }
     log.info "done"
 
-    def result = (roundResults.sum(0) as BigDecimal) / settings.rounds
-    new RunResults(result.setScale(DECIMAL_ACCURACY, RoundingMode.HALF_UP))
-  }
-
-  private BigDecimal runRound(int numRequests, ExecutorService executor, String endpoint) {
-    def url = new URL("$baseUrl/$endpoint")
-    def latch = new CountDownLatch(numRequests)
-    def counter = new AtomicLong(0)
-    numRequests.times {
-      executor.submit {
-        try {
-          def connection = url.openConnection()
-          connection.inputStream.close()
-
-          def responseHeaderValue = connection.getHeaderField("X-Response-Time")
+    if (errors) {
+      log.warn "$errors of ${settings.numRequests * settings.rounds} requests failed"
+    }
 
-          // Adjust to long for atomic long
-          long value = new BigDecimal(responseHeaderValue).setScale(DECIMAL_ACCURACY).unscaledValue().longValue()
+    new RunResults(latency, requestsPerSecond / settings.rounds, errors)
+  }
 
-          counter.addAndGet(value)
-        } catch (Exception e) {
-          log.error "", e
-        } finally {
-          latch.countDown()
-        }
-      }
+  private LoadResult round(final Settings settings, final String endpoint) {
+    // Long enough to send every request at the rate, so that the number of requests is what ends the round
+    final long durationMillis = (long) (settings.numRequests * 1000L / settings.requestsPerSecond) + 1000
+    LoadDriver.drive(address) { LoadSpec spec ->
+      spec.path("/$endpoint")
+        .concurrency(settings.connections)
+        .rate(settings.requestsPerSecond)
+        .requests(settings.numRequests)
+        .duration(durationMillis, TimeUnit.MILLISECONDS)
+        .timeout(TIMEOUT_MINUTES, TimeUnit.MINUTES)
     }
-    latch.await()
-
-    def whole = new BigDecimal(counter.get())
-    def millis = whole.divide(Math.pow(10, DECIMAL_ACCURACY).toBigDecimal())
-    def average = millis.divide(numRequests.toBigDecimal())
-    average.setScale(DECIMAL_ACCURACY, RoundingMode.HALF_UP)
   }
 
   void stopApp() {
@@ -17,14 +17,41 @@
 package ratpack.perf.support
 
 import groovy.transform.CompileStatic
+import ratpack.test.load.LatencyDistribution
+
+import java.math.RoundingMode
+import java.util.concurrent.TimeUnit
 
 @CompileStatic
 class RunResults {
 
+  private final static int DECIMAL_ACCURACY = 3
+
   final BigDecimal msPerRequest
+  final BigDecimal p50
+  final BigDecimal p90
+  final BigDecimal p99
+  final BigDecimal p999
+  final BigDecimal requestsPerSecond
+  final long errors
+
+  /**
+   * @param latency client side latency of every request
+   * @param requestsPerSecond the throughput that was actually achieved
+   * @param errors the number of requests that failed or did not receive a 200 response
+   */
+  RunResults(LatencyDistribution latency, BigDecimal requestsPerSecond, long errors) {
+    this.msPerRequest = toMillis(latency.getMean(TimeUnit.MICROSECONDS))
+    this.p50 = toMillis(latency.getPercentile(50, TimeUnit.MICROSECONDS))
+    this.p90 = toMillis(latency.getPercentile(90, TimeUnit.MICROSECONDS))
+    this.p99 = toMillis(latency.getPercentile(99, TimeUnit.MICROSECONDS))
+    this.p999 = toMillis(latency.getPercentile(99.9, TimeUnit.MICROSECONDS))
+    this.requestsPerSecond = requestsPerSecond.setScale(DECIMAL_ACCURACY, RoundingMode.HALF_UP)
+    this.errors = errors
+  }
 
-  RunResults(BigDecimal msPerRequest) {
-    this.msPerRequest = msPerRequest
+  private static BigDecimal toMillis(double micros) {
+    new BigDecimal(micros).movePointLeft(3).setScale(DECIMAL_ACCURACY, RoundingMode.HALF_UP)
   }
 
 }
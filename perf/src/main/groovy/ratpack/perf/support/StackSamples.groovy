@@ -0,0 +1,93 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.perf.support
+
+import groovy.transform.CompileStatic
+
+/**
+ * Aggregates sampled thread stacks into per method hotspots and collapsed stacks (the input format of flame graphs).
+ */
+@CompileStatic
+class StackSamples {
+
+  private final Map<String, Integer> stacks = [:]
+  private final Map<String, Integer> self = [:]
+  private final Map<String, Integer> total = [:]
+  private int samples
+
+  /**
+   * @param frames the sampled stack, innermost frame first (i.e. as returned by {@link Thread#getStackTrace()})
+   */
+  void add(StackTraceElement[] frames) {
+    if (frames.length == 0) {
+      return
+    }
+
+    ++samples
+
+    def names = frames.collect { StackTraceElement frame -> "${frame.className}.${frame.methodName}".toString() }
+    increment(self, names.first())
+    names.unique(false).each { String name -> increment(total, name) }
+    increment(stacks, names.reverse().join(";"))
+  }
+
+  int getSamples() {
+    samples
+  }
+
+  /**
+   * The methods that were most often on top of the stack.
+   */
+  List<Hotspot> hotspots(int limit) {
+    self.entrySet().sort { Map.Entry<String, Integer> a, Map.Entry<String, Integer> b -> b.value <=> a.value }.take(limit).collect { Map.Entry<String, Integer> it ->
+      new Hotspot(it.key, percentage(it.value), percentage(total[it.key]))
+    }
+  }
+
+  /**
+   * The most frequently sampled stacks, root frame first and separated by {@code ;}, with their sample counts.
+   */
+  Map<String, Integer> collapsed(int limit) {
+    def collapsed = new LinkedHashMap<String, Integer>()
+    stacks.entrySet().sort { Map.Entry<String, Integer> a, Map.Entry<String, Integer> b -> b.value <=> a.value }.take(limit).each { Map.Entry<String, Integer> it ->
+      collapsed[it.key] = it.value
+    }
+    collapsed
+  }
+
+  private BigDecimal percentage(int count) {
+    (count * 100 / samples as BigDecimal).setScale(2, BigDecimal.ROUND_HALF_UP)
+  }
+
+  private static void increment(Map<String, Integer> counts, String key) {
+    counts[key] = (counts[key] ?: 0) + 1
+  }
+
+  @CompileStatic
+  static class Hotspot {
+    final String method
+    final BigDecimal selfPercent
+    final BigDecimal totalPercent
+
+    Hotspot(String method, BigDecimal selfPercent, BigDecimal totalPercent) {
+      this.method = method
+      this.selfPercent = selfPercent
+      this.totalPercent = totalPercent
+    }
+  }
+
+}
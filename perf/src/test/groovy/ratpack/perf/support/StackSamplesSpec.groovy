@@ -0,0 +1,54 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.perf.support
+
+import spock.lang.Specification
+
+class StackSamplesSpec extends Specification {
+
+  def samples = new StackSamples()
+
+  def "aggregates samples into hotspots"() {
+    when:
+    samples.add(stack("c", "b", "a"))
+    samples.add(stack("c", "b", "a"))
+    samples.add(stack("b", "a"))
+    samples.add(stack("a", "a"))
+
+    then:
+    samples.samples == 4
+    samples.hotspots(2)*.method == ["T.c", "T.b"]
+    samples.hotspots(2)*.selfPercent == [50.00, 25.00]
+    samples.hotspots(2)*.totalPercent == [50.00, 75.00]
+  }
+
+  def "collapses stacks root first"() {
+    when:
+    samples.add(stack("c", "b", "a"))
+    samples.add(stack("b", "a"))
+    samples.add(stack("c", "b", "a"))
+
+    then:
+    samples.collapsed(1) == ["T.a;T.b;T.c": 2]
+    samples.collapsed(5) == ["T.a;T.b;T.c": 2, "T.a;T.b": 1]
+  }
+
+  private static StackTraceElement[] stack(String... methods) {
+    methods.collect { new StackTraceElement("T", it, "T.java", 1) } as StackTraceElement[]
+  }
+
+}
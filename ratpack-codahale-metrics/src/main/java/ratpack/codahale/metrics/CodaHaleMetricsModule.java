@@ -37,6 +37,7 @@ import ratpack.func.Action;
 import ratpack.guice.HandlerDecoratingModule;
 import ratpack.guice.internal.GuiceUtil;
 import ratpack.handling.Handler;
+import ratpack.launch.LaunchConfig;
 
 import java.io.File;
 
@@ -174,9 +175,10 @@ public class CodaHaleMetricsModule extends AbstractModule implements HandlerDeco
   private boolean jvmMetricsEnabled;
   private boolean reportMetricsToWebsocket;
   private boolean metricsEnabled;
+  private boolean executionTimelinesEnabled;
 
   private boolean isMetricsEnabled() {
-    return metricsEnabled || jvmMetricsEnabled || reportMetricsToConsole || reportMetricsToWebsocket || reportMetricsToJmx || csvReportDirectory != null;
+    return metricsEnabled || jvmMetricsEnabled || executionTimelinesEnabled || reportMetricsToConsole || reportMetricsToWebsocket || reportMetricsToJmx || csvReportDirectory != null;
   }
 
   @Override
@@ -266,6 +268,24 @@ public class CodaHaleMetricsModule extends AbstractModule implements HandlerDeco
     return this;
   }
 
+  /**
+   * Enable the collection of execution timeline metrics.
+   * <p>
+   * The {@link ratpack.exec.ExecutionTimeline} of each execution is aggregated into timers, registered with this module's Metric Registry:
+   * {@code Execution~Duration} for the total duration of each execution,
+   * and {@code Execution~<Type>~Wait} and {@code Execution~<Type>~Run} (e.g. {@code Execution~Blocking~Wait}) for the wait and run times of each {@linkplain ratpack.exec.ExecutionTimeline.EventType type of event}.
+   * <p>
+   * Timelines are only recorded if {@link ratpack.launch.LaunchConfig#getExecutionTimelineSize()} is greater than 0,
+   * otherwise no timeline metrics will be collected.
+   *
+   * @return this {@code CodaHaleMetricsModule}
+   * @see ratpack.exec.ExecController#addTimelineListener(ratpack.exec.ExecutionTimelineListener)
+   */
+  public CodaHaleMetricsModule executionTimelines() {
+    this.executionTimelinesEnabled = true;
+    return this;
+  }
+
   /**
    * Enable the reporting of metrics via web sockets.  The collecting of metrics will also be enabled.
    * <p>
@@ -346,6 +366,12 @@ public class CodaHaleMetricsModule extends AbstractModule implements HandlerDeco
       metricRegistry.registerAll(new MemoryUsageGaugeSet());
     }
 
+    if (executionTimelinesEnabled) {
+      MetricRegistry metricRegistry = injector.getInstance(MetricRegistry.class);
+      LaunchConfig launchConfig = injector.getInstance(LaunchConfig.class);
+      launchConfig.getExecController().addTimelineListener(new ExecutionTimelineTimingListener(metricRegistry));
+    }
+
     if (isMetricsEnabled()) {
       return new RequestTimingHandler(handler);
     } else {
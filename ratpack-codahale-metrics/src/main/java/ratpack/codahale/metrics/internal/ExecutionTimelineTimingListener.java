@@ -0,0 +1,56 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.codahale.metrics.internal;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import ratpack.exec.Execution;
+import ratpack.exec.ExecutionTimeline;
+import ratpack.exec.ExecutionTimelineListener;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the duration of each execution, and the wait and run times of each type of event in it, as timers.
+ */
+public class ExecutionTimelineTimingListener implements ExecutionTimelineListener {
+
+  private final Timer duration;
+  private final Map<ExecutionTimeline.EventType, Timer> waitTimers = new EnumMap<>(ExecutionTimeline.EventType.class);
+  private final Map<ExecutionTimeline.EventType, Timer> runTimers = new EnumMap<>(ExecutionTimeline.EventType.class);
+
+  public ExecutionTimelineTimingListener(MetricRegistry metricRegistry) {
+    this.duration = metricRegistry.timer("Execution~Duration");
+    for (ExecutionTimeline.EventType type : ExecutionTimeline.EventType.values()) {
+      String name = type.name().charAt(0) + type.name().substring(1).toLowerCase();
+      waitTimers.put(type, metricRegistry.timer("Execution~" + name + "~Wait"));
+      runTimers.put(type, metricRegistry.timer("Execution~" + name + "~Run"));
+    }
+  }
+
+  @Override
+  public void onComplete(Execution execution, ExecutionTimeline timeline) {
+    duration.update(timeline.getDurationNanos(), TimeUnit.NANOSECONDS);
+    for (ExecutionTimeline.Event event : timeline.getEvents()) {
+      waitTimers.get(event.getType()).update(event.getWaitNanos(), TimeUnit.NANOSECONDS);
+      runTimers.get(event.getType()).update(event.getRunNanos(), TimeUnit.NANOSECONDS);
+    }
+  }
+
+}
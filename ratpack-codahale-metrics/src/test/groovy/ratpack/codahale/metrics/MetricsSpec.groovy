@@ -337,6 +337,34 @@ class MetricsSpec extends RatpackGroovyDslSpec {
     (1.._) * reporter.onGaugeAdded(!null, { it.class.name.startsWith("com.codahale.metrics.jvm.MemoryUsageGaugeSet") })
   }
 
+  def "can collect execution timeline metrics"() {
+    given:
+    launchConfig {
+      executionTimelineSize 10
+    }
+    bindings {
+      add new CodaHaleMetricsModule().executionTimelines()
+    }
+
+    MetricRegistry registry = null
+    handlers { MetricRegistry metrics ->
+      registry = metrics
+      get {
+        blocking { "foo" } then { render it }
+      }
+    }
+
+    when:
+    2.times { assert text == "foo" }
+
+    then:
+    polling.eventually {
+      assert registry.timers["Execution~Duration"].count >= 2
+      assert registry.timers["Execution~Blocking~Run"].count >= 2
+      assert registry.timers["Execution~Handler~Run"].count >= 2
+    }
+  }
+
   def "can use metrics endpoint"() {
     given:
     launchConfig {
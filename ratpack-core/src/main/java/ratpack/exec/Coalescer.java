@@ -0,0 +1,106 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.exec;
+
+import ratpack.func.Factory;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Coalesces concurrent operations for the same key into a single operation (also known as “single flight”).
+ * <p>
+ * When a value for a key is requested while an operation for that key is already in progress,
+ * no new operation is started.
+ * Instead, the caller is given the result of the operation in progress when it completes.
+ * This prevents a burst of identical requests (e.g. when a popular cache entry expires) all hitting the same backend.
+ * <p>
+ * The operation runs in its own {@linkplain ExecControl#fork(ratpack.func.Action) forked execution},
+ * independent of any of the executions waiting for its result.
+ * The result is delivered to each waiting caller as a {@link Promise} on the caller's own execution.
+ * <p>
+ * A coalescer may optionally memoize successful results for a short period, in which case requests in that period are served the memoized value.
+ * Failures are never memoized.
+ * <pre class="tested">
+ * import ratpack.exec.Coalescer;
+ * import ratpack.exec.Coalescers;
+ * import ratpack.exec.ExecControl;
+ * import ratpack.exec.Promise;
+ *
+ * import java.math.BigDecimal;
+ * import java.util.concurrent.Callable;
+ * import java.util.concurrent.TimeUnit;
+ *
+ * public class PriceService {
+ *   private final Coalescer&lt;String, BigDecimal&gt; prices;
+ *
+ *   public PriceService(ExecControl execControl) {
+ *     this.prices = Coalescers.coalescer(execControl, 1, TimeUnit.SECONDS);
+ *   }
+ *
+ *   public Promise&lt;BigDecimal&gt; price(final String product) {
+ *     return prices.blocking(product, new Callable&lt;BigDecimal&gt;() {
+ *       public BigDecimal call() {
+ *         return lookupPrice(product);
+ *       }
+ *     });
+ *   }
+ *
+ *   private BigDecimal lookupPrice(String product) {
+ *     return BigDecimal.TEN; // expensive database query
+ *   }
+ * }
+ * </pre>
+ *
+ * @param <K> the type of key
+ * @param <T> the type of result
+ * @see Coalescers
+ */
+public interface Coalescer<K, T> {
+
+  /**
+   * Promises the result of the operation for the given key, starting the operation if it is not already in progress.
+   * <p>
+   * If an operation for the key is in progress, or a value is memoized for it, the given factory is not used.
+   * Otherwise, the factory is called in a new execution and the promise it returns is the result for all callers waiting on the key.
+   *
+   * @param key the key that identifies the operation
+   * @param operation creates the promise for the result, if the operation is not already in progress
+   * @return a promise for the result of the operation
+   */
+  Promise<T> promise(K key, Factory<? extends Promise<T>> operation);
+
+  /**
+   * Promises the result of the given blocking operation for the given key, starting the operation if it is not already in progress.
+   * <p>
+   * This is the coalescing equivalent of {@link ExecControl#blocking(java.util.concurrent.Callable)}.
+   *
+   * @param key the key that identifies the operation
+   * @param operation the blocking operation, to be performed if the operation is not already in progress
+   * @return a promise for the result of the operation
+   */
+  Promise<T> blocking(K key, Callable<? extends T> operation);
+
+  /**
+   * Discards any memoized value for the given key.
+   * <p>
+   * An operation in progress for the key is not affected.
+   *
+   * @param key the key to discard the memoized value of
+   */
+  void invalidate(K key);
+
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.exec;
+
+import ratpack.exec.internal.DefaultCoalescer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Factory methods for {@link Coalescer} implementations.
+ */
+public abstract class Coalescers {
+
+  private Coalescers() {
+  }
+
+  /**
+   * Creates a coalescer that does not memoize results.
+   * <p>
+   * Only callers that ask for the value of a key while its operation is in progress share the result.
+   *
+   * @param execControl the execution control to use to perform the operations
+   * @param <K> the type of key
+   * @param <T> the type of result
+   * @return a new coalescer
+   */
+  public static <K, T> Coalescer<K, T> coalescer(ExecControl execControl) {
+    return coalescer(execControl, 0, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Creates a coalescer that memoizes successful results for the given duration after they are produced.
+   *
+   * @param execControl the execution control to use to perform the operations
+   * @param memoizeFor how long to memoize successful results for, with 0 meaning no memoization
+   * @param unit the unit of {@code memoizeFor}
+   * @param <K> the type of key
+   * @param <T> the type of result
+   * @return a new coalescer
+   */
+  public static <K, T> Coalescer<K, T> coalescer(ExecControl execControl, long memoizeFor, TimeUnit unit) {
+    return new DefaultCoalescer<>(execControl, memoizeFor, unit);
+  }
+
+}
@@ -63,6 +63,26 @@ public interface ExecController extends AutoCloseable {
 
   ListeningExecutorService getBlockingExecutor();
 
+  /**
+   * The number of times an execution has been resumed from a thread other than its {@linkplain Execution#getEventLoop() event loop},
+   * and so had to be handed over to its event loop.
+   * <p>
+   * Each hand over costs a task submission and a thread wake up.
+   * A count that grows in step with the number of requests indicates that some asynchronous API is completing promises on its own threads.
+   *
+   * @return the number of times an execution was handed over to its event loop from another thread
+   */
+  long getCrossLoopHops();
+
+  /**
+   * Registers a listener to be given the {@link ExecutionTimeline} of each execution as it completes.
+   * <p>
+   * Listeners are only called if the {@linkplain ratpack.launch.LaunchConfig#getExecutionTimelineSize() execution timeline size} is greater than zero.
+   *
+   * @param listener the listener to register
+   */
+  void addTimelineListener(ExecutionTimelineListener listener);
+
   /**
    * The event loop group used by Netty for this application.
    * <p>
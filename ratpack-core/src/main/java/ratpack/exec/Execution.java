@@ -16,6 +16,8 @@
 
 package ratpack.exec;
 
+import io.netty.channel.EventLoop;
+import ratpack.api.Nullable;
 import ratpack.registry.MutableRegistry;
 
 /**
@@ -61,6 +63,28 @@ public interface Execution extends MutableRegistry {
 
   ExecControl getControl();
 
+  /**
+   * The event loop that this execution is bound to.
+   * <p>
+   * An execution is bound to the event loop that it started on (for request handling executions, the event loop of the request's channel).
+   * Whenever the execution is resumed, such as after a blocking operation or when a promise is fulfilled from another thread,
+   * it continues on this event loop.
+   * This keeps the execution's state local to one thread's caches, and means that writes to the request's channel do not cross threads.
+   *
+   * @return the event loop that this execution is bound to
+   */
+  EventLoop getEventLoop();
+
+  /**
+   * The timeline of this execution, if timelines are being recorded.
+   * <p>
+   * Timelines are recorded if the {@linkplain ratpack.launch.LaunchConfig#getExecutionTimelineSize() execution timeline size} is greater than zero.
+   *
+   * @return the timeline of this execution, or {@code null} if timelines are not being recorded
+   */
+  @Nullable
+  ExecutionTimeline getTimeline();
+
   // TODO: this is not the right name.
   void onCleanup(AutoCloseable autoCloseable);
 
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.exec;
+
+import ratpack.api.Nullable;
+
+import java.util.List;
+
+/**
+ * A record of what happened during an execution, and how long it took.
+ * <p>
+ * Timelines are only recorded if the {@linkplain ratpack.launch.LaunchConfig#getExecutionTimelineSize() execution timeline size} is greater than zero.
+ * The timeline of the current execution is available via {@link Execution#getTimeline()},
+ * and the timeline of every execution is given to each {@link ExecutionTimelineListener} when the execution completes.
+ * <p>
+ * Events are recorded into a fixed size ring buffer that is allocated when the execution starts.
+ * If more events occur than the buffer can hold, the oldest events are overwritten and {@link #getDroppedEventCount()} is incremented.
+ * <p>
+ * The {@code toString()} of a timeline is a multi line, human readable, description of its events, suitable for logging.
+ */
+public interface ExecutionTimeline {
+
+  /**
+   * The types of events in a timeline.
+   */
+  enum EventType {
+
+    /**
+     * A segment of the execution was run on a compute thread.
+     * <p>
+     * The wait time is how long the segment was queued before it ran (e.g. waiting behind other work on the event loop),
+     * and the run time is how long it took to run.
+     */
+    SEGMENT,
+
+    /**
+     * A {@linkplain ExecControl#blocking(java.util.concurrent.Callable) blocking operation} was performed.
+     * <p>
+     * The wait time is how long the operation waited to be handed off to a blocking thread, and the run time is how long it took to run.
+     */
+    BLOCKING,
+
+    /**
+     * A promise was fulfilled.
+     * <p>
+     * The wait time is how long the execution waited for the promise to be fulfilled, from the time that the promise was subscribed to.
+     */
+    PROMISE,
+
+    /**
+     * A handler was invoked.
+     * <p>
+     * The description includes the index of the handler in its chain.
+     */
+    HANDLER
+
+  }
+
+  /**
+   * An event in a timeline.
+   */
+  interface Event {
+
+    /**
+     * The type of event.
+     *
+     * @return the type of event
+     */
+    EventType getType();
+
+    /**
+     * When the event started, relative to the start of the execution.
+     *
+     * @return the nanoseconds between the start of the execution and the start of the event
+     */
+    long getOffsetNanos();
+
+    /**
+     * How long the event waited for, the meaning of which depends on the {@linkplain #getType() type of event}.
+     *
+     * @return the wait time in nanoseconds
+     */
+    long getWaitNanos();
+
+    /**
+     * How long the event ran for, the meaning of which depends on the {@linkplain #getType() type of event}.
+     *
+     * @return the run time in nanoseconds
+     */
+    long getRunNanos();
+
+    /**
+     * A description of the event, if it has one.
+     *
+     * @return a description of the event
+     */
+    @Nullable
+    String getDescription();
+
+  }
+
+  /**
+   * The time that the execution started, in milliseconds since the epoch.
+   *
+   * @return the time that the execution started
+   */
+  long getStartedAt();
+
+  /**
+   * How long the execution ran for, or has been running for if it has not completed.
+   *
+   * @return the duration of the execution in nanoseconds
+   */
+  long getDurationNanos();
+
+  /**
+   * The events of the execution, oldest first.
+   * <p>
+   * This is a snapshot of the events at the time of the call.
+   *
+   * @return the events of the execution
+   */
+  List<Event> getEvents();
+
+  /**
+   * The number of events that were overwritten because the ring buffer was full.
+   *
+   * @return the number of events that were overwritten
+   */
+  long getDroppedEventCount();
+
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.exec;
+
+/**
+ * Receives the {@link ExecutionTimeline} of each execution as it completes.
+ * <p>
+ * Listeners are registered via {@link ExecController#addTimelineListener(ExecutionTimelineListener)},
+ * and are only called if {@linkplain ratpack.launch.LaunchConfig#getExecutionTimelineSize() timelines are being recorded}.
+ * Typical uses are logging the timelines of slow executions (see {@link ExecutionTimelines#slowExecutionLogger(long, java.util.concurrent.TimeUnit)})
+ * and aggregating the event times into histograms (as the {@code ratpack-codahale-metrics} module's {@code CodaHaleMetricsModule.executionTimelines()} option does).
+ * <p>
+ * Listeners are called on the thread that completed the execution, which is typically a compute thread, so must not block.
+ */
+public interface ExecutionTimelineListener {
+
+  /**
+   * Called when an execution completes.
+   *
+   * @param execution the execution that completed
+   * @param timeline the timeline of the execution
+   * @throws Exception any (will be logged)
+   */
+  void onComplete(Execution execution, ExecutionTimeline timeline) throws Exception;
+
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.exec;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Factory methods for {@link ExecutionTimelineListener} implementations.
+ */
+public abstract class ExecutionTimelines {
+
+  private final static Logger LOGGER = LoggerFactory.getLogger(ExecutionTimelines.class);
+
+  private ExecutionTimelines() {
+  }
+
+  /**
+   * Creates a listener that logs the timeline of each execution that took longer than the given threshold, at {@code WARN} level.
+   *
+   * @param threshold the minimum duration of an execution for its timeline to be logged
+   * @param unit the unit of {@code threshold}
+   * @return a listener that logs the timelines of slow executions
+   */
+  public static ExecutionTimelineListener slowExecutionLogger(long threshold, TimeUnit unit) {
+    final long thresholdNanos = unit.toNanos(threshold);
+    return new ExecutionTimelineListener() {
+      @Override
+      public void onComplete(Execution execution, ExecutionTimeline timeline) {
+        if (timeline.getDurationNanos() >= thresholdNanos && LOGGER.isWarnEnabled()) {
+          LOGGER.warn("Slow execution: " + timeline);
+        }
+      }
+    };
+  }
+
+}
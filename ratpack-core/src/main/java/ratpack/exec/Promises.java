@@ -0,0 +1,171 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.exec;
+
+import com.google.common.collect.ImmutableList;
+import ratpack.exec.internal.ParallelPromises;
+import ratpack.func.Function;
+import ratpack.func.Pair;
+
+import java.util.List;
+
+/**
+ * Combinators for performing asynchronous operations in parallel.
+ * <p>
+ * An execution waits for one promise at a time, so operations that are chained with {@link Promise#then(ratpack.func.Action)} happen one after the other.
+ * The methods of this class instead subscribe to each of the given promises in its own {@linkplain ExecControl#fork(ratpack.func.Action) forked execution},
+ * so that the operations are in progress at the same time, and return a single promise for the combined result.
+ * <p>
+ * The returned promises are lazy, like all promises.
+ * None of the given promises are subscribed to until the returned promise is.
+ * <p>
+ * Promises cannot be cancelled.
+ * Once the result of a combined promise is known (e.g. one of the promises given to {@link #all(ExecControl, Iterable)} failed),
+ * the results of the outstanding promises are discarded, and {@link #map(ExecControl, Iterable, int, ratpack.func.Function)} starts no further operations.
+ * <pre class="tested">
+ * import ratpack.exec.ExecControl;
+ * import ratpack.exec.Promise;
+ * import ratpack.exec.Promises;
+ * import ratpack.func.Pair;
+ *
+ * public class ProfileService {
+ *   private final ExecControl execControl;
+ *
+ *   public ProfileService(ExecControl execControl) {
+ *     this.execControl = execControl;
+ *   }
+ *
+ *   public Promise&lt;Pair&lt;String, Integer&gt;&gt; profile(String user) {
+ *     return Promises.zip(execControl, name(user), age(user));
+ *   }
+ *
+ *   private Promise&lt;String&gt; name(String user) {
+ *     return null; // e.g. an HTTP call
+ *   }
+ *
+ *   private Promise&lt;Integer&gt; age(String user) {
+ *     return null; // e.g. a database query
+ *   }
+ * }
+ * </pre>
+ */
+public abstract class Promises {
+
+  private Promises() {
+  }
+
+  /**
+   * Promises the values of all of the given promises, in the same order.
+   * <p>
+   * If any of the promises fail, the returned promise fails with the first failure.
+   *
+   * @param execControl the execution control to fork executions with
+   * @param promises the promises to wait for
+   * @param <T> the type of value
+   * @return a promise for the values of all of the given promises
+   */
+  public static <T> Promise<List<T>> all(ExecControl execControl, Iterable<? extends Promise<? extends T>> promises) {
+    List<Promise<? extends T>> list = ImmutableList.copyOf(promises);
+    return ParallelPromises.<Promise<? extends T>, T, List<T>>join(execControl, list, Math.max(list.size(), 1), Promises.<T>identity(), Promises.<T>identityList());
+  }
+
+  /**
+   * Promises the values of the two given promises, as a pair.
+   * <p>
+   * If either of the promises fail, the returned promise fails with the first failure.
+   *
+   * @param execControl the execution control to fork executions with
+   * @param left the promise of the left value
+   * @param right the promise of the right value
+   * @param <L> the type of the left value
+   * @param <R> the type of the right value
+   * @return a promise for the pair of values
+   */
+  public static <L, R> Promise<Pair<L, R>> zip(ExecControl execControl, Promise<? extends L> left, Promise<? extends R> right) {
+    List<Promise<?>> promises = ImmutableList.<Promise<?>>of(left, right);
+    return ParallelPromises.<Promise<?>, Object, Pair<L, R>>join(execControl, promises, 2, Promises.<Object>identity(), new Function<List<Object>, Pair<L, R>>() {
+      @SuppressWarnings("unchecked")
+      @Override
+      public Pair<L, R> apply(List<Object> values) {
+        return Pair.of((L) values.get(0), (R) values.get(1));
+      }
+    });
+  }
+
+  /**
+   * Promises the result of whichever of the given promises completes first, whether it succeeds or fails.
+   *
+   * @param execControl the execution control to fork executions with
+   * @param promises the promises to race
+   * @param <T> the type of value
+   * @return a promise for the first result of the given promises
+   */
+  public static <T> Promise<T> race(ExecControl execControl, Iterable<? extends Promise<? extends T>> promises) {
+    return ParallelPromises.race(execControl, promises);
+  }
+
+  /**
+   * Promises the value of whichever of the given promises succeeds first.
+   * <p>
+   * If all of the promises fail, the returned promise fails with the first failure, with the others {@linkplain Throwable#addSuppressed(Throwable) suppressed}.
+   *
+   * @param execControl the execution control to fork executions with
+   * @param promises the promises to wait for
+   * @param <T> the type of value
+   * @return a promise for the first successful value of the given promises
+   */
+  public static <T> Promise<T> firstSuccess(ExecControl execControl, Iterable<? extends Promise<? extends T>> promises) {
+    return ParallelPromises.firstSuccess(execControl, promises);
+  }
+
+  /**
+   * Promises the result of applying the given asynchronous function to each of the inputs, with at most {@code concurrency} operations in progress at a time.
+   * <p>
+   * The values are in the same order as the inputs.
+   * If any of the operations fail, the returned promise fails with the first failure and no more operations are started.
+   *
+   * @param execControl the execution control to fork executions with
+   * @param inputs the inputs to the function
+   * @param concurrency the maximum number of operations to have in progress at once
+   * @param function the function that starts the operation for an input
+   * @param <I> the type of input
+   * @param <T> the type of value
+   * @return a promise for the values of the operations for each input
+   */
+  public static <I, T> Promise<List<T>> map(ExecControl execControl, Iterable<? extends I> inputs, int concurrency, Function<? super I, ? extends Promise<? extends T>> function) {
+    return ParallelPromises.<I, T, List<T>>join(execControl, inputs, concurrency, function, Promises.<T>identityList());
+  }
+
+  private static <T> Function<Promise<? extends T>, Promise<? extends T>> identity() {
+    return new Function<Promise<? extends T>, Promise<? extends T>>() {
+      @Override
+      public Promise<? extends T> apply(Promise<? extends T> input) {
+        return input;
+      }
+    };
+  }
+
+  private static <T> Function<List<T>, List<T>> identityList() {
+    return new Function<List<T>, List<T>>() {
+      @Override
+      public List<T> apply(List<T> input) {
+        return input;
+      }
+    };
+  }
+
+}
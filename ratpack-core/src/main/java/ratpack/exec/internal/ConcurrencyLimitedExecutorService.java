@@ -0,0 +1,81 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.exec.internal;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the number of tasks of a thread per task executor that are running at once.
+ * <p>
+ * Each task is started straight away, but waits for a permit on its own thread before running.
+ * This is only appropriate for threads that are cheap to block, such as virtual threads.
+ */
+public class ConcurrencyLimitedExecutorService extends AbstractExecutorService {
+
+  private final ExecutorService delegate;
+  private final Semaphore permits;
+
+  public ConcurrencyLimitedExecutorService(ExecutorService delegate, int maxConcurrency) {
+    this.delegate = delegate;
+    this.permits = new Semaphore(maxConcurrency, true);
+  }
+
+  @Override
+  public void execute(final Runnable command) {
+    delegate.execute(new Runnable() {
+      @Override
+      public void run() {
+        permits.acquireUninterruptibly();
+        try {
+          command.run();
+        } finally {
+          permits.release();
+        }
+      }
+    });
+  }
+
+  @Override
+  public void shutdown() {
+    delegate.shutdown();
+  }
+
+  @Override
+  public List<Runnable> shutdownNow() {
+    return delegate.shutdownNow();
+  }
+
+  @Override
+  public boolean isShutdown() {
+    return delegate.isShutdown();
+  }
+
+  @Override
+  public boolean isTerminated() {
+    return delegate.isTerminated();
+  }
+
+  @Override
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    return delegate.awaitTermination(timeout, unit);
+  }
+
+}
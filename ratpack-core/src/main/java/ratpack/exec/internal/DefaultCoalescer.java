@@ -0,0 +1,165 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.exec.internal;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import ratpack.exec.*;
+import ratpack.func.Action;
+import ratpack.func.Factory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+public class DefaultCoalescer<K, T> implements Coalescer<K, T> {
+
+  private final ExecControl execControl;
+  private final ConcurrentMap<K, Flight> inFlight = new ConcurrentHashMap<>();
+  private final Cache<K, Result<T>> memoized;
+
+  public DefaultCoalescer(ExecControl execControl, long memoizeFor, TimeUnit unit) {
+    this.execControl = execControl;
+    this.memoized = memoizeFor > 0 ? CacheBuilder.newBuilder().expireAfterWrite(memoizeFor, unit).<K, Result<T>>build() : null;
+  }
+
+  @Override
+  public Promise<T> promise(final K key, final Factory<? extends Promise<T>> operation) {
+    return join(key, new Action<Flight>() {
+      @Override
+      public void execute(final Flight flight) throws Exception {
+        final Action<Throwable> onError = new Action<Throwable>() {
+          @Override
+          public void execute(Throwable throwable) throws Exception {
+            complete(key, flight, Result.<T>failure(throwable));
+          }
+        };
+
+        execControl.fork(new Action<Execution>() {
+          @Override
+          public void execute(Execution execution) throws Exception {
+            operation.create().onError(onError).then(new Action<T>() {
+              @Override
+              public void execute(T value) throws Exception {
+                complete(key, flight, Result.success(value));
+              }
+            });
+          }
+        }, onError);
+      }
+    });
+  }
+
+  @Override
+  public Promise<T> blocking(K key, final Callable<? extends T> operation) {
+    return promise(key, new Factory<Promise<T>>() {
+      @Override
+      public Promise<T> create() {
+        return execControl.blocking(new Callable<T>() {
+          @Override
+          public T call() throws Exception {
+            return operation.call();
+          }
+        });
+      }
+    });
+  }
+
+  @Override
+  public void invalidate(K key) {
+    if (memoized != null) {
+      memoized.invalidate(key);
+    }
+  }
+
+  private Promise<T> join(final K key, final Action<? super Flight> start) {
+    return execControl.promise(new Action<Fulfiller<T>>() {
+      @Override
+      public void execute(Fulfiller<T> fulfiller) throws Exception {
+        if (memoized != null) {
+          Result<T> result = memoized.getIfPresent(key);
+          if (result != null) {
+            fulfiller.success(result.getValue());
+            return;
+          }
+        }
+
+        Flight flight = new Flight();
+        Flight existing = inFlight.putIfAbsent(key, flight);
+        if (existing == null) {
+          flight.await(fulfiller);
+          start.execute(flight);
+        } else {
+          existing.await(fulfiller);
+        }
+      }
+    });
+  }
+
+  private void complete(K key, Flight flight, Result<T> result) {
+    // memoize before removing the flight, so that there is no window where neither is visible
+    if (memoized != null && result.isSuccess()) {
+      memoized.put(key, result);
+    }
+    inFlight.remove(key, flight);
+    flight.complete(result);
+  }
+
+  private static <T> void fulfil(Fulfiller<? super T> fulfiller, Result<T> result) {
+    if (result.isSuccess()) {
+      fulfiller.success(result.getValue());
+    } else {
+      fulfiller.error(result.getFailure());
+    }
+  }
+
+  private class Flight {
+    private final List<Fulfiller<? super T>> waiting = new ArrayList<>();
+    private Result<T> result;
+
+    void await(Fulfiller<? super T> fulfiller) {
+      Result<T> completed;
+      synchronized (this) {
+        if (result == null) {
+          waiting.add(fulfiller);
+          return;
+        }
+        completed = result;
+      }
+      fulfil(fulfiller, completed);
+    }
+
+    void complete(Result<T> result) {
+      List<Fulfiller<? super T>> fulfillers;
+      synchronized (this) {
+        if (this.result != null) {
+          return;
+        }
+        this.result = result;
+        fulfillers = new ArrayList<>(waiting);
+        waiting.clear();
+      }
+      for (Fulfiller<? super T> fulfiller : fulfillers) {
+        fulfil(fulfiller, result);
+      }
+    }
+  }
+
+}
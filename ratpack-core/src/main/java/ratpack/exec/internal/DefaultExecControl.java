@@ -19,6 +19,8 @@ package ratpack.exec.internal;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import io.netty.channel.EventLoop;
+import io.netty.util.concurrent.EventExecutor;
 import org.reactivestreams.Publisher;
 import org.reactivestreams.Subscriber;
 import org.reactivestreams.Subscription;
@@ -29,11 +31,27 @@ import ratpack.func.Factory;
 
 import java.util.Collections;
 import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+
+import static ratpack.util.ExceptionUtils.uncheck;
 
 public class DefaultExecControl implements ExecControl {
 
   private final ExecController execController;
+  private final ExecutionInstrumentation instrumentation;
   private final ThreadLocal<ExecutionBacking> threadBinding = new ThreadLocal<>();
+  // Finding the loop of a thread means scanning the group, so it is only done once per thread
+  private final ThreadLocal<EventLoop> threadEventLoop = new ThreadLocal<EventLoop>() {
+    @Override
+    protected EventLoop initialValue() {
+      for (EventExecutor executor : execController.getEventLoopGroup().<EventExecutor>children()) {
+        if (executor.inEventLoop()) {
+          return (EventLoop) executor;
+        }
+      }
+      return null;
+    }
+  };
   private final Factory<ExecutionBacking> executionBackingFactory = new Factory<ExecutionBacking>() {
     @Override
     public ExecutionBacking create() {
@@ -41,8 +59,9 @@ public class DefaultExecControl implements ExecControl {
     }
   };
 
-  public DefaultExecControl(ExecController execController) {
+  public DefaultExecControl(ExecController execController, ExecutionInstrumentation instrumentation) {
     this.execController = execController;
+    this.instrumentation = instrumentation;
   }
 
   private ExecutionBacking getBacking() {
@@ -79,15 +98,17 @@ public class DefaultExecControl implements ExecControl {
       @Override
       public void execute(final Fulfiller<? super T> fulfiller) throws Exception {
         ListenableFuture<T> future = controller.getBlockingExecutor().submit(new BlockingOperation());
-        Futures.addCallback(future, new ComputeResume(fulfiller), controller.getExecutor());
+        Futures.addCallback(future, new ComputeResume(fulfiller), backing.getExecution().getEventLoop());
       }
 
       class BlockingOperation implements Callable<T> {
+        private final long submittedAt = System.nanoTime();
         private Exception exception;
         private T result;
 
         @Override
         public T call() throws Exception {
+          long startedAt = System.nanoTime();
           backing.intercept(ExecInterceptor.ExecType.BLOCKING, backing.getInterceptors(), new Action<Execution>() {
             @Override
             public void execute(Execution execution) throws Exception {
@@ -99,6 +120,11 @@ public class DefaultExecControl implements ExecControl {
             }
           });
 
+          DefaultExecutionTimeline timeline = backing.getTimeline();
+          if (timeline != null) {
+            timeline.blocking(submittedAt, startedAt, System.nanoTime());
+          }
+
           if (exception != null) {
             throw exception;
           } else {
@@ -130,6 +156,53 @@ public class DefaultExecControl implements ExecControl {
   }
 
 
+  /**
+   * An executor that performs operations on a blocking thread, under the current execution's blocking interceptors, without the execution waiting for them.
+   * <p>
+   * This is for blocking operations that hand their results to the execution as a stream,
+   * as the elements of the stream could not be delivered while the execution waits for a blocking promise.
+   *
+   * @return an executor for blocking operations of the current execution
+   */
+  public Executor getInterceptedBlockingExecutor() {
+    final ExecutionBacking backing = getBacking();
+    final Executor blockingExecutor = backing.getController().getBlockingExecutor();
+    return new Executor() {
+      @Override
+      public void execute(Runnable command) {
+        blockingExecutor.execute(interceptBlocking(backing, command));
+      }
+    };
+  }
+
+  /**
+   * Wraps an operation to be performed on a thread other than the execution's, so that it is performed under the current execution's blocking interceptors.
+   *
+   * @param command the blocking operation
+   * @return the operation, wrapped in the blocking interceptors of the current execution
+   */
+  public Runnable interceptBlocking(Runnable command) {
+    return interceptBlocking(getBacking(), command);
+  }
+
+  private static Runnable interceptBlocking(final ExecutionBacking backing, final Runnable command) {
+    return new Runnable() {
+      @Override
+      public void run() {
+        try {
+          backing.intercept(ExecInterceptor.ExecType.BLOCKING, backing.getInterceptors(), new Action<Execution>() {
+            @Override
+            public void execute(Execution execution) throws Exception {
+              command.run();
+            }
+          });
+        } catch (Exception e) {
+          throw uncheck(e);
+        }
+      }
+    };
+  }
+
   @Override
   public <T> Promise<T> promise(Action<? super Fulfiller<T>> action) {
     return new DefaultPromise<>(executionBackingFactory, action);
@@ -148,12 +221,29 @@ public class DefaultExecControl implements ExecControl {
   @Override
   public void fork(final Action<? super Execution> action, final Action<? super Throwable> onError, final Action<? super Execution> onComplete) {
     if (execController.isManagedThread() && threadBinding.get() == null) {
-      new ExecutionBacking(execController, threadBinding, action, onError, onComplete);
+      EventLoop eventLoop = threadEventLoop.get();
+      new ExecutionBacking(execController, instrumentation, threadBinding, eventLoop == null ? execController.getEventLoopGroup().next() : eventLoop, action, onError, onComplete);
+    } else {
+      fork(execController.getEventLoopGroup().next(), action, onError, onComplete);
+    }
+  }
+
+  /**
+   * Starts an execution that is bound to the given event loop, such as the loop of the channel a request was received on.
+   *
+   * @param eventLoop the event loop the execution runs on
+   * @param action the start of the execution
+   * @param onError the handler of any unhandled exception
+   * @param onComplete called when the execution completes
+   */
+  public void fork(final EventLoop eventLoop, final Action<? super Execution> action, final Action<? super Throwable> onError, final Action<? super Execution> onComplete) {
+    if (eventLoop.inEventLoop() && threadBinding.get() == null) {
+      new ExecutionBacking(execController, instrumentation, threadBinding, eventLoop, action, onError, onComplete);
     } else {
-      execController.getExecutor().submit(new Runnable() {
+      eventLoop.execute(new Runnable() {
         @Override
         public void run() {
-          new ExecutionBacking(execController, threadBinding, action, onError, onComplete);
+          new ExecutionBacking(execController, instrumentation, threadBinding, eventLoop, action, onError, onComplete);
         }
       });
     }
@@ -23,14 +23,23 @@ import com.google.common.util.concurrent.MoreExecutors;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.util.concurrent.DefaultThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import ratpack.exec.ExecControl;
 import ratpack.exec.ExecController;
+import ratpack.exec.ExecutionTimelineListener;
 
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 public class DefaultExecController implements ExecController {
 
+  private final static Logger LOGGER = LoggerFactory.getLogger(DefaultExecController.class);
+
   private static final ThreadLocal<ExecController> THREAD_BINDING = new ThreadLocal<>();
 
   private final ListeningScheduledExecutorService computeExecutor;
@@ -38,13 +47,39 @@ public class DefaultExecController implements ExecController {
   private final EventLoopGroup eventLoopGroup;
   private final ExecControl control;
   private final int numThreads;
+  private final ExecutionInstrumentation instrumentation;
 
   public DefaultExecController(int numThreads) {
+    this(numThreads, false, 0, 0);
+  }
+
+  public DefaultExecController(int numThreads, boolean virtualBlockingThreads, int maxBlockingConcurrency, int executionTimelineSize) {
     this.numThreads = numThreads;
-    this.eventLoopGroup = new NioEventLoopGroup(numThreads, new ExecControllerBindingThreadFactory("ratpack-compute", Thread.MAX_PRIORITY));
+    this.eventLoopGroup = new NioEventLoopGroup(numThreads, new ExecControllerBindingThreadFactory(new DefaultThreadFactory("ratpack-compute", Thread.MAX_PRIORITY)));
     this.computeExecutor = MoreExecutors.listeningDecorator(eventLoopGroup);
-    this.blockingExecutor = MoreExecutors.listeningDecorator(Executors.newCachedThreadPool(new ExecControllerBindingThreadFactory("ratpack-blocking", Thread.NORM_PRIORITY)));
-    this.control = new DefaultExecControl(this);
+    this.blockingExecutor = MoreExecutors.listeningDecorator(createBlockingExecutor(virtualBlockingThreads, maxBlockingConcurrency));
+    this.instrumentation = new ExecutionInstrumentation(executionTimelineSize);
+    this.control = new DefaultExecControl(this, instrumentation);
+  }
+
+  private ExecutorService createBlockingExecutor(boolean virtualBlockingThreads, int maxBlockingConcurrency) {
+    if (virtualBlockingThreads) {
+      if (VirtualThreads.isSupported()) {
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor(new ExecControllerBindingThreadFactory(VirtualThreads.threadFactory("ratpack-blocking-virtual-")));
+        return maxBlockingConcurrency > 0 ? new ConcurrencyLimitedExecutorService(executor, maxBlockingConcurrency) : executor;
+      } else {
+        LOGGER.warn("Virtual threads are not supported by this JVM, blocking operations will use platform threads");
+      }
+    }
+
+    ThreadFactory threadFactory = new ExecControllerBindingThreadFactory(new DefaultThreadFactory("ratpack-blocking", Thread.NORM_PRIORITY));
+    if (maxBlockingConcurrency > 0) {
+      ThreadPoolExecutor executor = new ThreadPoolExecutor(maxBlockingConcurrency, maxBlockingConcurrency, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), threadFactory);
+      executor.allowCoreThreadTimeOut(true);
+      return executor;
+    } else {
+      return Executors.newCachedThreadPool(threadFactory);
+    }
   }
 
   public static Optional<ExecController> getThreadBoundController() {
@@ -66,6 +101,16 @@ public class DefaultExecController implements ExecController {
     return blockingExecutor;
   }
 
+  @Override
+  public long getCrossLoopHops() {
+    return instrumentation.getCrossLoopHops();
+  }
+
+  @Override
+  public void addTimelineListener(ExecutionTimelineListener listener) {
+    instrumentation.addTimelineListener(listener);
+  }
+
   @Override
   public EventLoopGroup getEventLoopGroup() {
     return eventLoopGroup;
@@ -76,14 +121,16 @@ public class DefaultExecController implements ExecController {
     return control;
   }
 
-  private class ExecControllerBindingThreadFactory extends DefaultThreadFactory {
-    public ExecControllerBindingThreadFactory(String name, int priority) {
-      super(name, priority);
+  private class ExecControllerBindingThreadFactory implements ThreadFactory {
+    private final ThreadFactory delegate;
+
+    public ExecControllerBindingThreadFactory(ThreadFactory delegate) {
+      this.delegate = delegate;
     }
 
     @Override
     public Thread newThread(final Runnable r) {
-      return super.newThread(new Runnable() {
+      return delegate.newThread(new Runnable() {
         @Override
         public void run() {
           THREAD_BINDING.set(DefaultExecController.this);
@@ -16,9 +16,11 @@
 
 package ratpack.exec.internal;
 
+import io.netty.channel.EventLoop;
 import ratpack.exec.ExecControl;
 import ratpack.exec.ExecController;
 import ratpack.exec.Execution;
+import ratpack.exec.ExecutionTimeline;
 import ratpack.registry.internal.SimpleMutableRegistry;
 
 import java.util.List;
@@ -26,10 +28,14 @@ import java.util.List;
 public class DefaultExecution extends SimpleMutableRegistry implements Execution {
 
   private final ExecController controller;
+  private final EventLoop eventLoop;
+  private final ExecutionTimeline timeline;
   private final List<AutoCloseable> closeables;
 
-  public DefaultExecution(ExecController controller, List<AutoCloseable> closeables) {
+  public DefaultExecution(ExecController controller, EventLoop eventLoop, ExecutionTimeline timeline, List<AutoCloseable> closeables) {
     this.controller = controller;
+    this.eventLoop = eventLoop;
+    this.timeline = timeline;
     this.closeables = closeables;
   }
 
@@ -43,6 +49,16 @@ public class DefaultExecution extends SimpleMutableRegistry implements Execution
     return controller.getControl();
   }
 
+  @Override
+  public EventLoop getEventLoop() {
+    return eventLoop;
+  }
+
+  @Override
+  public ExecutionTimeline getTimeline() {
+    return timeline;
+  }
+
   @Override
   public void onCleanup(AutoCloseable autoCloseable) {
     closeables.add(autoCloseable);
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.exec.internal;
+
+import com.google.common.collect.ImmutableList;
+import ratpack.exec.ExecutionTimeline;
+import ratpack.handling.Handler;
+import ratpack.handling.internal.DescribingHandlers;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Events are stored in parallel preallocated arrays so that recording does not allocate
+public class DefaultExecutionTimeline implements ExecutionTimeline {
+
+  private static final EventType[] EVENT_TYPES = EventType.values();
+
+  private final long startedAt = System.currentTimeMillis();
+  private final long startNanos = System.nanoTime();
+  private volatile long endNanos;
+
+  private final int capacity;
+  private final byte[] types;
+  private final long[] offsets;
+  private final long[] waits;
+  private final long[] runs;
+  private final int[] indexes;
+  private final Object[] subjects;
+  private long count;
+
+  public DefaultExecutionTimeline(int capacity) {
+    this.capacity = capacity;
+    this.types = new byte[capacity];
+    this.offsets = new long[capacity];
+    this.waits = new long[capacity];
+    this.runs = new long[capacity];
+    this.indexes = new int[capacity];
+    this.subjects = new Object[capacity];
+  }
+
+  public void segment(long queuedAt, long startedAt, long endedAt) {
+    record(EventType.SEGMENT, startedAt, startedAt - queuedAt, endedAt - startedAt, -1, null);
+  }
+
+  public void blocking(long submittedAt, long startedAt, long endedAt) {
+    record(EventType.BLOCKING, startedAt, startedAt - submittedAt, endedAt - startedAt, -1, null);
+  }
+
+  public void promise(long waitingSince, long fulfilledAt) {
+    record(EventType.PROMISE, waitingSince, fulfilledAt - waitingSince, 0, -1, null);
+  }
+
+  public void handler(int index, Handler handler) {
+    record(EventType.HANDLER, System.nanoTime(), 0, 0, index, handler);
+  }
+
+  public void complete() {
+    endNanos = System.nanoTime();
+  }
+
+  private synchronized void record(EventType type, long at, long wait, long run, int index, Object subject) {
+    int i = (int) (count++ % capacity);
+    types[i] = (byte) type.ordinal();
+    offsets[i] = at - startNanos;
+    waits[i] = wait;
+    runs[i] = run;
+    indexes[i] = index;
+    subjects[i] = subject;
+  }
+
+  @Override
+  public long getStartedAt() {
+    return startedAt;
+  }
+
+  @Override
+  public long getDurationNanos() {
+    long end = endNanos;
+    return (end == 0 ? System.nanoTime() : end) - startNanos;
+  }
+
+  @Override
+  public synchronized List<Event> getEvents() {
+    int size = (int) Math.min(count, capacity);
+    ImmutableList.Builder<Event> builder = ImmutableList.builder();
+    for (long n = count - size; n < count; ++n) {
+      int i = (int) (n % capacity);
+      builder.add(new DefaultEvent(EVENT_TYPES[types[i]], offsets[i], waits[i], runs[i], indexes[i], subjects[i]));
+    }
+    return builder.build();
+  }
+
+  @Override
+  public synchronized long getDroppedEventCount() {
+    return Math.max(0, count - capacity);
+  }
+
+  @Override
+  public String toString() {
+    List<Event> events = getEvents();
+    StringBuilder builder = new StringBuilder("execution timeline (")
+      .append(TimeUnit.NANOSECONDS.toMicros(getDurationNanos())).append("us, ")
+      .append(events.size()).append(" events, ")
+      .append(getDroppedEventCount()).append(" dropped)");
+
+    for (Event event : events) {
+      builder.append("\n  +").append(TimeUnit.NANOSECONDS.toMicros(event.getOffsetNanos())).append("us ")
+        .append(event.getType())
+        .append(" wait=").append(TimeUnit.NANOSECONDS.toMicros(event.getWaitNanos())).append("us")
+        .append(" run=").append(TimeUnit.NANOSECONDS.toMicros(event.getRunNanos())).append("us");
+      String description = event.getDescription();
+      if (description != null) {
+        builder.append(" ").append(description);
+      }
+    }
+    return builder.toString();
+  }
+
+  private static class DefaultEvent implements Event {
+    private final EventType type;
+    private final long offset;
+    private final long wait;
+    private final long run;
+    private final int index;
+    private final Object subject;
+
+    private DefaultEvent(EventType type, long offset, long wait, long run, int index, Object subject) {
+      this.type = type;
+      this.offset = offset;
+      this.wait = wait;
+      this.run = run;
+      this.index = index;
+      this.subject = subject;
+    }
+
+    @Override
+    public EventType getType() {
+      return type;
+    }
+
+    @Override
+    public long getOffsetNanos() {
+      return offset;
+    }
+
+    @Override
+    public long getWaitNanos() {
+      return wait;
+    }
+
+    @Override
+    public long getRunNanos() {
+      return run;
+    }
+
+    @Override
+    public String getDescription() {
+      if (subject == null) {
+        return null;
+      }
+
+      StringBuilder builder = new StringBuilder("#").append(index).append(" ");
+      if (subject instanceof Handler) {
+        DescribingHandlers.describeTo((Handler) subject, builder);
+      } else {
+        builder.append(subject);
+      }
+      return builder.toString();
+    }
+  }
+
+}
@@ -16,6 +16,7 @@
 
 package ratpack.exec.internal;
 
+import io.netty.channel.EventLoop;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import ratpack.exec.ExecController;
@@ -42,22 +43,29 @@ public class ExecutionBacking {
   private final Action<? super Throwable> onError;
   private final Action<? super Execution> onComplete;
   private final ThreadLocal<ExecutionBacking> threadBinding;
+  private final EventLoop eventLoop;
+  private final ExecutionInstrumentation instrumentation;
+  private final DefaultExecutionTimeline timeline;
 
   private final AtomicBoolean active = new AtomicBoolean();
   private boolean streaming;
   private boolean waiting;
   private boolean done;
+  private long waitingSince;
 
   private final Execution execution;
 
-  public ExecutionBacking(ExecController controller, ThreadLocal<ExecutionBacking> threadBinding, Action<? super Execution> action, Action<? super Throwable> onError, Action<? super Execution> onComplete) {
+  public ExecutionBacking(ExecController controller, ExecutionInstrumentation instrumentation, ThreadLocal<ExecutionBacking> threadBinding, EventLoop eventLoop, Action<? super Execution> action, Action<? super Throwable> onError, Action<? super Execution> onComplete) {
     this.controller = controller;
+    this.instrumentation = instrumentation;
+    this.timeline = instrumentation.newTimeline();
     this.onError = onError;
     this.onComplete = onComplete;
     this.threadBinding = threadBinding;
-    this.execution = new DefaultExecution(controller, closeables);
+    this.eventLoop = eventLoop;
+    this.execution = new DefaultExecution(controller, eventLoop, timeline, closeables);
 
-    segments.addLast(new UserCodeSegment(action));
+    segments.addLast(timed(new UserCodeSegment(action)));
     tryDrain();
   }
 
@@ -69,34 +77,45 @@ public class ExecutionBacking {
     return controller;
   }
 
+  public DefaultExecutionTimeline getTimeline() {
+    return timeline;
+  }
+
   public List<ExecInterceptor> getInterceptors() {
     return interceptors;
   }
 
   public void join(final Action<? super Execution> action) {
-    segments.addFirst(new UserCodeSegment(action));
+    if (waitingSince != 0) {
+      timeline.promise(waitingSince, System.nanoTime());
+      waitingSince = 0;
+    }
+    segments.addFirst(timed(new UserCodeSegment(action)));
     waiting = false;
     tryDrain();
   }
 
   public void continueVia(final Runnable runnable) {
-    segments.addLast(new Runnable() {
+    segments.addLast(timed(new Runnable() {
       @Override
       public void run() {
         waiting = true;
+        if (timeline != null) {
+          waitingSince = System.nanoTime();
+        }
         runnable.run();
       }
-    });
+    }));
   }
 
   public void streamExecution(final Action<? super Execution> action) {
-    segments.add(new UserCodeSegment(action));
+    segments.add(timed(new UserCodeSegment(action)));
     streaming = true;
     tryDrain();
   }
 
   public void completeStreamExecution(final Action<? super Execution> action) {
-    segments.addLast(new UserCodeSegment(action));
+    segments.addLast(timed(new UserCodeSegment(action)));
     streaming = false;
     tryDrain();
   }
@@ -125,10 +144,33 @@ public class ExecutionBacking {
         LOGGER.warn(String.format("exception raised by closeable %s", closeable), e);
       }
     }
+
+    if (timeline != null) {
+      instrumentation.complete(execution, timeline);
+    }
+  }
+
+  private Runnable timed(final Runnable segment) {
+    if (timeline == null) {
+      return segment;
+    }
+
+    final long queuedAt = System.nanoTime();
+    return new Runnable() {
+      @Override
+      public void run() {
+        long startedAt = System.nanoTime();
+        try {
+          segment.run();
+        } finally {
+          timeline.segment(queuedAt, startedAt, System.nanoTime());
+        }
+      }
+    };
   }
 
   private void drain() {
-    if (controller.isManagedThread()) {
+    if (eventLoop.inEventLoop()) {
       threadBinding.set(this);
       try {
         Runnable segment = segments.poll();
@@ -152,7 +194,8 @@ public class ExecutionBacking {
       }
     } else {
       active.set(false);
-      controller.getEventLoopGroup().submit(new Runnable() {
+      instrumentation.crossLoopHop();
+      eventLoop.execute(new Runnable() {
         @Override
         public void run() {
           tryDrain();
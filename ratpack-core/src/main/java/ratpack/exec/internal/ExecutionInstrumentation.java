@@ -0,0 +1,68 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.exec.internal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ratpack.exec.Execution;
+import ratpack.exec.ExecutionTimelineListener;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Controller wide state shared by all executions, for observing how they run
+public class ExecutionInstrumentation {
+
+  private final static Logger LOGGER = LoggerFactory.getLogger(ExecutionInstrumentation.class);
+
+  private final AtomicLong crossLoopHops = new AtomicLong();
+  private final int timelineSize;
+  private final List<ExecutionTimelineListener> timelineListeners = new CopyOnWriteArrayList<>();
+
+  public ExecutionInstrumentation(int timelineSize) {
+    this.timelineSize = timelineSize;
+  }
+
+  public void crossLoopHop() {
+    crossLoopHops.incrementAndGet();
+  }
+
+  public long getCrossLoopHops() {
+    return crossLoopHops.get();
+  }
+
+  public DefaultExecutionTimeline newTimeline() {
+    return timelineSize > 0 ? new DefaultExecutionTimeline(timelineSize) : null;
+  }
+
+  public void addTimelineListener(ExecutionTimelineListener listener) {
+    timelineListeners.add(listener);
+  }
+
+  public void complete(Execution execution, DefaultExecutionTimeline timeline) {
+    timeline.complete();
+    for (ExecutionTimelineListener listener : timelineListeners) {
+      try {
+        listener.onComplete(execution, timeline);
+      } catch (Exception e) {
+        LOGGER.warn(String.format("exception raised by execution timeline listener %s", listener), e);
+      }
+    }
+  }
+
+}
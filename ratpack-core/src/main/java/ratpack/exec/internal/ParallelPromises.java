@@ -0,0 +1,262 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.exec.internal;
+
+import com.google.common.collect.ImmutableList;
+import ratpack.exec.*;
+import ratpack.func.Action;
+import ratpack.func.Function;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Runs promises in parallel, each in its own forked execution, and joins their results into a single promise for the calling execution.
+ * <p>
+ * Promises are lazy and an execution can only wait on one promise at a time,
+ * so forking an execution per promise is the only way to have them make progress concurrently.
+ * Each result is delivered to the calling execution's fulfiller directly from the thread that produced it.
+ */
+public abstract class ParallelPromises {
+
+  private ParallelPromises() {
+  }
+
+  public static <I, T, R> Promise<R> join(
+    final ExecControl execControl,
+    Iterable<? extends I> inputs,
+    final int concurrency,
+    final Function<? super I, ? extends Promise<? extends T>> function,
+    final Function<? super List<T>, ? extends R> combiner
+  ) {
+    if (concurrency < 1) {
+      throw new IllegalArgumentException("concurrency must be at least 1, was " + concurrency);
+    }
+
+    final List<I> items = ImmutableList.copyOf(inputs);
+    return execControl.promise(new Action<Fulfiller<R>>() {
+      @Override
+      public void execute(Fulfiller<R> fulfiller) throws Exception {
+        if (items.isEmpty()) {
+          fulfiller.success(combiner.apply(Collections.<T>emptyList()));
+        } else {
+          new Join<>(execControl, items, function, combiner, fulfiller).start(concurrency);
+        }
+      }
+    });
+  }
+
+  public static <T> Promise<T> race(final ExecControl execControl, Iterable<? extends Promise<? extends T>> promises) {
+    final List<Promise<? extends T>> list = ImmutableList.copyOf(promises);
+    return execControl.promise(new Action<Fulfiller<T>>() {
+      @Override
+      public void execute(final Fulfiller<T> fulfiller) throws Exception {
+        if (list.isEmpty()) {
+          fulfiller.error(new IllegalArgumentException("no promises to race"));
+          return;
+        }
+
+        final AtomicBoolean done = new AtomicBoolean();
+        for (Promise<? extends T> promise : list) {
+          fork(execControl, promise, new Action<Result<T>>() {
+            @Override
+            public void execute(Result<T> result) throws Exception {
+              if (done.compareAndSet(false, true)) {
+                fulfil(fulfiller, result);
+              }
+            }
+          });
+        }
+      }
+    });
+  }
+
+  public static <T> Promise<T> firstSuccess(final ExecControl execControl, Iterable<? extends Promise<? extends T>> promises) {
+    final List<Promise<? extends T>> list = ImmutableList.copyOf(promises);
+    return execControl.promise(new Action<Fulfiller<T>>() {
+      @Override
+      public void execute(final Fulfiller<T> fulfiller) throws Exception {
+        if (list.isEmpty()) {
+          fulfiller.error(new IllegalArgumentException("no promises to choose from"));
+          return;
+        }
+
+        final AtomicBoolean done = new AtomicBoolean();
+        final AtomicInteger remaining = new AtomicInteger(list.size());
+        final ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        for (Promise<? extends T> promise : list) {
+          fork(execControl, promise, new Action<Result<T>>() {
+            @Override
+            public void execute(Result<T> result) throws Exception {
+              if (result.isSuccess()) {
+                if (done.compareAndSet(false, true)) {
+                  fulfiller.success(result.getValue());
+                }
+              } else {
+                failures.add(result.getFailure());
+                if (remaining.decrementAndGet() == 0 && done.compareAndSet(false, true)) {
+                  Throwable first = failures.poll();
+                  for (Throwable failure : failures) {
+                    first.addSuppressed(failure);
+                  }
+                  fulfiller.error(first);
+                }
+              }
+            }
+          });
+        }
+      }
+    });
+  }
+
+  private static <T> void fork(ExecControl execControl, final Promise<? extends T> promise, final Action<? super Result<T>> onResult) {
+    forkExecution(execControl, new Action<Execution>() {
+      @Override
+      public void execute(Execution execution) throws Exception {
+        promise.onError(new Action<Throwable>() {
+          @Override
+          public void execute(Throwable throwable) throws Exception {
+            onResult.execute(Result.<T>failure(throwable));
+          }
+        }).then(new Action<T>() {
+          @Override
+          public void execute(T value) throws Exception {
+            onResult.execute(Result.success(value));
+          }
+        });
+      }
+    }, onResult);
+  }
+
+  private static <T> void forkExecution(ExecControl execControl, Action<? super Execution> action, final Action<? super Result<T>> onResult) {
+    execControl.fork(action, new Action<Throwable>() {
+      @Override
+      public void execute(Throwable throwable) throws Exception {
+        onResult.execute(Result.<T>failure(throwable));
+      }
+    });
+  }
+
+  private static <T> void fulfil(Fulfiller<? super T> fulfiller, Result<T> result) {
+    if (result.isSuccess()) {
+      fulfiller.success(result.getValue());
+    } else {
+      fulfiller.error(result.getFailure());
+    }
+  }
+
+  private static class Join<I, T, R> {
+    private final ExecControl execControl;
+    private final List<I> items;
+    private final Function<? super I, ? extends Promise<? extends T>> function;
+    private final Function<? super List<T>, ? extends R> combiner;
+    private final Fulfiller<R> fulfiller;
+
+    private final AtomicReferenceArray<T> results;
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicInteger remaining;
+    private final AtomicBoolean done = new AtomicBoolean();
+
+    Join(ExecControl execControl, List<I> items, Function<? super I, ? extends Promise<? extends T>> function, Function<? super List<T>, ? extends R> combiner, Fulfiller<R> fulfiller) {
+      this.execControl = execControl;
+      this.items = items;
+      this.function = function;
+      this.combiner = combiner;
+      this.fulfiller = fulfiller;
+      this.results = new AtomicReferenceArray<>(items.size());
+      this.remaining = new AtomicInteger(items.size());
+    }
+
+    void start(int concurrency) {
+      for (int i = 0; i < Math.min(concurrency, items.size()); ++i) {
+        launchNext();
+      }
+    }
+
+    private void launchNext() {
+      final int index = next.getAndIncrement();
+      if (index >= items.size() || done.get()) {
+        return;
+      }
+
+      final Action<Result<T>> onResult = new Action<Result<T>>() {
+        @Override
+        public void execute(Result<T> result) throws Exception {
+          if (result.isFailure()) {
+            fail(result.getFailure());
+          } else {
+            results.set(index, result.getValue());
+            if (remaining.decrementAndGet() == 0) {
+              succeed();
+            } else {
+              launchNext();
+            }
+          }
+        }
+      };
+
+      forkExecution(execControl, new Action<Execution>() {
+        @Override
+        public void execute(Execution execution) throws Exception {
+          Promise<? extends T> promise = function.apply(items.get(index));
+          promise.onError(new Action<Throwable>() {
+            @Override
+            public void execute(Throwable throwable) throws Exception {
+              onResult.execute(Result.<T>failure(throwable));
+            }
+          }).then(new Action<T>() {
+            @Override
+            public void execute(T value) throws Exception {
+              onResult.execute(Result.success(value));
+            }
+          });
+        }
+      }, onResult);
+    }
+
+    private void fail(Throwable throwable) {
+      // later results are ignored, and no further items are started
+      if (done.compareAndSet(false, true)) {
+        fulfiller.error(throwable);
+      }
+    }
+
+    private void succeed() {
+      if (done.compareAndSet(false, true)) {
+        List<T> list = new ArrayList<>(results.length());
+        for (int i = 0; i < results.length(); ++i) {
+          list.add(results.get(i));
+        }
+
+        R combined;
+        try {
+          combined = combiner.apply(list);
+        } catch (Exception e) {
+          fulfiller.error(e);
+          return;
+        }
+        fulfiller.success(combined);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.exec.internal;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import static ratpack.util.ExceptionUtils.uncheck;
+
+/**
+ * Access to virtual threads (Java 21 and later) via reflection, so that they can be used when available while still supporting older JVMs.
+ * <p>
+ * Virtual threads are only considered supported if a virtual thread factory can actually be built,
+ * as on Java 19 and 20 the API is present but throws {@link UnsupportedOperationException} unless preview features are enabled.
+ */
+public abstract class VirtualThreads {
+
+  private static final Method OF_VIRTUAL;
+  private static final Method NAME;
+  private static final Method FACTORY;
+  private static final Method NEW_THREAD_PER_TASK_EXECUTOR;
+  private static final boolean SUPPORTED;
+
+  static {
+    Method ofVirtual = null;
+    Method name = null;
+    Method factory = null;
+    Method newThreadPerTaskExecutor = null;
+    try {
+      Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+      ofVirtual = Thread.class.getMethod("ofVirtual");
+      name = builderClass.getMethod("name", String.class, long.class);
+      factory = builderClass.getMethod("factory");
+      newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+    } catch (ReflectiveOperationException ignore) {
+      // not supported by this JVM
+    }
+
+    OF_VIRTUAL = ofVirtual;
+    NAME = name;
+    FACTORY = factory;
+    NEW_THREAD_PER_TASK_EXECUTOR = newThreadPerTaskExecutor;
+    SUPPORTED = newThreadPerTaskExecutor != null && canCreateFactory(ofVirtual, name, factory);
+  }
+
+  private VirtualThreads() {
+  }
+
+  public static boolean isSupported() {
+    return SUPPORTED;
+  }
+
+  public static ThreadFactory threadFactory(String namePrefix) {
+    assertSupported();
+    try {
+      return createFactory(OF_VIRTUAL, NAME, FACTORY, namePrefix);
+    } catch (ReflectiveOperationException e) {
+      throw uncheck(e);
+    }
+  }
+
+  public static ExecutorService newThreadPerTaskExecutor(ThreadFactory threadFactory) {
+    assertSupported();
+    try {
+      return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, threadFactory);
+    } catch (ReflectiveOperationException e) {
+      throw uncheck(e);
+    }
+  }
+
+  static boolean canCreateFactory(Method ofVirtual, Method name, Method factory) {
+    try {
+      createFactory(ofVirtual, name, factory, "probe-");
+      return true;
+    } catch (Throwable ignore) {
+      // e.g. UnsupportedOperationException, when preview features are not enabled on Java 19/20
+      return false;
+    }
+  }
+
+  private static ThreadFactory createFactory(Method ofVirtual, Method name, Method factory, String namePrefix) throws ReflectiveOperationException {
+    Object builder = name.invoke(ofVirtual.invoke(null), namePrefix, 0L);
+    return (ThreadFactory) factory.invoke(builder);
+  }
+
+  private static void assertSupported() {
+    if (!isSupported()) {
+      throw new UnsupportedOperationException("virtual threads are not supported by this JVM");
+    }
+  }
+
+}
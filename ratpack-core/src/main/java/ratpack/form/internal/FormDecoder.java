@@ -31,6 +31,7 @@ import ratpack.http.Request;
 import ratpack.http.TypedData;
 import ratpack.http.internal.ByteBufBackedTypedData;
 import ratpack.http.internal.DefaultMediaType;
+import ratpack.http.internal.FileBackedTypedData;
 import ratpack.func.Action;
 import ratpack.util.internal.ImmutableDelegatingMultiValueMap;
 
@@ -47,6 +48,11 @@ public abstract class FormDecoder {
 
   public static Form parseForm(Context context, TypedData requestBody) throws RuntimeException {
     Request request = context.getRequest();
+    HttpPostRequestDecoder streamingDecoder = request.maybeGet(HttpPostRequestDecoder.class);
+    if (streamingDecoder != null) {
+      return decodedForm(streamingDecoder);
+    }
+
     HttpMethod method = io.netty.handler.codec.http.HttpMethod.valueOf(request.getMethod().getName());
     HttpRequest nettyRequest = new DefaultHttpRequest(HttpVersion.HTTP_1_1, method, request.getUri());
     nettyRequest.headers().add(HttpHeaders.Names.CONTENT_TYPE, request.getBody().getContentType().toString());
@@ -64,24 +70,14 @@ public abstract class FormDecoder {
       InterfaceHttpData data = decoder.next();
       while (data != null) {
         if (data.getHttpDataType().equals(InterfaceHttpData.HttpDataType.Attribute)) {
-          List<String> values = attributes.get(data.getName());
-          if (values == null) {
-            values = new ArrayList<>(1);
-            attributes.put(data.getName(), values);
-          }
           try {
-            values.add(((Attribute) data).getValue());
+            values(attributes, data.getName()).add(((Attribute) data).getValue());
           } catch (IOException e) {
             throw uncheck(e);
           } finally {
             data.release();
           }
         } else if (data.getHttpDataType().equals(InterfaceHttpData.HttpDataType.FileUpload)) {
-          List<UploadedFile> values = files.get(data.getName());
-          if (values == null) {
-            values = new ArrayList<>(1);
-            files.put(data.getName(), values);
-          }
           try {
             FileUpload nettyFileUpload = (FileUpload) data;
             final ByteBuf byteBuf = nettyFileUpload.getByteBuf();
@@ -93,22 +89,9 @@ public abstract class FormDecoder {
               }
             });
 
-            MediaType contentType;
-            String rawContentType = nettyFileUpload.getContentType();
-            if (rawContentType == null) {
-              contentType = null;
-            } else {
-              Charset charset = nettyFileUpload.getCharset();
-              if (charset == null) {
-                contentType = DefaultMediaType.utf8(rawContentType);
-              } else {
-                contentType = DefaultMediaType.utf8(rawContentType + ";charset=" + charset);
-              }
-            }
-
-            UploadedFile fileUpload = new DefaultUploadedFile(new ByteBufBackedTypedData(byteBuf, contentType), nettyFileUpload.getFilename());
+            UploadedFile fileUpload = new DefaultUploadedFile(new ByteBufBackedTypedData(byteBuf, contentType(nettyFileUpload)), nettyFileUpload.getFilename());
 
-            values.add(fileUpload);
+            values(files, data.getName()).add(fileUpload);
           } catch (IOException e) {
             throw uncheck(e);
           } finally {
@@ -126,4 +109,60 @@ public abstract class FormDecoder {
     return new DefaultForm(new ImmutableDelegatingMultiValueMap<>(attributes), new ImmutableDelegatingMultiValueMap<>(files));
   }
 
-}
\ No newline at end of file
+  /**
+   * Creates a form from a decoder that was fed the request body as it was received.
+   * <p>
+   * The decoder owns the data, and is destroyed when the request completes.
+   * Uploads that were written to disk are read from there on demand.
+   */
+  private static Form decodedForm(HttpPostRequestDecoder decoder) {
+    Map<String, List<String>> attributes = new LinkedHashMap<>();
+    Map<String, List<UploadedFile>> files = new LinkedHashMap<>();
+
+    try {
+      for (InterfaceHttpData data : decoder.getBodyHttpDatas()) {
+        if (data.getHttpDataType().equals(InterfaceHttpData.HttpDataType.Attribute)) {
+          values(attributes, data.getName()).add(((Attribute) data).getValue());
+        } else if (data.getHttpDataType().equals(InterfaceHttpData.HttpDataType.FileUpload)) {
+          FileUpload nettyFileUpload = (FileUpload) data;
+          MediaType contentType = contentType(nettyFileUpload);
+          TypedData typedData;
+          if (nettyFileUpload.isInMemory()) {
+            typedData = new ByteBufBackedTypedData(nettyFileUpload.getByteBuf(), contentType);
+          } else {
+            typedData = new FileBackedTypedData(nettyFileUpload.getFile().toPath(), contentType);
+          }
+          values(files, data.getName()).add(new DefaultUploadedFile(typedData, nettyFileUpload.getFilename()));
+        }
+      }
+    } catch (IOException e) {
+      throw uncheck(e);
+    }
+
+    return new DefaultForm(new ImmutableDelegatingMultiValueMap<>(attributes), new ImmutableDelegatingMultiValueMap<>(files));
+  }
+
+  private static <T> List<T> values(Map<String, List<T>> map, String name) {
+    List<T> values = map.get(name);
+    if (values == null) {
+      values = new ArrayList<>(1);
+      map.put(name, values);
+    }
+    return values;
+  }
+
+  private static MediaType contentType(FileUpload nettyFileUpload) {
+    String rawContentType = nettyFileUpload.getContentType();
+    if (rawContentType == null) {
+      return null;
+    } else {
+      Charset charset = nettyFileUpload.getCharset();
+      if (charset == null) {
+        return DefaultMediaType.utf8(rawContentType);
+      } else {
+        return DefaultMediaType.utf8(rawContentType + ";charset=" + charset);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.func;
+
+import com.google.common.base.Objects;
+
+/**
+ * An immutable pair of values.
+ *
+ * @param <L> the type of the left value
+ * @param <R> the type of the right value
+ */
+public final class Pair<L, R> {
+
+  private final L left;
+  private final R right;
+
+  private Pair(L left, R right) {
+    this.left = left;
+    this.right = right;
+  }
+
+  /**
+   * Creates a pair of the given values.
+   *
+   * @param left the left value
+   * @param right the right value
+   * @param <L> the type of the left value
+   * @param <R> the type of the right value
+   * @return a pair of the given values
+   */
+  public static <L, R> Pair<L, R> of(L left, R right) {
+    return new Pair<>(left, right);
+  }
+
+  /**
+   * The left value.
+   *
+   * @return the left value
+   */
+  public L getLeft() {
+    return left;
+  }
+
+  /**
+   * The right value.
+   *
+   * @return the right value
+   */
+  public R getRight() {
+    return right;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+
+    Pair<?, ?> other = (Pair<?, ?>) o;
+    return Objects.equal(left, other.left) && Objects.equal(right, other.right);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hashCode(left, right);
+  }
+
+  @Override
+  public String toString() {
+    return "Pair[" + left + ", " + right + "]";
+  }
+
+}
@@ -74,6 +74,7 @@ import java.util.concurrent.Callable;
  * <li>A {@link ratpack.server.BindAddress}</li>
  * <li>A {@link ratpack.server.PublicAddress}</li>
  * <li>A {@link Redirector}</li>
+ * <li>A {@link ratpack.http.client.HttpClient}, and the {@link ratpack.http.client.HostResolver} that it uses</li>
  * </ul>
  */
 public interface Context extends ExecControl, Registry {
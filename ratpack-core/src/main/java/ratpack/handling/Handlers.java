@@ -21,6 +21,7 @@ import ratpack.file.internal.AssetHandler;
 import ratpack.file.internal.FileSystemBindingHandler;
 import ratpack.func.Action;
 import ratpack.handling.internal.*;
+import ratpack.http.client.internal.ProxyHandler;
 import ratpack.http.internal.*;
 import ratpack.launch.LaunchConfig;
 import ratpack.path.PathBinder;
@@ -28,7 +29,9 @@ import ratpack.path.PathBinders;
 import ratpack.path.internal.PathHandler;
 import ratpack.registry.Registry;
 
+import java.net.URI;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import static com.google.common.collect.ImmutableList.copyOf;
 
@@ -297,6 +300,64 @@ public abstract class Handlers {
     return MethodHandler.PUT;
   }
 
+  /**
+   * Creates a handler that serves GET requests from a cache of the responses previously sent for the same request.
+   * <p>
+   * Responses are cached by request method, URI and the values of the given request headers.
+   * Only {@code 200} responses that were sent as a single buffer (i.e. not streamed or sent as files) are cached,
+   * and responses that set cookies or have a {@code Cache-Control} header of {@code private} or {@code no-store} are never cached.
+   * Cached bodies are held in direct memory, bounded by {@code maxSizeBytes} (including a small amount of overhead per entry).
+   * <p>
+   * A cache hit is sent immediately, with an {@code Age} header, and the rest of the handler chain is not invoked.
+   * After the {@code ttl} has passed, the entry is served stale for up to the given {@code staleWhileRevalidate} period.
+   * During this period, the first request to find the stale entry is passed on to the rest of the chain to refresh it.
+   *
+   * @param maxSizeBytes the maximum amount of memory to use for cached responses
+   * @param ttl how long a response is fresh for
+   * @param staleWhileRevalidate how long a response can be served while it is being refreshed, after the ttl has passed
+   * @param unit the unit of {@code ttl} and {@code staleWhileRevalidate}
+   * @param varyHeaders the names of the request headers that distinguish otherwise identical requests
+   * @return A handler
+   */
+  public static Handler responseCache(long maxSizeBytes, long ttl, long staleWhileRevalidate, TimeUnit unit, String... varyHeaders) {
+    return new ResponseCacheHandler(maxSizeBytes, ttl, staleWhileRevalidate, unit, varyHeaders);
+  }
+
+  /**
+   * Creates a handler that forwards every request to the given upstream server, and sends back its response.
+   * <p>
+   * The request URI (path and query string) is appended to the path of {@code upstream},
+   * so that {@code proxy(new URI("http://backend:8080/api"))} forwards a request for {@code /users?page=2} to {@code http://backend:8080/api/users?page=2}.
+   * Hop-by-hop headers are not forwarded in either direction.
+   * The {@code Host} header is set to that of the upstream server, and {@code X-Forwarded-For}, {@code X-Forwarded-Host} and {@code X-Forwarded-Proto} headers are added to the request.
+   * <p>
+   * The response is not buffered.
+   * Its status and headers are sent as soon as they are received, and then its body as it is received,
+   * at the rate that the client reads it.
+   * Connections to the upstream server are kept alive and reused, with up to 16 idle connections per request handling thread.
+   * If the upstream server cannot be reached, or doesn't respond, a {@code 502} response is sent.
+   *
+   * @param upstream the base URL of the server to forward requests to
+   * @return A handler
+   * @see #proxy(URI, int)
+   */
+  public static Handler proxy(URI upstream) {
+    return proxy(upstream, ProxyHandler.DEFAULT_MAX_IDLE_CONNECTIONS_PER_THREAD);
+  }
+
+  /**
+   * Creates a handler that forwards every request to the given upstream server, and sends back its response.
+   * <p>
+   * Behaves as {@link #proxy(URI)}, keeping at most {@code maxIdleConnectionsPerThread} idle connections to the upstream server for each request handling thread.
+   *
+   * @param upstream the base URL of the server to forward requests to
+   * @param maxIdleConnectionsPerThread the maximum number of idle connections to keep per request handling thread
+   * @return A handler
+   */
+  public static Handler proxy(URI upstream, int maxIdleConnectionsPerThread) {
+    return new ProxyHandler(upstream, maxIdleConnectionsPerThread);
+  }
+
   /**
    * A handler that simply calls {@link Context#insert(Registry, Handler...)} with the given registry and handler.
    *
@@ -19,6 +19,7 @@ package ratpack.handling.internal;
 import com.google.common.base.Predicate;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.reflect.TypeToken;
+import io.netty.channel.EventLoop;
 import io.netty.handler.codec.http.HttpResponseStatus;
 import org.reactivestreams.Publisher;
 import org.reactivestreams.Subscriber;
@@ -29,6 +30,8 @@ import ratpack.error.ClientErrorHandler;
 import ratpack.error.ServerErrorHandler;
 import ratpack.event.internal.EventRegistry;
 import ratpack.exec.*;
+import ratpack.exec.internal.DefaultExecControl;
+import ratpack.exec.internal.DefaultExecutionTimeline;
 import ratpack.file.FileSystemBinding;
 import ratpack.func.Action;
 import ratpack.handling.*;
@@ -96,6 +99,7 @@ public class DefaultContext implements Context {
 
     public Context context;
     public Handler handler;
+    public DefaultExecutionTimeline timeline;
 
     public RequestConstants(
       ApplicationConstants applicationConstants, BindAddress bindAddress, Request request, Response response,
@@ -118,20 +122,31 @@ public class DefaultContext implements Context {
   private final int nextIndex;
   private final Handler exhausted;
 
-  public static void start(ExecControl execControl, final RequestConstants requestConstants, Registry registry, Handler[] nextHandlers, Handler exhausted, Action<? super Execution> onComplete) {
+  public static void start(ExecControl execControl, EventLoop eventLoop, final RequestConstants requestConstants, Registry registry, Handler[] nextHandlers, Handler exhausted, Action<? super Execution> onComplete) {
     final DefaultContext context = new DefaultContext(requestConstants, registry, nextHandlers, 0, exhausted);
 
-    execControl.fork(new Action<Execution>() {
+    Action<Execution> action = new Action<Execution>() {
       @Override
       public void execute(Execution execution) throws Exception {
+        ExecutionTimeline timeline = execution.getTimeline();
+        if (timeline instanceof DefaultExecutionTimeline) {
+          requestConstants.timeline = (DefaultExecutionTimeline) timeline;
+        }
         context.next();
       }
-    }, new Action<Throwable>() {
+    };
+    Action<Throwable> onError = new Action<Throwable>() {
       @Override
       public void execute(Throwable throwable) throws Exception {
         requestConstants.context.error(throwable instanceof HandlerException ? throwable.getCause() : throwable);
       }
-    }, onComplete);
+    };
+
+    if (execControl instanceof DefaultExecControl) {
+      ((DefaultExecControl) execControl).fork(eventLoop, action, onError, onComplete);
+    } else {
+      execControl.fork(action, onError, onComplete);
+    }
   }
 
   public DefaultContext(RequestConstants requestConstants, Registry registry, Handler[] nextHandlers, int nextIndex, Handler exhausted) {
@@ -445,6 +460,9 @@ public class DefaultContext implements Context {
 
     try {
       requestConstants.handler = handler;
+      if (requestConstants.timeline != null) {
+        requestConstants.timeline.handler(nextIndex, handler);
+      }
       handler.handle(context);
     } catch (Throwable e) {
       if (e instanceof HandlerException) {
@@ -101,6 +101,11 @@ public interface Request extends MutableRegistry {
    * The body of the request.
    * <p>
    * If this request does not have a body, an non null object is still returned but it effectively has no data.
+   * <p>
+   * {@code multipart/form-data} bodies are decoded as they are received, so that large uploads are never held in memory.
+   * Their raw body is only available here if it is no larger than the {@link ratpack.launch.LaunchConfig#getMultipartMemoryThreshold() multipart memory threshold},
+   * otherwise the returned body is empty.
+   * The parts of a multipart body of any size are available by parsing the request as a {@link ratpack.form.Form}.
    *
    * @return the body of the request
    */
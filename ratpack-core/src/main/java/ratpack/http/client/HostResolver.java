@@ -0,0 +1,45 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.http.client;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+
+/**
+ * Resolves host names to addresses, for the {@link HttpClient}.
+ * <p>
+ * Implementations may block, as the HTTP client only calls them on a {@link ratpack.exec.ExecController#getBlockingExecutor() blocking thread}.
+ * The client never resolves hosts that are IP address literals.
+ * <p>
+ * The resolver to use is given to a client when it is {@link HttpClients#httpClient(ratpack.launch.LaunchConfig, HostResolver) created}.
+ * The {@link HttpClient} of a Guice backed application is created with the bound resolver, so binding one replaces it for that client and for proxied requests.
+ * Otherwise, the application's client uses the default resolver, and a resolver added to the context registry is only used for proxied requests.
+ * See {@link HostResolvers} for the provided implementations, including one that uses a hosts file, which is useful for testing.
+ */
+public interface HostResolver {
+
+  /**
+   * Resolves the given host name.
+   *
+   * @param host the name of the host to resolve
+   * @return the addresses of the host, of which there is at least one, in the order they should be preferred
+   * @throws UnknownHostException if the host has no addresses
+   */
+  List<InetAddress> resolve(String host) throws UnknownHostException;
+
+}
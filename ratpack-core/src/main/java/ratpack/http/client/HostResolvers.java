@@ -0,0 +1,140 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.http.client;
+
+import com.google.common.collect.ImmutableList;
+import ratpack.http.client.internal.CachingHostResolver;
+import ratpack.http.client.internal.HostsFileResolver;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.file.Path;
+import java.security.Security;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Factory methods for {@link HostResolver} implementations.
+ */
+public abstract class HostResolvers {
+
+  /**
+   * The maximum number of hosts held by the resolver returned by {@link #cached(HostResolver)}.
+   */
+  public static final int DEFAULT_MAX_SIZE = 1000;
+
+  private static final int DEFAULT_TTL_SECONDS = 30;
+  private static final int DEFAULT_NEGATIVE_TTL_SECONDS = 10;
+
+  private HostResolvers() {
+  }
+
+  /**
+   * A resolver that uses the JVM's name service (i.e. {@link InetAddress#getAllByName(String)}).
+   *
+   * @return a resolver that uses the JVM's name service
+   */
+  public static HostResolver system() {
+    return SystemHostResolver.INSTANCE;
+  }
+
+  /**
+   * A resolver that only knows the hosts listed in the given hosts file.
+   * <p>
+   * The file is read once, when this method is called, and must be in the same format as {@code /etc/hosts}:
+   * an IP address followed by one or more host names on each line, with {@code #} starting a comment.
+   * Host names are not case sensitive.
+   * If a host is listed more than once, its addresses are returned in the order they appear.
+   * <p>
+   * This is useful for testing, to point the HTTP client at local servers without changing the system's name resolution.
+   *
+   * @param hostsFile the hosts file to read
+   * @return a resolver for the hosts in the given file
+   */
+  public static HostResolver hostsFile(Path hostsFile) {
+    return HostsFileResolver.read(hostsFile);
+  }
+
+  /**
+   * Caches the results of the given resolver, including failures, using the JVM's DNS cache settings.
+   * <p>
+   * Successful lookups are cached for the number of seconds given by the {@code networkaddress.cache.ttl} security property, defaulting to 30 seconds if it is not set,
+   * and unsuccessful lookups for {@code networkaddress.cache.negative.ttl}, defaulting to 10 seconds.
+   * At most {@link #DEFAULT_MAX_SIZE} hosts are cached.
+   *
+   * @param delegate the resolver to cache the results of
+   * @return a caching resolver
+   * @see #cached(HostResolver, int, long, long, TimeUnit, boolean)
+   */
+  public static HostResolver cached(HostResolver delegate) {
+    long ttl = securityPropertySeconds("networkaddress.cache.ttl", DEFAULT_TTL_SECONDS);
+    long negativeTtl = securityPropertySeconds("networkaddress.cache.negative.ttl", DEFAULT_NEGATIVE_TTL_SECONDS);
+    return cached(delegate, DEFAULT_MAX_SIZE, ttl, negativeTtl, TimeUnit.SECONDS, false);
+  }
+
+  /**
+   * Caches the results of the given resolver, including failures.
+   * <p>
+   * The HTTP client uses cached results without leaving the compute thread,
+   * so that once a host has been resolved, requests to it do not wait for a blocking thread until its entry expires.
+   * <p>
+   * If {@code roundRobin} is {@code true}, the addresses of a host that has more than one are rotated on each lookup,
+   * which spreads connections across them as the client connects to the first address.
+   *
+   * @param delegate the resolver to cache the results of
+   * @param maxSize the maximum number of hosts to cache
+   * @param ttl how long to cache successful lookups for
+   * @param negativeTtl how long to cache unsuccessful lookups for
+   * @param unit the unit of {@code ttl} and {@code negativeTtl}
+   * @param roundRobin whether to rotate the addresses of hosts that have more than one
+   * @return a caching resolver
+   */
+  public static HostResolver cached(HostResolver delegate, int maxSize, long ttl, long negativeTtl, TimeUnit unit, boolean roundRobin) {
+    checkArgument(maxSize >= 0, "maxSize must be >= 0");
+    checkArgument(ttl >= 0, "ttl must be >= 0");
+    checkArgument(negativeTtl >= 0, "negativeTtl must be >= 0");
+    return new CachingHostResolver(delegate, maxSize, unit.toNanos(ttl), unit.toNanos(negativeTtl), roundRobin);
+  }
+
+  // -1 means cache forever, which is bounded here to a day so that changes are eventually seen
+  private static long securityPropertySeconds(String name, long defaultValue) {
+    String value = Security.getProperty(name);
+    if (value == null) {
+      return defaultValue;
+    }
+    try {
+      long seconds = Long.parseLong(value.trim());
+      return seconds < 0 ? TimeUnit.DAYS.toSeconds(1) : seconds;
+    } catch (NumberFormatException e) {
+      return defaultValue;
+    }
+  }
+
+  private static class SystemHostResolver implements HostResolver {
+
+    private static final HostResolver INSTANCE = new SystemHostResolver();
+
+    @Override
+    public List<InetAddress> resolve(String host) throws UnknownHostException {
+      return ImmutableList.copyOf(InetAddress.getAllByName(host));
+    }
+
+  }
+
+}
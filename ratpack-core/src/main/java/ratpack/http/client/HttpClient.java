@@ -49,5 +49,16 @@ public interface HttpClient {
    */
   Promise<ReceivedResponse> request(Action<? super RequestSpec> action);
 
+  /**
+   * An asynchronous method to do a HTTP request, where the response body is streamed instead of being read into memory.
+   * <p>
+   * The promise is fulfilled as soon as the response status and headers have been received.
+   * This is useful for large responses, and for passing a response straight through to the client via {@link StreamedResponse#send(ratpack.http.Response)}.
+   *
+   * @param action An action that will act on the {@link ratpack.http.client.RequestSpec}
+   * @return A promise for a {@link ratpack.http.client.StreamedResponse}
+   */
+  Promise<StreamedResponse> requestStream(Action<? super RequestSpec> action);
+
 
 }
@@ -25,7 +25,21 @@ public abstract class HttpClients {
   }
 
   public static HttpClient httpClient(LaunchConfig launchConfig) {
-    return new DefaultHttpClient(launchConfig);
+    return httpClient(launchConfig, HostResolvers.cached(HostResolvers.system()));
+  }
+
+  /**
+   * Creates a HTTP client that uses the given resolver for the hosts it connects to.
+   * <p>
+   * Resolution always happens on a blocking thread, unless the resolver is a {@link HostResolvers#cached(HostResolver) caching resolver}
+   * that already holds the result, in which case it happens immediately.
+   *
+   * @param launchConfig the application launch config
+   * @param hostResolver the resolver for the hosts the client connects to
+   * @return a HTTP client
+   */
+  public static HttpClient httpClient(LaunchConfig launchConfig, HostResolver hostResolver) {
+    return new DefaultHttpClient(launchConfig, hostResolver);
   }
 
 }
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.http.client;
+
+import io.netty.buffer.ByteBuf;
+import org.reactivestreams.Publisher;
+import ratpack.http.Headers;
+import ratpack.http.Response;
+import ratpack.http.Status;
+
+/**
+ * A response whose body is received as a stream, rather than held in memory.
+ *
+ * @see HttpClient#requestStream(ratpack.func.Action)
+ */
+public interface StreamedResponse {
+
+  /**
+   *
+   * @return {@link ratpack.http.Status} of the response.
+   */
+  Status getStatus();
+
+  /**
+   *
+   * @return The integer status code of the response.
+   */
+  int getStatusCode();
+
+  /**
+   *
+   * @return {@link ratpack.http.Headers} from the response.
+   */
+  Headers getHeaders();
+
+  /**
+   * The body of the response, as it is received.
+   * <p>
+   * The body can only be subscribed to once.
+   * Nothing more is read from the connection than has been requested by the subscriber, so a slow subscriber slows down the sender instead of the body being buffered.
+   * The subscriber is responsible for releasing each buffer, which {@link Response#sendStream(ratpack.exec.ExecControl, Publisher)} does.
+   * <p>
+   * If the body has not been subscribed to by the time the execution that made the request completes, the connection is closed.
+   *
+   * @return the body of the response
+   */
+  Publisher<ByteBuf> getBody();
+
+  /**
+   * Sends this response as the response to the current request, streaming the body through as it is received.
+   * <p>
+   * The status and headers are copied to the given response, except the {@code Connection} header.
+   *
+   * @param response the response to send this response as
+   */
+  void send(Response response);
+
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.http.client.internal;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+import ratpack.api.Nullable;
+import ratpack.http.client.HostResolver;
+import ratpack.util.ExceptionUtils;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CachingHostResolver implements HostResolver {
+
+  private final HostResolver delegate;
+  private final long ttlNanos;
+  private final long negativeTtlNanos;
+  private final boolean roundRobin;
+  private final Cache<String, Entry> cache;
+  private final ConcurrentMap<String, SettableFuture<Entry>> inFlight = new ConcurrentHashMap<>();
+
+  public CachingHostResolver(HostResolver delegate, int maxSize, long ttlNanos, long negativeTtlNanos, boolean roundRobin) {
+    this.delegate = delegate;
+    this.ttlNanos = ttlNanos;
+    this.negativeTtlNanos = negativeTtlNanos;
+    this.roundRobin = roundRobin;
+    this.cache = CacheBuilder.newBuilder()
+      .maximumSize(maxSize)
+      // Entries check their own expiry, as failures expire sooner; this just stops expired entries taking up space
+      .expireAfterWrite(Math.max(ttlNanos, negativeTtlNanos), TimeUnit.NANOSECONDS)
+      .build();
+  }
+
+  @Override
+  public List<InetAddress> resolve(String host) throws UnknownHostException {
+    String key = host.toLowerCase();
+    Entry entry = cache.getIfPresent(key);
+    if (entry == null || entry.isExpired()) {
+      entry = lookupOnce(key, host);
+    }
+    return entry.get(host);
+  }
+
+  /**
+   * Returns the cached result for the host without resolving it.
+   *
+   * @param host the host to resolve
+   * @return the cached addresses, or {@code null} if the host is not cached
+   * @throws UnknownHostException if the cached result is that the host has no addresses
+   */
+  @Nullable
+  public List<InetAddress> getIfPresent(String host) throws UnknownHostException {
+    Entry entry = cache.getIfPresent(host.toLowerCase());
+    return entry == null || entry.isExpired() ? null : entry.get(host);
+  }
+
+  // Concurrent misses for the same host wait for the first lookup, instead of all querying the name service
+  private Entry lookupOnce(String key, String host) {
+    SettableFuture<Entry> lookup = SettableFuture.create();
+    SettableFuture<Entry> existing = inFlight.putIfAbsent(key, lookup);
+    if (existing != null) {
+      try {
+        return Uninterruptibles.getUninterruptibly(existing);
+      } catch (ExecutionException e) {
+        throw ExceptionUtils.uncheck(e.getCause());
+      }
+    }
+
+    try {
+      // Another lookup may have completed between our cache miss and claiming the host
+      Entry entry = cache.getIfPresent(key);
+      if (entry == null || entry.isExpired()) {
+        entry = lookup(host);
+        cache.put(key, entry);
+      }
+      lookup.set(entry);
+      return entry;
+    } catch (RuntimeException | Error e) {
+      lookup.setException(e);
+      throw e;
+    } finally {
+      inFlight.remove(key, lookup);
+    }
+  }
+
+  private Entry lookup(String host) {
+    try {
+      List<InetAddress> addresses = delegate.resolve(host);
+      if (addresses.isEmpty()) {
+        return new Entry(null, System.nanoTime() + negativeTtlNanos);
+      }
+      return new Entry(ImmutableList.copyOf(addresses), System.nanoTime() + ttlNanos);
+    } catch (UnknownHostException e) {
+      return new Entry(null, System.nanoTime() + negativeTtlNanos);
+    }
+  }
+
+  private class Entry {
+    private final List<InetAddress> addresses;
+    private final long expiresAt;
+    private final AtomicInteger next = new AtomicInteger();
+
+    Entry(@Nullable List<InetAddress> addresses, long expiresAt) {
+      this.addresses = addresses;
+      this.expiresAt = expiresAt;
+    }
+
+    boolean isExpired() {
+      return System.nanoTime() - expiresAt >= 0;
+    }
+
+    List<InetAddress> get(String host) throws UnknownHostException {
+      if (addresses == null) {
+        throw new UnknownHostException(host);
+      }
+      int size = addresses.size();
+      if (!roundRobin || size == 1) {
+        return addresses;
+      }
+
+      int first = (next.getAndIncrement() & Integer.MAX_VALUE) % size;
+      return ImmutableList.<InetAddress>builder()
+        .addAll(addresses.subList(first, size))
+        .addAll(addresses.subList(0, first))
+        .build();
+    }
+  }
+
+}
@@ -24,30 +24,39 @@ import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.handler.codec.http.*;
 import io.netty.handler.ssl.SslHandler;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.GenericFutureListener;
 import ratpack.exec.*;
 import ratpack.func.Action;
 import ratpack.func.Actions;
 import ratpack.http.Headers;
 import ratpack.http.MutableHeaders;
 import ratpack.http.Status;
+import ratpack.http.client.HostResolver;
 import ratpack.http.client.HttpClient;
 import ratpack.http.client.ReceivedResponse;
 import ratpack.http.client.RequestSpec;
+import ratpack.http.client.StreamedResponse;
 import ratpack.http.internal.*;
 import ratpack.launch.LaunchConfig;
 
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLEngine;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.net.URI;
+import java.util.concurrent.Executor;
 
 import static ratpack.util.ExceptionUtils.uncheck;
 
 public class DefaultHttpClient implements HttpClient {
 
   private final LaunchConfig launchConfig;
+  private final HostResolver hostResolver;
 
-  public DefaultHttpClient(LaunchConfig launchConfig) {
+  public DefaultHttpClient(LaunchConfig launchConfig, HostResolver hostResolver) {
     this.launchConfig = launchConfig;
+    this.hostResolver = hostResolver;
   }
 
   @Override
@@ -68,11 +77,55 @@ public class DefaultHttpClient implements HttpClient {
 
   @Override
   public Promise<ReceivedResponse> request(final Action<? super RequestSpec> requestConfigurer) {
+    return request(requestConfigurer, false, new ResponseHandlerFactory<ReceivedResponse>() {
+      @Override
+      public ChannelHandler create(final Execution execution, final Fulfiller<ReceivedResponse> fulfiller) {
+        return new SimpleChannelInboundHandler<HttpObject>() {
+          @Override
+          public void channelRead0(ChannelHandlerContext ctx, HttpObject msg) throws Exception {
+            if (msg instanceof FullHttpResponse) {
+              final FullHttpResponse response = (FullHttpResponse) msg;
+              final Headers headers = new NettyHeadersBackedHeaders(response.headers());
+              String contentType = headers.get(HttpHeaderConstants.CONTENT_TYPE.toString());
+              ByteBuf responseBuffer = initBufferReleaseOnExecutionClose(response.content(), execution);
+              final ByteBufBackedTypedData typedData = new ByteBufBackedTypedData(responseBuffer, DefaultMediaType.get(contentType));
+
+              final Status status = new DefaultStatus(response.getStatus().code(), response.getStatus().reasonPhrase());
+              fulfiller.success(new DefaultReceivedResponse(status, headers, typedData));
+            }
+          }
+
+          @Override
+          public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
+            ctx.close();
+            fulfiller.error(cause);
+          }
+        };
+      }
+    });
+  }
+
+  @Override
+  public Promise<StreamedResponse> requestStream(Action<? super RequestSpec> requestConfigurer) {
+    final ExecControl execControl = launchConfig.getExecController().getControl();
+    return request(requestConfigurer, true, new ResponseHandlerFactory<StreamedResponse>() {
+      @Override
+      public ChannelHandler create(Execution execution, Fulfiller<StreamedResponse> fulfiller) {
+        return new StreamingResponseHandler(execControl, execution, fulfiller);
+      }
+    });
+  }
+
+  private interface ResponseHandlerFactory<T> {
+    // called on the execution's thread, so may register with the execution
+    ChannelHandler create(Execution execution, Fulfiller<T> fulfiller);
+  }
+
+  private <T> Promise<T> request(final Action<? super RequestSpec> requestConfigurer, final boolean streamed, final ResponseHandlerFactory<T> responseHandlerFactory) {
 
     final ExecController execController = launchConfig.getExecController();
     final ExecControl execControl = execController.getControl();
     final Execution execution = execControl.getExecution();
-    final EventLoopGroup eventLoopGroup = execController.getEventLoopGroup();
     final ByteBufAllocator bufferAllocator = launchConfig.getBufferAllocator();
 
     final MutableHeaders headers = new NettyHeadersBackedMutableHeaders(new DefaultHttpHeaders());
@@ -98,12 +151,16 @@ public class DefaultHttpClient implements HttpClient {
     final String host = uri.getHost();
     final int port = uri.getPort() < 0 ? (useSsl ? 443 : 80) : uri.getPort();
 
-    return execController.getControl().promise(new Action<Fulfiller<ReceivedResponse>>() {
+    return execController.getControl().promise(new Action<Fulfiller<T>>() {
       @Override
-      public void execute(final Fulfiller<ReceivedResponse> fulfiller) throws Exception {
+      public void execute(final Fulfiller<T> fulfiller) throws Exception {
+        final ChannelHandler responseHandler = responseHandlerFactory.create(execution, fulfiller);
         final Bootstrap b = new Bootstrap();
-        b.group(eventLoopGroup)
+        // Use the execution's event loop, so that the response is received on the thread that the execution resumes on
+        b.group(execution.getEventLoop())
           .channel(NioSocketChannel.class)
+          // When streaming, the response handler reads from the socket as the body is consumed
+          .option(ChannelOption.AUTO_READ, !streamed)
           .handler(new ChannelInitializer<SocketChannel>() {
             @Override
             protected void initChannel(SocketChannel ch) throws Exception {
@@ -116,32 +173,14 @@ public class DefaultHttpClient implements HttpClient {
               }
 
               p.addLast("codec", new HttpClientCodec());
-              p.addLast("aggregator", new HttpObjectAggregator(launchConfig.getMaxContentLength()));
-              p.addLast("handler", new SimpleChannelInboundHandler<HttpObject>() {
-                @Override
-                public void channelRead0(ChannelHandlerContext ctx, HttpObject msg) throws Exception {
-                  if (msg instanceof FullHttpResponse) {
-                    final FullHttpResponse response = (FullHttpResponse) msg;
-                    final Headers headers = new NettyHeadersBackedHeaders(response.headers());
-                    String contentType = headers.get(HttpHeaderConstants.CONTENT_TYPE.toString());
-                    ByteBuf responseBuffer = initBufferReleaseOnExecutionClose(response.content(), execution);
-                    final ByteBufBackedTypedData typedData = new ByteBufBackedTypedData(responseBuffer, DefaultMediaType.get(contentType));
-
-                    final Status status = new DefaultStatus(response.getStatus().code(), response.getStatus().reasonPhrase());
-                    fulfiller.success(new DefaultReceivedResponse(status, headers, typedData));
-                  }
-                }
-
-                @Override
-                public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
-                  ctx.close();
-                  fulfiller.error(cause);
-                }
-              });
+              if (!streamed) {
+                p.addLast("aggregator", new HttpObjectAggregator(launchConfig.getMaxContentLength()));
+              }
+              p.addLast("handler", responseHandler);
             }
           });
 
-        b.connect(host, port).addListener(new ChannelFutureListener() {
+        final ChannelFutureListener onConnect = new ChannelFutureListener() {
           @Override
           public void operationComplete(ChannelFuture future) throws Exception {
             if (future.isSuccess()) {
@@ -177,6 +216,19 @@ public class DefaultHttpClient implements HttpClient {
               fulfiller.error(future.cause());
             }
           }
+        };
+
+        // Resolve the host off the event loop, unless it's cached, as resolution may block
+        Executor blockingExecutor = execController.getBlockingExecutor();
+        HostResolution.resolve(hostResolver, blockingExecutor, execution.getEventLoop(), host).addListener(new GenericFutureListener<Future<InetAddress>>() {
+          @Override
+          public void operationComplete(Future<InetAddress> future) throws Exception {
+            if (future.isSuccess()) {
+              b.connect(new InetSocketAddress(future.getNow(), port)).addListener(onConnect);
+            } else {
+              fulfiller.error(future.cause());
+            }
+          }
         });
       }
     });
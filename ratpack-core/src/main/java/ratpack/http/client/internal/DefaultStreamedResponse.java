@@ -0,0 +1,69 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.http.client.internal;
+
+import io.netty.buffer.ByteBuf;
+import org.reactivestreams.Publisher;
+import ratpack.exec.ExecControl;
+import ratpack.http.Headers;
+import ratpack.http.Response;
+import ratpack.http.Status;
+import ratpack.http.client.StreamedResponse;
+import ratpack.http.internal.HttpHeaderConstants;
+
+class DefaultStreamedResponse implements StreamedResponse {
+
+  private final ExecControl execControl;
+  private final Status status;
+  private final Headers headers;
+  private final Publisher<ByteBuf> body;
+
+  public DefaultStreamedResponse(ExecControl execControl, Status status, Headers headers, Publisher<ByteBuf> body) {
+    this.execControl = execControl;
+    this.status = status;
+    this.headers = headers;
+    this.body = body;
+  }
+
+  @Override
+  public Status getStatus() {
+    return status;
+  }
+
+  @Override
+  public int getStatusCode() {
+    return status.getCode();
+  }
+
+  @Override
+  public Headers getHeaders() {
+    return headers;
+  }
+
+  @Override
+  public Publisher<ByteBuf> getBody() {
+    return body;
+  }
+
+  @Override
+  public void send(Response response) {
+    response.getHeaders().copy(headers);
+    response.getHeaders().remove(HttpHeaderConstants.CONNECTION.toString());
+    response.status(status).sendStream(execControl, body);
+  }
+
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.http.client.internal;
+
+import com.google.common.net.InetAddresses;
+import io.netty.channel.EventLoop;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.Promise;
+import ratpack.http.client.HostResolver;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Resolves hosts without blocking the event loop.
+ * <p>
+ * IP address literals and hosts cached by a {@link CachingHostResolver} are resolved immediately, everything else on the blocking executor.
+ */
+public abstract class HostResolution {
+
+  private HostResolution() {
+  }
+
+  /**
+   * Resolves the host, completing the returned future on the given event loop.
+   *
+   * @param hostResolver the resolver to use
+   * @param blockingExecutor the executor to call the resolver on, if the result is not cached
+   * @param eventLoop the event loop that will use the address
+   * @param host the host to resolve
+   * @return the address to connect to
+   */
+  public static Future<InetAddress> resolve(final HostResolver hostResolver, Executor blockingExecutor, EventLoop eventLoop, final String host) {
+    // IPv6 literals in URIs are enclosed in brackets
+    String literal = host.startsWith("[") && host.endsWith("]") ? host.substring(1, host.length() - 1) : host;
+    if (InetAddresses.isInetAddress(literal)) {
+      return eventLoop.newSucceededFuture(InetAddresses.forString(literal));
+    }
+
+    if (hostResolver instanceof CachingHostResolver) {
+      try {
+        List<InetAddress> cached = ((CachingHostResolver) hostResolver).getIfPresent(host);
+        if (cached != null) {
+          return eventLoop.newSucceededFuture(cached.get(0));
+        }
+      } catch (UnknownHostException e) {
+        return eventLoop.newFailedFuture(e);
+      }
+    }
+
+    final Promise<InetAddress> promise = eventLoop.newPromise();
+    blockingExecutor.execute(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          promise.setSuccess(hostResolver.resolve(host).get(0));
+        } catch (Throwable e) {
+          promise.setFailure(e);
+        }
+      }
+    });
+    return promise;
+  }
+
+}
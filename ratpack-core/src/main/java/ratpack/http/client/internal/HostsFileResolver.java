@@ -0,0 +1,80 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.http.client.internal;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.net.InetAddresses;
+import ratpack.http.client.HostResolver;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static ratpack.util.ExceptionUtils.uncheck;
+
+public class HostsFileResolver implements HostResolver {
+
+  private final ListMultimap<String, InetAddress> hosts;
+
+  public HostsFileResolver(ListMultimap<String, InetAddress> hosts) {
+    this.hosts = hosts;
+  }
+
+  public static HostsFileResolver read(Path hostsFile) {
+    List<String> lines;
+    try {
+      lines = Files.readAllLines(hostsFile, StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      throw uncheck(e);
+    }
+
+    ImmutableListMultimap.Builder<String, InetAddress> hosts = ImmutableListMultimap.builder();
+    for (String line : lines) {
+      int commentStart = line.indexOf('#');
+      if (commentStart >= 0) {
+        line = line.substring(0, commentStart);
+      }
+      String[] parts = line.trim().split("\\s+");
+      if (parts.length < 2) {
+        continue;
+      }
+
+      InetAddress address = InetAddresses.forString(parts[0]);
+      for (int i = 1; i < parts.length; ++i) {
+        hosts.put(parts[i].toLowerCase(), address);
+      }
+    }
+
+    return new HostsFileResolver(hosts.build());
+  }
+
+  @Override
+  public List<InetAddress> resolve(String host) throws UnknownHostException {
+    List<InetAddress> addresses = hosts.get(host.toLowerCase());
+    if (addresses.isEmpty()) {
+      throw new UnknownHostException(host);
+    }
+    return ImmutableList.copyOf(addresses);
+  }
+
+}
@@ -0,0 +1,308 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.http.client.internal;
+
+import com.google.common.collect.ImmutableSet;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.*;
+import io.netty.handler.codec.http.multipart.Attribute;
+import io.netty.handler.codec.http.multipart.DiskFileUpload;
+import io.netty.handler.codec.http.multipart.FileUpload;
+import io.netty.handler.codec.http.multipart.HttpPostRequestDecoder;
+import io.netty.handler.codec.http.multipart.HttpPostRequestEncoder;
+import io.netty.handler.codec.http.multipart.InterfaceHttpData;
+import io.netty.handler.codec.http.multipart.MemoryFileUpload;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.GenericFutureListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ratpack.exec.Execution;
+import ratpack.exec.Fulfiller;
+import ratpack.func.Action;
+import ratpack.handling.Context;
+import ratpack.handling.Handler;
+import ratpack.http.Headers;
+import ratpack.http.MutableHeaders;
+import ratpack.http.Request;
+import ratpack.http.Response;
+import ratpack.http.client.HostResolver;
+import ratpack.http.client.StreamedResponse;
+import ratpack.http.internal.HttpHeaderConstants;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.URI;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/**
+ * Forwards each request to an upstream server, relaying the response as it is received.
+ * <p>
+ * The request body has already been received in full by the server, and is forwarded without being copied.
+ * Multipart bodies that were too large to be kept in memory are only available as decoded parts,
+ * so they are encoded again, with a new boundary, and streamed to the upstream server from memory or the decoder's temporary files.
+ * The response body buffers are written straight to the client, and more of the response is only read from the upstream connection as the client accepts what has been written.
+ */
+public class ProxyHandler implements Handler {
+
+  private final static Logger LOGGER = LoggerFactory.getLogger(ProxyHandler.class);
+
+  public static final int DEFAULT_MAX_IDLE_CONNECTIONS_PER_THREAD = 16;
+
+  private static final String X_FORWARDED_FOR = "X-Forwarded-For";
+
+  // RFC 2616, section 13.5.1 - plus Expect, as the server has already handled any 100-continue
+  private static final Set<String> HOP_BY_HOP_HEADERS = ImmutableSet.of(
+    "connection", "keep-alive", "proxy-authenticate", "proxy-authorization", "te", "trailer", "trailers", "transfer-encoding", "upgrade", "expect"
+  );
+
+  private final String host;
+  private final String hostHeader;
+  private final String basePath;
+  private final UpstreamChannelPool pool;
+
+  public ProxyHandler(URI upstream, int maxIdleConnectionsPerThread) {
+    String scheme = upstream.getScheme();
+    boolean ssl;
+    if ("https".equals(scheme)) {
+      ssl = true;
+    } else if ("http".equals(scheme)) {
+      ssl = false;
+    } else {
+      throw new IllegalArgumentException(String.format("URL '%s' is not a http url", upstream.toString()));
+    }
+
+    this.host = upstream.getHost();
+    int port = upstream.getPort() < 0 ? (ssl ? 443 : 80) : upstream.getPort();
+    this.hostHeader = upstream.getPort() < 0 ? host : host + ":" + port;
+
+    String path = upstream.getRawPath() == null ? "" : upstream.getRawPath();
+    this.basePath = path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+    this.pool = new UpstreamChannelPool(host, port, ssl, maxIdleConnectionsPerThread);
+  }
+
+  @Override
+  public void handle(final Context context) throws Exception {
+    final Execution execution = context.getExecution();
+    Request request = context.getRequest();
+
+    // A multipart body is empty if it was too large to keep, but its decoded parts are still available
+    HttpPostRequestDecoder decoder = request.maybeGet(HttpPostRequestDecoder.class);
+    boolean reencode = decoder != null && !request.getBody().getBuffer().isReadable();
+
+    final HttpRequest upstreamRequest = toUpstreamRequest(context, reencode);
+    final HttpPostRequestEncoder bodyEncoder = reencode ? multipartEncoder(upstreamRequest, decoder) : null;
+    final HttpRequest upstreamHead = bodyEncoder == null ? upstreamRequest : bodyEncoder.finalizeRequest();
+
+    context.promise(new Action<Fulfiller<StreamedResponse>>() {
+      @Override
+      public void execute(Fulfiller<StreamedResponse> fulfiller) throws Exception {
+        ProxyResponseHandler responseHandler = new ProxyResponseHandler(context, execution, fulfiller);
+        forward(context, upstreamHead, bodyEncoder, responseHandler, execution, fulfiller);
+      }
+    }).onError(new Action<Throwable>() {
+      @Override
+      public void execute(Throwable throwable) throws Exception {
+        LOGGER.warn("Failed to proxy {} request for {} to {}", upstreamRequest.getMethod(), context.getRequest().getUri(), host, throwable);
+        context.getResponse().status(HttpResponseStatus.BAD_GATEWAY.code()).send();
+      }
+    }).then(new Action<StreamedResponse>() {
+      @Override
+      public void execute(StreamedResponse upstreamResponse) throws Exception {
+        Response response = context.getResponse();
+        MutableHeaders headers = response.getHeaders();
+        headers.copy(upstreamResponse.getHeaders());
+        removeHopByHopHeaders(upstreamResponse.getHeaders(), headers);
+
+        // A chunked upstream response is decoded, and needs to be chunked again for the client
+        String transferEncoding = upstreamResponse.getHeaders().get(HttpHeaders.Names.TRANSFER_ENCODING);
+        if (transferEncoding != null && transferEncoding.toLowerCase().contains(HttpHeaders.Values.CHUNKED)) {
+          headers.set(HttpHeaderConstants.TRANSFER_ENCODING, HttpHeaderConstants.CHUNKED);
+        }
+
+        response.status(upstreamResponse.getStatus()).sendStream(context, upstreamResponse.getBody());
+      }
+    });
+  }
+
+  private void forward(Context context, final HttpRequest upstreamRequest, final HttpPostRequestEncoder bodyEncoder, final ProxyResponseHandler responseHandler, Execution execution, final Fulfiller<StreamedResponse> fulfiller) {
+    HostResolver hostResolver = context.get(HostResolver.class);
+    Executor blockingExecutor = context.getLaunchConfig().getExecController().getBlockingExecutor();
+    pool.acquire(execution.getEventLoop(), hostResolver, blockingExecutor).addListener(new GenericFutureListener<Future<Channel>>() {
+      @Override
+      public void operationComplete(Future<Channel> future) throws Exception {
+        if (future.isSuccess()) {
+          final Channel channel = future.getNow();
+          channel.pipeline().addLast(UpstreamChannelPool.HANDLER_NAME, responseHandler);
+
+          ChannelFuture written;
+          if (bodyEncoder == null || !bodyEncoder.isChunked()) {
+            written = channel.writeAndFlush(upstreamRequest);
+          } else {
+            channel.write(upstreamRequest);
+            written = channel.writeAndFlush(bodyEncoder);
+          }
+
+          written.addListener(new ChannelFutureListener() {
+            @Override
+            public void operationComplete(ChannelFuture future) throws Exception {
+              if (future.isSuccess()) {
+                responseHandler.requestSent = true;
+              } else {
+                // The response handler fails the response and closes the channel
+                channel.pipeline().fireExceptionCaught(future.cause());
+              }
+            }
+          });
+        } else {
+          ReferenceCountUtil.release(upstreamRequest);
+          fulfiller.error(future.cause());
+        }
+      }
+    });
+  }
+
+  private HttpRequest toUpstreamRequest(Context context, boolean reencode) {
+    Request request = context.getRequest();
+    HttpMethod method = HttpMethod.valueOf(request.getMethod().getName());
+    String uri = basePath + request.getUri();
+    HttpRequest upstreamRequest;
+    ByteBuf body;
+    if (reencode) {
+      // The body is added by the encoder, which also sets the content headers
+      upstreamRequest = new DefaultHttpRequest(HttpVersion.HTTP_1_1, method, uri);
+      body = Unpooled.EMPTY_BUFFER;
+    } else {
+      // The buffer shares the reference count of the server's request, which is released once the response has been sent
+      body = request.getBody().getBuffer().retain();
+      upstreamRequest = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, method, uri, body);
+    }
+
+    HttpHeaders upstreamHeaders = upstreamRequest.headers();
+    Headers headers = request.getHeaders();
+    for (String name : headers.getNames()) {
+      upstreamHeaders.set(name, headers.getAll(name));
+    }
+    removeHopByHopHeaders(headers, upstreamHeaders);
+
+    String originalHost = headers.get(HttpHeaders.Names.HOST);
+    upstreamHeaders.set(HttpHeaderConstants.HOST, hostHeader);
+    if (originalHost != null) {
+      upstreamHeaders.set(HttpHeaderConstants.X_FORWARDED_HOST, originalHost);
+    }
+    upstreamHeaders.set(HttpHeaderConstants.X_FORWARDED_PROTO, context.getLaunchConfig().getSSLContext() == null ? "http" : "https");
+
+    SocketAddress remoteAddress = context.getDirectChannelAccess().getChannel().remoteAddress();
+    if (remoteAddress instanceof InetSocketAddress) {
+      String clientAddress = ((InetSocketAddress) remoteAddress).getAddress().getHostAddress();
+      String forwardedFor = headers.get(X_FORWARDED_FOR);
+      upstreamHeaders.set(X_FORWARDED_FOR, forwardedFor == null ? clientAddress : forwardedFor + ", " + clientAddress);
+    }
+
+    if (body.isReadable()) {
+      upstreamHeaders.set(HttpHeaderConstants.CONTENT_LENGTH, body.readableBytes());
+    } else {
+      upstreamHeaders.remove(HttpHeaderConstants.CONTENT_LENGTH);
+    }
+    return upstreamRequest;
+  }
+
+  private static HttpPostRequestEncoder multipartEncoder(HttpRequest upstreamRequest, HttpPostRequestDecoder decoder) throws HttpPostRequestEncoder.ErrorDataEncoderException, IOException {
+    // The encoder only accepts POST requests, but the method is only read when it is created
+    HttpMethod method = upstreamRequest.getMethod();
+    upstreamRequest.setMethod(HttpMethod.POST);
+    HttpPostRequestEncoder encoder = new HttpPostRequestEncoder(upstreamRequest, true);
+    upstreamRequest.setMethod(method);
+
+    // The encoder releases what it reads from the parts, which are still owned by the decoder, so it is given copies
+    for (InterfaceHttpData data : decoder.getBodyHttpDatas()) {
+      if (data instanceof FileUpload) {
+        encoder.addBodyHttpData(copy((FileUpload) data));
+      } else if (data instanceof Attribute) {
+        encoder.addBodyAttribute(data.getName(), ((Attribute) data).getValue());
+      }
+    }
+    return encoder;
+  }
+
+  private static FileUpload copy(FileUpload upload) throws IOException {
+    FileUpload copy;
+    if (upload.isInMemory()) {
+      copy = new MemoryFileUpload(upload.getName(), upload.getFilename(), upload.getContentType(), upload.getContentTransferEncoding(), upload.getCharset(), upload.length());
+      copy.setContent(Unpooled.copiedBuffer(upload.getByteBuf()));
+    } else {
+      // Reads the decoder's temporary file without taking ownership of it, as it is deleted when the decoder is destroyed after the response has been sent
+      copy = new DiskFileUpload(upload.getName(), upload.getFilename(), upload.getContentType(), upload.getContentTransferEncoding(), upload.getCharset(), upload.length());
+      copy.setContent(upload.getFile());
+    }
+    return copy;
+  }
+
+  private static void removeHopByHopHeaders(Headers source, HttpHeaders target) {
+    for (String name : hopByHopHeaders(source)) {
+      target.remove(name);
+    }
+  }
+
+  private static void removeHopByHopHeaders(Headers source, MutableHeaders target) {
+    for (String name : hopByHopHeaders(source)) {
+      target.remove(name);
+    }
+  }
+
+  private static Set<String> hopByHopHeaders(Headers headers) {
+    ImmutableSet.Builder<String> names = ImmutableSet.<String>builder().addAll(HOP_BY_HOP_HEADERS);
+    // Headers named in the Connection header are also only for this hop
+    for (String connection : headers.getAll(HttpHeaders.Names.CONNECTION)) {
+      for (String token : connection.split(",")) {
+        String name = token.trim();
+        if (!name.isEmpty()) {
+          names.add(name);
+        }
+      }
+    }
+    return names.build();
+  }
+
+  private class ProxyResponseHandler extends StreamingResponseHandler {
+
+    // Only accessed on the upstream channel's event loop
+    private boolean requestSent;
+
+    ProxyResponseHandler(Context context, Execution execution, Fulfiller<StreamedResponse> fulfiller) {
+      super(context, execution, fulfiller);
+    }
+
+    @Override
+    protected void complete(ChannelHandlerContext ctx, boolean keepAlive) {
+      // The upstream server may respond before it has read all of the request, which leaves the connection unusable
+      if (keepAlive && requestSent) {
+        pool.release(ctx.channel());
+      } else {
+        ctx.close();
+      }
+    }
+  }
+
+}
@@ -0,0 +1,285 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.http.client.internal;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.handler.codec.PrematureChannelClosureException;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.util.ReferenceCountUtil;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import ratpack.exec.ExecControl;
+import ratpack.exec.Execution;
+import ratpack.exec.Fulfiller;
+import ratpack.http.client.StreamedResponse;
+import ratpack.http.internal.DefaultStatus;
+import ratpack.http.internal.NettyHeadersBackedHeaders;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+/**
+ * Fulfills the response promise as soon as the response head is received, then publishes the body content as it is requested.
+ * <p>
+ * The channel does not auto read.
+ * The socket is only read while the response head hasn't arrived, or the subscriber has outstanding demand that can't be met from what has already been decoded.
+ * All state is only accessed on the channel's event loop.
+ * <p>
+ * Once the response has been fully received, the channel is {@link #complete(ChannelHandlerContext, boolean) completed}, which closes it by default.
+ */
+class StreamingResponseHandler extends ChannelInboundHandlerAdapter implements Publisher<ByteBuf> {
+
+  private final ExecControl execControl;
+  private final Fulfiller<StreamedResponse> fulfiller;
+
+  private ChannelHandlerContext ctx;
+  private final Queue<ByteBuf> received = new ArrayDeque<>();
+  private boolean responseReceived;
+  private boolean keepAlive;
+  private boolean lastContentReceived;
+  private Throwable error;
+  private boolean reading;
+
+  private Subscriber<? super ByteBuf> subscriber;
+  private long demand;
+  private boolean draining;
+  private boolean done;
+
+  StreamingResponseHandler(ExecControl execControl, Execution execution, Fulfiller<StreamedResponse> fulfiller) {
+    this.execControl = execControl;
+    this.fulfiller = fulfiller;
+    execution.onCleanup(new AutoCloseable() {
+      @Override
+      public void close() {
+        onEventLoop(new Runnable() {
+          @Override
+          public void run() {
+            if (subscriber == null) {
+              dispose();
+            }
+          }
+        });
+      }
+    });
+  }
+
+  @Override
+  public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
+    this.ctx = ctx;
+    // Added to a pooled channel that is already connected, so there will be no channelActive()
+    if (ctx.channel().isActive()) {
+      read();
+    }
+  }
+
+  @Override
+  public void channelActive(ChannelHandlerContext ctx) throws Exception {
+    read();
+    super.channelActive(ctx);
+  }
+
+  @Override
+  public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+    if (done) {
+      ReferenceCountUtil.release(msg);
+      return;
+    }
+
+    if (msg instanceof HttpResponse) {
+      HttpResponse response = (HttpResponse) msg;
+      responseReceived = true;
+      keepAlive = HttpHeaders.isKeepAlive(response);
+      DefaultStatus status = new DefaultStatus(response.getStatus().code(), response.getStatus().reasonPhrase());
+      fulfiller.success(new DefaultStreamedResponse(execControl, status, new NettyHeadersBackedHeaders(response.headers()), this));
+    }
+
+    if (msg instanceof HttpContent) {
+      ByteBuf content = ((HttpContent) msg).content();
+      if (content.isReadable()) {
+        received.add(content);
+      } else {
+        content.release();
+      }
+      if (msg instanceof LastHttpContent) {
+        lastContentReceived = true;
+      }
+      drain();
+    } else {
+      ReferenceCountUtil.release(msg);
+    }
+  }
+
+  @Override
+  public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
+    reading = false;
+    if (!responseReceived) {
+      read();
+    } else {
+      drain();
+    }
+  }
+
+  @Override
+  public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
+    fail(cause);
+    ctx.close();
+  }
+
+  @Override
+  public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+    if (!lastContentReceived) {
+      fail(new PrematureChannelClosureException("Connection closed before the response was fully received"));
+    }
+    super.channelInactive(ctx);
+  }
+
+  private void fail(Throwable cause) {
+    if (!responseReceived) {
+      responseReceived = true;
+      done = true;
+      fulfiller.error(cause);
+    } else if (error == null) {
+      error = cause;
+      drain();
+    }
+  }
+
+  @Override
+  public void subscribe(final Subscriber<? super ByteBuf> s) {
+    onEventLoop(new Runnable() {
+      @Override
+      public void run() {
+        if (subscriber != null) {
+          s.onSubscribe(new Subscription() {
+            @Override
+            public void request(int n) {
+            }
+
+            @Override
+            public void cancel() {
+            }
+          });
+          s.onError(new IllegalStateException("The response body can only be subscribed to once"));
+          return;
+        }
+
+        subscriber = s;
+        s.onSubscribe(new Subscription() {
+          @Override
+          public void request(final int n) {
+            onEventLoop(new Runnable() {
+              @Override
+              public void run() {
+                demand = Math.min(Long.MAX_VALUE - n, demand) + n;
+                drain();
+              }
+            });
+          }
+
+          @Override
+          public void cancel() {
+            onEventLoop(new Runnable() {
+              @Override
+              public void run() {
+                dispose();
+              }
+            });
+          }
+        });
+        drain();
+      }
+    });
+  }
+
+  private void drain() {
+    if (subscriber == null || done || draining) {
+      return;
+    }
+
+    draining = true;
+    try {
+      while (demand > 0 && !received.isEmpty() && !done) {
+        --demand;
+        subscriber.onNext(received.poll());
+      }
+
+      if (received.isEmpty() && !done) {
+        if (lastContentReceived) {
+          done = true;
+          complete(ctx, keepAlive);
+          subscriber.onComplete();
+        } else if (error != null) {
+          done = true;
+          ctx.close();
+          subscriber.onError(error);
+        } else if (demand > 0) {
+          read();
+        }
+      }
+    } finally {
+      draining = false;
+    }
+  }
+
+  /**
+   * Called when the response has been fully received, and before the subscriber is completed.
+   *
+   * @param ctx the context of this handler
+   * @param keepAlive whether the server allows the connection to be used for another request
+   */
+  protected void complete(ChannelHandlerContext ctx, boolean keepAlive) {
+    ctx.close();
+  }
+
+  private void read() {
+    if (!reading) {
+      reading = true;
+      ctx.read();
+    }
+  }
+
+  private void dispose() {
+    if (done) {
+      // already closed, or completed and possibly handed on to another request
+      return;
+    }
+    done = true;
+    ByteBuf buffer = received.poll();
+    while (buffer != null) {
+      buffer.release();
+      buffer = received.poll();
+    }
+    if (ctx != null) {
+      ctx.close();
+    }
+  }
+
+  private void onEventLoop(Runnable runnable) {
+    if (ctx == null || ctx.executor().inEventLoop()) {
+      runnable.run();
+    } else {
+      ctx.executor().execute(runnable);
+    }
+  }
+
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.http.client.internal;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.*;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.http.HttpClientCodec;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.handler.stream.ChunkedWriteHandler;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.GenericFutureListener;
+import io.netty.util.concurrent.Promise;
+import ratpack.http.client.HostResolver;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Keep alive connections to a single upstream server, pooled per event loop.
+ * <p>
+ * A connection is only ever used by executions on the event loop it was created on, so the idle connections of each event loop are only accessed on that event loop.
+ * Idle connections have a pending read so that they are removed from the pool as soon as the server closes them.
+ */
+public class UpstreamChannelPool {
+
+  public static final String HANDLER_NAME = "handler";
+  private static final String IDLE_HANDLER_NAME = "idle";
+
+  private final String host;
+  private final int port;
+  private final boolean ssl;
+  private final int maxIdlePerEventLoop;
+  private final ConcurrentMap<EventLoop, Deque<Channel>> idle = new ConcurrentHashMap<>();
+
+  public UpstreamChannelPool(String host, int port, boolean ssl, int maxIdlePerEventLoop) {
+    this.host = host;
+    this.port = port;
+    this.ssl = ssl;
+    this.maxIdlePerEventLoop = maxIdlePerEventLoop;
+  }
+
+  /**
+   * Provides a connection to the upstream server, reusing an idle one if possible.
+   * <p>
+   * Must be called on the given event loop.
+   * The caller is expected to add its handler to the pipeline as {@link #HANDLER_NAME} and then to either {@link #release(Channel)} or close the channel.
+   *
+   * @param eventLoop the event loop that will use the connection
+   * @param hostResolver the resolver to use if a new connection is needed
+   * @param blockingExecutor the executor to resolve the host on, if it isn't cached
+   * @return a future for the connected channel
+   */
+  public Future<Channel> acquire(final EventLoop eventLoop, HostResolver hostResolver, Executor blockingExecutor) {
+    Deque<Channel> channels = idle(eventLoop);
+    Channel channel = channels.pollFirst();
+    while (channel != null) {
+      if (channel.isActive()) {
+        channel.pipeline().remove(IDLE_HANDLER_NAME);
+        return eventLoop.newSucceededFuture(channel);
+      }
+      channel = channels.pollFirst();
+    }
+
+    final Promise<Channel> promise = eventLoop.newPromise();
+    HostResolution.resolve(hostResolver, blockingExecutor, eventLoop, host).addListener(new GenericFutureListener<Future<InetAddress>>() {
+      @Override
+      public void operationComplete(Future<InetAddress> future) throws Exception {
+        if (future.isSuccess()) {
+          connect(eventLoop, future.getNow()).addListener(new ChannelFutureListener() {
+            @Override
+            public void operationComplete(ChannelFuture future) throws Exception {
+              if (future.isSuccess()) {
+                promise.setSuccess(future.channel());
+              } else {
+                future.channel().close();
+                promise.setFailure(future.cause());
+              }
+            }
+          });
+        } else {
+          promise.setFailure(future.cause());
+        }
+      }
+    });
+    return promise;
+  }
+
+  /**
+   * Returns a connection to the pool, once a response has been fully received on it.
+   * <p>
+   * Must be called on the channel's event loop.
+   * The connection is closed if it is no longer usable, or if the pool is full.
+   *
+   * @param channel the channel to return
+   */
+  public void release(Channel channel) {
+    Deque<Channel> channels = idle(channel.eventLoop());
+    if (channel.isActive() && channels.size() < maxIdlePerEventLoop) {
+      ChannelPipeline pipeline = channel.pipeline();
+      pipeline.remove(HANDLER_NAME);
+      pipeline.addLast(IDLE_HANDLER_NAME, IdleHandler.INSTANCE);
+      // Most recently used first, as the least likely to have been timed out by the server
+      channels.addFirst(channel);
+      channel.read();
+    } else {
+      channel.close();
+    }
+  }
+
+  private Deque<Channel> idle(EventLoop eventLoop) {
+    Deque<Channel> channels = idle.get(eventLoop);
+    if (channels == null) {
+      channels = new ArrayDeque<>();
+      Deque<Channel> existing = idle.putIfAbsent(eventLoop, channels);
+      if (existing != null) {
+        channels = existing;
+      }
+    }
+    return channels;
+  }
+
+  private ChannelFuture connect(final EventLoop eventLoop, InetAddress address) {
+    ChannelFuture connectFuture = new Bootstrap()
+      .group(eventLoop)
+      .channel(NioSocketChannel.class)
+      // Reads are driven by demand for the response body, or by the idle handler
+      .option(ChannelOption.AUTO_READ, false)
+      .handler(new ChannelInitializer<SocketChannel>() {
+        @Override
+        protected void initChannel(SocketChannel ch) throws Exception {
+          ChannelPipeline p = ch.pipeline();
+
+          if (ssl) {
+            SSLEngine engine = SSLContext.getDefault().createSSLEngine();
+            engine.setUseClientMode(true);
+            p.addLast("ssl", new SslHandler(engine));
+          }
+
+          p.addLast("codec", new HttpClientCodec());
+          p.addLast("chunkedWriter", new ChunkedWriteHandler());
+        }
+      })
+      .connect(new InetSocketAddress(address, port));
+
+    connectFuture.channel().closeFuture().addListener(new ChannelFutureListener() {
+      @Override
+      public void operationComplete(ChannelFuture future) throws Exception {
+        idle(eventLoop).remove(future.channel());
+      }
+    });
+
+    return connectFuture;
+  }
+
+  @ChannelHandler.Sharable
+  private static class IdleHandler extends ChannelInboundHandlerAdapter {
+
+    static final IdleHandler INSTANCE = new IdleHandler();
+
+    // Nothing is expected from the server between responses
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+      ReferenceCountUtil.release(msg);
+      ctx.close();
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
+      ctx.close();
+    }
+
+  }
+
+}
@@ -22,6 +22,7 @@ import io.netty.buffer.ByteBufAllocator;
 import io.netty.handler.codec.http.Cookie;
 import io.netty.handler.codec.http.DefaultCookie;
 import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpResponseStatus;
 import io.netty.handler.codec.http.ServerCookieEncoder;
 import org.reactivestreams.Publisher;
 import ratpack.exec.ExecControl;
@@ -31,6 +32,7 @@ import ratpack.http.*;
 import ratpack.stream.internal.StreamTransmitter;
 import ratpack.util.ExceptionUtils;
 import ratpack.util.MultiValueMap;
+import ratpack.util.internal.XxHash64;
 import ratpack.util.internal.IoUtils;
 
 import java.io.IOException;
@@ -52,13 +54,28 @@ public class DefaultResponse implements Response {
   private final StreamTransmitter streamTransmitter;
   private final Action<? super ByteBuf> committer;
   private final ByteBufAllocator byteBufAllocator;
+  private final boolean etags;
+  private final boolean weakETags;
+  private final Headers requestHeaders;
 
   private boolean contentTypeSet;
   private Set<Cookie> cookies;
 
 
   public DefaultResponse(MutableStatus status, MutableHeaders headers, FileHttpTransmitter fileHttpTransmitter, StreamTransmitter streamTransmitter, ByteBufAllocator byteBufAllocator, Action<? super ByteBuf> committer) {
+    this(status, headers, fileHttpTransmitter, streamTransmitter, byteBufAllocator, committer, false, false, null);
+  }
+
+  /**
+   * If {@code etags} is true, buffered {@code 200} responses are given an {@code ETag} from the hash of their body,
+   * and are replaced with a {@code 304} if the ETag matches the {@code If-None-Match} header of the given request headers.
+   * If {@code weakETags} is true, as the body may yet be compressed, the generated ETags are weak.
+   */
+  public DefaultResponse(MutableStatus status, MutableHeaders headers, FileHttpTransmitter fileHttpTransmitter, StreamTransmitter streamTransmitter, ByteBufAllocator byteBufAllocator, Action<? super ByteBuf> committer, boolean etags, boolean weakETags, Headers requestHeaders) {
     this.status = status;
+    this.etags = etags;
+    this.weakETags = weakETags;
+    this.requestHeaders = requestHeaders;
     this.fileHttpTransmitter = fileHttpTransmitter;
     this.streamTransmitter = streamTransmitter;
     this.byteBufAllocator = byteBufAllocator;
@@ -313,10 +330,50 @@ public class DefaultResponse implements Response {
 
   private void commit(ByteBuf byteBuf) {
     setCookieHeader();
+    if (etags && status.getCode() == HttpResponseStatus.OK.code()) {
+      byteBuf = applyETag(byteBuf);
+    }
     try {
       committer.execute(byteBuf);
     } catch (Exception e) {
       throw ExceptionUtils.uncheck(e);
     }
   }
+
+  private ByteBuf applyETag(ByteBuf byteBuf) {
+    String etag = headers.get(HttpHeaders.Names.ETAG);
+    if (etag == null) {
+      etag = "\"" + Long.toHexString(XxHash64.hash(byteBuf)) + "\"";
+      // The hash is of the uncompressed body, so can't strongly validate the gzip and identity encodings of it alike
+      if (weakETags && !HttpHeaders.Values.IDENTITY.equalsIgnoreCase(headers.get(HttpHeaders.Names.CONTENT_ENCODING))) {
+        etag = "W/" + etag;
+      }
+      headers.set(HttpHeaders.Names.ETAG, etag);
+    }
+
+    String ifNoneMatch = requestHeaders.get(HttpHeaders.Names.IF_NONE_MATCH);
+    if (ifNoneMatch != null && matches(ifNoneMatch, etag)) {
+      byteBuf.release();
+      status.set(HttpResponseStatus.NOT_MODIFIED.code(), HttpResponseStatus.NOT_MODIFIED.reasonPhrase());
+      return byteBufAllocator.buffer(0, 0);
+    }
+
+    return byteBuf;
+  }
+
+  // If-None-Match uses the weak comparison function, so the W/ prefix is ignored
+  private static boolean matches(String ifNoneMatch, String etag) {
+    String opaqueTag = stripWeakPrefix(etag);
+    for (String candidate : ifNoneMatch.split(",")) {
+      candidate = candidate.trim();
+      if (candidate.equals("*") || stripWeakPrefix(candidate).equals(opaqueTag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static String stripWeakPrefix(String etag) {
+    return etag.startsWith("W/") ? etag.substring(2) : etag;
+  }
 }
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.http.internal;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.CharsetUtil;
+import ratpack.http.MediaType;
+import ratpack.http.TypedData;
+import ratpack.util.internal.IoUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static ratpack.util.ExceptionUtils.uncheck;
+
+/**
+ * Typed data that is stored in a file, such as an upload that was too large to be held in memory.
+ * <p>
+ * The content is only read into memory if it is requested as a buffer or bytes.
+ * Streaming access ({@link #getInputStream()} and {@link #writeTo(java.io.OutputStream)}) reads directly from the file.
+ */
+public class FileBackedTypedData implements TypedData {
+
+  private final Path file;
+  private final MediaType mediaType;
+  private ByteBuf byteBuf;
+
+  public FileBackedTypedData(Path file, MediaType mediaType) {
+    this.file = file;
+    this.mediaType = mediaType;
+  }
+
+  @Override
+  public MediaType getContentType() {
+    return mediaType;
+  }
+
+  @Override
+  public ByteBuf getBuffer() {
+    return Unpooled.unmodifiableBuffer(read());
+  }
+
+  @Override
+  public String getText() {
+    if (mediaType == null) {
+      return read().toString(CharsetUtil.UTF_8);
+    } else {
+      return read().toString(Charset.forName(mediaType.getCharset()));
+    }
+  }
+
+  @Override
+  public byte[] getBytes() {
+    ByteBuf buffer = read();
+    byte[] bytes = new byte[buffer.readableBytes()];
+    buffer.getBytes(buffer.readerIndex(), bytes);
+    return bytes;
+  }
+
+  @Override
+  public void writeTo(OutputStream outputStream) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      WritableByteChannel target = Channels.newChannel(outputStream);
+      long size = channel.size();
+      long position = 0;
+      while (position < size) {
+        position += channel.transferTo(position, size - position, target);
+      }
+    }
+  }
+
+  @Override
+  public InputStream getInputStream() {
+    try {
+      return Files.newInputStream(file);
+    } catch (IOException e) {
+      throw uncheck(e);
+    }
+  }
+
+  private ByteBuf read() {
+    if (byteBuf == null) {
+      try {
+        byteBuf = IoUtils.read(file);
+      } catch (IOException e) {
+        throw uncheck(e);
+      }
+    }
+    return byteBuf;
+  }
+
+}
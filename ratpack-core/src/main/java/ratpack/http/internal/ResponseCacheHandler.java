@@ -0,0 +1,207 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.http.internal;
+
+import com.google.common.cache.*;
+import com.google.common.collect.ImmutableListMultimap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.util.IllegalReferenceCountException;
+import ratpack.func.Action;
+import ratpack.handling.Context;
+import ratpack.handling.Handler;
+import ratpack.handling.RequestOutcome;
+import ratpack.http.Headers;
+import ratpack.http.Request;
+import ratpack.http.Response;
+import ratpack.http.Status;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Serves GET requests from a cache of previously committed responses.
+ * <p>
+ * On a miss, a {@link ResponseCommitListener} is registered and the request continues down the handler chain.
+ * If the downstream handlers commit a cacheable, fully buffered response it is copied into a direct buffer and stored.
+ * Streamed and file responses are never seen by the listener, so are never cached.
+ * <p>
+ * Entries are fresh for the ttl.
+ * For the stale-while-revalidate period after that, the first request to find the stale entry is sent downstream to refresh it
+ * while every other request continues to be served the stale entry.
+ */
+public class ResponseCacheHandler implements Handler {
+
+  private final long ttlNanos;
+  private final long maxWeight;
+  private final String[] varyHeaders;
+  private final Cache<String, Entry> cache;
+
+  public ResponseCacheHandler(long maxSizeBytes, long ttl, long staleWhileRevalidate, TimeUnit unit, String... varyHeaders) {
+    this.ttlNanos = unit.toNanos(ttl);
+    this.maxWeight = maxSizeBytes;
+    this.varyHeaders = varyHeaders.clone();
+    this.cache = CacheBuilder.newBuilder()
+      .maximumWeight(maxSizeBytes)
+      .weigher(new Weigher<String, Entry>() {
+        @Override
+        public int weigh(String key, Entry value) {
+          return value.weight;
+        }
+      })
+      .expireAfterWrite(ttlNanos + unit.toNanos(staleWhileRevalidate), TimeUnit.NANOSECONDS)
+      .removalListener(new RemovalListener<String, Entry>() {
+        @Override
+        public void onRemoval(RemovalNotification<String, Entry> notification) {
+          Entry entry = notification.getValue();
+          if (entry != null) {
+            entry.body.release();
+          }
+        }
+      })
+      .build();
+  }
+
+  @Override
+  public void handle(Context context) throws Exception {
+    Request request = context.getRequest();
+    if (!request.getMethod().isGet()) {
+      context.next();
+      return;
+    }
+
+    String key = key(request);
+    Entry entry = cache.getIfPresent(key);
+    if (entry != null) {
+      long age = System.nanoTime() - entry.storedAt;
+      if (age < ttlNanos || !entry.revalidating.compareAndSet(false, true)) {
+        if (serve(context.getResponse(), entry, age)) {
+          return;
+        }
+      } else {
+        final Entry stale = entry;
+        context.onClose(new Action<RequestOutcome>() {
+          @Override
+          public void execute(RequestOutcome thing) throws Exception {
+            // If the response wasn't cacheable, let a later request try again
+            stale.revalidating.set(false);
+          }
+        });
+      }
+    }
+
+    request.register(ResponseCommitListener.class, new CapturingListener(key));
+    context.next();
+  }
+
+  private String key(Request request) {
+    StringBuilder key = new StringBuilder(request.getMethod().getName()).append(' ').append(request.getUri());
+    Headers headers = request.getHeaders();
+    for (String varyHeader : varyHeaders) {
+      String value = headers.get(varyHeader);
+      key.append('\n');
+      if (value != null) {
+        key.append(value);
+      }
+    }
+    return key.toString();
+  }
+
+  private static boolean serve(Response response, Entry entry, long age) {
+    ByteBuf body;
+    try {
+      body = entry.body.retain().duplicate();
+    } catch (IllegalReferenceCountException e) {
+      // Evicted and released since it was looked up
+      return false;
+    }
+
+    response.status(entry.statusCode, entry.statusMessage);
+    response.getHeaders().copy(entry.headers);
+    response.getHeaders().set(HttpHeaders.Names.AGE, TimeUnit.NANOSECONDS.toSeconds(age));
+    response.send(body);
+    return true;
+  }
+
+  private static boolean isCacheable(Status status, Headers headers) {
+    if (status.getCode() != 200 || headers.contains(HttpHeaders.Names.SET_COOKIE)) {
+      return false;
+    }
+
+    String cacheControl = headers.get(HttpHeaders.Names.CACHE_CONTROL);
+    if (cacheControl != null) {
+      cacheControl = cacheControl.toLowerCase();
+      return !cacheControl.contains(HttpHeaders.Values.NO_STORE) && !cacheControl.contains(HttpHeaders.Values.PRIVATE);
+    }
+    return true;
+  }
+
+  private class CapturingListener implements ResponseCommitListener {
+
+    private final String key;
+
+    private CapturingListener(String key) {
+      this.key = key;
+    }
+
+    @Override
+    public void onCommit(Status status, Headers headers, ByteBuf body) throws Exception {
+      if (!isCacheable(status, headers)) {
+        return;
+      }
+
+      int length = body.readableBytes();
+      int weight = key.length() + length;
+      ImmutableListMultimap.Builder<String, String> cachedHeaders = ImmutableListMultimap.builder();
+      for (String name : headers.getNames()) {
+        if (!name.equalsIgnoreCase(HttpHeaders.Names.CONTENT_LENGTH) && !name.equalsIgnoreCase(HttpHeaders.Names.CONNECTION)) {
+          for (String value : headers.getAll(name)) {
+            cachedHeaders.put(name, value);
+            weight += name.length() + value.length();
+          }
+        }
+      }
+
+      if (weight > maxWeight) {
+        return;
+      }
+
+      ByteBuf copy = Unpooled.directBuffer(length, length).writeBytes(body, body.readerIndex(), length);
+      cache.put(key, new Entry(status, cachedHeaders.build(), copy, weight));
+    }
+  }
+
+  private static class Entry {
+    final int statusCode;
+    final String statusMessage;
+    final ImmutableListMultimap<String, String> headers;
+    final ByteBuf body;
+    final int weight;
+    final long storedAt = System.nanoTime();
+    final AtomicBoolean revalidating = new AtomicBoolean();
+
+    Entry(Status status, ImmutableListMultimap<String, String> headers, ByteBuf body, int weight) {
+      this.statusCode = status.getCode();
+      this.statusMessage = status.getMessage();
+      this.headers = headers;
+      this.body = body;
+      this.weight = weight;
+    }
+  }
+
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.http.internal;
+
+import io.netty.buffer.ByteBuf;
+import ratpack.http.Headers;
+import ratpack.http.Status;
+
+/**
+ * Notified of a fully buffered response immediately before it is transmitted.
+ * <p>
+ * Listeners are registered in the request registry, and are called in the order they were registered.
+ * The body must not be modified or released by the listener.
+ */
+public interface ResponseCommitListener {
+
+  void onCommit(Status status, Headers headers, ByteBuf body) throws Exception;
+
+}
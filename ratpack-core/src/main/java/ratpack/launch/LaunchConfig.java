@@ -25,6 +25,7 @@ import ratpack.file.FileSystemBinding;
 import javax.net.ssl.SSLContext;
 import java.net.InetAddress;
 import java.net.URI;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
 
@@ -59,6 +60,16 @@ public interface LaunchConfig {
    */
   public long DEFAULT_COMPRESSION_MIN_SIZE = 1024;
 
+  /**
+   * The default size above which multipart form data is written to disk instead of being held in memory, {@value}.
+   */
+  public long DEFAULT_MULTIPART_MEMORY_THRESHOLD = 16384;
+
+  /**
+   * The default max size of a multipart request body, {@value}.
+   */
+  public long DEFAULT_MAX_UPLOAD_SIZE = 1048576;
+
   /**
    * The base dir of the application, which is also the initial {@link ratpack.file.FileSystemBinding}.
    *
@@ -229,6 +240,114 @@ public interface LaunchConfig {
   @Nullable
   public ImmutableSet<String> getCompressionMimeTypeBlackList();
 
+  /**
+   * The size, in bytes, above which a part of a {@code multipart/form-data} request body is written to a temporary file instead of being held in memory.
+   * <p>
+   * Multipart request bodies are decoded incrementally as they are received, instead of being aggregated in memory first.
+   * Parts that exceed this size are spilled to disk and read back from there when accessed as an {@link ratpack.form.UploadedFile}.
+   * The temporary files are deleted when the request completes.
+   * <p>
+   * The raw request body is only kept in memory if the whole body is within this size,
+   * otherwise {@link ratpack.http.Request#getBody()} is empty and the body is only available as parsed {@link ratpack.form.Form} data.
+   * <p>
+   * Parts are written to disk on the request's event loop thread as the body is received, not on a blocking thread.
+   * This avoids the cost of handing each chunk of the body to another thread, but means that slow disk writes hold up the other connections served by that thread.
+   * A higher threshold reduces disk writes at the cost of memory per concurrent upload.
+   *
+   * @return the size above which multipart data is written to disk
+   */
+  public long getMultipartMemoryThreshold();
+
+  /**
+   * The max size, in bytes, of a {@code multipart/form-data} request body.
+   * <p>
+   * Multipart requests are not subject to the {@link #getMaxContentLength() max content length}, as their bodies are not aggregated in memory.
+   * Requests that declare a larger content length are rejected with a {@code 413} status before any of the body is read.
+   * Requests that do not declare a content length are rejected as soon as more than this number of bytes has been received.
+   *
+   * @return the max size of a multipart request body
+   */
+  public long getMaxUploadSize();
+
+  /**
+   * Whether or not buffered responses should be given an {@code ETag} derived from their content.
+   * <p>
+   * If enabled, the body of each {@code 200} response sent as a single buffer (i.e. not streamed or sent as a file) is hashed
+   * with a fast, non-cryptographic hash function to produce an {@code ETag} header, unless the response already has one.
+   * The {@code ETag} is strong, unless {@link #isCompressResponses() responses are compressed}, in which case it is weak,
+   * as the same hash then stands for both the compressed and uncompressed body.
+   * If the request is a {@code GET} or {@code HEAD} with an {@code If-None-Match} header that matches the response's {@code ETag},
+   * a {@code 304} response is sent instead of the body.
+   * <p>
+   * The response is still generated in full, so this saves bandwidth and client side processing but not server side processing.
+   *
+   * @return whether or not buffered responses should be given an {@code ETag}
+   */
+  public boolean isEtagResponses();
+
+  /**
+   * Whether blocking operations should be performed on virtual threads, where the JVM supports them.
+   * <p>
+   * If enabled, and the JVM provides virtual threads (Java 21 and later), each {@linkplain ratpack.exec.ExecControl#blocking(java.util.concurrent.Callable) blocking operation}
+   * is performed on a new virtual thread instead of a pooled platform thread.
+   * Virtual threads are cheap to block, so many concurrent blocking operations do not each tie up an operating system thread.
+   * On JVMs without virtual threads, this option has no effect.
+   * <p>
+   * The {@linkplain #getMaxBlockingConcurrency() max blocking concurrency} applies in either case.
+   *
+   * @return whether blocking operations should be performed on virtual threads
+   */
+  public boolean isVirtualBlockingThreads();
+
+  /**
+   * The maximum number of blocking operations that can be performed at the same time.
+   * <p>
+   * If the value is greater than 0, blocking operations beyond this number wait (without tying up a compute thread) until a running operation completes.
+   * When blocking operations are performed on platform threads, this is also the maximum number of blocking threads.
+   * If the value is 0 (default) or less, the number of concurrent blocking operations is not limited.
+   *
+   * @return the maximum number of blocking operations that can be performed at the same time
+   */
+  public int getMaxBlockingConcurrency();
+
+  /**
+   * The number of events to record in the {@linkplain ratpack.exec.ExecutionTimeline timeline} of each execution.
+   * <p>
+   * If the value is greater than 0, each execution records when its segments, blocking operations, promise fulfilments and handler invocations happened
+   * and how long they waited and ran for, into a ring buffer of this many events.
+   * The timelines are available via {@link ratpack.exec.Execution#getTimeline()} and {@link ratpack.exec.ExecController#addTimelineListener(ratpack.exec.ExecutionTimelineListener)}.
+   * If the value is 0 (default) or less, timelines are not recorded and there is no overhead.
+   *
+   * @return the number of events to record in the timeline of each execution
+   */
+  public int getExecutionTimelineSize();
+
+  /**
+   * The file to write an access log to, if any.
+   * <p>
+   * If set, a line in the common log format, followed by the time taken to produce the response, is appended to this file for each request
+   * (or a {@linkplain #getAccessLogSampling() sample} of requests).
+   * The details of each request are copied into a preallocated buffer by the request thread, and formatted and written to the file by a background thread,
+   * so logging does not slow down request processing.
+   * If requests arrive faster than the log can be written, entries are dropped instead of slowing down request processing and a warning is logged.
+   * <p>
+   * Responses that are streamed are not logged.
+   *
+   * @return the file to write an access log to, or {@code null} if no access log should be written
+   */
+  @Nullable
+  public Path getAccessLogFile();
+
+  /**
+   * The sampling rate of the {@linkplain #getAccessLogFile() access log}, as in one in every {@code n} requests is logged.
+   * <p>
+   * Requests are chosen at random.
+   * The default value of {@code 1} logs every request.
+   *
+   * @return the sampling rate of the access log
+   */
+  public int getAccessLogSampling();
+
   /**
    * Whether or not the base dir of the application has been set.
    *
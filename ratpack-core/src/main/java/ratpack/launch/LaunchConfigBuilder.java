@@ -77,6 +77,14 @@ public class LaunchConfigBuilder {
   private long compressionMinSize = LaunchConfig.DEFAULT_COMPRESSION_MIN_SIZE;
   private ImmutableSet.Builder<String> compressionMimeTypeWhiteList;
   private ImmutableSet.Builder<String> compressionMimeTypeBlackList;
+  private long multipartMemoryThreshold = LaunchConfig.DEFAULT_MULTIPART_MEMORY_THRESHOLD;
+  private long maxUploadSize = LaunchConfig.DEFAULT_MAX_UPLOAD_SIZE;
+  private boolean etagResponses;
+  private boolean virtualBlockingThreads;
+  private int maxBlockingConcurrency;
+  private int executionTimelineSize;
+  private Path accessLogFile;
+  private int accessLogSampling = 1;
 
   private LaunchConfigBuilder() {
   }
@@ -317,6 +325,118 @@ public class LaunchConfigBuilder {
     return this;
   }
 
+  /**
+   * The size above which multipart form data is written to disk instead of being held in memory, in bytes.
+   *
+   * Default value is {@link LaunchConfig#DEFAULT_MULTIPART_MEMORY_THRESHOLD}.
+   *
+   * @param multipartMemoryThreshold The size above which multipart form data is written to disk
+   * @return this
+   * @see LaunchConfig#getMultipartMemoryThreshold()
+   */
+  public LaunchConfigBuilder multipartMemoryThreshold(long multipartMemoryThreshold) {
+    this.multipartMemoryThreshold = multipartMemoryThreshold;
+    return this;
+  }
+
+  /**
+   * The max number of bytes a multipart request body can be.
+   *
+   * Default value is {@link LaunchConfig#DEFAULT_MAX_UPLOAD_SIZE}.
+   *
+   * @param maxUploadSize The max multipart request body size to accept
+   * @return this
+   * @see LaunchConfig#getMaxUploadSize()
+   */
+  public LaunchConfigBuilder maxUploadSize(long maxUploadSize) {
+    this.maxUploadSize = maxUploadSize;
+    return this;
+  }
+
+  /**
+   * Whether to give buffered responses an {@code ETag} derived from their content.
+   *
+   * Default value is {@code false}.
+   *
+   * @param etagResponses Whether to give buffered responses an {@code ETag}
+   * @return this
+   * @see LaunchConfig#isEtagResponses()
+   */
+  public LaunchConfigBuilder etagResponses(boolean etagResponses) {
+    this.etagResponses = etagResponses;
+    return this;
+  }
+
+  /**
+   * Whether to perform blocking operations on virtual threads, where the JVM supports them.
+   *
+   * Default value is {@code false}.
+   *
+   * @param virtualBlockingThreads Whether to perform blocking operations on virtual threads
+   * @return this
+   * @see LaunchConfig#isVirtualBlockingThreads()
+   */
+  public LaunchConfigBuilder virtualBlockingThreads(boolean virtualBlockingThreads) {
+    this.virtualBlockingThreads = virtualBlockingThreads;
+    return this;
+  }
+
+  /**
+   * The maximum number of blocking operations that can be performed at the same time.
+   *
+   * Default value is {@code 0} (unlimited).
+   *
+   * @param maxBlockingConcurrency The maximum number of concurrent blocking operations
+   * @return this
+   * @see LaunchConfig#getMaxBlockingConcurrency()
+   */
+  public LaunchConfigBuilder maxBlockingConcurrency(int maxBlockingConcurrency) {
+    this.maxBlockingConcurrency = maxBlockingConcurrency;
+    return this;
+  }
+
+  /**
+   * The number of events to record in the timeline of each execution.
+   *
+   * Default value is {@code 0} (timelines are not recorded).
+   *
+   * @param executionTimelineSize The number of events to record in the timeline of each execution
+   * @return this
+   * @see LaunchConfig#getExecutionTimelineSize()
+   */
+  public LaunchConfigBuilder executionTimelineSize(int executionTimelineSize) {
+    this.executionTimelineSize = executionTimelineSize;
+    return this;
+  }
+
+  /**
+   * The file to write an access log to.
+   *
+   * Default value is {@code null} (no access log is written).
+   *
+   * @param accessLogFile The file to write an access log to
+   * @return this
+   * @see LaunchConfig#getAccessLogFile()
+   */
+  public LaunchConfigBuilder accessLogFile(Path accessLogFile) {
+    this.accessLogFile = accessLogFile;
+    return this;
+  }
+
+  /**
+   * The sampling rate of the access log, as in one in every {@code n} requests is logged.
+   *
+   * Default value is {@code 1} (every request is logged).
+   *
+   * @param accessLogSampling The sampling rate of the access log
+   * @return this
+   * @see LaunchConfig#getAccessLogSampling()
+   */
+  public LaunchConfigBuilder accessLogSampling(int accessLogSampling) {
+    this.accessLogSampling = accessLogSampling;
+    return this;
+  }
+
   /**
    * Adds the given values as potential index file names.
    *
@@ -408,6 +528,14 @@ public class LaunchConfigBuilder {
       compressionMinSize,
       compressionMimeTypeWhiteList != null ? compressionMimeTypeWhiteList.build() : null,
       compressionMimeTypeBlackList != null ? compressionMimeTypeBlackList.build() : null,
+      multipartMemoryThreshold,
+      maxUploadSize,
+      etagResponses,
+      virtualBlockingThreads,
+      maxBlockingConcurrency,
+      executionTimelineSize,
+      accessLogFile,
+      accessLogSampling,
       handlerFactory
     );
   }
@@ -309,5 +309,65 @@ public abstract class LaunchConfigs {
      * @see LaunchConfig#getCompressionMimeTypeBlackList()
      */
     public static final String COMPRESSION_MIME_TYPE_BLACK_LIST = "compression.mimeType.blackList";
+
+    /**
+     * The size above which multipart form data is written to disk instead of being held in memory, in bytes.
+     *
+     * @see LaunchConfig#getMultipartMemoryThreshold()
+     */
+    public static final String MULTIPART_MEMORY_THRESHOLD = "multipart.memoryThreshold";
+
+    /**
+     * The max size of a multipart request body, in bytes.
+     *
+     * @see LaunchConfig#getMaxUploadSize()
+     */
+    public static final String MAX_UPLOAD_SIZE = "maxUploadSize";
+
+    /**
+     * Whether to give buffered responses an {@code ETag} derived from their content.
+     * <p>
+     * The value of this property will be converted to a boolean by {@link Boolean#valueOf(String)}.
+     *
+     * @see LaunchConfig#isEtagResponses()
+     */
+    public static final String ETAG_RESPONSES = "etagResponses";
+
+    /**
+     * Whether to perform blocking operations on virtual threads, where the JVM supports them.
+     * <p>
+     * The value of this property will be converted to a boolean by {@link Boolean#valueOf(String)}.
+     *
+     * @see LaunchConfig#isVirtualBlockingThreads()
+     */
+    public static final String VIRTUAL_BLOCKING_THREADS = "virtualBlockingThreads";
+
+    /**
+     * The maximum number of blocking operations that can be performed at the same time.
+     *
+     * @see LaunchConfig#getMaxBlockingConcurrency()
+     */
+    public static final String MAX_BLOCKING_CONCURRENCY = "maxBlockingConcurrency";
+
+    /**
+     * The number of events to record in the timeline of each execution.
+     *
+     * @see LaunchConfig#getExecutionTimelineSize()
+     */
+    public static final String EXECUTION_TIMELINE_SIZE = "executionTimelineSize";
+
+    /**
+     * The path of the file to write an access log to.
+     *
+     * @see LaunchConfig#getAccessLogFile()
+     */
+    public static final String ACCESS_LOG_FILE = "accessLog.file";
+
+    /**
+     * The sampling rate of the access log, as in one in every {@code n} requests is logged.
+     *
+     * @see LaunchConfig#getAccessLogSampling()
+     */
+    public static final String ACCESS_LOG_SAMPLING = "accessLog.sampling";
   }
 }
@@ -31,6 +31,7 @@ import ratpack.launch.NoBaseDirException;
 import javax.net.ssl.SSLContext;
 import java.net.InetAddress;
 import java.net.URI;
+import java.nio.file.Path;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -55,8 +56,16 @@ public class DefaultLaunchConfig implements LaunchConfig {
   private final long compressionMinSize;
   private final ImmutableSet<String> compressionMimeTypeWhiteList;
   private final ImmutableSet<String> compressionMimeTypeBlackList;
-
-  public DefaultLaunchConfig(FileSystemBinding baseDir, int port, InetAddress address, boolean development, int threads, ByteBufAllocator byteBufAllocator, URI publicAddress, ImmutableList<String> indexFiles, ImmutableMap<String, String> other, SSLContext sslContext, int maxContentLength, boolean timeResponses, boolean compressResponses, long compressionMinSize, ImmutableSet<String> compressionMimeTypeWhiteList, ImmutableSet<String> compressionMimeTypeBlackList, HandlerFactory handlerFactory) {
+  private final long multipartMemoryThreshold;
+  private final long maxUploadSize;
+  private final boolean etagResponses;
+  private final boolean virtualBlockingThreads;
+  private final int maxBlockingConcurrency;
+  private final int executionTimelineSize;
+  private final Path accessLogFile;
+  private final int accessLogSampling;
+
+  public DefaultLaunchConfig(FileSystemBinding baseDir, int port, InetAddress address, boolean development, int threads, ByteBufAllocator byteBufAllocator, URI publicAddress, ImmutableList<String> indexFiles, ImmutableMap<String, String> other, SSLContext sslContext, int maxContentLength, boolean timeResponses, boolean compressResponses, long compressionMinSize, ImmutableSet<String> compressionMimeTypeWhiteList, ImmutableSet<String> compressionMimeTypeBlackList, long multipartMemoryThreshold, long maxUploadSize, boolean etagResponses, boolean virtualBlockingThreads, int maxBlockingConcurrency, int executionTimelineSize, Path accessLogFile, int accessLogSampling, HandlerFactory handlerFactory) {
     this.baseDir = baseDir;
     this.port = port;
     this.address = address;
@@ -74,7 +83,15 @@ public class DefaultLaunchConfig implements LaunchConfig {
     this.handlerFactory = handlerFactory;
     this.sslContext = sslContext;
     this.maxContentLength = maxContentLength;
-    this.execController = new DefaultExecController(this.threads);
+    this.multipartMemoryThreshold = multipartMemoryThreshold;
+    this.maxUploadSize = maxUploadSize;
+    this.etagResponses = etagResponses;
+    this.virtualBlockingThreads = virtualBlockingThreads;
+    this.maxBlockingConcurrency = maxBlockingConcurrency;
+    this.executionTimelineSize = executionTimelineSize;
+    this.accessLogFile = accessLogFile;
+    this.accessLogSampling = accessLogSampling;
+    this.execController = new DefaultExecController(this.threads, virtualBlockingThreads, maxBlockingConcurrency, executionTimelineSize);
   }
 
   @Override
@@ -186,6 +203,46 @@ public class DefaultLaunchConfig implements LaunchConfig {
     return compressionMimeTypeBlackList;
   }
 
+  @Override
+  public long getMultipartMemoryThreshold() {
+    return multipartMemoryThreshold;
+  }
+
+  @Override
+  public long getMaxUploadSize() {
+    return maxUploadSize;
+  }
+
+  @Override
+  public boolean isEtagResponses() {
+    return etagResponses;
+  }
+
+  @Override
+  public boolean isVirtualBlockingThreads() {
+    return virtualBlockingThreads;
+  }
+
+  @Override
+  public int getMaxBlockingConcurrency() {
+    return maxBlockingConcurrency;
+  }
+
+  @Override
+  public int getExecutionTimelineSize() {
+    return executionTimelineSize;
+  }
+
+  @Override
+  public Path getAccessLogFile() {
+    return accessLogFile;
+  }
+
+  @Override
+  public int getAccessLogSampling() {
+    return accessLogSampling;
+  }
+
   @Override
   public boolean isHasBaseDir() {
     return baseDir != null;
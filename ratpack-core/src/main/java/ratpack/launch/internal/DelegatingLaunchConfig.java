@@ -27,6 +27,7 @@ import ratpack.launch.LaunchConfig;
 import javax.net.ssl.SSLContext;
 import java.net.InetAddress;
 import java.net.URI;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
 
@@ -137,6 +138,46 @@ public class DelegatingLaunchConfig implements LaunchConfig {
     return launchConfig.getCompressionMimeTypeBlackList();
   }
 
+  @Override
+  public long getMultipartMemoryThreshold() {
+    return launchConfig.getMultipartMemoryThreshold();
+  }
+
+  @Override
+  public long getMaxUploadSize() {
+    return launchConfig.getMaxUploadSize();
+  }
+
+  @Override
+  public boolean isEtagResponses() {
+    return launchConfig.isEtagResponses();
+  }
+
+  @Override
+  public boolean isVirtualBlockingThreads() {
+    return launchConfig.isVirtualBlockingThreads();
+  }
+
+  @Override
+  public int getMaxBlockingConcurrency() {
+    return launchConfig.getMaxBlockingConcurrency();
+  }
+
+  @Override
+  public int getExecutionTimelineSize() {
+    return launchConfig.getExecutionTimelineSize();
+  }
+
+  @Override
+  public Path getAccessLogFile() {
+    return launchConfig.getAccessLogFile();
+  }
+
+  @Override
+  public int getAccessLogSampling() {
+    return launchConfig.getAccessLogSampling();
+  }
+
   @Override
   public boolean isHasBaseDir() {
     return launchConfig.isHasBaseDir();
@@ -144,6 +144,14 @@ public class LaunchConfigsInternal {
       long compressionMinSize = props.asLong(COMPRESSION_MIN_SIZE, DEFAULT_COMPRESSION_MIN_SIZE);
       List<String> compressionMimeTypeWhiteList = props.asList(COMPRESSION_MIME_TYPE_WHITE_LIST);
       List<String> compressionMimeTypeBlackList = props.asList(COMPRESSION_MIME_TYPE_BLACK_LIST);
+      long multipartMemoryThreshold = props.asLong(MULTIPART_MEMORY_THRESHOLD, DEFAULT_MULTIPART_MEMORY_THRESHOLD);
+      long maxUploadSize = props.asLong(MAX_UPLOAD_SIZE, DEFAULT_MAX_UPLOAD_SIZE);
+      boolean etagResponses = props.asBoolean(ETAG_RESPONSES, false);
+      boolean virtualBlockingThreads = props.asBoolean(VIRTUAL_BLOCKING_THREADS, false);
+      int maxBlockingConcurrency = props.asInt(MAX_BLOCKING_CONCURRENCY, 0);
+      int executionTimelineSize = props.asInt(EXECUTION_TIMELINE_SIZE, 0);
+      String accessLogFile = props.asString(ACCESS_LOG_FILE, null);
+      int accessLogSampling = props.asInt(ACCESS_LOG_SAMPLING, 1);
 
       Map<String, String> otherProperties = new HashMap<>();
       PropertiesUtil.extractProperties("other.", properties, otherProperties);
@@ -167,6 +175,14 @@ public class LaunchConfigsInternal {
         .compressionMinSize(compressionMinSize)
         .compressionWhiteListMimeTypes(compressionMimeTypeWhiteList)
         .compressionBlackListMimeTypes(compressionMimeTypeBlackList)
+        .multipartMemoryThreshold(multipartMemoryThreshold)
+        .maxUploadSize(maxUploadSize)
+        .etagResponses(etagResponses)
+        .virtualBlockingThreads(virtualBlockingThreads)
+        .maxBlockingConcurrency(maxBlockingConcurrency)
+        .executionTimelineSize(executionTimelineSize)
+        .accessLogFile(accessLogFile == null ? null : Paths.get(accessLogFile))
+        .accessLogSampling(accessLogSampling)
         .indexFiles(indexFiles);
 
       if (sslKeystore != null) {
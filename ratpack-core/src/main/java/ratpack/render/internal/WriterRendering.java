@@ -0,0 +1,205 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ratpack.render.internal;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.handler.codec.http.HttpHeaders;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ratpack.exec.ExecControl;
+import ratpack.exec.internal.DefaultExecControl;
+import ratpack.func.Action;
+import ratpack.handling.Context;
+import ratpack.http.Response;
+import ratpack.util.internal.ByteBufWriter;
+
+import java.io.Writer;
+import java.util.concurrent.Executor;
+
+/**
+ * Support for renderers of content that is produced via a {@link Writer}, such as templates.
+ * <p>
+ * Output is encoded straight into buffers from the application's allocator, so the content never exists as a {@link String}.
+ * <p>
+ * If a chunk size is given, the content is produced on a blocking thread and sent with chunked transfer encoding,
+ * a chunk at a time as the content is produced, so that the client receives the start of a large response before it is complete.
+ * The blocking thread waits for each chunk to be requested before handing it over, so a slow client holds up production rather than the whole response being buffered in memory.
+ * The producer runs under the execution's {@linkplain ratpack.exec.ExecInterceptor.ExecType#BLOCKING blocking} interceptors.
+ * <p>
+ * As a consequence, each chunked response holds a blocking thread until the client has received all of it, so slow clients can tie up many blocking threads.
+ * The number of such threads can be capped with the {@linkplain ratpack.launch.LaunchConfig#getMaxBlockingConcurrency() max blocking concurrency},
+ * at the cost of later responses waiting to start until a blocking thread is free.
+ * As the response status and headers have been sent by the time a failure occurs in this mode, failures are logged and the response is truncated.
+ */
+public abstract class WriterRendering {
+
+  private final static Logger LOGGER = LoggerFactory.getLogger(WriterRendering.class);
+
+  private WriterRendering() {}
+
+  public static void render(Context context, String contentType, int chunkSize, Action<? super Writer> producer) {
+    ByteBufAllocator allocator = context.getLaunchConfig().getBufferAllocator();
+    Response response = context.getResponse();
+
+    if (chunkSize > 0) {
+      response.contentType(contentType);
+      response.getHeaders().set(HttpHeaders.Names.TRANSFER_ENCODING, HttpHeaders.Values.CHUNKED);
+      response.sendStream(context, new ChunkPublisher(blockingExecutor(context), allocator, chunkSize, producer));
+    } else {
+      ByteBuf buffer = allocator.buffer();
+      try {
+        ByteBufWriter writer = new ByteBufWriter(buffer);
+        producer.execute(writer);
+        writer.close();
+      } catch (Exception e) {
+        buffer.release();
+        context.error(e);
+        return;
+      }
+
+      response.send(contentType, buffer);
+    }
+  }
+
+  // Applies the execution's blocking interceptors to the producer, as the blocking promise of the execution can't be used for a stream
+  private static Executor blockingExecutor(Context context) {
+    ExecControl execControl = context.getController().getControl();
+    if (execControl instanceof DefaultExecControl) {
+      return ((DefaultExecControl) execControl).getInterceptedBlockingExecutor();
+    } else {
+      return context.getController().getBlockingExecutor();
+    }
+  }
+
+  private static class ChunkPublisher implements Publisher<ByteBuf> {
+
+    private final Executor executor;
+    private final ByteBufAllocator allocator;
+    private final int chunkSize;
+    private final Action<? super Writer> producer;
+
+    ChunkPublisher(Executor executor, ByteBufAllocator allocator, int chunkSize, Action<? super Writer> producer) {
+      this.executor = executor;
+      this.allocator = allocator;
+      this.chunkSize = chunkSize;
+      this.producer = producer;
+    }
+
+    @Override
+    public void subscribe(final Subscriber<ByteBuf> subscriber) {
+      subscriber.onSubscribe(new ChunkSubscription(subscriber));
+    }
+
+    // The producer pushes content into the writer, so it can't be suspended when there is no demand;
+    // instead the blocking thread waits in the flush callback until the subscriber requests more.
+    private class ChunkSubscription implements Subscription {
+      private final Subscriber<ByteBuf> subscriber;
+      private long demand;
+      private boolean started;
+      private boolean cancelled;
+
+      ChunkSubscription(Subscriber<ByteBuf> subscriber) {
+        this.subscriber = subscriber;
+      }
+
+      @Override
+      public void request(int n) {
+        if (n <= 0) {
+          cancel();
+          subscriber.onError(new IllegalArgumentException("Requested element count must be greater than zero, was " + n));
+          return;
+        }
+
+        boolean start;
+        synchronized (this) {
+          demand = Math.min(Long.MAX_VALUE - n, demand) + n;
+          notifyAll();
+          start = !started;
+          started = true;
+        }
+
+        if (start) {
+          executor.execute(new Runnable() {
+            @Override
+            public void run() {
+              produce();
+            }
+          });
+        }
+      }
+
+      @Override
+      public synchronized void cancel() {
+        cancelled = true;
+        notifyAll();
+      }
+
+      private synchronized void awaitDemand() throws InterruptedException {
+        while (demand == 0 && !cancelled) {
+          wait();
+        }
+        if (!cancelled) {
+          --demand;
+        }
+      }
+
+      private synchronized boolean isCancelled() {
+        return cancelled;
+      }
+
+      private void produce() {
+        ByteBufWriter writer = new ByteBufWriter(allocator, chunkSize, new Action<ByteBuf>() {
+          @Override
+          public void execute(ByteBuf chunk) throws Exception {
+            try {
+              awaitDemand();
+            } catch (InterruptedException e) {
+              chunk.release();
+              throw e;
+            }
+            if (isCancelled()) {
+              chunk.release();
+              throw new IllegalStateException("response stream was cancelled");
+            }
+            subscriber.onNext(chunk);
+          }
+        });
+
+        try {
+          producer.execute(writer);
+          writer.close();
+        } catch (Exception e) {
+          ByteBuf unsent = writer.getBuffer();
+          if (unsent != null) {
+            unsent.release();
+          }
+          if (!isCancelled()) {
+            LOGGER.warn("failed to produce chunked response, response will be truncated", e);
+            subscriber.onError(e);
+          }
+          return;
+        }
+
+        subscriber.onComplete();
+      }
+    }
+  }
+
+}
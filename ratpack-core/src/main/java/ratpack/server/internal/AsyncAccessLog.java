@@ -0,0 +1,312 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.server.internal;
+
+import io.netty.handler.codec.http.HttpVersion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes an access log in the common log format (plus the response time) to a file, without formatting or doing I/O on the calling thread.
+ * <p>
+ * Request threads claim a slot in a preallocated ring buffer and copy the details of the request into it as a fixed width binary entry.
+ * A single background thread formats the entries and writes them to the file in batches.
+ * If request threads get a full buffer's worth ahead of the writer, entries are dropped and counted instead of blocking the request thread.
+ */
+public class AsyncAccessLog implements AutoCloseable {
+
+  private final static Logger LOGGER = LoggerFactory.getLogger(AsyncAccessLog.class);
+
+  public static final int DEFAULT_CAPACITY = 4096;
+
+  // Layout of an entry
+  private static final int TIMESTAMP = 0;
+  private static final int DURATION = 8;
+  private static final int CONTENT_LENGTH = 16;
+  private static final int STATUS = 24;
+  private static final int VERSION_MAJOR = 26;
+  private static final int VERSION_MINOR = 27;
+  private static final int ADDRESS_LENGTH = 28;
+  private static final int ADDRESS = 29;
+  private static final int ADDRESS_MAX = 16;
+  private static final int METHOD_LENGTH = 45;
+  private static final int METHOD = 46;
+  private static final int METHOD_MAX = 16;
+  private static final int URI_LENGTH = 62;
+  private static final int URI = 64;
+  static final int ENTRY_SIZE = 512;
+  private static final int URI_MAX = ENTRY_SIZE - URI;
+
+  private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+  private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+  private final int mask;
+  private final ByteBuffer entries;
+  private final AtomicLongArray published;
+  private final AtomicLong head = new AtomicLong();
+  private volatile long tail;
+
+  private final int sampling;
+  private final AtomicLong dropped = new AtomicLong();
+
+  private final FileChannel file;
+  private final Thread writer;
+  private volatile boolean running = true;
+
+  public AsyncAccessLog(Path path, int sampling) throws IOException {
+    this(path, sampling, DEFAULT_CAPACITY);
+  }
+
+  public AsyncAccessLog(Path path, int sampling, int capacity) throws IOException {
+    if (Integer.bitCount(capacity) != 1) {
+      throw new IllegalArgumentException("capacity must be a power of two: " + capacity);
+    }
+    this.mask = capacity - 1;
+    this.entries = ByteBuffer.allocate(capacity * ENTRY_SIZE);
+    this.published = new AtomicLongArray(capacity);
+    this.sampling = Math.max(1, sampling);
+    this.file = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    this.writer = new Thread(new Writer(), "ratpack-access-log");
+    this.writer.setDaemon(true);
+    this.writer.start();
+  }
+
+  /**
+   * The number of entries that were dropped because the buffer was full.
+   *
+   * @return the number of entries that were dropped because the buffer was full
+   */
+  public long getDroppedCount() {
+    return dropped.get();
+  }
+
+  /**
+   * Parses a Content-Length header value for logging.
+   * <p>
+   * The header may have been set to anything by the application, so a missing or invalid value is logged as unknown rather than failing the response.
+   *
+   * @param contentLength the header value, may be {@code null}
+   * @return the content length, or {@code -1} if it is missing or invalid
+   */
+  public static long contentLength(String contentLength) {
+    if (contentLength == null) {
+      return -1;
+    }
+    try {
+      return Math.max(-1, Long.parseLong(contentLength.trim()));
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+
+  public void log(SocketAddress remoteAddress, String method, String uri, HttpVersion version, int status, long contentLength, long durationNanos) {
+    if (sampling > 1 && ThreadLocalRandom.current().nextInt(sampling) != 0) {
+      return;
+    }
+
+    long sequence;
+    do {
+      sequence = head.get();
+      if (sequence - tail > mask) {
+        dropped.incrementAndGet();
+        return;
+      }
+    } while (!head.compareAndSet(sequence, sequence + 1));
+
+    int slot = (int) (sequence & mask);
+    int offset = slot * ENTRY_SIZE;
+    entries.putLong(offset + TIMESTAMP, System.currentTimeMillis());
+    entries.putLong(offset + DURATION, durationNanos);
+    entries.putLong(offset + CONTENT_LENGTH, contentLength);
+    entries.putShort(offset + STATUS, (short) status);
+    entries.put(offset + VERSION_MAJOR, (byte) version.majorVersion());
+    entries.put(offset + VERSION_MINOR, (byte) version.minorVersion());
+
+    byte[] address = remoteAddress instanceof InetSocketAddress && ((InetSocketAddress) remoteAddress).getAddress() != null
+      ? ((InetSocketAddress) remoteAddress).getAddress().getAddress()
+      : new byte[0];
+    entries.put(offset + ADDRESS_LENGTH, (byte) putBytes(offset + ADDRESS, address, ADDRESS_MAX));
+    entries.put(offset + METHOD_LENGTH, (byte) putAscii(offset + METHOD, method, METHOD_MAX));
+    entries.putShort(offset + URI_LENGTH, (short) putAscii(offset + URI, uri, URI_MAX));
+
+    published.lazySet(slot, sequence + 1);
+  }
+
+  private int putBytes(int offset, byte[] bytes, int max) {
+    int length = Math.min(bytes.length, max);
+    for (int i = 0; i < length; ++i) {
+      entries.put(offset + i, bytes[i]);
+    }
+    return length;
+  }
+
+  private int putAscii(int offset, String string, int max) {
+    int length = Math.min(string.length(), max);
+    for (int i = 0; i < length; ++i) {
+      char c = string.charAt(i);
+      entries.put(offset + i, c < 0x80 ? (byte) c : (byte) '?');
+    }
+    return length;
+  }
+
+  @Override
+  public void close() {
+    running = false;
+    LockSupport.unpark(writer);
+    try {
+      writer.join(TimeUnit.SECONDS.toMillis(5));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private class Writer implements Runnable {
+
+    private final SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MMM/yyyy:HH:mm:ss Z", Locale.ENGLISH);
+    private final StringBuilder line = new StringBuilder(ENTRY_SIZE);
+    private final ByteBuffer output = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+    private long reportedDropped;
+
+    @Override
+    public void run() {
+      try {
+        boolean stopping = false;
+        while (true) {
+          int written = drain();
+          reportDropped();
+          if (written == 0) {
+            flush();
+            if (stopping) {
+              break;
+            } else if (running) {
+              LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            } else {
+              stopping = true; // one more pass for entries published while stopping
+            }
+          }
+        }
+      } catch (IOException e) {
+        LOGGER.error("Failed to write access log, no further entries will be written", e);
+      } finally {
+        try {
+          file.close();
+        } catch (IOException e) {
+          LOGGER.warn("Failed to close access log", e);
+        }
+      }
+    }
+
+    private int drain() throws IOException {
+      long sequence = tail;
+      int count = 0;
+      int slot = (int) (sequence & mask);
+      while (published.get(slot) == sequence + 1) {
+        format(slot * ENTRY_SIZE);
+        ++sequence;
+        ++count;
+        slot = (int) (sequence & mask);
+      }
+      tail = sequence;
+      return count;
+    }
+
+    private void format(int offset) throws IOException {
+      line.setLength(0);
+
+      int addressLength = entries.get(offset + ADDRESS_LENGTH);
+      if (addressLength == 0) {
+        line.append('-');
+      } else {
+        byte[] address = new byte[addressLength];
+        for (int i = 0; i < addressLength; ++i) {
+          address[i] = entries.get(offset + ADDRESS + i);
+        }
+        line.append(InetAddress.getByAddress(address).getHostAddress());
+      }
+
+      line.append(" - - [").append(dateFormat.format(new Date(entries.getLong(offset + TIMESTAMP)))).append("] \"");
+      appendAscii(offset + METHOD, entries.get(offset + METHOD_LENGTH));
+      line.append(' ');
+      appendAscii(offset + URI, entries.getShort(offset + URI_LENGTH));
+      line.append(" HTTP/").append(entries.get(offset + VERSION_MAJOR)).append('.').append(entries.get(offset + VERSION_MINOR))
+        .append("\" ").append(entries.getShort(offset + STATUS)).append(' ');
+
+      long contentLength = entries.getLong(offset + CONTENT_LENGTH);
+      if (contentLength < 0) {
+        line.append('-');
+      } else {
+        line.append(contentLength);
+      }
+
+      long duration = entries.getLong(offset + DURATION);
+      line.append(' ').append(TimeUnit.NANOSECONDS.toMicros(duration)).append("us\n");
+
+      writeLine();
+    }
+
+    private void appendAscii(int offset, int length) {
+      for (int i = 0; i < length; ++i) {
+        line.append((char) entries.get(offset + i));
+      }
+    }
+
+    private void writeLine() throws IOException {
+      byte[] bytes = line.toString().getBytes(StandardCharsets.ISO_8859_1);
+      if (output.remaining() < bytes.length) {
+        flush();
+      }
+      output.put(bytes);
+    }
+
+    private void reportDropped() {
+      long current = dropped.get();
+      if (current != reportedDropped) {
+        long newlyDropped = current - reportedDropped;
+        reportedDropped = current;
+        LOGGER.warn(newlyDropped + " access log entries were dropped as the access log could not keep up");
+      }
+    }
+
+    private void flush() throws IOException {
+      output.flip();
+      while (output.hasRemaining()) {
+        file.write(output);
+      }
+      output.clear();
+    }
+
+  }
+
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.server.internal;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.multipart.HttpPostRequestDecoder;
+
+/**
+ * A multipart request whose body has already been consumed by a decoder as it was received.
+ * <p>
+ * The request only has content of its own if the raw body was small enough to be kept in memory alongside the decoded parts,
+ * otherwise its content is empty.
+ * Whoever handles this request takes ownership of the decoder, and must {@link HttpPostRequestDecoder#destroy() destroy} it.
+ */
+public class DecodedMultipartHttpRequest extends DefaultFullHttpRequest {
+
+  private final HttpPostRequestDecoder decoder;
+
+  public DecodedMultipartHttpRequest(HttpRequest request, HttpPostRequestDecoder decoder, ByteBuf rawBody) {
+    super(request.getProtocolVersion(), request.getMethod(), request.getUri(), rawBody);
+    headers().set(request.headers());
+    HttpHeaders.removeTransferEncodingChunked(this);
+    this.decoder = decoder;
+  }
+
+  public HttpPostRequestDecoder getDecoder() {
+    return decoder;
+  }
+
+}
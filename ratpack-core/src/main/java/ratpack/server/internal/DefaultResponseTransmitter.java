@@ -46,8 +46,10 @@ class DefaultResponseTransmitter implements ResponseTransmitter {
   private final Status responseStatus;
   private final DefaultEventController<RequestOutcome> requestOutcomeEventController;
   private final long startTime;
+  private final boolean addResponseTimeHeader;
+  private final AsyncAccessLog accessLog;
 
-  public DefaultResponseTransmitter(AtomicBoolean transmitted, Channel channel, FullHttpRequest nettyRequest, Request ratpackRequest, HttpHeaders responseHeaders, Status responseStatus, DefaultEventController<RequestOutcome> requestOutcomeEventController, long startTime) {
+  public DefaultResponseTransmitter(AtomicBoolean transmitted, Channel channel, FullHttpRequest nettyRequest, Request ratpackRequest, HttpHeaders responseHeaders, Status responseStatus, DefaultEventController<RequestOutcome> requestOutcomeEventController, long startTime, boolean addResponseTimeHeader, AsyncAccessLog accessLog) {
     this.transmitted = transmitted;
     this.channel = channel;
     this.nettyRequest = nettyRequest.retain();
@@ -56,6 +58,8 @@ class DefaultResponseTransmitter implements ResponseTransmitter {
     this.responseStatus = responseStatus;
     this.requestOutcomeEventController = requestOutcomeEventController;
     this.startTime = startTime;
+    this.addResponseTimeHeader = addResponseTimeHeader;
+    this.accessLog = accessLog;
   }
 
   @Override
@@ -72,7 +76,7 @@ class DefaultResponseTransmitter implements ResponseTransmitter {
       }
 
       long stopTime = System.nanoTime();
-      if (startTime > 0) {
+      if (addResponseTimeHeader) {
         nettyResponse.headers().set("X-Response-Time", NumberUtil.toMillisDiffString(startTime, stopTime));
       }
 
@@ -104,6 +108,13 @@ class DefaultResponseTransmitter implements ResponseTransmitter {
         requestOutcomeEventController.fire(requestOutcome);
       }
 
+      if (accessLog != null) {
+        accessLog.log(
+          channel.remoteAddress(), ratpackRequest.getMethod().getName(), ratpackRequest.getRawUri(), nettyRequest.getProtocolVersion(),
+          responseStatus.getCode(), AsyncAccessLog.contentLength(responseHeaders.get(HttpHeaderConstants.CONTENT_LENGTH)), stopTime - startTime
+        );
+      }
+
       if (!isKeepAlive) {
         lastContentFuture.addListener(ChannelFutureListener.CLOSE);
       }
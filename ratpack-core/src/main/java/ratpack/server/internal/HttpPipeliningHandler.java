@@ -0,0 +1,91 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.server.internal;
+
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.util.ReferenceCountUtil;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+/**
+ * Serializes the handling of pipelined HTTP/1.1 requests on a connection, so that responses are sent in the order that the requests were received.
+ * <p>
+ * Requests are handled asynchronously, so without this a later request on a connection could be responded to before an earlier one.
+ * While a request is in flight, further requests are queued and reading from the connection is suspended until the response is written.
+ * <p>
+ * This handler is stateful, so an instance is required per channel.
+ */
+public class HttpPipeliningHandler extends ChannelDuplexHandler {
+
+  private final Queue<FullHttpRequest> pending = new ArrayDeque<>();
+  private boolean inFlight;
+
+  @Override
+  public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+    if (msg instanceof FullHttpRequest) {
+      if (inFlight) {
+        pending.add((FullHttpRequest) msg);
+        ctx.channel().config().setAutoRead(false);
+        return;
+      }
+      inFlight = true;
+    }
+    ctx.fireChannelRead(msg);
+  }
+
+  @Override
+  public void write(final ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+    if (msg instanceof LastHttpContent && inFlight) {
+      ctx.write(msg, promise).addListener(new ChannelFutureListener() {
+        @Override
+        public void operationComplete(ChannelFuture future) throws Exception {
+          next(ctx);
+        }
+      });
+    } else {
+      ctx.write(msg, promise);
+    }
+  }
+
+  private void next(ChannelHandlerContext ctx) {
+    FullHttpRequest request = pending.poll();
+    if (request == null) {
+      inFlight = false;
+      ctx.channel().config().setAutoRead(true);
+    } else {
+      ctx.fireChannelRead(request);
+    }
+  }
+
+  @Override
+  public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+    FullHttpRequest request = pending.poll();
+    while (request != null) {
+      ReferenceCountUtil.release(request);
+      request = pending.poll();
+    }
+    super.channelInactive(ctx);
+  }
+
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.server.internal;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.handler.codec.http.*;
+import io.netty.handler.codec.http.multipart.DefaultHttpDataFactory;
+import io.netty.handler.codec.http.multipart.DiskAttribute;
+import io.netty.handler.codec.http.multipart.DiskFileUpload;
+import io.netty.handler.codec.http.multipart.HttpPostMultipartRequestDecoder;
+import io.netty.handler.codec.http.multipart.HttpPostRequestDecoder;
+import io.netty.util.CharsetUtil;
+import io.netty.util.ReferenceCountUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decodes {@code multipart/form-data} request bodies incrementally, as each chunk is received.
+ * <p>
+ * This handler sits in front of the {@link HttpObjectAggregator}, so that multipart bodies are never aggregated in memory.
+ * Parts larger than the memory threshold are written to temporary files by the decoder.
+ * The decoder appends each chunk to a buffer of undecoded bytes, but (in this version of Netty) never discards the bytes it has decoded,
+ * so they are discarded after each chunk is offered, otherwise the whole raw body would be held in memory.
+ * The raw body is also kept, as long as it stays within the memory threshold, so that it is still available as the request body.
+ * When the last chunk has been received, a {@link DecodedMultipartHttpRequest} is emitted that carries the decoder.
+ * <p>
+ * Decoding, including writing to temporary files, happens on the event loop as each chunk is read.
+ * This avoids handing every chunk off to another thread, at the cost of blocking the event loop on disk writes for large uploads.
+ * <p>
+ * The declared content length is checked against the max upload size before any of the body is read,
+ * and the number of bytes received is checked as each chunk arrives.
+ */
+public class MultipartDecodingHandler extends ChannelInboundHandlerAdapter {
+
+  private final static Logger LOGGER = LoggerFactory.getLogger(MultipartDecodingHandler.class);
+
+  private static final Field DELEGATE_FIELD = accessibleField(HttpPostRequestDecoder.class, "decoder");
+  private static final Field UNDECODED_CHUNK_FIELD = accessibleField(HttpPostMultipartRequestDecoder.class, "undecodedChunk");
+
+  static {
+    // Temp files are deleted when the request completes.
+    // Registering each of them for deletion on exit would leak memory in a long running server.
+    DiskFileUpload.deleteOnExitTemporaryFile = false;
+    DiskAttribute.deleteOnExitTemporaryFile = false;
+  }
+
+  private final DefaultHttpDataFactory dataFactory;
+  private final long memoryThreshold;
+  private final long maxUploadSize;
+
+  private HttpRequest request;
+  private HttpPostRequestDecoder decoder;
+  private List<ByteBuf> rawBody;
+  private long received;
+  private boolean discarding;
+
+  public MultipartDecodingHandler(long memoryThreshold, long maxUploadSize) {
+    this.dataFactory = new DefaultHttpDataFactory(memoryThreshold);
+    this.memoryThreshold = memoryThreshold;
+    this.maxUploadSize = maxUploadSize;
+  }
+
+  @Override
+  public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+    if (msg instanceof HttpRequest) {
+      discarding = false;
+      HttpRequest httpRequest = (HttpRequest) msg;
+      if (!(msg instanceof FullHttpRequest) && httpRequest.getDecoderResult().isSuccess() && HttpPostRequestDecoder.isMultipart(httpRequest)) {
+        startDecoding(ctx, httpRequest);
+        return;
+      }
+    } else if (msg instanceof HttpContent) {
+      if (discarding) {
+        ReferenceCountUtil.release(msg);
+        return;
+      } else if (decoder != null) {
+        decode(ctx, (HttpContent) msg);
+        return;
+      }
+    }
+
+    ctx.fireChannelRead(msg);
+  }
+
+  private void startDecoding(ChannelHandlerContext ctx, HttpRequest httpRequest) {
+    if (HttpHeaders.getContentLength(httpRequest, -1) > maxUploadSize) {
+      reject(ctx, HttpResponseStatus.REQUEST_ENTITY_TOO_LARGE);
+      return;
+    }
+
+    try {
+      decoder = new HttpPostRequestDecoder(dataFactory, httpRequest);
+    } catch (HttpPostRequestDecoder.ErrorDataDecoderException e) {
+      reject(ctx, HttpResponseStatus.BAD_REQUEST);
+      return;
+    }
+
+    request = httpRequest;
+    rawBody = new ArrayList<>();
+    received = 0;
+
+    if (HttpHeaders.is100ContinueExpected(httpRequest)) {
+      ctx.writeAndFlush(new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.CONTINUE));
+    }
+  }
+
+  private void decode(ChannelHandlerContext ctx, HttpContent content) {
+    try {
+      received += content.content().readableBytes();
+      if (received > maxUploadSize) {
+        destroy();
+        reject(ctx, HttpResponseStatus.REQUEST_ENTITY_TOO_LARGE);
+        return;
+      }
+
+      keepRawBody(content.content());
+      decoder.offer(content);
+      discardDecodedBytes(decoder);
+
+      if (content instanceof LastHttpContent) {
+        ByteBuf body = rawBody == null ? Unpooled.EMPTY_BUFFER : Unpooled.wrappedBuffer(rawBody.toArray(new ByteBuf[rawBody.size()]));
+        DecodedMultipartHttpRequest decoded = new DecodedMultipartHttpRequest(request, decoder, body);
+        request = null;
+        decoder = null;
+        rawBody = null;
+        ctx.fireChannelRead(decoded);
+      }
+    } catch (HttpPostRequestDecoder.ErrorDataDecoderException e) {
+      destroy();
+      reject(ctx, HttpResponseStatus.BAD_REQUEST);
+    } finally {
+      content.release();
+    }
+  }
+
+  private void keepRawBody(ByteBuf chunk) {
+    if (rawBody == null) {
+      return;
+    }
+    if (received > memoryThreshold) {
+      releaseRawBody();
+    } else if (chunk.isReadable()) {
+      // The decoder consumes the chunk, so take a view of it first
+      rawBody.add(chunk.slice().retain());
+    }
+  }
+
+  private void releaseRawBody() {
+    if (rawBody != null) {
+      for (ByteBuf chunk : rawBody) {
+        chunk.release();
+      }
+      rawBody = null;
+    }
+  }
+
+  private static void discardDecodedBytes(HttpPostRequestDecoder decoder) {
+    ByteBuf undecoded = undecodedChunk(decoder);
+    if (undecoded != null && undecoded.readerIndex() > 0) {
+      undecoded.discardReadBytes();
+    }
+  }
+
+  /**
+   * The decoder's buffer of received bytes, which still holds the bytes that have been decoded until they are discarded.
+   *
+   * @param decoder a multipart decoder
+   * @return the buffer, or {@code null} if it can't be accessed
+   */
+  static ByteBuf undecodedChunk(HttpPostRequestDecoder decoder) {
+    if (DELEGATE_FIELD == null || UNDECODED_CHUNK_FIELD == null) {
+      return null;
+    }
+    try {
+      Object delegate = DELEGATE_FIELD.get(decoder);
+      return delegate instanceof HttpPostMultipartRequestDecoder ? (ByteBuf) UNDECODED_CHUNK_FIELD.get(delegate) : null;
+    } catch (IllegalAccessException e) {
+      return null;
+    }
+  }
+
+  private static Field accessibleField(Class<?> type, String name) {
+    try {
+      Field field = type.getDeclaredField(name);
+      field.setAccessible(true);
+      return field;
+    } catch (NoSuchFieldException | SecurityException e) {
+      LOGGER.warn("Cannot access {}.{}, so the raw bodies of multipart requests may be held in memory while they are decoded", type.getName(), name);
+      return null;
+    }
+  }
+
+  private void reject(ChannelHandlerContext ctx, HttpResponseStatus status) {
+    discarding = true;
+    FullHttpResponse response = new DefaultFullHttpResponse(
+      HttpVersion.HTTP_1_1, status, Unpooled.copiedBuffer("Failure: " + status.toString() + "\r\n", CharsetUtil.UTF_8));
+    response.headers().set(HttpHeaders.Names.CONTENT_TYPE, "text/plain; charset=UTF-8");
+    response.headers().set(HttpHeaders.Names.CONTENT_LENGTH, response.content().readableBytes());
+    response.headers().set(HttpHeaders.Names.CONNECTION, HttpHeaders.Values.CLOSE);
+
+    // The rest of the body is never read, so the connection can't be reused
+    ctx.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
+  }
+
+  private void destroy() {
+    releaseRawBody();
+    if (decoder != null) {
+      decoder.destroy();
+      decoder = null;
+      request = null;
+    }
+  }
+
+  @Override
+  public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+    destroy();
+    super.channelInactive(ctx);
+  }
+
+}
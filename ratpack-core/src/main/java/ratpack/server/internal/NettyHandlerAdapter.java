@@ -21,7 +21,11 @@ import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.*;
 import io.netty.handler.codec.http.*;
+import io.netty.handler.codec.http.multipart.HttpPostRequestDecoder;
 import io.netty.util.CharsetUtil;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.GenericFutureListener;
+import org.reactivestreams.Publisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import ratpack.error.ClientErrorHandler;
@@ -29,6 +33,7 @@ import ratpack.error.ServerErrorHandler;
 import ratpack.error.internal.DefaultClientErrorHandler;
 import ratpack.error.internal.DefaultServerErrorHandler;
 import ratpack.event.internal.DefaultEventController;
+import ratpack.exec.ExecControl;
 import ratpack.exec.ExecController;
 import ratpack.exec.Execution;
 import ratpack.file.FileRenderer;
@@ -51,7 +56,9 @@ import ratpack.handling.internal.DescribingHandlers;
 import ratpack.http.MutableHeaders;
 import ratpack.http.Request;
 import ratpack.http.Response;
+import ratpack.http.client.HostResolver;
 import ratpack.http.client.HttpClient;
+import ratpack.http.client.HostResolvers;
 import ratpack.http.client.HttpClients;
 import ratpack.http.internal.*;
 import ratpack.launch.LaunchConfig;
@@ -76,6 +83,7 @@ import java.net.InetSocketAddress;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import static ratpack.util.ExceptionUtils.uncheck;
 import static ratpack.util.internal.ProtocolUtil.HTTPS_SCHEME;
 import static ratpack.util.internal.ProtocolUtil.HTTP_SCHEME;
 
@@ -96,7 +104,9 @@ public class NettyHandlerAdapter extends SimpleChannelInboundHandler<FullHttpReq
   private Registry registry;
 
   private final boolean addResponseTimeHeader;
+  private final AsyncAccessLog accessLog;
   private final boolean compressResponses;
+  private final boolean etagResponses;
   private final long compressionMinSize;
   private final ImmutableSet<String> compressionMimeTypeWhiteList;
   private final ImmutableSet<String> compressionMimeTypeBlackList;
@@ -105,6 +115,7 @@ public class NettyHandlerAdapter extends SimpleChannelInboundHandler<FullHttpReq
     this.handlers = new Handler[]{handler};
     this.return404 = Handlers.notFound();
     this.launchConfig = launchConfig;
+    HostResolver hostResolver = HostResolvers.cached(HostResolvers.system());
     RegistryBuilder registryBuilder = Registries.registry()
       // If you update this list, update the class level javadoc on Context.
       .add(Stopper.class, stopper)
@@ -120,7 +131,8 @@ public class NettyHandlerAdapter extends SimpleChannelInboundHandler<FullHttpReq
       .add(CharSequenceRenderer.class, new DefaultCharSequenceRenderer())
       .add(FormParser.class, FormParser.multiPart())
       .add(FormParser.class, FormParser.urlEncoded())
-      .add(HttpClient.class, HttpClients.httpClient(launchConfig));
+      .add(HostResolver.class, hostResolver)
+      .add(HttpClient.class, HttpClients.httpClient(launchConfig, hostResolver));
 
     if (launchConfig.isHasBaseDir()) {
       registryBuilder.add(FileSystemBinding.class, launchConfig.getBaseDir());
@@ -130,11 +142,34 @@ public class NettyHandlerAdapter extends SimpleChannelInboundHandler<FullHttpReq
 
     this.addResponseTimeHeader = launchConfig.isTimeResponses();
     this.compressResponses = launchConfig.isCompressResponses();
+    this.etagResponses = launchConfig.isEtagResponses();
     this.compressionMinSize = launchConfig.getCompressionMinSize();
     this.compressionMimeTypeWhiteList = launchConfig.getCompressionMimeTypeWhiteList();
     this.compressionMimeTypeBlackList = launchConfig.getCompressionMimeTypeBlackList();
     this.applicationConstants = new DefaultContext.ApplicationConstants(launchConfig, new DefaultRenderController());
     this.execController = launchConfig.getExecController();
+    this.accessLog = createAccessLog(launchConfig);
+  }
+
+  private AsyncAccessLog createAccessLog(LaunchConfig launchConfig) {
+    if (launchConfig.getAccessLogFile() == null) {
+      return null;
+    }
+
+    final AsyncAccessLog accessLog;
+    try {
+      accessLog = new AsyncAccessLog(launchConfig.getAccessLogFile(), launchConfig.getAccessLogSampling());
+    } catch (IOException e) {
+      throw uncheck(e);
+    }
+
+    execController.getEventLoopGroup().terminationFuture().addListener(new GenericFutureListener<Future<Object>>() {
+      @Override
+      public void operationComplete(Future<Object> future) throws Exception {
+        accessLog.close();
+      }
+    });
+    return accessLog;
   }
 
   @Override
@@ -155,7 +190,7 @@ public class NettyHandlerAdapter extends SimpleChannelInboundHandler<FullHttpReq
       return;
     }
 
-    final long startTime = addResponseTimeHeader ? System.nanoTime() : 0;
+    final long startTime = addResponseTimeHeader || accessLog != null ? System.nanoTime() : 0;
     final Request request = new DefaultRequest(new NettyHeadersBackedHeaders(nettyRequest.headers()), nettyRequest.getMethod().name(), nettyRequest.getUri(), nettyRequest.content());
     final Channel channel = ctx.channel();
     final DefaultMutableStatus responseStatus = new DefaultMutableStatus();
@@ -165,25 +200,63 @@ public class NettyHandlerAdapter extends SimpleChannelInboundHandler<FullHttpReq
     final DefaultEventController<RequestOutcome> requestOutcomeEventController = new DefaultEventController<>();
     final AtomicBoolean transmitted = new AtomicBoolean(false);
 
-    final ResponseTransmitter responseTransmitter = new DefaultResponseTransmitter(transmitted, channel, nettyRequest, request, nettyHeaders, responseStatus, requestOutcomeEventController, startTime);
+    if (nettyRequest instanceof DecodedMultipartHttpRequest) {
+      final HttpPostRequestDecoder decoder = ((DecodedMultipartHttpRequest) nettyRequest).getDecoder();
+      request.register(HttpPostRequestDecoder.class, decoder);
+      requestOutcomeEventController.getRegistry().register(new Action<RequestOutcome>() {
+        @Override
+        public void execute(RequestOutcome thing) throws Exception {
+          decoder.destroy();
+        }
+      });
+    }
+
+    final ResponseTransmitter responseTransmitter = new DefaultResponseTransmitter(transmitted, channel, nettyRequest, request, nettyHeaders, responseStatus, requestOutcomeEventController, startTime, addResponseTimeHeader, accessLog);
     final Action<Action<? super ResponseTransmitter>> responseTransmitterWrapper = Actions.wrap(responseTransmitter);
 
     final FileHttpTransmitter fileHttpTransmitter = new DefaultFileHttpTransmitter(nettyHeaders, mimeTypes,
       compressResponses, compressionMinSize, compressionMimeTypeWhiteList, compressionMimeTypeBlackList, responseTransmitterWrapper);
-    StreamTransmitter streamTransmitter = new DefaultStreamTransmitter(nettyRequest, nettyHeaders, channel);
+    final StreamTransmitter defaultStreamTransmitter = new DefaultStreamTransmitter(nettyRequest, nettyHeaders, responseStatus, channel, new Action<Long>() {
+      @Override
+      public void execute(Long bytesWritten) throws Exception {
+        if (accessLog != null) {
+          accessLog.log(
+            channel.remoteAddress(), request.getMethod().getName(), request.getRawUri(), nettyRequest.getProtocolVersion(),
+            responseStatus.getCode(), bytesWritten, System.nanoTime() - startTime
+          );
+        }
+      }
+    });
+    StreamTransmitter streamTransmitter = new StreamTransmitter() {
+      @Override
+      public void transmit(ExecControl execContext, Publisher<ByteBuf> stream) {
+        // The execution may complete after the stream, so it must not then be treated as having sent no response
+        transmitted.set(true);
+        defaultStreamTransmitter.transmit(execContext, stream);
+      }
+    };
 
+    boolean etags = etagResponses && (request.getMethod().isGet() || request.getMethod().isHead());
     final Response response = new DefaultResponse(responseStatus, responseHeaders, fileHttpTransmitter, streamTransmitter, ctx.alloc(), new Action<ByteBuf>() {
       @Override
       public void execute(final ByteBuf byteBuf) throws Exception {
         responseTransmitterWrapper.execute(new Action<ResponseTransmitter>() {
           @Override
           public void execute(ResponseTransmitter responseTransmitter) throws Exception {
-            nettyHeaders.set(HttpHeaders.Names.CONTENT_LENGTH, byteBuf.writerIndex());
+            for (ResponseCommitListener listener : request.getAll(ResponseCommitListener.class)) {
+              listener.onCommit(responseStatus, responseHeaders, byteBuf);
+            }
+            if (responseStatus.getCode() == HttpResponseStatus.NOT_MODIFIED.code()) {
+              // A 304 has no body, and a Content-Length would describe the representation the client already has
+              nettyHeaders.remove(HttpHeaders.Names.CONTENT_LENGTH);
+            } else {
+              nettyHeaders.set(HttpHeaders.Names.CONTENT_LENGTH, byteBuf.writerIndex());
+            }
             responseTransmitter.transmit(new DefaultHttpContent(byteBuf));
           }
         });
       }
-    });
+    }, etags, compressResponses, request.getHeaders());
 
     InetSocketAddress socketAddress = (InetSocketAddress) channel.localAddress();
     final BindAddress bindAddress = new InetSocketAddressBackedBindAddress(socketAddress);
@@ -208,7 +281,7 @@ public class NettyHandlerAdapter extends SimpleChannelInboundHandler<FullHttpReq
       applicationConstants, bindAddress, request, response, directChannelAccess, requestOutcomeEventController.getRegistry()
     );
 
-    DefaultContext.start(execController.getControl(), requestConstants, registry, handlers, return404, new Action<Execution>() {
+    DefaultContext.start(execController.getControl(), channel.eventLoop(), requestConstants, registry, handlers, return404, new Action<Execution>() {
       @Override
       public void execute(Execution execution) throws Exception {
         if (!transmitted.get()) {
@@ -37,11 +37,15 @@ public class RatpackChannelInitializer extends ChannelInitializer<SocketChannel>
   private NettyHandlerAdapter nettyHandlerAdapter;
   private SSLContext sslContext;
   private int maxContentLength;
+  private long multipartMemoryThreshold;
+  private long maxUploadSize;
 
   public RatpackChannelInitializer(LaunchConfig launchConfig, Handler handler, Stopper stopper) {
     this.nettyHandlerAdapter = new NettyHandlerAdapter(stopper, handler, launchConfig);
     this.sslContext = launchConfig.getSSLContext();
     this.maxContentLength = launchConfig.getMaxContentLength();
+    this.multipartMemoryThreshold = launchConfig.getMultipartMemoryThreshold();
+    this.maxUploadSize = launchConfig.getMaxUploadSize();
     this.compressResponses = launchConfig.isCompressResponses();
   }
 
@@ -55,12 +59,19 @@ public class RatpackChannelInitializer extends ChannelInitializer<SocketChannel>
     }
 
     pipeline.addLast("decoder", new HttpRequestDecoder(4096, 8192, 8192, false));
-    pipeline.addLast("aggregator", new HttpObjectAggregator(maxContentLength));
+    pipeline.addLast("multipart", new MultipartDecodingHandler(multipartMemoryThreshold, maxUploadSize));
+    pipeline.addLast("aggregator", new HttpObjectAggregator(maxContentLength) {
+      @Override
+      public boolean acceptInboundMessage(Object msg) throws Exception {
+        return !(msg instanceof DecodedMultipartHttpRequest) && super.acceptInboundMessage(msg);
+      }
+    });
     pipeline.addLast("encoder", new HttpResponseEncoder());
     if (compressResponses) {
       pipeline.addLast("deflater", new SmartHttpContentCompressor());
     }
     pipeline.addLast("chunkedWriter", new ChunkedWriteHandler());
+    pipeline.addLast("pipelining", new HttpPipeliningHandler());
     pipeline.addLast("handler", nettyHandlerAdapter);
   }
 }
\ No newline at end of file
@@ -20,16 +20,18 @@ import org.reactivestreams.Publisher;
 import org.reactivestreams.Subscriber;
 import org.reactivestreams.Subscription;
 
-import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * A Reactive Streams compliant {@link org.reactivestreams.Publisher} for publishing to multiple {@link org.reactivestreams.Subscriber}.
+ * <p>
+ * Back pressure is not supported.
+ * A subscriber receives every element broadcast after it first requests elements, regardless of how many it requested.
  * @param <T> the Type of element being published
  */
 public class MulticastPublisher<T> implements Publisher<T> {
 
-  private final List<Subscriber<T>> subscribers = new CopyOnWriteArrayList<>();
+  private final CopyOnWriteArrayList<Subscriber<T>> subscribers = new CopyOnWriteArrayList<>();
 
   public void broadcast(T element) {
     for (Subscriber<T> subscriber : subscribers) {
@@ -42,10 +44,7 @@ public class MulticastPublisher<T> implements Publisher<T> {
     s.onSubscribe(new Subscription() {
       @Override
       public void request(int n) {
-        if (n != Integer.MAX_VALUE) {
-          throw new IllegalArgumentException("Back pressure is not supported by this Publisher.  Request with Integer.MAX_VALUE only");
-        }
-        subscribers.add(s);
+        subscribers.addIfAbsent(s);
       }
 
       @Override
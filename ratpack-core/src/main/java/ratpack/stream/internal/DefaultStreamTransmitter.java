@@ -24,7 +24,12 @@ import io.netty.handler.codec.http.*;
 import org.reactivestreams.Publisher;
 import org.reactivestreams.Subscriber;
 import org.reactivestreams.Subscription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import ratpack.exec.ExecControl;
+import ratpack.func.Action;
+import ratpack.func.Actions;
+import ratpack.http.Status;
 import ratpack.http.internal.CustomHttpResponse;
 import ratpack.http.internal.HttpHeaderConstants;
 
@@ -32,24 +37,41 @@ import static io.netty.handler.codec.http.HttpHeaders.isKeepAlive;
 
 public class DefaultStreamTransmitter implements StreamTransmitter {
 
+  private final static Logger LOGGER = LoggerFactory.getLogger(DefaultStreamTransmitter.class);
+
   private final FullHttpRequest request;
   private final HttpHeaders httpHeaders;
+  private final Status responseStatus;
   protected final Channel channel;
+  private final Action<? super Long> onTransmitted;
+
+  public DefaultStreamTransmitter(FullHttpRequest request, HttpHeaders httpHeaders, Status responseStatus, Channel channel) {
+    this(request, httpHeaders, responseStatus, channel, Actions.noop());
+  }
 
-  public DefaultStreamTransmitter(FullHttpRequest request, HttpHeaders httpHeaders, Channel channel) {
+  /**
+   * @param onTransmitted called once with the number of body bytes written, when the stream ends or is abandoned because the client went away
+   */
+  public DefaultStreamTransmitter(FullHttpRequest request, HttpHeaders httpHeaders, Status responseStatus, Channel channel, Action<? super Long> onTransmitted) {
     this.request = request;
     this.httpHeaders = httpHeaders;
+    this.responseStatus = responseStatus;
     this.channel = channel;
+    this.onTransmitted = onTransmitted;
   }
 
   @Override
   public void transmit(ExecControl execContext, Publisher<ByteBuf> stream) {
-    final HttpResponse response = new CustomHttpResponse(HttpResponseStatus.OK, httpHeaders);
+    final HttpResponse response = new CustomHttpResponse(new HttpResponseStatus(responseStatus.getCode(), responseStatus.getMessage()), httpHeaders);
 
-    if (isKeepAlive(request)) {
+    final boolean keepAlive = isKeepAlive(request);
+    if (keepAlive) {
       response.headers().set(HttpHeaderConstants.CONNECTION, HttpHeaderConstants.KEEP_ALIVE);
     }
 
+    // The end of the body can only be signalled to the client without closing the connection if it has been told the length up front (e.g. proxied responses)
+    final boolean reuseConnection = keepAlive && response.headers().contains(HttpHeaderConstants.CONTENT_LENGTH);
+
     request.content().release();
 
     HttpResponse minimalResponse = new DefaultHttpResponse(response.getProtocolVersion(), response.getStatus());
@@ -66,25 +88,33 @@ public class DefaultStreamTransmitter implements StreamTransmitter {
 
     execContext.stream(stream, new Subscriber<ByteBuf>() {
       Subscription subscription;
+      long bytesWritten;
+      boolean done;
 
       @Override
       public void onSubscribe(Subscription subscription) {
         if (this.subscription == null) {
           this.subscription = subscription;
-          this.subscription.request(Integer.MAX_VALUE);
+          this.subscription.request(1);
         } else {
           this.subscription.cancel();
         }
       }
 
+      // The next element is only requested once the previous one has been written to the socket,
+      // so that a publisher that can go faster than the client is reading doesn't fill up the channel's outbound buffer.
       @Override
       public void onNext(ByteBuf element) {
+        bytesWritten += element.readableBytes();
         ChannelFuture writeFuture = channel.writeAndFlush(element);
         writeFuture.addListener(new ChannelFutureListener() {
           public void operationComplete(ChannelFuture future) throws Exception {
-            if (!future.isSuccess()) {
+            if (future.isSuccess()) {
+              subscription.request(1);
+            } else {
               subscription.cancel();
               channel.close();
+              done();
             }
           }
         });
@@ -93,13 +123,30 @@ public class DefaultStreamTransmitter implements StreamTransmitter {
       @Override
       public void onComplete() {
         ChannelFuture lastContentFuture = channel.writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT);
-        lastContentFuture.addListener(ChannelFutureListener.CLOSE);
+        if (reuseConnection) {
+          lastContentFuture.addListener(ChannelFutureListener.CLOSE_ON_FAILURE);
+        } else {
+          lastContentFuture.addListener(ChannelFutureListener.CLOSE);
+        }
+        done();
       }
 
       @Override
       public void onError(Throwable cause) {
         ChannelFuture lastContentFuture = channel.writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT);
         lastContentFuture.addListener(ChannelFutureListener.CLOSE);
+        done();
+      }
+
+      private void done() {
+        if (!done) {
+          done = true;
+          try {
+            onTransmitted.execute(bytesWritten);
+          } catch (Exception e) {
+            LOGGER.warn("Exception raised after transmitting stream", e);
+          }
+        }
       }
     });
   }
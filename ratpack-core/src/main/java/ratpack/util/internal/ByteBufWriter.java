@@ -0,0 +1,179 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ratpack.util.internal;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import ratpack.func.Action;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import static ratpack.util.ExceptionUtils.uncheck;
+
+/**
+ * A writer that encodes characters as UTF-8 directly into a buffer, without intermediate strings or byte arrays.
+ * <p>
+ * In chunked mode, the buffer is handed off to a chunk handler whenever it reaches the chunk size (and when the writer is closed),
+ * and a new buffer is allocated for subsequent output.
+ * Malformed surrogate pairs are encoded as {@code '?'}, consistently with {@link String#getBytes(java.nio.charset.Charset)}.
+ */
+public class ByteBufWriter extends Writer {
+
+  private final ByteBufAllocator allocator;
+  private final int chunkSize;
+  private final Action<? super ByteBuf> chunkHandler;
+
+  private ByteBuf buffer;
+  private char highSurrogate;
+  private boolean closed;
+
+  public ByteBufWriter(ByteBuf buffer) {
+    this.buffer = buffer;
+    this.allocator = null;
+    this.chunkSize = 0;
+    this.chunkHandler = null;
+  }
+
+  public ByteBufWriter(ByteBufAllocator allocator, int chunkSize, Action<? super ByteBuf> chunkHandler) {
+    this.allocator = allocator;
+    this.chunkSize = chunkSize;
+    this.chunkHandler = chunkHandler;
+    this.buffer = allocator.buffer(chunkSize);
+  }
+
+  public ByteBuf getBuffer() {
+    return buffer;
+  }
+
+  @Override
+  public void write(int c) throws IOException {
+    encode((char) c);
+    maybeEmit();
+  }
+
+  @Override
+  public void write(char[] cbuf, int off, int len) throws IOException {
+    buffer.ensureWritable(len);
+    for (int i = off; i < off + len; ++i) {
+      encode(cbuf[i]);
+    }
+    maybeEmit();
+  }
+
+  @Override
+  public void write(String str, int off, int len) throws IOException {
+    buffer.ensureWritable(len);
+    for (int i = off; i < off + len; ++i) {
+      encode(str.charAt(i));
+    }
+    maybeEmit();
+  }
+
+  @Override
+  public Writer append(CharSequence csq) throws IOException {
+    CharSequence chars = csq == null ? "null" : csq;
+    return append(chars, 0, chars.length());
+  }
+
+  @Override
+  public Writer append(CharSequence csq, int start, int end) throws IOException {
+    CharSequence chars = csq == null ? "null" : csq;
+    buffer.ensureWritable(end - start);
+    for (int i = start; i < end; ++i) {
+      encode(chars.charAt(i));
+    }
+    maybeEmit();
+    return this;
+  }
+
+  private void encode(char c) {
+    if (highSurrogate != 0) {
+      char high = highSurrogate;
+      highSurrogate = 0;
+      if (Character.isLowSurrogate(c)) {
+        int codePoint = Character.toCodePoint(high, c);
+        buffer.writeByte(0xF0 | (codePoint >> 18));
+        buffer.writeByte(0x80 | ((codePoint >> 12) & 0x3F));
+        buffer.writeByte(0x80 | ((codePoint >> 6) & 0x3F));
+        buffer.writeByte(0x80 | (codePoint & 0x3F));
+        return;
+      } else {
+        buffer.writeByte('?');
+      }
+    }
+
+    if (c < 0x80) {
+      buffer.writeByte(c);
+    } else if (c < 0x800) {
+      buffer.writeByte(0xC0 | (c >> 6));
+      buffer.writeByte(0x80 | (c & 0x3F));
+    } else if (Character.isHighSurrogate(c)) {
+      highSurrogate = c;
+    } else if (Character.isLowSurrogate(c)) {
+      buffer.writeByte('?');
+    } else {
+      buffer.writeByte(0xE0 | (c >> 12));
+      buffer.writeByte(0x80 | ((c >> 6) & 0x3F));
+      buffer.writeByte(0x80 | (c & 0x3F));
+    }
+  }
+
+  private void maybeEmit() {
+    if (chunkHandler != null && buffer.readableBytes() >= chunkSize) {
+      emit(allocator.buffer(chunkSize));
+    }
+  }
+
+  private void emit(ByteBuf next) {
+    ByteBuf chunk = buffer;
+    buffer = next;
+    try {
+      chunkHandler.execute(chunk);
+    } catch (Exception e) {
+      throw uncheck(e);
+    }
+  }
+
+  /**
+   * Does nothing, as chunks are only emitted when they are full so that they aren't too small to be worth writing.
+   */
+  @Override
+  public void flush() {}
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+
+    if (highSurrogate != 0) {
+      highSurrogate = 0;
+      buffer.writeByte('?');
+    }
+
+    if (chunkHandler != null) {
+      if (buffer.isReadable()) {
+        emit(null);
+      } else {
+        buffer.release();
+        buffer = null;
+      }
+    }
+  }
+
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.util.internal;
+
+import io.netty.buffer.ByteBuf;
+
+import java.nio.ByteOrder;
+
+/**
+ * An implementation of the <a href="https://github.com/Cyan4973/xxHash">xxHash64</a> non-cryptographic hash function over byte buffers.
+ * <p>
+ * The readable bytes of the buffer are hashed in place, without copying, regardless of whether it is a heap or direct buffer.
+ * The reader index of the buffer is not changed.
+ */
+public abstract class XxHash64 {
+
+  private static final long PRIME1 = 0x9E3779B185EBCA87L;
+  private static final long PRIME2 = 0xC2B2AE3D27D4EB4FL;
+  private static final long PRIME3 = 0x165667B19E3779F9L;
+  private static final long PRIME4 = 0x85EBCA77C2B2AE63L;
+  private static final long PRIME5 = 0x27D4EB2F165667C5L;
+
+  private XxHash64() {
+  }
+
+  public static long hash(ByteBuf buffer) {
+    return hash(buffer, 0);
+  }
+
+  public static long hash(ByteBuf buffer, long seed) {
+    ByteBuf buf = buffer.order(ByteOrder.LITTLE_ENDIAN);
+    int index = buf.readerIndex();
+    int end = buf.writerIndex();
+    int length = end - index;
+    long hash;
+
+    if (length >= 32) {
+      long v1 = seed + PRIME1 + PRIME2;
+      long v2 = seed + PRIME2;
+      long v3 = seed;
+      long v4 = seed - PRIME1;
+      int limit = end - 32;
+      do {
+        v1 = round(v1, buf.getLong(index));
+        v2 = round(v2, buf.getLong(index + 8));
+        v3 = round(v3, buf.getLong(index + 16));
+        v4 = round(v4, buf.getLong(index + 24));
+        index += 32;
+      } while (index <= limit);
+
+      hash = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+      hash = merge(hash, v1);
+      hash = merge(hash, v2);
+      hash = merge(hash, v3);
+      hash = merge(hash, v4);
+    } else {
+      hash = seed + PRIME5;
+    }
+
+    hash += length;
+
+    while (index + 8 <= end) {
+      hash ^= round(0, buf.getLong(index));
+      hash = Long.rotateLeft(hash, 27) * PRIME1 + PRIME4;
+      index += 8;
+    }
+
+    if (index + 4 <= end) {
+      hash ^= buf.getUnsignedInt(index) * PRIME1;
+      hash = Long.rotateLeft(hash, 23) * PRIME2 + PRIME3;
+      index += 4;
+    }
+
+    while (index < end) {
+      hash ^= (buf.getByte(index) & 0xFF) * PRIME5;
+      hash = Long.rotateLeft(hash, 11) * PRIME1;
+      ++index;
+    }
+
+    hash ^= hash >>> 33;
+    hash *= PRIME2;
+    hash ^= hash >>> 29;
+    hash *= PRIME3;
+    hash ^= hash >>> 32;
+    return hash;
+  }
+
+  private static long round(long acc, long input) {
+    acc += input * PRIME2;
+    acc = Long.rotateLeft(acc, 31);
+    return acc * PRIME1;
+  }
+
+  private static long merge(long acc, long value) {
+    acc ^= round(0, value);
+    return acc * PRIME1 + PRIME4;
+  }
+
+}
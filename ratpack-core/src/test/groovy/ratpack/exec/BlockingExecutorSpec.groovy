@@ -0,0 +1,114 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.exec
+
+import ratpack.exec.internal.VirtualThreads
+import ratpack.launch.LaunchConfigBuilder
+import spock.lang.AutoCleanup
+import spock.lang.Requires
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+class BlockingExecutorSpec extends Specification {
+
+  @AutoCleanup
+  ExecController controller
+
+  @Unroll
+  def "max blocking concurrency is respected when virtual threads are #virtual"() {
+    given:
+    controller = LaunchConfigBuilder.noBaseDir().virtualBlockingThreads(virtual).maxBlockingConcurrency(2).build().execController
+    def inProgress = new AtomicInteger()
+    def maxInProgress = new AtomicInteger()
+    def latch = new CountDownLatch(10)
+
+    when:
+    10.times {
+      controller.control.fork {
+        controller.control.blocking {
+          def current = inProgress.incrementAndGet()
+          synchronized (maxInProgress) {
+            maxInProgress.set(Math.max(current, maxInProgress.get()))
+          }
+          sleep 50
+          inProgress.decrementAndGet()
+        } then {
+          latch.countDown()
+        }
+      }
+    }
+
+    then:
+    latch.await(10, TimeUnit.SECONDS)
+    maxInProgress.get() == 2
+
+    where:
+    virtual << [false, true]
+  }
+
+  @Requires({ VirtualThreads.supported })
+  def "blocking operations are performed on managed virtual threads"() {
+    given:
+    controller = LaunchConfigBuilder.noBaseDir().virtualBlockingThreads(true).build().execController
+    def results = new ConcurrentLinkedQueue()
+    def latch = new CountDownLatch(1)
+
+    when:
+    controller.control.fork { execution ->
+      controller.control.blocking {
+        [Thread.currentThread().virtual, controller.managedThread, execution.eventLoop.inEventLoop()]
+      } then {
+        results.addAll(it)
+        results << execution.eventLoop.inEventLoop()
+        latch.countDown()
+      }
+    }
+
+    then:
+    latch.await(10, TimeUnit.SECONDS)
+    results.toList() == [true, true, false, true]
+  }
+
+  @Requires({ !VirtualThreads.supported })
+  def "blocking operations fall back to platform threads when virtual threads are not supported"() {
+    given:
+    controller = LaunchConfigBuilder.noBaseDir().virtualBlockingThreads(true).maxBlockingConcurrency(2).build().execController
+    def threadName = null
+    def latch = new CountDownLatch(1)
+
+    when:
+    controller.control.fork {
+      controller.control.blocking {
+        Thread.currentThread().name
+      } then {
+        threadName = it
+        latch.countDown()
+      }
+    }
+
+    then:
+    latch.await(10, TimeUnit.SECONDS)
+    threadName.startsWith("ratpack-blocking")
+    !threadName.startsWith("ratpack-blocking-virtual")
+  }
+
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.exec
+
+import ratpack.launch.LaunchConfigBuilder
+import spock.lang.AutoCleanup
+import spock.lang.Specification
+
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+class CoalescerSpec extends Specification {
+
+  @AutoCleanup
+  ExecController controller
+  def results = new ConcurrentLinkedQueue()
+  def invocations = new AtomicInteger()
+
+  def setup() {
+    controller = LaunchConfigBuilder.noBaseDir().build().execController
+  }
+
+  ExecControl getControl() {
+    controller.control
+  }
+
+  void request(int times, Closure<Promise> promise) {
+    def latch = new CountDownLatch(times)
+    times.times {
+      control.fork({
+        promise.call().onError { results << "error: $it.message"; latch.countDown() }.then { results << it; latch.countDown() }
+      })
+    }
+    assert latch.await(10, TimeUnit.SECONDS)
+  }
+
+  def "concurrent callers for the same key share one operation"() {
+    given:
+    def coalescer = Coalescers.<String, String> coalescer(control)
+    def release = new CountDownLatch(1)
+
+    when:
+    Thread.start { sleep 500; release.countDown() }
+    request(10) {
+      coalescer.blocking("a") {
+        release.await()
+        "value ${invocations.incrementAndGet()}".toString()
+      }
+    }
+
+    then:
+    invocations.get() == 1
+    results.toList() == ["value 1"] * 10
+
+    when:
+    results.clear()
+    request(1) { coalescer.blocking("a") { "value ${invocations.incrementAndGet()}".toString() } }
+
+    then:
+    results.toList() == ["value 2"]
+  }
+
+  def "different keys are not coalesced"() {
+    given:
+    def coalescer = Coalescers.<String, String> coalescer(control)
+
+    when:
+    def keys = ["a", "b", "c"].iterator()
+    request(3) {
+      def key = keys.next()
+      coalescer.blocking(key) { invocations.incrementAndGet(); key }
+    }
+
+    then:
+    invocations.get() == 3
+    results.toList().sort() == ["a", "b", "c"]
+  }
+
+  def "failures are delivered to all callers and are not memoized"() {
+    given:
+    def coalescer = Coalescers.<String, String> coalescer(control, 1, TimeUnit.HOURS)
+    def release = new CountDownLatch(1)
+
+    when:
+    Thread.start { sleep 500; release.countDown() }
+    request(5) {
+      coalescer.blocking("a") {
+        release.await()
+        throw new IllegalStateException("failed ${invocations.incrementAndGet()}")
+      }
+    }
+
+    then:
+    results.toList() == ["error: failed 1"] * 5
+
+    when:
+    results.clear()
+    request(1) { coalescer.blocking("a") { "value ${invocations.incrementAndGet()}".toString() } }
+
+    then:
+    results.toList() == ["value 2"]
+  }
+
+  def "successful results are memoized until invalidated"() {
+    given:
+    def coalescer = Coalescers.<String, String> coalescer(control, 1, TimeUnit.HOURS)
+    def operation = {
+      coalescer.promise("a") {
+        control.promise { f -> f.success("value ${invocations.incrementAndGet()}".toString()) }
+      }
+    }
+
+    when:
+    request(1, operation)
+    request(1, operation)
+
+    then:
+    results.toList() == ["value 1", "value 1"]
+
+    when:
+    coalescer.invalidate("a")
+    request(1, operation)
+
+    then:
+    results.toList() == ["value 1", "value 1", "value 2"]
+  }
+
+}
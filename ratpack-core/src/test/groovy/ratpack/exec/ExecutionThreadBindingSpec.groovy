@@ -40,4 +40,60 @@ class ExecutionThreadBindingSpec extends RatpackGroovyDslSpec {
     then:
     text == "foo"
   }
+
+  def "request execution is bound to the channel's event loop and resumes on it"() {
+    when:
+    handlers {
+      get {
+        def thread = Thread.currentThread()
+        def loop = execution.eventLoop
+        assert loop.inEventLoop()
+        blocking {
+          Thread.currentThread() != thread
+        } then { offThread ->
+          render "${offThread}:${Thread.currentThread() == thread}:${loop.inEventLoop()}"
+        }
+      }
+    }
+
+    then:
+    text == "true:true:true"
+  }
+
+  def "executions resumed from other threads are handed back to their event loop"() {
+    when:
+    handlers {
+      get { ExecController execController ->
+        def before = execController.crossLoopHops
+        def loop = execution.eventLoop
+        promise { f ->
+          Thread.start { f.success('foo') }
+        } then {
+          render "${loop.inEventLoop()}:${execController.crossLoopHops - before > 0}"
+        }
+      }
+    }
+
+    then:
+    text == "true:true"
+  }
+
+  def "request execution runs on the loop of the request's channel and forks are bound to the loop they start on"() {
+    when:
+    handlers {
+      get {
+        def requestLoop = execution.eventLoop.is(directChannelAccess.channel.eventLoop())
+        promise { f ->
+          fork { Execution forked ->
+            f.success(forked.eventLoop.inEventLoop())
+          }
+        } then { forkedLoop ->
+          render "${requestLoop}:${forkedLoop}"
+        }
+      }
+    }
+
+    then:
+    text == "true:true"
+  }
 }
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.exec
+
+import ratpack.launch.LaunchConfigBuilder
+import ratpack.test.internal.RatpackGroovyDslSpec
+import spock.lang.AutoCleanup
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+import static ratpack.exec.ExecutionTimeline.EventType.*
+
+class ExecutionTimelineSpec extends RatpackGroovyDslSpec {
+
+  @AutoCleanup
+  ExecController controller
+
+  def "timelines are not recorded by default"() {
+    given:
+    controller = LaunchConfigBuilder.noBaseDir().build().execController
+    def timeline = null
+    def latch = new CountDownLatch(1)
+
+    when:
+    controller.control.fork({ timeline = it.timeline }, {}, { latch.countDown() })
+
+    then:
+    latch.await(10, TimeUnit.SECONDS)
+    timeline == null
+  }
+
+  def "completed executions are given to listeners"() {
+    given:
+    controller = LaunchConfigBuilder.noBaseDir().executionTimelineSize(10).build().execController
+    ExecutionTimeline timeline = null
+    def latch = new CountDownLatch(1)
+    controller.addTimelineListener { Execution execution, ExecutionTimeline t ->
+      timeline = t
+      latch.countDown()
+    }
+
+    when:
+    controller.control.fork {
+      controller.control.blocking { sleep 100 } then {}
+    }
+
+    then:
+    latch.await(10, TimeUnit.SECONDS)
+    timeline.events*.type == [SEGMENT, BLOCKING, PROMISE, SEGMENT]
+    timeline.events[1].runNanos >= TimeUnit.MILLISECONDS.toNanos(100)
+    timeline.events[2].waitNanos >= TimeUnit.MILLISECONDS.toNanos(100)
+    timeline.durationNanos >= TimeUnit.MILLISECONDS.toNanos(100)
+    timeline.droppedEventCount == 0
+  }
+
+  def "oldest events are dropped when the timeline is full"() {
+    given:
+    controller = LaunchConfigBuilder.noBaseDir().executionTimelineSize(2).build().execController
+    ExecutionTimeline timeline = null
+    def latch = new CountDownLatch(1)
+    controller.addTimelineListener { Execution execution, ExecutionTimeline t ->
+      timeline = t
+      latch.countDown()
+    }
+
+    when:
+    controller.control.fork {
+      controller.control.blocking { 1 } then {}
+    }
+
+    then:
+    latch.await(10, TimeUnit.SECONDS)
+    timeline.events*.type == [PROMISE, SEGMENT]
+    timeline.droppedEventCount == 2
+  }
+
+  def "handler invocations are recorded"() {
+    given:
+    launchConfig { executionTimelineSize 10 }
+
+    when:
+    handlers {
+      handler { next() }
+      handler {
+        def timeline = execution.timeline
+        render timeline.events.findAll { it.type == HANDLER }.collect { it.description.substring(0, 2) }.join(",")
+      }
+    }
+
+    then:
+    text == "#0,#1"
+  }
+
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.exec
+
+import ratpack.func.Pair
+import ratpack.launch.LaunchConfigBuilder
+import spock.lang.AutoCleanup
+import spock.lang.Specification
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+class PromisesSpec extends Specification {
+
+  @AutoCleanup
+  ExecController controller
+  def result
+
+  def setup() {
+    controller = LaunchConfigBuilder.noBaseDir().build().execController
+  }
+
+  ExecControl getControl() {
+    controller.control
+  }
+
+  void exec(Closure<Promise> promise) {
+    def latch = new CountDownLatch(1)
+    control.fork {
+      promise.call().onError { result = "error: $it.message"; latch.countDown() }.then { result = it; latch.countDown() }
+    }
+    assert latch.await(10, TimeUnit.SECONDS)
+  }
+
+  Promise delayed(long millis, value) {
+    control.blocking {
+      sleep millis
+      if (value instanceof Throwable) {
+        throw value
+      }
+      value
+    }
+  }
+
+  def "all promises are subscribed to in parallel and values are in order"() {
+    when:
+    def start = System.currentTimeMillis()
+    exec { Promises.all(control, [delayed(500, 1), delayed(100, 2), delayed(300, 3)]) }
+
+    then:
+    result == [1, 2, 3]
+    System.currentTimeMillis() - start < 1400
+  }
+
+  def "all fails with the first failure"() {
+    when:
+    exec { Promises.all(control, [delayed(500, 1), delayed(100, new IllegalStateException("fast")), delayed(300, new IllegalStateException("slow"))]) }
+
+    then:
+    result == "error: fast"
+  }
+
+  def "all of nothing is an empty list"() {
+    when:
+    exec { Promises.all(control, []) }
+
+    then:
+    result == []
+  }
+
+  def "can zip two promises"() {
+    when:
+    exec { Promises.zip(control, delayed(100, "a"), delayed(50, 1)) }
+
+    then:
+    result == Pair.of("a", 1)
+  }
+
+  def "race completes with the first result"() {
+    when:
+    exec { Promises.race(control, [delayed(500, 1), delayed(50, 2)]) }
+
+    then:
+    result == 2
+
+    when:
+    exec { Promises.race(control, [delayed(500, 1), delayed(50, new IllegalStateException("fast"))]) }
+
+    then:
+    result == "error: fast"
+  }
+
+  def "first success ignores failures unless all fail"() {
+    when:
+    exec { Promises.firstSuccess(control, [delayed(300, 1), delayed(50, new IllegalStateException("fast"))]) }
+
+    then:
+    result == 1
+
+    when:
+    Throwable failure = null
+    def latch = new CountDownLatch(1)
+    control.fork {
+      Promises.firstSuccess(control, [delayed(100, new IllegalStateException("a")), delayed(50, new IllegalStateException("b"))])
+        .onError { failure = it; latch.countDown() }
+        .then { latch.countDown() }
+    }
+    latch.await(10, TimeUnit.SECONDS)
+
+    then:
+    failure.message == "b"
+    failure.suppressed*.message == ["a"]
+  }
+
+  def "map limits the number of operations in progress"() {
+    given:
+    def inProgress = new AtomicInteger()
+    def maxInProgress = new AtomicInteger()
+
+    when:
+    exec {
+      Promises.map(control, 1..10, 3) { Integer i ->
+        control.blocking {
+          def current = inProgress.incrementAndGet()
+          synchronized (maxInProgress) {
+            maxInProgress.set(Math.max(current, maxInProgress.get()))
+          }
+          sleep 50
+          inProgress.decrementAndGet()
+          i * 2
+        }
+      }
+    }
+
+    then:
+    result == (1..10).collect { it * 2 }
+    maxInProgress.get() == 3
+  }
+
+  def "map stops starting operations after a failure"() {
+    given:
+    def started = new AtomicInteger()
+
+    when:
+    exec {
+      Promises.map(control, 1..10, 1) { Integer i ->
+        started.incrementAndGet()
+        i == 3 ? delayed(10, new IllegalStateException("three")) : delayed(10, i)
+      }
+    }
+
+    then:
+    result == "error: three"
+    started.get() == 3
+  }
+
+}
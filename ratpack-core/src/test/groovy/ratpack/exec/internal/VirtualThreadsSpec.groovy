@@ -0,0 +1,65 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.exec.internal
+
+import spock.lang.Requires
+import spock.lang.Specification
+
+import java.util.concurrent.Executors
+import java.util.concurrent.ThreadFactory
+
+class VirtualThreadsSpec extends Specification {
+
+  // Stands in for Thread.Builder, with ofVirtual() failing as it does on Java 19/20 without --enable-preview
+  static class PreviewOnlyBuilder {
+    static PreviewOnlyBuilder ofVirtual() {
+      throw new UnsupportedOperationException("Preview Features not enabled")
+    }
+
+    static PreviewOnlyBuilder ofWorking() {
+      new PreviewOnlyBuilder()
+    }
+
+    PreviewOnlyBuilder name(String prefix, long start) {
+      this
+    }
+
+    ThreadFactory factory() {
+      Executors.defaultThreadFactory()
+    }
+  }
+
+  def "virtual threads are not supported if a factory cannot be built"() {
+    given:
+    def name = PreviewOnlyBuilder.getMethod("name", String, Long.TYPE)
+    def factory = PreviewOnlyBuilder.getMethod("factory")
+
+    expect:
+    !VirtualThreads.canCreateFactory(PreviewOnlyBuilder.getMethod("ofVirtual"), name, factory)
+    VirtualThreads.canCreateFactory(PreviewOnlyBuilder.getMethod("ofWorking"), name, factory)
+  }
+
+  @Requires({ !VirtualThreads.supported })
+  def "unsupported virtual threads cannot be used"() {
+    when:
+    VirtualThreads.threadFactory("foo-")
+
+    then:
+    thrown UnsupportedOperationException
+  }
+
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.http
+
+import ratpack.http.client.RequestSpec
+import ratpack.test.internal.RatpackGroovyDslSpec
+
+class ETagSpec extends RatpackGroovyDslSpec {
+
+  def "responses have no etag by default"() {
+    when:
+    handlers {
+      get { render "foo" }
+    }
+
+    then:
+    with(get()) {
+      headers.get("ETag") == null
+    }
+  }
+
+  def "buffered responses are given an etag from their content"() {
+    given:
+    launchConfig {
+      etagResponses true
+    }
+
+    when:
+    handlers {
+      get(":value") { render pathTokens.value }
+    }
+
+    then:
+    def fooTag = get("foo").headers.get("ETag")
+    fooTag ==~ /"[0-9a-f]+"/
+    get("foo").headers.get("ETag") == fooTag
+    get("bar").headers.get("ETag") != fooTag
+  }
+
+  def "etags are weak when responses may be compressed"() {
+    given:
+    launchConfig {
+      etagResponses true
+      compressResponses true
+    }
+
+    when:
+    handlers {
+      get { render "foo" }
+      get("identity") {
+        response.headers.set("Content-Encoding", "identity")
+        render "foo"
+      }
+    }
+
+    and:
+    def etag = get().headers.get("ETag")
+
+    then:
+    etag ==~ /W\/"[0-9a-f]+"/
+    get("identity").headers.get("ETag") == etag.substring(2)
+
+    when:
+    requestSpec { RequestSpec request -> request.headers.set("If-None-Match", etag) }
+
+    then:
+    get().statusCode == 304
+  }
+
+  def "matching if-none-match is answered with not modified"() {
+    given:
+    launchConfig {
+      etagResponses true
+    }
+
+    when:
+    handlers {
+      get { render "foo" }
+    }
+
+    and:
+    def etag = get().headers.get("ETag")
+    requestSpec { RequestSpec request -> request.headers.set("If-None-Match", "\"other\", W/$etag") }
+
+    then:
+    with(get()) {
+      statusCode == 304
+      body.text.empty
+      headers.get("ETag") == etag
+    }
+
+    when:
+    requestSpec { RequestSpec request -> request.headers.set("If-None-Match", "\"other\"") }
+
+    then:
+    with(get()) {
+      statusCode == 200
+      body.text == "foo"
+    }
+  }
+
+  def "explicit etags are not replaced but are used for if-none-match"() {
+    given:
+    launchConfig {
+      etagResponses true
+    }
+
+    when:
+    handlers {
+      get {
+        response.headers.set("ETag", "\"v1\"")
+        render "foo"
+      }
+      get("error") {
+        response.status(500)
+        render "error"
+      }
+    }
+
+    and:
+    requestSpec { RequestSpec request -> request.headers.set("If-None-Match", "\"v1\"") }
+
+    then:
+    with(get()) {
+      statusCode == 304
+      headers.get("ETag") == "\"v1\""
+    }
+    with(get("error")) {
+      statusCode == 500
+      headers.get("ETag") == null
+    }
+  }
+
+  def "not modified responses have no content length"() {
+    given:
+    launchConfig {
+      etagResponses true
+    }
+
+    when:
+    handlers {
+      get { render "foo" }
+    }
+
+    and:
+    def etag = get().headers.get("ETag")
+
+    then:
+    def headers = []
+    Socket socket = new Socket(getAddress().host, getAddress().port)
+    try {
+      new OutputStreamWriter(socket.outputStream, "UTF-8").with {
+        write("GET / HTTP/1.1\r\n")
+        write("If-None-Match: $etag\r\n")
+        write("Connection: close\r\n")
+        write("\r\n")
+        flush()
+      }
+
+      def reader = new BufferedReader(new InputStreamReader(socket.inputStream, "UTF-8"))
+      def line
+      while ((line = reader.readLine())) {
+        headers << line
+      }
+    } finally {
+      socket.close()
+    }
+
+    headers[0] == "HTTP/1.1 304 Not Modified"
+    headers.contains("ETag: $etag".toString())
+    !headers.any { it.toLowerCase().startsWith("content-length") }
+  }
+
+}
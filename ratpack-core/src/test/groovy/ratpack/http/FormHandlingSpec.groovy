@@ -143,6 +143,113 @@ class FormHandlingSpec extends RatpackGroovyDslSpec {
     postText() == "File content: bar"
   }
 
+  def "large file uploads are written to disk"() {
+    given:
+    def content = "a" * 10000
+    def fooFile = file "foo.txt", content
+    launchConfig { multipartMemoryThreshold(100) }
+
+    when:
+    handlers {
+      post {
+        def form = parse Form
+        def file = form.file("theFile")
+        def out = new ByteArrayOutputStream()
+        file.writeTo(out)
+        render "${file.text == content}:${file.inputStream.text == content}:${out.toString("UTF-8") == content}:${form.foo}"
+      }
+    }
+
+    then:
+    requestSpec { RequestSpec requestSpec ->
+      multipartUpload(requestSpec, fooFile.toFile())
+    }
+    postText() == "true:true:true:bar"
+  }
+
+  def "multipart bodies larger than the max upload size are rejected"() {
+    given:
+    def fooFile = file "foo.txt", "a" * 10000
+    launchConfig { maxUploadSize(1000) }
+
+    when:
+    handlers {
+      post {
+        render "uploaded"
+      }
+    }
+
+    and:
+    requestSpec { RequestSpec requestSpec ->
+      multipartUpload(requestSpec, fooFile.toFile())
+    }
+    post()
+
+    then:
+    response.statusCode == 413
+  }
+
+  def "raw multipart bodies within the memory threshold are available as the request body"() {
+    given:
+    def fooFile = file "foo.txt", "bar"
+
+    when:
+    handlers {
+      post {
+        def body = request.body.text
+        def form = parse Form
+        render "${body.contains("name=\"theFile\"")}:${body.endsWith("--\r\n")}:${form.file("theFile").text}"
+      }
+    }
+
+    then:
+    requestSpec { RequestSpec requestSpec ->
+      multipartUpload(requestSpec, fooFile.toFile())
+    }
+    postText() == "true:true:bar"
+  }
+
+  def "raw multipart bodies larger than the memory threshold are not available as the request body"() {
+    given:
+    def content = "a" * 10000
+    def fooFile = file "foo.txt", content
+    launchConfig { multipartMemoryThreshold(100) }
+
+    when:
+    handlers {
+      post {
+        def bytes = request.body.bytes.length
+        def form = parse Form
+        render "${bytes}:${form.file("theFile").text == content}"
+      }
+    }
+
+    then:
+    requestSpec { RequestSpec requestSpec ->
+      multipartUpload(requestSpec, fooFile.toFile())
+    }
+    postText() == "0:true"
+  }
+
+  private static void multipartUpload(RequestSpec requestSpec, File file) {
+    HttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, io.netty.handler.codec.http.HttpMethod.POST, "/")
+    HttpPostRequestEncoder httpPostRequestEncoder = new HttpPostRequestEncoder(request, true)
+    httpPostRequestEncoder.addBodyAttribute("foo", "bar")
+    httpPostRequestEncoder.addBodyFileUpload("theFile", file, "text/plain", true)
+
+    request = httpPostRequestEncoder.finalizeRequest()
+
+    request.headers().each {
+      requestSpec.headers.set(it.key, it.value)
+    }
+
+    def chunks = []
+    while (!httpPostRequestEncoder.isEndOfInput()) {
+      chunks << httpPostRequestEncoder.readChunk(null).content()
+    }
+    requestSpec.body.buffer(Unpooled.wrappedBuffer(chunks as ByteBuf[]))
+  }
+
   def "default encoding is utf-8"() {
     given:
     def fooFile = file "foo.txt", "bar"
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.http
+
+import ratpack.http.client.RequestSpec
+import ratpack.test.internal.RatpackGroovyDslSpec
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+import static ratpack.handling.Handlers.responseCache
+
+class ResponseCacheSpec extends RatpackGroovyDslSpec {
+
+  def "serves cached response without invoking downstream handlers"() {
+    given:
+    def invocations = 0
+
+    when:
+    handlers {
+      handler responseCache(1024 * 1024, 1, 0, TimeUnit.HOURS)
+      get("foo") {
+        response.headers.set("X-Foo", "bar")
+        render "foo ${++invocations}"
+      }
+    }
+
+    then:
+    getText("foo") == "foo 1"
+    with(get("foo")) {
+      body.text == "foo 1"
+      headers.get("X-Foo") == "bar"
+      headers.get("content-type") == "text/plain;charset=UTF-8"
+      headers.get("Age") == "0"
+    }
+    getText("foo?a=b") == "foo 2"
+    invocations == 2
+  }
+
+  def "only caches successful get responses that are public"() {
+    given:
+    def invocations = 0
+
+    when:
+    handlers {
+      handler responseCache(1024 * 1024, 1, 0, TimeUnit.HOURS)
+      get("error") {
+        response.status(500)
+        render "error ${++invocations}"
+      }
+      get("cookie") {
+        response.cookie("a", "b")
+        render "cookie ${++invocations}"
+      }
+      get("private") {
+        response.headers.set("Cache-Control", "private, max-age=10")
+        render "private ${++invocations}"
+      }
+      post("post") {
+        render "post ${++invocations}"
+      }
+    }
+
+    then:
+    getText("error") == "error 1"
+    getText("error") == "error 2"
+    getText("cookie") == "cookie 3"
+    getText("cookie") == "cookie 4"
+    getText("private") == "private 5"
+    getText("private") == "private 6"
+    postText("post") == "post 7"
+    postText("post") == "post 8"
+  }
+
+  def "cache key includes vary headers"() {
+    given:
+    def invocations = 0
+
+    when:
+    handlers {
+      handler responseCache(1024 * 1024, 1, 0, TimeUnit.HOURS, "Accept-Language")
+      get {
+        render "${request.headers.get("Accept-Language")} ${++invocations}"
+      }
+    }
+
+    and:
+    requestSpec { RequestSpec request -> request.headers.set("Accept-Language", "en") }
+
+    then:
+    text == "en 1"
+    text == "en 1"
+
+    when:
+    requestSpec { RequestSpec request -> request.headers.set("Accept-Language", "fr") }
+
+    then:
+    text == "fr 2"
+    text == "fr 2"
+  }
+
+  def "stale responses are served while one request revalidates"() {
+    given:
+    def invocations = new AtomicInteger()
+    def revalidating = new CountDownLatch(1)
+    def release = new CountDownLatch(1)
+
+    when:
+    handlers {
+      handler responseCache(1024 * 1024, 0, 1, TimeUnit.HOURS)
+      get {
+        def invocation = invocations.incrementAndGet()
+        if (invocation == 1) {
+          render "foo 1"
+        } else {
+          blocking {
+            revalidating.countDown()
+            release.await()
+          } then {
+            render "foo $invocation"
+          }
+        }
+      }
+    }
+
+    then:
+    text == "foo 1"
+
+    when:
+    def revalidated = null
+    def revalidation = Thread.start { revalidated = applicationUnderTest.address.toURL().text }
+    revalidating.await()
+
+    then:
+    text == "foo 1"
+
+    when:
+    release.countDown()
+    revalidation.join()
+
+    then:
+    revalidated == "foo 2"
+    invocations.get() == 2
+  }
+
+  def "responses larger than the cache are not cached"() {
+    given:
+    def invocations = 0
+
+    when:
+    handlers {
+      handler responseCache(16, 1, 0, TimeUnit.HOURS)
+      get {
+        render "${"a" * 32} ${++invocations}"
+      }
+    }
+
+    then:
+    text.endsWith(" 1")
+    text.endsWith(" 2")
+  }
+
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.http.client
+
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+import static ratpack.http.client.HostResolvers.cached
+import static ratpack.http.client.HostResolvers.hostsFile
+
+class HostResolversSpec extends HttpClientSpec {
+
+  @Rule TemporaryFolder temporaryFolder
+
+  def "can resolve hosts from hosts file"() {
+    given:
+    def file = temporaryFolder.newFile("hosts")
+    file.text = """
+      # comment
+      127.0.0.1   localhost upstream.test  # trailing comment
+      10.0.0.1    Multi.test
+      10.0.0.2    multi.test
+      ::1         ipv6.test
+    """
+
+    when:
+    def resolver = hostsFile(file.toPath())
+
+    then:
+    resolver.resolve("upstream.test")*.hostAddress == ["127.0.0.1"]
+    resolver.resolve("MULTI.test")*.hostAddress == ["10.0.0.1", "10.0.0.2"]
+    resolver.resolve("ipv6.test").size() == 1
+
+    when:
+    resolver.resolve("comment")
+
+    then:
+    thrown UnknownHostException
+  }
+
+  def "concurrent lookups of the same host are coalesced"() {
+    given:
+    def lookups = new AtomicInteger()
+    def release = new CountDownLatch(1)
+    def delegate = { String host ->
+      lookups.incrementAndGet()
+      release.await()
+      [InetAddress.getByAddress(host, [127, 0, 0, 1] as byte[])]
+    } as HostResolver
+    def resolver = cached(delegate, 10, 1, 1, TimeUnit.HOURS, false)
+
+    when:
+    def results = Collections.synchronizedList([])
+    def threads = (1..5).collect {
+      Thread.start { results << resolver.resolve("Foo")*.hostAddress }
+    }
+    sleep 200
+    release.countDown()
+    threads*.join()
+
+    then:
+    lookups.get() == 1
+    results == [["127.0.0.1"]] * 5
+  }
+
+  def "caches lookups and failures"() {
+    given:
+    def lookups = []
+    def delegate = { String host ->
+      lookups << host
+      if (host == "unknown") {
+        throw new UnknownHostException(host)
+      }
+      [InetAddress.getByAddress(host, [127, 0, 0, 1] as byte[])]
+    } as HostResolver
+
+    when:
+    def resolver = cached(delegate, 10, 1, 1, TimeUnit.HOURS, false)
+    3.times { resolver.resolve("foo") }
+    2.times {
+      try {
+        resolver.resolve("unknown")
+      } catch (UnknownHostException ignore) {
+      }
+    }
+
+    then:
+    lookups == ["foo", "unknown"]
+
+    when:
+    def uncached = cached(delegate, 10, 0, 0, TimeUnit.SECONDS, false)
+    lookups.clear()
+    3.times { uncached.resolve("foo") }
+
+    then:
+    lookups == ["foo", "foo", "foo"]
+  }
+
+  def "can round robin addresses"() {
+    given:
+    def addresses = (1..3).collect { InetAddress.getByAddress([10, 0, 0, it] as byte[]) }
+    def resolver = cached({ String host -> addresses } as HostResolver, 10, 1, 1, TimeUnit.HOURS, true)
+
+    expect:
+    (1..4).collect { resolver.resolve("foo").first().hostAddress } == ["10.0.0.1", "10.0.0.2", "10.0.0.3", "10.0.0.1"]
+    resolver.resolve("foo").size() == 3
+  }
+
+  def "http client uses bound host resolver"() {
+    given:
+    def file = temporaryFolder.newFile("hosts")
+    file.text = "127.0.0.1 upstream.test"
+
+    otherApp {
+      get {
+        render "ok"
+      }
+    }
+
+    when:
+    bindings {
+      bind HostResolver, hostsFile(file.toPath())
+    }
+    handlers {
+      get { HttpClient httpClient ->
+        httpClient.get {
+          it.url.set(new URI("http://upstream.test:$otherApp.server.bindPort/"))
+        } then {
+          render it.body.text
+        }
+      }
+    }
+
+    then:
+    text == "ok"
+  }
+
+  def "http client fails for unknown hosts"() {
+    given:
+    def file = temporaryFolder.newFile("hosts")
+    file.text = "127.0.0.1 upstream.test"
+
+    when:
+    bindings {
+      bind HostResolver, hostsFile(file.toPath())
+    }
+    handlers {
+      get { HttpClient httpClient ->
+        httpClient.get {
+          it.url.set(new URI("http://other.test/"))
+        } onError {
+          render it.class.name
+        } then {
+          render "unexpected"
+        }
+      }
+    }
+
+    then:
+    text == UnknownHostException.name
+  }
+
+}
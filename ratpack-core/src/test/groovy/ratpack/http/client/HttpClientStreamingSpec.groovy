@@ -0,0 +1,124 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.http.client
+
+import io.netty.buffer.ByteBuf
+import io.netty.handler.codec.http.HttpHeaders
+import org.reactivestreams.Subscriber
+import org.reactivestreams.Subscription
+
+class HttpClientStreamingSpec extends HttpClientSpec {
+
+  def "can stream a response body through to the client"() {
+    given:
+    def body = "abc123" * 100000
+    otherApp {
+      get {
+        render body
+      }
+    }
+
+    when:
+    handlers {
+      get { HttpClient httpClient ->
+        httpClient.requestStream {
+          it.url.set(otherAppUrl())
+        } then { StreamedResponse streamedResponse ->
+          streamedResponse.send(response)
+        }
+      }
+    }
+
+    then:
+    text == body
+    response.headers.get(HttpHeaders.Names.CONTENT_TYPE) == "text/plain;charset=UTF-8"
+  }
+
+  def "streamed response keeps the upstream status"() {
+    given:
+    otherApp {
+      get {
+        response.status(404).send("not here")
+      }
+    }
+
+    when:
+    handlers {
+      get { HttpClient httpClient ->
+        httpClient.requestStream {
+          it.url.set(otherAppUrl())
+        } then { StreamedResponse streamedResponse ->
+          streamedResponse.send(response)
+        }
+      }
+    }
+
+    then:
+    get().statusCode == 404
+    response.body.text == "not here"
+  }
+
+  def "can consume a streamed response body one buffer at a time"() {
+    given:
+    otherApp {
+      get {
+        render "a" * 100000
+      }
+    }
+
+    when:
+    handlers {
+      get { HttpClient httpClient ->
+        httpClient.requestStream {
+          it.url.set(otherAppUrl())
+        } then { StreamedResponse streamedResponse ->
+          int received = 0
+          stream(streamedResponse.body, new Subscriber<ByteBuf>() {
+            Subscription subscription
+
+            @Override
+            void onSubscribe(Subscription s) {
+              subscription = s
+              s.request(1)
+            }
+
+            @Override
+            void onNext(ByteBuf buffer) {
+              received += buffer.readableBytes()
+              buffer.release()
+              subscription.request(1)
+            }
+
+            @Override
+            void onError(Throwable t) {
+              error(t)
+            }
+
+            @Override
+            void onComplete() {
+              render received.toString()
+            }
+          })
+        }
+      }
+    }
+
+    then:
+    text == "100000"
+  }
+
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.http.client
+
+import io.netty.buffer.ByteBuf
+import io.netty.buffer.Unpooled
+import io.netty.handler.codec.http.DefaultFullHttpRequest
+import io.netty.handler.codec.http.HttpMethod
+import io.netty.handler.codec.http.HttpRequest
+import io.netty.handler.codec.http.HttpVersion
+import io.netty.handler.codec.http.multipart.HttpPostRequestEncoder
+import ratpack.form.Form
+import ratpack.handling.Handlers
+import ratpack.stream.LargeContentPublisher
+import spock.lang.Unroll
+
+import static ratpack.stream.HttpResponseChunks.httpResponseChunks
+
+class ProxyHandlerSpec extends HttpClientSpec {
+
+  def "forwards request to upstream path"() {
+    given:
+    otherApp {
+      prefix("api") {
+        handler {
+          render "${request.method.name} ${request.uri} ${request.headers.get("Host") == "$otherApp.server.bindHost:$otherApp.server.bindPort"} ${request.headers.get("X-Forwarded-For") != null} ${request.body.text}"
+        }
+      }
+    }
+
+    when:
+    handlers {
+      handler Handlers.proxy(otherAppUrl("api"))
+    }
+
+    then:
+    getText("foo?bar=1") == "GET /api/foo?bar=1 true true "
+
+    when:
+    requestSpec { RequestSpec request ->
+      request.body.type("text/plain").stream { it << "abc" }
+    }
+
+    then:
+    postText("foo") == "POST /api/foo true true abc"
+  }
+
+  @Unroll
+  def "forwards multipart requests when the raw body is #scenario"() {
+    given:
+    def content = "a" * 10000
+    def fooFile = file "foo.txt", content
+    launchConfig { multipartMemoryThreshold(threshold) }
+    otherApp {
+      post {
+        def form = parse Form
+        render "${form.foo}:${form.file("theFile").fileName}:${form.file("theFile").text == content}"
+      }
+    }
+
+    when:
+    handlers {
+      handler Handlers.proxy(otherAppUrl())
+    }
+
+    and:
+    requestSpec { RequestSpec requestSpec ->
+      HttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/")
+      HttpPostRequestEncoder encoder = new HttpPostRequestEncoder(request, true)
+      encoder.addBodyAttribute("foo", "bar")
+      encoder.addBodyFileUpload("theFile", fooFile.toFile(), "text/plain", true)
+      encoder.finalizeRequest().headers().each {
+        requestSpec.headers.set(it.key, it.value)
+      }
+
+      def chunks = []
+      while (!encoder.isEndOfInput()) {
+        chunks << encoder.readChunk(null).content()
+      }
+      requestSpec.body.buffer(Unpooled.wrappedBuffer(chunks as ByteBuf[]))
+    }
+
+    then:
+    postText() == "bar:foo.txt:true"
+
+    where:
+    scenario             | threshold
+    "kept in memory"     | 100000
+    "only decoded parts" | 100
+  }
+
+  def "relays upstream status, headers and body"() {
+    given:
+    def body = "abc123" * 100000
+    otherApp {
+      get {
+        response.headers.set("X-Upstream", "yes")
+        response.status(201).send(body)
+      }
+    }
+
+    when:
+    handlers {
+      handler Handlers.proxy(otherAppUrl())
+    }
+
+    then:
+    def response = get()
+    response.statusCode == 201
+    response.headers.get("X-Upstream") == "yes"
+    response.body.text == body
+  }
+
+  def "relays chunked upstream responses"() {
+    given:
+    otherApp {
+      get {
+        render httpResponseChunks(new LargeContentPublisher())
+      }
+    }
+
+    when:
+    handlers {
+      handler Handlers.proxy(otherAppUrl())
+    }
+
+    then:
+    text == "This is a really long string that needs to be sent chunked"
+  }
+
+  def "reuses upstream connections"() {
+    given:
+    launchConfig { threads(1) }
+    otherApp {
+      get {
+        render directChannelAccess.channel.remoteAddress().port.toString()
+      }
+    }
+
+    when:
+    handlers {
+      handler Handlers.proxy(otherAppUrl())
+    }
+
+    then:
+    def ports = (1..5).collect { getText() } as Set
+    ports.size() == 1
+  }
+
+  def "sends bad gateway when upstream is unavailable"() {
+    given:
+    def socket = new ServerSocket(0)
+    def port = socket.localPort
+    socket.close()
+
+    when:
+    handlers {
+      handler Handlers.proxy(new URI("http://localhost:$port"))
+    }
+
+    then:
+    get().statusCode == 502
+  }
+
+}
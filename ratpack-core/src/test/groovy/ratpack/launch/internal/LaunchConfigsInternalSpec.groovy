@@ -197,6 +197,18 @@ class LaunchConfigsInternalSpec extends Specification {
     createLaunchConfig(p(COMPRESSION_MIME_TYPE_BLACK_LIST, "application/compress, application/zip, application/gzip")).compressionMimeTypeBlackList == ImmutableSet.of("application/compress", "application/zip", "application/gzip")
   }
 
+  def "multipartMemoryThreshold is respected"() {
+    expect:
+    createLaunchConfig().multipartMemoryThreshold == DEFAULT_MULTIPART_MEMORY_THRESHOLD
+    createLaunchConfig(p(MULTIPART_MEMORY_THRESHOLD, "20")).multipartMemoryThreshold == 20
+  }
+
+  def "maxUploadSize is respected"() {
+    expect:
+    createLaunchConfig().maxUploadSize == DEFAULT_MAX_UPLOAD_SIZE
+    createLaunchConfig(p(MAX_UPLOAD_SIZE, "20")).maxUploadSize == 20
+  }
+
   def "ssl properties are respected"() {
     expect:
     !createLaunchConfig().SSLContext
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.server
+
+import io.netty.handler.codec.http.HttpVersion
+import ratpack.server.internal.AsyncAccessLog
+import ratpack.stream.SseStreamer
+import ratpack.test.internal.RatpackGroovyDslSpec
+import spock.util.concurrent.PollingConditions
+
+import java.nio.file.Path
+
+import static ratpack.stream.ServerSentEvents.serverSentEvents
+
+class AccessLogSpec extends RatpackGroovyDslSpec {
+
+  def polling = new PollingConditions(timeout: 5)
+
+  Path logFile
+
+  def setup() {
+    logFile = temporaryFolder.newFile("access.log").toPath()
+  }
+
+  def "requests are written to the access log"() {
+    given:
+    launchConfig { accessLogFile logFile }
+
+    when:
+    handlers {
+      get("foo") { render "bar" }
+    }
+
+    then:
+    getText("foo?a=b") == "bar"
+    polling.eventually {
+      assert logFile.readLines().size() == 1
+    }
+    logFile.readLines()[0] ==~ /127\.0\.0\.1 - - \[.+\] "GET \/foo\?a=b HTTP\/1\.1" 200 3 \d+us/
+  }
+
+  def "streamed responses are written to the access log with the number of bytes sent"() {
+    given:
+    launchConfig { accessLogFile logFile }
+
+    when:
+    handlers {
+      get("events") { render serverSentEvents(new SseStreamer()) }
+    }
+
+    then:
+    def body = getText("events")
+    polling.eventually {
+      assert logFile.readLines().size() == 1
+    }
+    logFile.readLines()[0] ==~ /127\.0\.0\.1 - - \[.+\] "GET \/events HTTP\/1\.1" 200 ${body.bytes.length} \d+us/
+  }
+
+  def "a missing or invalid content length is logged as unknown"() {
+    expect:
+    AsyncAccessLog.contentLength(value) == length
+
+    where:
+    value      | length
+    null       | -1
+    ""         | -1
+    "nonsense" | -1
+    "-5"       | -1
+    " 12 "     | 12
+    "12"       | 12
+  }
+
+  def "requests are sampled"() {
+    given:
+    launchConfig {
+      accessLogFile logFile
+      accessLogSampling Integer.MAX_VALUE
+    }
+
+    when:
+    handlers {
+      get { render "ok" }
+    }
+
+    then:
+    10.times { assert getText() == "ok" }
+    sleep 100
+    logFile.readLines().empty
+  }
+
+  def "entries are dropped instead of blocking when the buffer is full"() {
+    given:
+    def accessLog = new AsyncAccessLog(logFile, 1, 4)
+    def address = new InetSocketAddress("127.0.0.1", 1234)
+
+    when:
+    def threads = (1..4).collect {
+      Thread.start {
+        1000.times { accessLog.log(address, "GET", "/", HttpVersion.HTTP_1_1, 200, 0, 0) }
+      }
+    }
+    threads*.join()
+    accessLog.close()
+
+    then:
+    logFile.readLines().size() + accessLog.droppedCount == 4000
+  }
+
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.server
+
+import ratpack.test.internal.RatpackGroovyDslSpec
+
+class HttpPipeliningSpec extends RatpackGroovyDslSpec {
+
+  def "responses to pipelined requests are sent in request order"() {
+    given:
+    handlers {
+      get("slow") {
+        blocking { sleep 300; "slow-response" } then { render it }
+      }
+      get("fast") {
+        render "fast-response"
+      }
+    }
+
+    when:
+    def response = new StringBuilder()
+    Socket socket = new Socket(getAddress().host, getAddress().port)
+    try {
+      socket.soTimeout = 5000
+      new OutputStreamWriter(socket.outputStream, "UTF-8").with {
+        write("GET /slow HTTP/1.1\r\n\r\nGET /fast HTTP/1.1\r\nConnection: close\r\n\r\n")
+        flush()
+      }
+      socket.inputStream.eachLine("UTF-8") { response << it << "\n" }
+    } finally {
+      socket.close()
+    }
+
+    then:
+    def text = response.toString()
+    text.indexOf("slow-response") > 0
+    text.indexOf("fast-response") > text.indexOf("slow-response")
+  }
+
+}
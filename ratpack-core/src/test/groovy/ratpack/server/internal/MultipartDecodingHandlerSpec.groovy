@@ -0,0 +1,69 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.server.internal
+
+import io.netty.buffer.Unpooled
+import io.netty.channel.embedded.EmbeddedChannel
+import io.netty.handler.codec.http.DefaultHttpContent
+import io.netty.handler.codec.http.DefaultHttpRequest
+import io.netty.handler.codec.http.DefaultLastHttpContent
+import io.netty.handler.codec.http.HttpHeaders
+import io.netty.handler.codec.http.HttpMethod
+import io.netty.handler.codec.http.HttpVersion
+import io.netty.util.CharsetUtil
+import spock.lang.Specification
+
+class MultipartDecodingHandlerSpec extends Specification {
+
+  def "decoded bytes of multipart bodies larger than the memory threshold are not held in memory"() {
+    given:
+    def threshold = 16 * 1024
+    def handler = new MultipartDecodingHandler(threshold, Long.MAX_VALUE)
+    def channel = new EmbeddedChannel(handler)
+    def boundary = "----boundary"
+    def chunk = "x" * 8192
+    def chunks = 256
+
+    def request = new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/")
+    request.headers().set(HttpHeaders.Names.CONTENT_TYPE, "multipart/form-data; boundary=$boundary".toString())
+    HttpHeaders.setTransferEncodingChunked(request)
+
+    when:
+    channel.writeInbound(request)
+    channel.writeInbound(new DefaultHttpContent(Unpooled.copiedBuffer(
+      "--$boundary\r\nContent-Disposition: form-data; name=\"file\"; filename=\"big.txt\"\r\nContent-Type: text/plain\r\n\r\n", CharsetUtil.UTF_8
+    )))
+    def retained = 0
+    chunks.times {
+      channel.writeInbound(new DefaultHttpContent(Unpooled.copiedBuffer(chunk, CharsetUtil.UTF_8)))
+      retained = Math.max(retained, MultipartDecodingHandler.undecodedChunk(handler.decoder).capacity())
+    }
+    channel.writeInbound(new DefaultLastHttpContent(Unpooled.copiedBuffer("\r\n--$boundary--\r\n", CharsetUtil.UTF_8)))
+    DecodedMultipartHttpRequest decoded = channel.readInbound()
+
+    then:
+    retained < threshold * 4
+    decoded.decoder.getBodyHttpData("file").length() == chunks * chunk.length()
+    !decoded.content().readable
+
+    cleanup:
+    decoded?.decoder?.destroy()
+    decoded?.release()
+    channel.finish()
+  }
+
+}
@@ -24,11 +24,18 @@ class LargeContentPublisher implements Publisher<HttpResponseChunk> {
   @Override
   void subscribe(Subscriber<HttpResponseChunk> subscriber) {
     Subscription subscription = new Subscription() {
+      boolean started
+
       @Override
       void cancel() {}
 
       @Override
       void request(int elements) {
+        if (started) {
+          return
+        }
+        started = true
+
         Thread.start {
           "This is a really long string that needs to be sent chunked".toList().collate(20).each {
             subscriber.onNext(new HttpResponseChunk(it.join('')))
@@ -90,10 +90,15 @@ class ResponseStreamingSpec extends RatpackGroovyDslSpec {
           @Override
           void subscribe(Subscriber<ServerSentEvent> s) {
             def cancelled
+            def started
             s.onSubscribe(new Subscription() {
 
               @Override
               void request(int n) {
+                if (started) {
+                  return
+                }
+                started = true
                 Thread.start {
                   (0..100).each {
                     if (!cancelled) {
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.util.internal
+
+import io.netty.buffer.ByteBuf
+import io.netty.buffer.Unpooled
+import io.netty.buffer.UnpooledByteBufAllocator
+import io.netty.util.CharsetUtil
+import ratpack.func.Action
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class ByteBufWriterSpec extends Specification {
+
+  @Unroll
+  def "encodes '#string' as utf-8"() {
+    given:
+    def buffer = Unpooled.buffer()
+    def writer = new ByteBufWriter(buffer)
+
+    when:
+    writer.write(string)
+    writer.close()
+
+    then:
+    buffer.toString(CharsetUtil.UTF_8) == string
+    buffer.readableBytes() == string.getBytes(CharsetUtil.UTF_8).length
+
+    where:
+    string << ["", "abc", "caf\u00e9", "\u20ac100", "\ud83d\ude00 smile"]
+  }
+
+  def "surrogate pairs may be split across writes"() {
+    given:
+    def buffer = Unpooled.buffer()
+    def writer = new ByteBufWriter(buffer)
+
+    when:
+    writer.write("a\ud83d")
+    writer.write("\ude00b")
+    writer.close()
+
+    then:
+    buffer.toString(CharsetUtil.UTF_8) == "a\ud83d\ude00b"
+  }
+
+  def "unpaired surrogates are replaced"() {
+    given:
+    def buffer = Unpooled.buffer()
+    def writer = new ByteBufWriter(buffer)
+
+    when:
+    writer.write("a\ude00b\ud83d")
+    writer.close()
+
+    then:
+    buffer.toString(CharsetUtil.UTF_8) == "a?b?"
+  }
+
+  def "emits chunks when they reach the chunk size"() {
+    given:
+    List<String> chunks = []
+    def writer = new ByteBufWriter(UnpooledByteBufAllocator.DEFAULT, 4, { ByteBuf chunk ->
+      chunks << chunk.toString(CharsetUtil.UTF_8)
+      chunk.release()
+    } as Action<ByteBuf>)
+
+    when:
+    writer.write("ab")
+    writer.write("cde")
+    writer.write("f")
+
+    then:
+    chunks == ["abcde"]
+
+    when:
+    writer.close()
+
+    then:
+    chunks == ["abcde", "f"]
+  }
+
+}
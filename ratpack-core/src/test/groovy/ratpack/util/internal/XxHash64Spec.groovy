@@ -0,0 +1,48 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.util.internal
+
+import io.netty.buffer.Unpooled
+import io.netty.util.CharsetUtil
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class XxHash64Spec extends Specification {
+
+  @Unroll
+  def "hash of '#string' is #expected"() {
+    given:
+    def bytes = string.getBytes(CharsetUtil.UTF_8)
+    def direct = Unpooled.directBuffer(bytes.length + 3).writeBytes([1, 2, 3] as byte[]).writeBytes(bytes)
+    direct.skipBytes(3)
+
+    expect:
+    Long.toHexString(XxHash64.hash(Unpooled.wrappedBuffer(bytes))) == expected
+    Long.toHexString(XxHash64.hash(direct)) == expected
+    direct.readerIndex() == 3
+
+    cleanup:
+    direct.release()
+
+    where:
+    string                                    | expected
+    ""                                        | "ef46db3751d8e999"
+    "abc"                                     | "44bc2cf5ad770999"
+    "Nobody inspects the spammish repetition" | "fbcea83c8a378bf1"
+  }
+
+}
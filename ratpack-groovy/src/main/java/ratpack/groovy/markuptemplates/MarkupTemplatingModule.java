@@ -55,6 +55,16 @@ import java.util.concurrent.ExecutionException;
  * Response content type can be manually specified, i.e. {@code groovyMarkupTemplate("template.gtpl", model, "text/html")} if
  * not specified will default to {@code text/html}.
  * </p>
+ * <p>
+ * Templates are rendered straight into a response buffer.
+ * For large pages, a streaming chunk size can be set using {@link #setStreamingChunkSize(Integer)} or the
+ * {@code other.markupTemplates.streamingChunkSize} configuration property.
+ * Templates are then rendered on a blocking thread, and the response is sent with chunked transfer encoding
+ * a chunk at a time as the template produces it.
+ * The blocking thread is held until the client has received the whole response, so slow clients each tie up a blocking thread,
+ * which can be capped with the {@linkplain ratpack.launch.LaunchConfig#getMaxBlockingConcurrency() max blocking concurrency}.
+ * Errors that occur while rendering in this mode truncate the response, as the response status has already been sent.
+ * </p>
  *
  * Example usage: (Java DSL)
  * <pre class="tested">
@@ -112,6 +122,7 @@ import java.util.concurrent.ExecutionException;
 public class MarkupTemplatingModule extends AbstractModule {
 
   private String templatesDirectory = "templates";
+  private Integer streamingChunkSize;
 
   public String getTemplatesDirectory() {
     return templatesDirectory;
@@ -121,11 +132,27 @@ public class MarkupTemplatingModule extends AbstractModule {
     this.templatesDirectory = templatesDirectory;
   }
 
+  public Integer getStreamingChunkSize() {
+    return streamingChunkSize;
+  }
+
+  public void setStreamingChunkSize(Integer streamingChunkSize) {
+    this.streamingChunkSize = streamingChunkSize;
+  }
+
   @Override
   protected void configure() {
     bind(new TypeLiteral<Renderer<MarkupTemplate>>() {}).to(MarkupTemplateRenderer.class).in(Singleton.class);
   }
 
+  @SuppressWarnings("UnusedDeclaration")
+  @Provides
+  @Singleton
+  MarkupTemplateRenderer provideTemplateRenderer(MarkupTemplateEngine engine, LaunchConfig launchConfig) {
+    int chunkSize = streamingChunkSize == null ? Integer.parseInt(launchConfig.getOther("markupTemplates.streamingChunkSize", "0")) : streamingChunkSize;
+    return new MarkupTemplateRenderer(engine, chunkSize);
+  }
+
   @Provides
   @Singleton
   TemplateConfiguration provideTemplateConfiguration() {
@@ -19,33 +19,44 @@ import groovy.lang.Writable;
 import groovy.text.Template;
 import groovy.text.markup.MarkupTemplateEngine;
 import ratpack.file.MimeTypes;
+import ratpack.func.Action;
 import ratpack.groovy.markuptemplates.MarkupTemplate;
 import ratpack.handling.Context;
 import ratpack.render.RendererSupport;
+import ratpack.render.internal.WriterRendering;
 
-import javax.inject.Inject;
 import java.io.IOException;
+import java.io.Writer;
 
 public class MarkupTemplateRenderer extends RendererSupport<MarkupTemplate> {
 
   private final MarkupTemplateEngine engine;
+  private final int streamingChunkSize;
 
-  @Inject
-  public MarkupTemplateRenderer(MarkupTemplateEngine engine) {
+  public MarkupTemplateRenderer(MarkupTemplateEngine engine, int streamingChunkSize) {
     this.engine = engine;
+    this.streamingChunkSize = streamingChunkSize;
   }
 
   @Override
   public void render(Context context, MarkupTemplate template) throws Exception {
     String contentType = template.getContentType();
     contentType = contentType == null ? context.get(MimeTypes.class).getContentType(template.getName()) : contentType;
-    try {
 
+    final Writable boundTemplate;
+    try {
       Template compiledTemplate = engine.createTemplateByPath(template.getName());
-      Writable boundTemplate = compiledTemplate.make(template.getModel());
-      context.getResponse().send(contentType, boundTemplate.toString());
+      boundTemplate = compiledTemplate.make(template.getModel());
     } catch (IOException e) {
       context.error(e);
+      return;
     }
+
+    WriterRendering.render(context, contentType, streamingChunkSize, new Action<Writer>() {
+      @Override
+      public void execute(Writer writer) throws Exception {
+        boundTemplate.writeTo(writer);
+      }
+    });
   }
 }
@@ -32,6 +32,7 @@ import org.codehaus.groovy.runtime.DefaultGroovyMethods;
 
 import java.nio.file.Path;
 import java.security.CodeSource;
+import java.util.Map;
 
 public class ScriptEngine<T extends Script> {
 
@@ -62,7 +63,24 @@ public class ScriptEngine<T extends Script> {
     return createClassLoader(scriptPath).parseClass(scriptText, scriptName);
   }
 
+  /**
+   * Compiles the script, collecting the bytecode of every class generated for it (i.e. the script class and any closure classes).
+   *
+   * @param scriptName the name of the script
+   * @param scriptText the source of the script
+   * @param classBytes the map to put the bytecode into, keyed by class name
+   * @return the script class
+   */
+  @SuppressWarnings("unchecked")
+  public Class<T> compile(String scriptName, String scriptText, Map<String, byte[]> classBytes) throws IllegalAccessException, InstantiationException {
+    return createClassLoader(null, classBytes).parseClass(scriptText, scriptName);
+  }
+
   private GroovyClassLoader createClassLoader(final Path scriptPath) {
+    return createClassLoader(scriptPath, null);
+  }
+
+  private GroovyClassLoader createClassLoader(final Path scriptPath, final Map<String, byte[]> classBytes) {
     final CompilerConfiguration compilerConfiguration = new CompilerConfiguration();
     if (!scriptBaseClass.equals(Script.class)) {
       compilerConfiguration.setScriptBaseClass(scriptBaseClass.getName());
@@ -83,6 +101,21 @@ public class ScriptEngine<T extends Script> {
     });
 
     return new GroovyClassLoader(parentLoader, compilerConfiguration) {
+      @Override
+      protected ClassCollector createCollector(CompilationUnit unit, SourceUnit su) {
+        if (classBytes == null) {
+          return super.createCollector(unit, su);
+        }
+
+        return new ClassCollector(new InnerLoader(this), unit, su) {
+          @Override
+          protected Class createClass(byte[] code, ClassNode classNode) {
+            classBytes.put(classNode.getName(), code);
+            return super.createClass(code, classNode);
+          }
+        };
+      }
+
       @Override
       protected CompilationUnit createCompilationUnit(CompilerConfiguration config, CodeSource source) {
         return new CompilationUnit(config, source, this) {
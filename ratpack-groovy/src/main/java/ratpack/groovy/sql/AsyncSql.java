@@ -0,0 +1,210 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.groovy.sql;
+
+import groovy.sql.GroovyRowResult;
+import groovy.sql.Sql;
+import org.reactivestreams.Publisher;
+import ratpack.exec.ExecControl;
+import ratpack.exec.Promise;
+import ratpack.groovy.sql.internal.JdbcBatch;
+import ratpack.groovy.sql.internal.ResultSetPublisher;
+
+import javax.inject.Inject;
+import javax.sql.DataSource;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Performs SQL operations on the blocking executor, returning promises and publishers instead of blocking the calling thread.
+ * <p>
+ * An instance is bound by the {@link SqlModule}, and is backed by the bound {@link DataSource}.
+ * The promise returning methods are equivalents of the methods of the same name on {@link Sql}.
+ * <p>
+ * Large results can be {@linkplain #stream(String, List, int) streamed} instead of loaded into memory,
+ * and many inserts or updates can be performed as {@linkplain #batch(String, Iterable, int) JDBC batches}.
+ * <pre class="groovy-ratpack-dsl">
+ * import ratpack.groovy.sql.AsyncSql
+ * import ratpack.groovy.sql.SqlModule
+ * import ratpack.h2.H2Module
+ * import static ratpack.groovy.Groovy.ratpack
+ *
+ * ratpack {
+ *   bindings {
+ *     add new H2Module(), new SqlModule()
+ *   }
+ *
+ *   handlers { AsyncSql sql -&gt;
+ *     get('schemas') {
+ *       sql.rows('show schemas') then { rows -&gt;
+ *         render rows*.getAt(0).join(', ')
+ *       }
+ *     }
+ *   }
+ * }
+ * </pre>
+ */
+public class AsyncSql {
+
+  private final DataSource dataSource;
+  private final ExecControl execControl;
+  private final Sql sql;
+
+  @Inject
+  public AsyncSql(DataSource dataSource, ExecControl execControl) {
+    this.dataSource = dataSource;
+    this.execControl = execControl;
+    this.sql = new Sql(dataSource);
+  }
+
+  /**
+   * Performs the given query, returning all of the resulting rows.
+   *
+   * @param query the query
+   * @return a promise for the resulting rows
+   * @see Sql#rows(String)
+   */
+  public Promise<List<GroovyRowResult>> rows(String query) {
+    return rows(query, Collections.emptyList());
+  }
+
+  /**
+   * Performs the given query with the given parameters, returning all of the resulting rows.
+   *
+   * @param query the query
+   * @param params the parameters of the query
+   * @return a promise for the resulting rows
+   * @see Sql#rows(String, List)
+   */
+  public Promise<List<GroovyRowResult>> rows(final String query, final List<?> params) {
+    return execControl.blocking(new Callable<List<GroovyRowResult>>() {
+      @Override
+      public List<GroovyRowResult> call() throws Exception {
+        return sql.rows(query, params);
+      }
+    });
+  }
+
+  /**
+   * Performs the given query with the given parameters, returning the first resulting row.
+   *
+   * @param query the query
+   * @param params the parameters of the query
+   * @return a promise for the first resulting row, which is fulfilled with {@code null} if there were no results
+   * @see Sql#firstRow(String, List)
+   */
+  public Promise<GroovyRowResult> firstRow(final String query, final List<?> params) {
+    return execControl.blocking(new Callable<GroovyRowResult>() {
+      @Override
+      public GroovyRowResult call() throws Exception {
+        return sql.firstRow(query, params);
+      }
+    });
+  }
+
+  /**
+   * Performs the given update statement with the given parameters.
+   *
+   * @param statement the statement
+   * @param params the parameters of the statement
+   * @return a promise for the number of rows updated
+   * @see Sql#executeUpdate(String, List)
+   */
+  public Promise<Integer> executeUpdate(final String statement, final List<?> params) {
+    return execControl.blocking(new Callable<Integer>() {
+      @Override
+      public Integer call() throws Exception {
+        return sql.executeUpdate(statement, params);
+      }
+    });
+  }
+
+  /**
+   * Performs the given insert statement with the given parameters.
+   *
+   * @param statement the statement
+   * @param params the parameters of the statement
+   * @return a promise for the auto-generated keys of the inserted rows
+   * @see Sql#executeInsert(String, List)
+   */
+  public Promise<List<List<Object>>> executeInsert(final String statement, final List<?> params) {
+    return execControl.blocking(new Callable<List<List<Object>>>() {
+      @Override
+      public List<List<Object>> call() throws Exception {
+        return sql.executeInsert(statement, params);
+      }
+    });
+  }
+
+  /**
+   * Streams the rows of the given query.
+   *
+   * @param query the query
+   * @param fetchSize the number of rows to fetch from the database at a time
+   * @return a publisher of the resulting rows
+   * @see #stream(String, List, int)
+   */
+  public Publisher<GroovyRowResult> stream(String query, int fetchSize) {
+    return stream(query, Collections.emptyList(), fetchSize);
+  }
+
+  /**
+   * Streams the rows of the given query with the given parameters.
+   * <p>
+   * The query is performed when the publisher is subscribed to, on the blocking executor, with a dedicated connection.
+   * Rows are read from the result set as they are requested by the subscriber,
+   * with the JDBC driver fetching {@code fetchSize} rows from the database at a time,
+   * so the full result is never held in memory.
+   * The connection is closed when all rows have been read, an error occurs, or the subscription is cancelled.
+   * <p>
+   * Elements are emitted on blocking threads.
+   * Use {@link ExecControl#stream(Publisher, org.reactivestreams.Subscriber)} to consume them as part of an execution.
+   * <p>
+   * Whether rows are actually fetched incrementally depends on the JDBC driver.
+   * Some drivers only do so under certain conditions (e.g. PostgreSQL requires that auto commit is disabled).
+   *
+   * @param query the query
+   * @param params the parameters of the query
+   * @param fetchSize the number of rows to fetch from the database at a time
+   * @return a publisher of the resulting rows
+   */
+  public Publisher<GroovyRowResult> stream(String query, List<?> params, int fetchSize) {
+    return new ResultSetPublisher(dataSource, execControl.getController().getBlockingExecutor(), query, params, fetchSize);
+  }
+
+  /**
+   * Performs the given statement once for each of the given parameter lists, as JDBC batches.
+   * <p>
+   * The statement is prepared once, and executed every {@code batchSize} parameter lists.
+   * All of the batches are performed in one transaction.
+   *
+   * @param statement the statement
+   * @param paramLists the parameter lists, one per execution of the statement
+   * @param batchSize the max number of executions of the statement in each batch
+   * @return a promise for the total number of rows updated
+   */
+  public Promise<Integer> batch(final String statement, final Iterable<? extends List<?>> paramLists, final int batchSize) {
+    return execControl.blocking(new Callable<Integer>() {
+      @Override
+      public Integer call() throws Exception {
+        return JdbcBatch.execute(dataSource, statement, paramLists, batchSize);
+      }
+    });
+  }
+
+}
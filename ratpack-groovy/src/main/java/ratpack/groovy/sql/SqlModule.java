@@ -25,6 +25,7 @@ public class SqlModule extends AbstractModule {
   @Override
   protected void configure() {
     bind(Sql.class).toProvider(SqlProvider.class).in(Scopes.SINGLETON);
+    bind(AsyncSql.class).in(Scopes.SINGLETON);
   }
 
 }
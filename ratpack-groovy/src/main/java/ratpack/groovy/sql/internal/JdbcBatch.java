@@ -0,0 +1,75 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.groovy.sql.internal;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+public abstract class JdbcBatch {
+
+  private JdbcBatch() {
+  }
+
+  public static int execute(DataSource dataSource, String statement, Iterable<? extends List<?>> paramLists, int batchSize) throws SQLException {
+    try (Connection connection = dataSource.getConnection()) {
+      boolean autoCommit = connection.getAutoCommit();
+      connection.setAutoCommit(false);
+      try (PreparedStatement preparedStatement = connection.prepareStatement(statement)) {
+        int updated = 0;
+        int pending = 0;
+        for (List<?> params : paramLists) {
+          setParams(preparedStatement, params);
+          preparedStatement.addBatch();
+          if (++pending == batchSize) {
+            updated += sum(preparedStatement.executeBatch());
+            pending = 0;
+          }
+        }
+        if (pending > 0) {
+          updated += sum(preparedStatement.executeBatch());
+        }
+        connection.commit();
+        return updated;
+      } catch (SQLException | RuntimeException e) {
+        connection.rollback();
+        throw e;
+      } finally {
+        connection.setAutoCommit(autoCommit);
+      }
+    }
+  }
+
+  static void setParams(PreparedStatement preparedStatement, List<?> params) throws SQLException {
+    for (int i = 0; i < params.size(); ++i) {
+      preparedStatement.setObject(i + 1, params.get(i));
+    }
+  }
+
+  private static int sum(int[] counts) {
+    int sum = 0;
+    for (int count : counts) {
+      if (count > 0) {
+        sum += count;
+      }
+    }
+    return sum;
+  }
+
+}
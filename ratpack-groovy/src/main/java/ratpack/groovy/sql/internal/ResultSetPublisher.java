@@ -0,0 +1,159 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.groovy.sql.internal;
+
+import groovy.sql.GroovyRowResult;
+import org.codehaus.groovy.runtime.SqlGroovyMethods;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ResultSetPublisher implements Publisher<GroovyRowResult> {
+
+  private final static Logger LOGGER = LoggerFactory.getLogger(ResultSetPublisher.class);
+
+  private final DataSource dataSource;
+  private final Executor executor;
+  private final String query;
+  private final List<?> params;
+  private final int fetchSize;
+
+  public ResultSetPublisher(DataSource dataSource, Executor executor, String query, List<?> params, int fetchSize) {
+    this.dataSource = dataSource;
+    this.executor = executor;
+    this.query = query;
+    this.params = params;
+    this.fetchSize = fetchSize;
+  }
+
+  @Override
+  public void subscribe(Subscriber<GroovyRowResult> subscriber) {
+    subscriber.onSubscribe(new RowSubscription(subscriber));
+  }
+
+  // Rows are read on the executor by at most one task at a time, which keeps going while there is demand
+  private class RowSubscription implements Subscription, Runnable {
+    private final Subscriber<GroovyRowResult> subscriber;
+    private final AtomicLong demand = new AtomicLong();
+    private final AtomicInteger pendingRuns = new AtomicInteger();
+    private volatile boolean cancelled;
+
+    private Connection connection;
+    private PreparedStatement statement;
+    private ResultSet resultSet;
+    private boolean done;
+
+    private RowSubscription(Subscriber<GroovyRowResult> subscriber) {
+      this.subscriber = subscriber;
+    }
+
+    @Override
+    public void request(int n) {
+      if (n <= 0) {
+        subscriber.onError(new IllegalArgumentException("Requested element count must be greater than zero, was " + n));
+        cancel();
+        return;
+      }
+      demand.addAndGet(n);
+      schedule();
+    }
+
+    @Override
+    public void cancel() {
+      cancelled = true;
+      schedule();
+    }
+
+    private void schedule() {
+      if (pendingRuns.getAndIncrement() == 0) {
+        executor.execute(this);
+      }
+    }
+
+    @Override
+    public void run() {
+      int runs = 1;
+      do {
+        if (!done) {
+          read();
+        }
+        runs = pendingRuns.addAndGet(-runs);
+      } while (runs != 0);
+    }
+
+    private void read() {
+      try {
+        if (cancelled) {
+          finish();
+          return;
+        }
+        if (resultSet == null) {
+          open();
+        }
+        while (demand.get() > 0 && !cancelled) {
+          if (resultSet.next()) {
+            demand.decrementAndGet();
+            subscriber.onNext(SqlGroovyMethods.toRowResult(resultSet));
+          } else {
+            finish();
+            subscriber.onComplete();
+            return;
+          }
+        }
+        if (cancelled) {
+          finish();
+        }
+      } catch (Exception e) {
+        finish();
+        subscriber.onError(e);
+      }
+    }
+
+    private void open() throws Exception {
+      connection = dataSource.getConnection();
+      statement = connection.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+      statement.setFetchSize(fetchSize);
+      JdbcBatch.setParams(statement, params);
+      resultSet = statement.executeQuery();
+    }
+
+    private void finish() {
+      done = true;
+      for (AutoCloseable closeable : new AutoCloseable[]{resultSet, statement, connection}) {
+        if (closeable != null) {
+          try {
+            closeable.close();
+          } catch (Exception e) {
+            LOGGER.warn("Failed to close " + closeable, e);
+          }
+        }
+      }
+    }
+  }
+
+}
@@ -16,6 +16,10 @@
 
 package ratpack.groovy.templating;
 
+import ratpack.api.Nullable;
+
+import java.nio.file.Path;
+
 public interface TemplatingConfig {
 
   int getCacheSize();
@@ -26,4 +30,19 @@ public interface TemplatingConfig {
 
   String getTemplatesPath();
 
+  /**
+   * Whether all templates in the templates directory should be compiled, in parallel, when the application starts.
+   *
+   * @return whether templates are compiled at startup
+   */
+  boolean isPrecompile();
+
+  /**
+   * The directory to store compiled template classes in, so that they can be reused across restarts.
+   *
+   * @return the compiled template class cache directory, or {@code null} if compiled classes are not cached on disk
+   */
+  @Nullable
+  Path getCompiledTemplateCacheDir();
+
 }
@@ -24,6 +24,7 @@ import ratpack.groovy.templating.internal.*;
 import ratpack.launch.LaunchConfig;
 
 import javax.inject.Singleton;
+import java.nio.file.Path;
 
 @SuppressWarnings("UnusedDeclaration")
 public class TemplatingModule extends AbstractModule {
@@ -32,6 +33,8 @@ public class TemplatingModule extends AbstractModule {
   private int cacheSize = 100;
   private boolean reloadable;
   private boolean staticallyCompile;
+  private boolean precompile;
+  private Path compiledTemplateCacheDir;
 
   public String getTemplatesPath() {
     return templatesPath;
@@ -65,9 +68,45 @@ public class TemplatingModule extends AbstractModule {
     this.staticallyCompile = staticallyCompile;
   }
 
+  public boolean isPrecompile() {
+    return precompile;
+  }
+
+  /**
+   * Whether to compile all of the templates in the templates directory when the application starts, instead of on first use.
+   * <p>
+   * Templates are compiled in parallel on blocking threads, and startup does not wait for compilation to complete.
+   * Templates that fail to compile are logged, and reported again when they are rendered.
+   *
+   * @param precompile whether to compile templates at startup
+   */
+  public void setPrecompile(boolean precompile) {
+    this.precompile = precompile;
+  }
+
+  public Path getCompiledTemplateCacheDir() {
+    return compiledTemplateCacheDir;
+  }
+
+  /**
+   * A directory to persist compiled template classes in, so that unchanged templates are not recompiled when the application restarts.
+   * <p>
+   * Entries are keyed by a hash of the template content, so changed templates are always recompiled.
+   * Defaults to {@code null}, which disables the on-disk cache.
+   *
+   * @param compiledTemplateCacheDir the directory to store compiled template classes in
+   */
+  public void setCompiledTemplateCacheDir(Path compiledTemplateCacheDir) {
+    this.compiledTemplateCacheDir = compiledTemplateCacheDir;
+  }
+
   @Override
   protected void configure() {
-    bind(GroovyTemplateRenderingEngine.class).in(Singleton.class);
+    if (precompile) {
+      bind(GroovyTemplateRenderingEngine.class).asEagerSingleton();
+    } else {
+      bind(GroovyTemplateRenderingEngine.class).in(Singleton.class);
+    }
     bind(ClientErrorHandler.class).to(TemplateRenderingClientErrorHandler.class).in(Singleton.class);
     bind(ServerErrorHandler.class).to(TemplateRenderingServerErrorHandler.class).in(Singleton.class);
     bind(TemplateRenderer.class);
@@ -75,6 +114,6 @@ public class TemplatingModule extends AbstractModule {
 
   @Provides
   TemplatingConfig provideTemplatingConfig(LaunchConfig launchConfig) {
-    return new DefaultTemplatingConfig(templatesPath, cacheSize, reloadable || launchConfig.isDevelopment(), staticallyCompile);
+    return new DefaultTemplatingConfig(templatesPath, cacheSize, reloadable || launchConfig.isDevelopment(), staticallyCompile, precompile, compiledTemplateCacheDir);
   }
 }
@@ -16,35 +16,53 @@
 
 package ratpack.groovy.templating.internal;
 
-import org.codehaus.groovy.runtime.DefaultGroovyMethods;
 import io.netty.buffer.ByteBuf;
 import ratpack.groovy.templating.TemplateModel;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
 import java.util.Map;
 
+import static ratpack.util.ExceptionUtils.toException;
+import static ratpack.util.ExceptionUtils.uncheck;
+
 public class CompiledTemplate {
 
-  private final Class<DefaultTemplateScript> templateClass;
+  private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(DefaultTemplateScript.class, TemplateModel.class, ByteBuf.class, NestedRenderer.class);
+
   private final String templateName;
+  private final MethodHandle constructor;
 
   public CompiledTemplate(String templateName, Class<DefaultTemplateScript> templateClass) {
     this.templateName = templateName;
-    this.templateClass = templateClass;
+
+    // Resolved once, so that each render doesn't have to look up the constructor reflectively
+    try {
+      Constructor<DefaultTemplateScript> declaredConstructor = templateClass.getDeclaredConstructor(TemplateModel.class, ByteBuf.class, NestedRenderer.class);
+      declaredConstructor.setAccessible(true);
+      this.constructor = MethodHandles.lookup().unreflectConstructor(declaredConstructor).asType(CONSTRUCTOR_TYPE);
+    } catch (ReflectiveOperationException e) {
+      throw uncheck(e);
+    }
   }
 
   void execute(Map<String, ?> model, ByteBuf buffer, NestedRenderer nestedRenderer) {
     @SuppressWarnings("unchecked")
     Map<String, Object> modelTyped = (Map<String, Object>) model;
     TemplateModel templateModel = new MapBackedTemplateModel(modelTyped);
-    DefaultTemplateScript script = DefaultGroovyMethods.newInstance(templateClass, new Object[]{templateModel, buffer, nestedRenderer});
 
     try {
+      DefaultTemplateScript script = (DefaultTemplateScript) constructor.invokeExact(templateModel, buffer, nestedRenderer);
       script.run();
-    } catch (Exception e) {
+    } catch (Error e) {
+      throw e;
+    } catch (Throwable e) {
       if (e instanceof InvalidTemplateException) {
         throw (InvalidTemplateException) e;
       } else {
-        throw new InvalidTemplateException(templateName, "template execution failed", e);
+        throw new InvalidTemplateException(templateName, "template execution failed", toException(e));
       }
     }
   }
@@ -16,20 +16,31 @@
 
 package ratpack.groovy.templating.internal;
 
+import ratpack.api.Nullable;
 import ratpack.groovy.templating.TemplatingConfig;
 
+import java.nio.file.Path;
+
 public class DefaultTemplatingConfig implements TemplatingConfig {
 
   private final String templatesPath;
   private final int cacheSize;
   private final boolean reloadable;
   private final boolean staticallyCompile;
+  private final boolean precompile;
+  private final Path compiledTemplateCacheDir;
 
   public DefaultTemplatingConfig(String templatesPath, int cacheSize, boolean reloadable, boolean staticallyCompile) {
+    this(templatesPath, cacheSize, reloadable, staticallyCompile, false, null);
+  }
+
+  public DefaultTemplatingConfig(String templatesPath, int cacheSize, boolean reloadable, boolean staticallyCompile, boolean precompile, @Nullable Path compiledTemplateCacheDir) {
     this.templatesPath = templatesPath;
     this.cacheSize = cacheSize;
     this.reloadable = reloadable;
     this.staticallyCompile = staticallyCompile;
+    this.precompile = precompile;
+    this.compiledTemplateCacheDir = compiledTemplateCacheDir;
   }
 
   public int getCacheSize() {
@@ -48,4 +59,12 @@ public class DefaultTemplatingConfig implements TemplatingConfig {
     return templatesPath;
   }
 
+  public boolean isPrecompile() {
+    return precompile;
+  }
+
+  public Path getCompiledTemplateCacheDir() {
+    return compiledTemplateCacheDir;
+  }
+
 }
@@ -16,11 +16,18 @@
 
 package ratpack.groovy.templating.internal;
 
+import com.google.common.base.Joiner;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import ratpack.exec.ExecControl;
 import ratpack.exec.Promise;
 import ratpack.file.FileSystemBinding;
@@ -31,12 +38,21 @@ import ratpack.launch.LaunchConfig;
 
 import javax.inject.Inject;
 import java.io.IOException;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
 public class GroovyTemplateRenderingEngine {
 
+  private final static Logger LOGGER = LoggerFactory.getLogger(GroovyTemplateRenderingEngine.class);
+
   private static final String ERROR_TEMPLATE = "error.html";
 
   private final LoadingCache<TemplateSource, CompiledTemplate> compiledTemplateCache;
@@ -52,7 +68,9 @@ public class GroovyTemplateRenderingEngine {
     this.byteBufAllocator = launchConfig.getBufferAllocator();
 
     ScriptEngine<DefaultTemplateScript> scriptEngine = new ScriptEngine<>(getClass().getClassLoader(), templatingConfig.isStaticallyCompile(), DefaultTemplateScript.class);
-    templateCompiler = new TemplateCompiler(scriptEngine, byteBufAllocator);
+    Path classCacheDir = templatingConfig.getCompiledTemplateCacheDir();
+    TemplateClassCache classCache = classCacheDir == null ? null : new TemplateClassCache(classCacheDir, getClass().getClassLoader(), templatingConfig.isStaticallyCompile());
+    templateCompiler = new TemplateCompiler(scriptEngine, false, byteBufAllocator, classCache);
     //noinspection NullableProblems
     this.compiledTemplateCache = CacheBuilder.newBuilder().maximumSize(templatingConfig.getCacheSize()).build(new CacheLoader<TemplateSource, CompiledTemplate>() {
       @Override
@@ -72,6 +90,63 @@ public class GroovyTemplateRenderingEngine {
     if (templateDir == null) {
       throw new IllegalStateException("templatesPath '" + templatesPath + "' is outside the file system binding");
     }
+
+    if (templatingConfig.isPrecompile()) {
+      precompile(launchConfig.getExecController().getBlockingExecutor());
+    }
+  }
+
+  private void precompile(ListeningExecutorService executor) {
+    final Path templatesRoot = templateDir.getFile();
+    if (!Files.isDirectory(templatesRoot)) {
+      return;
+    }
+
+    final List<Path> templateFiles = new LinkedList<>();
+    try {
+      Files.walkFileTree(templatesRoot, new SimpleFileVisitor<Path>() {
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+          if (attrs.isRegularFile()) {
+            templateFiles.add(file);
+          }
+          return FileVisitResult.CONTINUE;
+        }
+      });
+    } catch (IOException e) {
+      LOGGER.warn("Failed to list templates in " + templatesRoot + " for precompilation", e);
+      return;
+    }
+
+    final long start = System.currentTimeMillis();
+    List<ListenableFuture<CompiledTemplate>> compilations = new ArrayList<>(templateFiles.size());
+    for (final Path templateFile : templateFiles) {
+      // Template ids are always '/' separated, as they are in templates that include other templates
+      final String templateId = Joiner.on('/').join(templatesRoot.relativize(templateFile));
+      compilations.add(executor.submit(new Callable<CompiledTemplate>() {
+        @Override
+        public CompiledTemplate call() throws Exception {
+          try {
+            return compiledTemplateCache.get(toTemplateSource(templateId, templateFile));
+          } catch (Exception e) {
+            LOGGER.warn("Failed to precompile template " + templateId, e);
+            throw e;
+          }
+        }
+      }));
+    }
+
+    Futures.addCallback(Futures.successfulAsList(compilations), new FutureCallback<List<CompiledTemplate>>() {
+      @Override
+      public void onSuccess(List<CompiledTemplate> result) {
+        LOGGER.info("Precompiled " + result.size() + " templates in " + (System.currentTimeMillis() - start) + "ms");
+      }
+
+      @Override
+      public void onFailure(Throwable t) {
+        LOGGER.warn("Template precompilation failed", t);
+      }
+    });
   }
 
   public Promise<ByteBuf> renderTemplate(ByteBuf byteBuf, final String templateId, final Map<String, ?> model) throws Exception {
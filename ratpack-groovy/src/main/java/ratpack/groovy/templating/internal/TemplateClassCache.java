@@ -0,0 +1,139 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ratpack.groovy.templating.internal;
+
+import com.google.common.hash.Hashing;
+import groovy.lang.GroovySystem;
+import io.netty.buffer.ByteBuf;
+import io.netty.util.CharsetUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An on-disk cache of the classes compiled for templates, so that templates don't need to be recompiled when the application restarts.
+ * <p>
+ * Entries are keyed by a hash of everything that affects the generated classes: the template content and name,
+ * the compilation mode and the Groovy version.
+ * Unreadable entries are treated as absent.
+ */
+public class TemplateClassCache {
+
+  private final static Logger LOGGER = LoggerFactory.getLogger(TemplateClassCache.class);
+
+  private static final String EXTENSION = ".classes";
+
+  private final Path dir;
+  private final ClassLoader parentLoader;
+  private final boolean staticallyCompile;
+
+  public TemplateClassCache(Path dir, ClassLoader parentLoader, boolean staticallyCompile) {
+    this.dir = dir;
+    this.parentLoader = parentLoader;
+    this.staticallyCompile = staticallyCompile;
+  }
+
+  public String key(String name, ByteBuf templateSource) {
+    byte[] content = new byte[templateSource.readableBytes()];
+    templateSource.getBytes(templateSource.readerIndex(), content);
+
+    return Hashing.sha1().newHasher()
+      .putString(GroovySystem.getVersion(), CharsetUtil.UTF_8)
+      .putString(name, CharsetUtil.UTF_8)
+      .putBoolean(staticallyCompile)
+      .putBytes(content)
+      .hash().toString();
+  }
+
+  public Class<DefaultTemplateScript> load(String key) {
+    Path file = dir.resolve(key + EXTENSION);
+    if (!Files.isRegularFile(file)) {
+      return null;
+    }
+
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+      String mainClassName = in.readUTF();
+      int count = in.readInt();
+      Map<String, byte[]> classes = new HashMap<>(count);
+      for (int i = 0; i < count; ++i) {
+        String className = in.readUTF();
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        classes.put(className, bytes);
+      }
+
+      @SuppressWarnings("unchecked")
+      Class<DefaultTemplateScript> mainClass = (Class<DefaultTemplateScript>) new CachedClassLoader(parentLoader, classes).loadClass(mainClassName);
+      return mainClass;
+    } catch (IOException | ClassNotFoundException | LinkageError e) {
+      LOGGER.warn("Ignoring unreadable compiled template cache entry " + file, e);
+      return null;
+    }
+  }
+
+  public void store(String key, String mainClassName, Map<String, byte[]> classes) {
+    try {
+      Files.createDirectories(dir);
+      Path temp = Files.createTempFile(dir, key, ".tmp");
+      try {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+          out.writeUTF(mainClassName);
+          out.writeInt(classes.size());
+          for (Map.Entry<String, byte[]> entry : classes.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeInt(entry.getValue().length);
+            out.write(entry.getValue());
+          }
+        }
+        // Concurrent writers of the same entry write identical content, so the last one to move wins harmlessly
+        Files.move(temp, dir.resolve(key + EXTENSION), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } finally {
+        Files.deleteIfExists(temp);
+      }
+    } catch (IOException e) {
+      LOGGER.warn("Failed to write compiled template cache entry for " + mainClassName + " to " + dir, e);
+    }
+  }
+
+  private static class CachedClassLoader extends ClassLoader {
+
+    private final Map<String, byte[]> classes;
+
+    CachedClassLoader(ClassLoader parent, Map<String, byte[]> classes) {
+      super(parent);
+      this.classes = classes;
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+      byte[] bytes;
+      synchronized (classes) {
+        bytes = classes.remove(name);
+      }
+      if (bytes == null) {
+        throw new ClassNotFoundException(name);
+      }
+      return defineClass(name, bytes, 0, bytes.length);
+    }
+  }
+
+}
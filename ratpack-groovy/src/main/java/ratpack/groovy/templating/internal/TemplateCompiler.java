@@ -20,9 +20,13 @@ import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
 import io.netty.util.CharsetUtil;
 import org.codehaus.groovy.control.CompilationFailedException;
+import ratpack.api.Nullable;
 import ratpack.groovy.script.internal.ScriptEngine;
 
 import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -34,18 +38,33 @@ public class TemplateCompiler {
   private boolean verbose;
   private final TemplateParser parser = new TemplateParser();
   private final ScriptEngine<DefaultTemplateScript> scriptEngine;
+  private final TemplateClassCache classCache;
 
   public TemplateCompiler(ScriptEngine<DefaultTemplateScript> scriptEngine, ByteBufAllocator byteBufAllocator) {
     this(scriptEngine, false, byteBufAllocator);
   }
 
   public TemplateCompiler(ScriptEngine<DefaultTemplateScript> scriptEngine, boolean verbose, ByteBufAllocator byteBufAllocator) {
+    this(scriptEngine, verbose, byteBufAllocator, null);
+  }
+
+  public TemplateCompiler(ScriptEngine<DefaultTemplateScript> scriptEngine, boolean verbose, ByteBufAllocator byteBufAllocator, @Nullable TemplateClassCache classCache) {
     this.scriptEngine = scriptEngine;
     this.verbose = verbose;
     this.byteBufAllocator = byteBufAllocator;
+    this.classCache = classCache;
   }
 
   public CompiledTemplate compile(ByteBuf templateSource, String name) throws CompilationFailedException, IOException {
+    String cacheKey = null;
+    if (classCache != null) {
+      cacheKey = classCache.key(name, templateSource);
+      Class<DefaultTemplateScript> cachedClass = classCache.load(cacheKey);
+      if (cachedClass != null) {
+        return new CompiledTemplate(name, cachedClass);
+      }
+    }
+
     ByteBuf scriptSource = byteBufAllocator.buffer(templateSource.capacity());
     parser.parse(templateSource, scriptSource);
 
@@ -56,12 +75,23 @@ public class TemplateCompiler {
       logger.info("\n-- script source --\n" + scriptSourceString + "\n-- script end --\n");
     }
 
+    Class<DefaultTemplateScript> scriptClass;
+    Map<String, byte[]> classBytes = classCache == null ? null : new LinkedHashMap<String, byte[]>();
     try {
-      Class<DefaultTemplateScript> scriptClass = scriptEngine.compile(name, scriptSourceString);
-      return new CompiledTemplate(name, scriptClass);
+      if (classBytes == null) {
+        scriptClass = scriptEngine.compile(name, scriptSourceString);
+      } else {
+        scriptClass = scriptEngine.compile(name, scriptSourceString, classBytes);
+      }
     } catch (Exception e) {
       throw new InvalidTemplateException(name, "compilation failure", e);
     }
+
+    if (classBytes != null) {
+      classCache.store(cacheKey, scriptClass.getName(), classBytes);
+    }
+
+    return new CompiledTemplate(name, scriptClass);
   }
 
 }
@@ -69,6 +69,26 @@ class TemplateRenderingSpec extends RatpackGroovyDslSpec {
     text == "<div><p>bar</p></div>"
   }
 
+  def "can stream templates in chunks with the chunk size from the launch config"() {
+    given:
+    launchConfig { other("markupTemplates.streamingChunkSize": "16") }
+    file "templates/foo.gtpl", "100.times { p(it) }"
+
+    when:
+    handlers {
+      get {
+        render groovyMarkupTemplate("foo.gtpl")
+      }
+    }
+
+    then:
+    new MarkupTemplatingModule().streamingChunkSize == null
+    with(get()) {
+      headers.get("transfer-encoding") == "chunked"
+      body.text == (0..99).collect { "<p>$it</p>" }.join('')
+    }
+  }
+
   def "templates are auto-escaped by default"() {
     given:
     file "templates/foo.gtpl", "div(value)"
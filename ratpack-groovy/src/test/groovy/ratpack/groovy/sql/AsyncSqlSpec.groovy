@@ -0,0 +1,145 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.groovy.sql
+
+import org.h2.jdbcx.JdbcDataSource
+import org.reactivestreams.Subscriber
+import org.reactivestreams.Subscription
+import ratpack.exec.ExecController
+import ratpack.launch.LaunchConfigBuilder
+import ratpack.test.internal.RatpackGroovyDslSpec
+import spock.lang.AutoCleanup
+
+import javax.sql.DataSource
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+class AsyncSqlSpec extends RatpackGroovyDslSpec {
+
+  @AutoCleanup
+  ExecController controller
+
+  DataSource dataSource = new JdbcDataSource(URL: "jdbc:h2:mem:asyncsql;DB_CLOSE_DELAY=-1")
+
+  def setup() {
+    new groovy.sql.Sql(dataSource).with {
+      execute("drop table if exists val")
+      execute("create table val(id INT PRIMARY KEY, val VARCHAR(255))")
+    }
+  }
+
+  def "can query and update"() {
+    when:
+    bindings {
+      bind DataSource, dataSource
+      add new SqlModule()
+    }
+
+    handlers { AsyncSql sql ->
+      get {
+        sql.batch("insert into val (id, val) values (?, ?)", (1..5).collect { [it, "v$it".toString()] }, 2) then { inserted ->
+          sql.executeUpdate("update val set val = ? where id = ?", ["updated", 1]) then { updated ->
+            sql.rows("select val from val order by id") then { rows ->
+              render "$inserted:$updated:${rows*.val.join(",")}"
+            }
+          }
+        }
+      }
+    }
+
+    then:
+    text == "5:1:updated,v2,v3,v4,v5"
+  }
+
+  def "rows are streamed as they are requested"() {
+    given:
+    controller = LaunchConfigBuilder.noBaseDir().build().execController
+    def sql = new AsyncSql(dataSource, controller.control)
+    new groovy.sql.Sql(dataSource).withBatch("insert into val (id, val) values (?, ?)") { batch ->
+      (1..100).each { batch.addBatch(it, "v$it".toString()) }
+    }
+    def received = []
+    def latch = new CountDownLatch(1)
+
+    when:
+    sql.stream("select id from val where id > ? order by id", [90], 3).subscribe(new Subscriber() {
+      Subscription subscription
+
+      void onSubscribe(Subscription subscription) {
+        this.subscription = subscription
+        subscription.request(1)
+      }
+
+      void onNext(Object row) {
+        received << row.id
+        subscription.request(1)
+      }
+
+      void onError(Throwable throwable) {
+        received << throwable
+        latch.countDown()
+      }
+
+      void onComplete() {
+        latch.countDown()
+      }
+    })
+
+    then:
+    latch.await(5, TimeUnit.SECONDS)
+    received == (91..100).toList()
+  }
+
+  def "stream stops when cancelled"() {
+    given:
+    controller = LaunchConfigBuilder.noBaseDir().build().execController
+    def sql = new AsyncSql(dataSource, controller.control)
+    new groovy.sql.Sql(dataSource).withBatch("insert into val (id, val) values (?, ?)") { batch ->
+      (1..10).each { batch.addBatch(it, "v$it".toString()) }
+    }
+    def received = []
+    def latch = new CountDownLatch(1)
+
+    when:
+    sql.stream("select id from val order by id", 2).subscribe(new Subscriber() {
+      Subscription subscription
+
+      void onSubscribe(Subscription subscription) {
+        this.subscription = subscription
+        subscription.request(5)
+      }
+
+      void onNext(Object row) {
+        received << row.id
+        if (received.size() == 2) {
+          subscription.cancel()
+          latch.countDown()
+        }
+      }
+
+      void onError(Throwable throwable) {}
+
+      void onComplete() {}
+    })
+
+    then:
+    latch.await(5, TimeUnit.SECONDS)
+    sleep 100
+    received == [1, 2]
+  }
+
+}
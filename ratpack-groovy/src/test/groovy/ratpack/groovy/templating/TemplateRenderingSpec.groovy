@@ -368,4 +368,25 @@ class TemplateRenderingSpec extends RatpackGroovyDslSpec {
     then:
     text == "&lt;&gt; a%2Fb a+b"
   }
+
+  def "can render precompiled templates"() {
+    given:
+    file "templates/dir/foo.html", "foo: \${model.value}, <% render 'bar.html' %>"
+    file "templates/bar.html", "bar"
+    file "templates/broken.html", "<% } %>"
+
+    when:
+    modules.clear()
+    modules << new TemplatingModule(precompile: true)
+
+    and:
+    handlers {
+      get {
+        render groovyTemplate("dir/foo.html", value: 1)
+      }
+    }
+
+    then:
+    text == "foo: 1, bar"
+  }
 }
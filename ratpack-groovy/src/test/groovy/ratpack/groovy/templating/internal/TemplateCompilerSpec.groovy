@@ -21,11 +21,15 @@ import io.netty.buffer.Unpooled
 import io.netty.buffer.UnpooledByteBufAllocator
 import io.netty.util.CharsetUtil
 import ratpack.groovy.script.internal.ScriptEngine
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
 import ratpack.util.internal.IoUtils
 import spock.lang.Specification
 
 class TemplateCompilerSpec extends Specification {
 
+  @Rule TemporaryFolder temporaryFolder
+
   def compiler = new TemplateCompiler(new ScriptEngine<DefaultTemplateScript>(getClass().classLoader, true, DefaultTemplateScript), true, UnpooledByteBufAllocator.DEFAULT)
 
   CompiledTemplate compile(String source) {
@@ -42,11 +46,20 @@ class TemplateCompilerSpec extends Specification {
   }
 
   String exec(String script) {
+    exec(compile(script), script)
+  }
+
+  String exec(CompiledTemplate template, String script) {
     ByteBuf buffer = Unpooled.buffer(script.size())
-    compile(script).execute([:], buffer, new StubNestedRenderer(buffer: buffer))
+    template.execute([:], buffer, new StubNestedRenderer(buffer: buffer))
     buffer.toString(CharsetUtil.UTF_8)
   }
 
+  TemplateCompiler cachingCompiler(ScriptEngine<DefaultTemplateScript> scriptEngine = new ScriptEngine<DefaultTemplateScript>(getClass().classLoader, true, DefaultTemplateScript)) {
+    def classCache = new TemplateClassCache(temporaryFolder.root.toPath(), getClass().classLoader, true)
+    new TemplateCompiler(scriptEngine, false, UnpooledByteBufAllocator.DEFAULT, classCache)
+  }
+
   def "compile"() {
     expect:
     exec("abc") == "abc"
@@ -59,4 +72,28 @@ class TemplateCompilerSpec extends Specification {
     exec("a-<% render 'foo' %>-c") == "a-render:[templateName:foo, model:[:]]-c"
   }
 
+  def "compiled classes are reused from the class cache"() {
+    given:
+    def script = "a<% 2.times { %>b<% } %>c"
+
+    when:
+    def compiled = cachingCompiler().compile(IoUtils.utf8Buffer(script), "test")
+
+    then:
+    exec(compiled, script) == "abbc"
+    temporaryFolder.root.listFiles().size() == 1
+
+    when: "there is no script engine to compile with"
+    def cached = cachingCompiler(null).compile(IoUtils.utf8Buffer(script), "test")
+
+    then:
+    exec(cached, script) == "abbc"
+
+    when:
+    cachingCompiler().compile(IoUtils.utf8Buffer(script + "d"), "test")
+
+    then:
+    temporaryFolder.root.listFiles().size() == 2
+  }
+
 }
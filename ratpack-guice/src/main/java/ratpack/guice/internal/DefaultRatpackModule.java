@@ -19,11 +19,14 @@ package ratpack.guice.internal;
 import com.google.inject.AbstractModule;
 import com.google.inject.OutOfScopeException;
 import com.google.inject.Provides;
+import com.google.inject.Singleton;
 import io.netty.buffer.ByteBufAllocator;
 import ratpack.exec.ExecControl;
 import ratpack.exec.ExecController;
 import ratpack.exec.Execution;
 import ratpack.exec.ExecutionException;
+import ratpack.http.client.HostResolver;
+import ratpack.http.client.HostResolvers;
 import ratpack.http.client.HttpClient;
 import ratpack.http.client.HttpClients;
 import ratpack.launch.LaunchConfig;
@@ -57,8 +60,14 @@ public class DefaultRatpackModule extends AbstractModule {
   }
 
   @Provides
-  HttpClient httpClient(LaunchConfig launchConfig) {
-    return HttpClients.httpClient(launchConfig);
+  @Singleton
+  HostResolver hostResolver() {
+    return HostResolvers.cached(HostResolvers.system());
+  }
+
+  @Provides
+  HttpClient httpClient(LaunchConfig launchConfig, HostResolver hostResolver) {
+    return HttpClients.httpClient(launchConfig, hostResolver);
   }
 
   @Provides
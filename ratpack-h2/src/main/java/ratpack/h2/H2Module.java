@@ -18,15 +18,30 @@ package ratpack.h2;
 
 import com.google.inject.AbstractModule;
 import com.google.inject.Provides;
+import com.google.inject.Singleton;
 import org.h2.jdbcx.JdbcConnectionPool;
 
 import javax.sql.DataSource;
+import java.util.Locale;
 
+/**
+ * An extension module that provides a pooled H2 {@code DataSource}.
+ * <p>
+ * A single pool of at most {@link #maxConnections} connections is shared by all injection points.
+ * Each connection keeps a cache of the last {@link #statementCacheSize} statements it has prepared (H2's {@code QUERY_CACHE_SIZE} setting),
+ * so that repeatedly preparing the same SQL does not parse and plan it again.
+ * <p>
+ * For a fast local database, {@link #memoryMapped(String)} creates a module for a file database that is accessed via memory mapped I/O.
+ */
 public class H2Module extends AbstractModule {
 
+  private static final String QUERY_CACHE_SIZE = "QUERY_CACHE_SIZE";
+
   public String username = "user";
   public String password = "pass";
   public String url = "jdbc:h2:mem:dev";
+  public int maxConnections = 10;
+  public int statementCacheSize = 64;
 
   public H2Module() {}
 
@@ -36,13 +51,39 @@ public class H2Module extends AbstractModule {
     this.url = url;
   }
 
+  /**
+   * Creates a module for a file database at the given path that is read and written via memory mapped I/O (H2's {@code nioMapped} file system).
+   * <p>
+   * Memory mapping avoids a system call per page read, but is limited by the address space of the JVM,
+   * so is best suited to small, local databases such as those used in tests.
+   *
+   * @param path the path of the database file, without the {@code .h2.db} extension
+   * @return a module for a memory mapped database
+   */
+  public static H2Module memoryMapped(String path) {
+    H2Module module = new H2Module();
+    module.url = "jdbc:h2:nioMapped:" + path;
+    return module;
+  }
+
   @Override
   protected void configure() {
   }
 
   @Provides
+  @Singleton
   DataSource dataSource() {
-    return JdbcConnectionPool.create(url, username, password);
+    JdbcConnectionPool pool = JdbcConnectionPool.create(urlWithSettings(), username, password);
+    pool.setMaxConnections(maxConnections);
+    return pool;
+  }
+
+  private String urlWithSettings() {
+    if (statementCacheSize <= 0 || url.toUpperCase(Locale.ENGLISH).contains(QUERY_CACHE_SIZE + "=")) {
+      return url;
+    } else {
+      return url + ";" + QUERY_CACHE_SIZE + "=" + statementCacheSize;
+    }
   }
 
 }
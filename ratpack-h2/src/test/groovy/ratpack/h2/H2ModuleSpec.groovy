@@ -20,6 +20,8 @@ import groovy.sql.Sql
 import ratpack.groovy.sql.SqlModule
 import ratpack.test.internal.RatpackGroovyDslSpec
 
+import javax.sql.DataSource
+
 class H2ModuleSpec extends RatpackGroovyDslSpec {
 
   def "can use db"() {
@@ -47,4 +49,43 @@ class H2ModuleSpec extends RatpackGroovyDslSpec {
     getText('get/0') == "foo"
   }
 
+  def "provides a single pool with a statement cache"() {
+    when:
+    bindings {
+      add new H2Module(maxConnections: 2, statementCacheSize: 32)
+    }
+
+    handlers { DataSource first, DataSource second ->
+      get {
+        def sql = new Sql(first)
+        render "${first.is(second)}:${first.maxConnections}:" + sql.firstRow("select value from information_schema.settings where name = 'QUERY_CACHE_SIZE'")[0]
+      }
+    }
+
+    then:
+    text == "true:2:32"
+  }
+
+  def "can use a memory mapped database"() {
+    given:
+    def path = new File(temporaryFolder.newFolder("db"), "test").absolutePath
+
+    when:
+    bindings {
+      add H2Module.memoryMapped(path), new SqlModule()
+    }
+
+    handlers { Sql sql ->
+      get {
+        sql.execute("create table if not exists val(ID INT PRIMARY KEY, val VARCHAR(255));")
+        sql.executeInsert("merge into val (id, val) key(id) values (1, 'foo')")
+        render sql.firstRow("select val from val where id = 1").val
+      }
+    }
+
+    then:
+    text == "foo"
+    new File(path + ".h2.db").exists()
+  }
+
 }
@@ -56,6 +56,16 @@ import ratpack.launch.LaunchConfig;
  * </p>
  * <p>Custom handlebars helpers can be registered by binding instances of {@link ratpack.handlebars.NamedHelper}.</p>
  * <p>
+ * Templates are rendered straight into a response buffer.
+ * For large pages, a streaming chunk size can be set using {@link #setStreamingChunkSize(Integer)} or the
+ * {@code other.handlebars.streamingChunkSize} configuration property.
+ * Templates are then rendered on a blocking thread, and the response is sent with chunked transfer encoding
+ * a chunk at a time as the template produces it.
+ * The blocking thread is held until the client has received the whole response, so slow clients each tie up a blocking thread,
+ * which can be capped with the {@linkplain ratpack.launch.LaunchConfig#getMaxBlockingConcurrency() max blocking concurrency}.
+ * Errors that occur while rendering in this mode truncate the response, as the response status has already been sent.
+ * </p>
+ * <p>
  * Example usage: (Java DSL)
  * </p>
  * <pre class="tested">
@@ -121,6 +131,8 @@ public class HandlebarsModule extends AbstractModule {
 
   private Boolean reloadable;
 
+  private Integer streamingChunkSize;
+
   public String getTemplatesPath() {
     return templatesPath;
   }
@@ -153,9 +165,23 @@ public class HandlebarsModule extends AbstractModule {
     this.reloadable = reloadable;
   }
 
+  public Integer getStreamingChunkSize() {
+    return streamingChunkSize;
+  }
+
+  public void setStreamingChunkSize(Integer streamingChunkSize) {
+    this.streamingChunkSize = streamingChunkSize;
+  }
+
   @Override
-  protected void configure() {
-    bind(HandlebarsTemplateRenderer.class).in(Singleton.class);
+  protected void configure() {}
+
+  @SuppressWarnings("UnusedDeclaration")
+  @Provides
+  @Singleton
+  HandlebarsTemplateRenderer provideTemplateRenderer(Handlebars handlebars, LaunchConfig launchConfig) {
+    int chunkSize = streamingChunkSize == null ? Integer.parseInt(launchConfig.getOther("handlebars.streamingChunkSize", "0")) : streamingChunkSize;
+    return new HandlebarsTemplateRenderer(handlebars, chunkSize);
   }
 
   @SuppressWarnings("UnusedDeclaration")
@@ -18,30 +18,43 @@ package ratpack.handlebars.internal;
 
 import com.github.jknack.handlebars.Handlebars;
 import ratpack.file.MimeTypes;
+import ratpack.func.Action;
 import ratpack.handlebars.Template;
 import ratpack.handling.Context;
 import ratpack.render.RendererSupport;
+import ratpack.render.internal.WriterRendering;
 
-import javax.inject.Inject;
 import java.io.IOException;
+import java.io.Writer;
 
 public class HandlebarsTemplateRenderer extends RendererSupport<Template<?>> {
 
   private final Handlebars handlebars;
+  private final int streamingChunkSize;
 
-  @Inject
-  public HandlebarsTemplateRenderer(Handlebars handlebars) {
+  public HandlebarsTemplateRenderer(Handlebars handlebars, int streamingChunkSize) {
     this.handlebars = handlebars;
+    this.streamingChunkSize = streamingChunkSize;
   }
 
   @Override
-  public void render(Context context, Template<?> template) {
+  public void render(Context context, final Template<?> template) {
     String contentType = template.getContentType();
     contentType = contentType == null ? context.get(MimeTypes.class).getContentType(template.getName()) : contentType;
+
+    final com.github.jknack.handlebars.Template compiledTemplate;
     try {
-      context.getResponse().send(contentType, handlebars.compile(template.getName()).apply(template.getModel()));
+      compiledTemplate = handlebars.compile(template.getName());
     } catch (IOException e) {
       context.error(e);
+      return;
     }
+
+    WriterRendering.render(context, contentType, streamingChunkSize, new Action<Writer>() {
+      @Override
+      public void execute(Writer writer) throws Exception {
+        compiledTemplate.apply(template.getModel(), writer);
+      }
+    });
   }
 }
@@ -17,9 +17,13 @@
 package ratpack.handlebars
 
 import com.github.jknack.handlebars.Options
+import ratpack.exec.ExecInterceptor
 import ratpack.test.internal.RatpackGroovyDslSpec
 import spock.lang.Unroll
 
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.atomic.AtomicInteger
+
 import static Template.handlebarsTemplate
 import static io.netty.handler.codec.http.HttpHeaders.Names.CONTENT_TYPE
 import static io.netty.handler.codec.http.HttpResponseStatus.INTERNAL_SERVER_ERROR
@@ -188,6 +192,102 @@ class HandlebarsTemplateRenderingSpec extends RatpackGroovyDslSpec {
     then:
     text == 'A'
   }
+
+  void 'can stream large templates in chunks'() {
+    given:
+    file 'handlebars/list.hbs', '{{#each this}}<p>{{this}}</p>{{/each}}'
+
+    when:
+    bindings {
+      add new HandlebarsModule(streamingChunkSize: 64)
+    }
+    handlers {
+      get {
+        render handlebarsTemplate('list', (1..100).collect { "item $it".toString() })
+      }
+    }
+
+    then:
+    with(get()) {
+      headers.get("transfer-encoding") == "chunked"
+      body.text == (1..100).collect { "<p>item $it</p>" }.join('')
+    }
+  }
+
+  void 'chunked templates are produced under the blocking interceptors of the execution'() {
+    given:
+    def intercepted = new ConcurrentLinkedQueue<String>()
+    file 'handlebars/list.hbs', '{{#each this}}<p>{{this}}</p>{{/each}}'
+
+    when:
+    bindings {
+      add new HandlebarsModule(streamingChunkSize: 64)
+    }
+    handlers {
+      get {
+        addInterceptor(new ExecInterceptor() {
+          void intercept(ExecInterceptor.ExecType type, Runnable continuation) {
+            intercepted << "${type}:${Thread.currentThread().name.startsWith("ratpack-blocking")}".toString()
+            continuation.run()
+          }
+        }) {
+          render handlebarsTemplate('list', (1..10).collect { "item $it".toString() })
+        }
+      }
+    }
+
+    then:
+    text == (1..10).collect { "<p>item $it</p>" }.join('')
+    intercepted.contains("BLOCKING:true")
+  }
+
+  void 'chunked templates are only produced as fast as the client reads them'() {
+    given:
+    def items = 20000
+    def item = "x" * 1000
+    def produced = new AtomicInteger()
+    def list = [iterator: {
+      def numbers = (1..items).iterator()
+      [hasNext: { numbers.hasNext() }, next: { numbers.next(); produced.incrementAndGet(); item }, remove: {}] as Iterator
+    }] as Iterable
+    file 'handlebars/list.hbs', '{{#each this}}<p>{{this}}</p>{{/each}}'
+
+    when:
+    bindings {
+      add new HandlebarsModule(streamingChunkSize: 8192)
+    }
+    handlers {
+      get {
+        render handlebarsTemplate('list', list)
+      }
+    }
+
+    then:
+    Socket socket = new Socket(getAddress().host, getAddress().port)
+    try {
+      new OutputStreamWriter(socket.outputStream, "UTF-8").with {
+        write("GET / HTTP/1.1\r\n")
+        write("Connection: close\r\n")
+        write("\r\n")
+        flush()
+      }
+
+      def input = socket.inputStream
+      def buffer = new byte[8192]
+      def received = input.read(buffer)
+      sleep 1000
+      assert produced.get() < items
+
+      def read
+      while ((read = input.read(buffer)) != -1) {
+        received += read
+      }
+      assert produced.get() == items
+      assert received > items * (item.length() + "<p></p>".length())
+    } finally {
+      socket.close()
+    }
+  }
 }
 
 class TestHelper implements NamedHelper {
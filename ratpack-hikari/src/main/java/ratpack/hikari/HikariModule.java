@@ -21,12 +21,16 @@ import com.google.inject.Provides;
 import com.google.inject.Singleton;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.GenericFutureListener;
+import ratpack.hikari.internal.DefaultJdbcBulkhead;
 import ratpack.launch.LaunchConfig;
 
 import javax.sql.DataSource;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 
 /**
  * An extension module that provides support for HikariCP JDBC connection pool.
@@ -96,6 +100,9 @@ import java.util.Properties;
  * }
  *
  * </pre>
+ * <p>
+ * This module also provides a {@link JdbcBulkhead}, for performing JDBC operations on threads sized to the pool.
+ * </p>
  *
  * @see <a href="http://brettwooldridge.github.io/HikariCP/" target="_blank">HikariCP</a>
  */
@@ -103,6 +110,7 @@ public class HikariModule extends AbstractModule {
 
   private final static String DEFAULT_MIN_IDLE_SIZE = "10";
   private final static String DEFAULT_MAX_POOL_SIZE = "60";
+  private final static String DEFAULT_BULKHEAD_MAX_QUEUE_SIZE = "1000";
 
   private Integer minimumIdleSize;
   private Integer maximumPoolSize;
@@ -152,4 +160,22 @@ public class HikariModule extends AbstractModule {
   public DataSource dataSource(HikariConfig config) {
     return new HikariDataSource(config);
   }
+
+  @Provides
+  @Singleton
+  public JdbcBulkhead jdbcBulkhead(DataSource dataSource, HikariConfig config, LaunchConfig launchConfig) {
+    int maxQueueSize = Integer.parseInt(launchConfig.getOther("hikari.bulkhead.maxQueueSize", DEFAULT_BULKHEAD_MAX_QUEUE_SIZE));
+    long queueTimeout = Long.parseLong(launchConfig.getOther("hikari.bulkhead.queueTimeout", Long.toString(config.getConnectionTimeout())));
+    final DefaultJdbcBulkhead bulkhead = new DefaultJdbcBulkhead(dataSource, launchConfig.getExecController(), config.getMaximumPoolSize(), maxQueueSize, queueTimeout, TimeUnit.MILLISECONDS);
+
+    // The exec controller is shut down when the application stops
+    launchConfig.getExecController().getEventLoopGroup().terminationFuture().addListener(new GenericFutureListener<Future<Object>>() {
+      @Override
+      public void operationComplete(Future<Object> future) throws Exception {
+        bulkhead.close();
+      }
+    });
+
+    return bulkhead;
+  }
 }
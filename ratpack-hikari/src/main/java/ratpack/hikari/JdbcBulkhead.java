@@ -0,0 +1,119 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.hikari;
+
+import ratpack.exec.Promise;
+import ratpack.func.Function;
+
+import java.sql.Connection;
+
+/**
+ * Performs JDBC operations on a dedicated set of threads, sized to the connection pool.
+ * <p>
+ * Performing JDBC operations via {@link ratpack.exec.ExecControl#blocking(java.util.concurrent.Callable)} uses the general blocking thread pool,
+ * which grows without bound.
+ * Under load, many more threads are created than there are connections in the pool, and they all block waiting for a connection.
+ * The bulkhead instead performs operations on exactly as many threads as there are connections ({@code maximumPoolSize}).
+ * Operations beyond that wait in a bounded queue without holding a thread.
+ * If the queue is full, or an operation waits longer than the queue timeout, the returned promise fails with a {@link JdbcBulkheadRejectedException}.
+ * Operations are performed under the execution's {@link ratpack.exec.ExecInterceptor.ExecType#BLOCKING blocking} interceptors, as with {@code blocking()}.
+ * <p>
+ * An instance is provided by the {@link HikariModule}, and its threads are stopped when the application stops.
+ * The size of the queue can be set with the {@code other.hikari.bulkhead.maxQueueSize} configuration property (default 1000).
+ * The queue timeout can be set with {@code other.hikari.bulkhead.queueTimeout} in milliseconds, and defaults to the pool's connection timeout.
+ * <pre class="groovy-ratpack-dsl">
+ * import ratpack.hikari.HikariModule
+ * import ratpack.hikari.JdbcBulkhead
+ * import static ratpack.groovy.Groovy.ratpack
+ *
+ * ratpack {
+ *   bindings {
+ *     add new HikariModule("org.h2.jdbcx.JdbcDataSource", URL: "jdbc:h2:mem:dev")
+ *   }
+ *
+ *   handlers { JdbcBulkhead jdbc -&gt;
+ *     get('schemas') {
+ *       jdbc.withConnection { connection -&gt;
+ *         connection.metaData.schemas.with { rs -&gt;
+ *           def names = []
+ *           while (rs.next()) { names &lt;&lt; rs.getString(1) }
+ *           names
+ *         }
+ *       } then {
+ *         render it.join(', ')
+ *       }
+ *     }
+ *   }
+ * }
+ * </pre>
+ */
+public interface JdbcBulkhead {
+
+  /**
+   * Performs the given operation with a connection from the pool, on one of the bulkhead's threads.
+   * <p>
+   * The connection is closed (i.e. returned to the pool) when the operation returns.
+   *
+   * @param operation the operation to perform
+   * @param <T> the type of result of the operation
+   * @return a promise for the result of the operation
+   */
+  <T> Promise<T> withConnection(Function<? super Connection, ? extends T> operation);
+
+  /**
+   * The number of operations waiting for a thread.
+   *
+   * @return the number of operations waiting for a thread
+   */
+  int getQueueDepth();
+
+  /**
+   * The number of operations currently being performed.
+   *
+   * @return the number of operations currently being performed
+   */
+  int getActiveCount();
+
+  /**
+   * The number of operations that have completed, successfully or not.
+   *
+   * @return the number of operations that have completed
+   */
+  long getCompletedCount();
+
+  /**
+   * The number of operations that were rejected because the queue was full or they waited too long.
+   *
+   * @return the number of operations that were rejected
+   */
+  long getRejectedCount();
+
+  /**
+   * The total time that completed operations spent acquiring a connection from the pool.
+   *
+   * @return the total time spent acquiring connections, in nanoseconds
+   */
+  long getTotalAcquireNanos();
+
+  /**
+   * The total time that completed operations spent performing the operation, once a connection was acquired.
+   *
+   * @return the total time spent performing operations, in nanoseconds
+   */
+  long getTotalQueryNanos();
+
+}
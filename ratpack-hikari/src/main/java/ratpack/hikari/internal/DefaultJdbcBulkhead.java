@@ -0,0 +1,202 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.hikari.internal;
+
+import io.netty.util.concurrent.DefaultThreadFactory;
+import ratpack.exec.ExecControl;
+import ratpack.exec.ExecController;
+import ratpack.exec.Fulfiller;
+import ratpack.exec.Promise;
+import ratpack.exec.internal.DefaultExecControl;
+import ratpack.func.Action;
+import ratpack.func.Function;
+import ratpack.hikari.JdbcBulkhead;
+import ratpack.hikari.JdbcBulkheadRejectedException;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class DefaultJdbcBulkhead implements JdbcBulkhead, AutoCloseable {
+
+  private final DataSource dataSource;
+  private final ExecController execController;
+  private final ThreadPoolExecutor executor;
+  private final long queueTimeoutNanos;
+
+  private final AtomicLong completed = new AtomicLong();
+  private final AtomicLong rejected = new AtomicLong();
+  private final AtomicLong acquireNanos = new AtomicLong();
+  private final AtomicLong queryNanos = new AtomicLong();
+
+  public DefaultJdbcBulkhead(DataSource dataSource, ExecController execController, int threads, int maxQueueSize, long queueTimeout, TimeUnit unit) {
+    this.dataSource = dataSource;
+    this.execController = execController;
+    this.queueTimeoutNanos = unit.toNanos(queueTimeout);
+    this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(maxQueueSize), new DefaultThreadFactory("ratpack-jdbc", true));
+    this.executor.allowCoreThreadTimeOut(true);
+  }
+
+  @Override
+  public <T> Promise<T> withConnection(final Function<? super Connection, ? extends T> operation) {
+    return execController.getControl().promise(new Action<Fulfiller<T>>() {
+      @Override
+      public void execute(Fulfiller<T> fulfiller) throws Exception {
+        Operation<T> task = new Operation<>(operation, fulfiller);
+        try {
+          executor.execute(task);
+        } catch (RejectedExecutionException e) {
+          task.reject(executor.isShutdown() ? "JDBC bulkhead is closed" : "JDBC bulkhead queue is full (" + executor.getQueue().size() + " operations waiting)");
+          return;
+        }
+        task.scheduleTimeout();
+      }
+    });
+  }
+
+  /**
+   * Stops accepting operations, and lets the threads finish once the operations already queued have been performed.
+   */
+  @Override
+  public void close() {
+    executor.shutdown();
+  }
+
+  @Override
+  public int getQueueDepth() {
+    return executor.getQueue().size();
+  }
+
+  @Override
+  public int getActiveCount() {
+    return executor.getActiveCount();
+  }
+
+  @Override
+  public long getCompletedCount() {
+    return completed.get();
+  }
+
+  @Override
+  public long getRejectedCount() {
+    return rejected.get();
+  }
+
+  @Override
+  public long getTotalAcquireNanos() {
+    return acquireNanos.get();
+  }
+
+  @Override
+  public long getTotalQueryNanos() {
+    return queryNanos.get();
+  }
+
+  // The operation is user code performed on behalf of the execution, so it runs under the execution's blocking interceptors like ExecControl.blocking() does
+  private static Runnable intercept(ExecControl execControl, Runnable operation) {
+    if (execControl instanceof DefaultExecControl) {
+      return ((DefaultExecControl) execControl).interceptBlocking(operation);
+    } else {
+      return operation;
+    }
+  }
+
+  private class Operation<T> implements Runnable {
+    private final Function<? super Connection, ? extends T> operation;
+    private final Fulfiller<T> fulfiller;
+    private final Runnable perform;
+    // whichever of the worker and the queue timeout claims the operation first gets to fulfil it
+    private final AtomicBoolean claimed = new AtomicBoolean();
+    private volatile Future<?> timeout;
+
+    private Operation(Function<? super Connection, ? extends T> operation, Fulfiller<T> fulfiller) {
+      this.operation = operation;
+      this.fulfiller = fulfiller;
+      this.perform = intercept(execController.getControl(), new Runnable() {
+        @Override
+        public void run() {
+          perform();
+        }
+      });
+    }
+
+    private void scheduleTimeout() {
+      if (queueTimeoutNanos > 0 && !claimed.get()) {
+        timeout = execController.getExecutor().schedule(new Runnable() {
+          @Override
+          public void run() {
+            executor.remove(Operation.this);
+            reject("JDBC bulkhead operation waited longer than " + TimeUnit.NANOSECONDS.toMillis(queueTimeoutNanos) + "ms to be performed");
+          }
+        }, queueTimeoutNanos, TimeUnit.NANOSECONDS);
+      }
+    }
+
+    private void reject(String message) {
+      if (claimed.compareAndSet(false, true)) {
+        rejected.incrementAndGet();
+        fulfiller.error(new JdbcBulkheadRejectedException(message));
+      }
+    }
+
+    @Override
+    public void run() {
+      if (!claimed.compareAndSet(false, true)) {
+        return;
+      }
+      Future<?> timeout = this.timeout;
+      if (timeout != null) {
+        timeout.cancel(false);
+      }
+      perform.run();
+    }
+
+    private void perform() {
+      T result;
+      long start = System.nanoTime();
+      long acquired = 0;
+      try (Connection connection = dataSource.getConnection()) {
+        acquired = System.nanoTime();
+        result = operation.apply(connection);
+      } catch (Throwable e) {
+        record(start, acquired);
+        fulfiller.error(e);
+        return;
+      }
+      record(start, acquired);
+      fulfiller.success(result);
+    }
+
+    private void record(long start, long acquired) {
+      long end = System.nanoTime();
+      if (acquired == 0) { // failed to acquire a connection
+        acquireNanos.addAndGet(end - start);
+      } else {
+        acquireNanos.addAndGet(acquired - start);
+        queryNanos.addAndGet(end - acquired);
+      }
+      completed.incrementAndGet();
+    }
+  }
+
+}
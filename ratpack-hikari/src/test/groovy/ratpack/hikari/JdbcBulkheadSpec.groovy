@@ -0,0 +1,155 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.hikari
+
+import org.h2.jdbcx.JdbcDataSource
+import ratpack.exec.ExecController
+import ratpack.exec.ExecInterceptor
+import ratpack.hikari.internal.DefaultJdbcBulkhead
+import ratpack.launch.LaunchConfigBuilder
+import ratpack.test.internal.RatpackGroovyDslSpec
+import spock.lang.AutoCleanup
+
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.LinkedBlockingQueue
+import java.util.concurrent.TimeUnit
+
+class JdbcBulkheadSpec extends RatpackGroovyDslSpec {
+
+  @AutoCleanup
+  ExecController controller
+
+  def "can perform operations via the bulkhead"() {
+    when:
+    bindings {
+      add new HikariModule([URL: "jdbc:h2:mem:dev;INIT=CREATE SCHEMA IF NOT EXISTS DEV"], "org.h2.jdbcx.JdbcDataSource")
+    }
+
+    handlers { JdbcBulkhead jdbc ->
+      get {
+        jdbc.withConnection { connection ->
+          def rs = connection.createStatement().executeQuery("select 1 + 1")
+          rs.next()
+          rs.getInt(1)
+        } then {
+          render "$it:$jdbc.completedCount"
+        }
+      }
+    }
+
+    then:
+    text == "2:1"
+  }
+
+  def "operations are performed under the blocking interceptors of the execution"() {
+    given:
+    def intercepted = new ConcurrentLinkedQueue<String>()
+
+    when:
+    bindings {
+      add new HikariModule([URL: "jdbc:h2:mem:dev"], "org.h2.jdbcx.JdbcDataSource")
+    }
+
+    handlers { JdbcBulkhead jdbc ->
+      get {
+        addInterceptor(new ExecInterceptor() {
+          void intercept(ExecInterceptor.ExecType type, Runnable continuation) {
+            intercepted << "${type}:${Thread.currentThread().name.startsWith("ratpack-jdbc")}".toString()
+            continuation.run()
+          }
+        }) {
+          jdbc.withConnection { "ok" } then { render it }
+        }
+      }
+    }
+
+    then:
+    text == "ok"
+    intercepted.contains("BLOCKING:true")
+  }
+
+  def "operations are rejected once the bulkhead is closed"() {
+    given:
+    controller = LaunchConfigBuilder.noBaseDir().build().execController
+    def bulkhead = new DefaultJdbcBulkhead(dataSource(), controller, 1, 1, 0, TimeUnit.MILLISECONDS)
+    def results = new LinkedBlockingQueue()
+
+    when:
+    bulkhead.close()
+    controller.control.fork {
+      bulkhead.withConnection { "ok" } onError { results.put(it.message) } then { results.put(it) }
+    }
+
+    then:
+    results.poll(5, TimeUnit.SECONDS) == "JDBC bulkhead is closed"
+  }
+
+  def "operations beyond the pool and queue size are rejected"() {
+    given:
+    controller = LaunchConfigBuilder.noBaseDir().build().execController
+    def bulkhead = new DefaultJdbcBulkhead(dataSource(), controller, 1, 1, 0, TimeUnit.MILLISECONDS)
+    def release = new CountDownLatch(1)
+    def results = new LinkedBlockingQueue()
+
+    when:
+    3.times {
+      controller.control.fork {
+        bulkhead.withConnection { release.await(); "ok" } onError { results.put(it.class) } then { results.put(it) }
+      }
+    }
+
+    then:
+    results.poll(5, TimeUnit.SECONDS) == JdbcBulkheadRejectedException
+    bulkhead.queueDepth == 1
+    bulkhead.rejectedCount == 1
+
+    when:
+    release.countDown()
+
+    then:
+    results.poll(5, TimeUnit.SECONDS) == "ok"
+    results.poll(5, TimeUnit.SECONDS) == "ok"
+  }
+
+  def "operations that wait too long are rejected"() {
+    given:
+    controller = LaunchConfigBuilder.noBaseDir().build().execController
+    def bulkhead = new DefaultJdbcBulkhead(dataSource(), controller, 1, 10, 100, TimeUnit.MILLISECONDS)
+    def release = new CountDownLatch(1)
+    def results = new LinkedBlockingQueue()
+
+    when:
+    2.times {
+      controller.control.fork {
+        bulkhead.withConnection { release.await(); "ok" } onError { results.put(it.class) } then { results.put(it) }
+      }
+    }
+
+    then:
+    results.poll(5, TimeUnit.SECONDS) == JdbcBulkheadRejectedException
+    bulkhead.queueDepth == 0
+
+    cleanup:
+    release.countDown()
+  }
+
+  private static JdbcDataSource dataSource() {
+    new JdbcDataSource(URL: "jdbc:h2:mem:bulkhead")
+  }
+
+}
@@ -16,10 +16,22 @@
 
 package ratpack.hystrix;
 
+import com.netflix.hystrix.HystrixObservableCommand;
 import com.netflix.hystrix.strategy.HystrixPlugins;
 import com.netflix.hystrix.strategy.concurrency.HystrixConcurrencyStrategy;
+import ratpack.exec.ExecControl;
+import ratpack.exec.Fulfiller;
+import ratpack.exec.Promise;
+import ratpack.func.Action;
+import ratpack.func.Function;
+import ratpack.hystrix.internal.DefaultRequestCollapser;
+import ratpack.hystrix.internal.FulfillingSubscriber;
 import ratpack.hystrix.internal.HystrixRegistryBackedConcurrencyStrategy;
 
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Provides integration with <a href="https://github.com/Netflix/Hystrix">Hystrix</a>.
  * <p>
@@ -50,4 +62,48 @@ public abstract class HystrixRatpack {
     }
   }
 
+  /**
+   * Creates a promise for the value emitted by the given command.
+   * <p>
+   * The command is executed when the promise is subscribed to, within the current execution.
+   * The promise is fulfilled with the last value emitted by the command's observable when it completes
+   * (or {@code null} if it emits no values), or fails with the observable's error.
+   *
+   * @param execControl the execution control to create the promise with
+   * @param command the command to execute
+   * @param <T> the type of value emitted by the command
+   * @return a promise for the value emitted by the command
+   */
+  public static <T> Promise<T> promise(ExecControl execControl, final HystrixObservableCommand<T> command) {
+    return execControl.promise(new Action<Fulfiller<T>>() {
+      @Override
+      public void execute(Fulfiller<T> fulfiller) throws Exception {
+        command.toObservable().subscribe(new FulfillingSubscriber<>(fulfiller));
+      }
+    });
+  }
+
+  /**
+   * Creates a collapser that batches requests for individual values into bulk commands.
+   * <p>
+   * Requests are collected for {@code window} after the first request of a batch, or until {@code maxBatchSize} distinct keys have been requested,
+   * and then the command created by {@code commandFactory} for the set of requested keys is executed.
+   * The command should emit a map of keys to values, and may emit several maps, which are combined.
+   *
+   * @param execControl the execution control to time windows and execute commands with
+   * @param window how long to collect requests for before executing a bulk command
+   * @param unit the unit of {@code window}
+   * @param maxBatchSize the max number of distinct keys in a bulk command
+   * @param commandFactory creates the bulk command for a set of keys
+   * @param <K> the type of key
+   * @param <V> the type of value
+   * @return a collapser
+   */
+  public static <K, V> RequestCollapser<K, V> collapser(
+    ExecControl execControl, long window, TimeUnit unit, int maxBatchSize,
+    Function<? super Set<K>, ? extends HystrixObservableCommand<Map<K, V>>> commandFactory
+  ) {
+    return new DefaultRequestCollapser<>(execControl, window, unit, maxBatchSize, commandFactory);
+  }
+
 }
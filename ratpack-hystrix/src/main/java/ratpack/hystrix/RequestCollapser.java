@@ -0,0 +1,51 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.hystrix;
+
+import ratpack.exec.Promise;
+
+/**
+ * Collapses requests for individual values, made by any number of executions, into bulk requests.
+ * <p>
+ * Requests made within a time window are collected and served by a single {@link com.netflix.hystrix.HystrixObservableCommand} for all of the requested keys.
+ * This turns many concurrent lookups of individual values into a single call to a downstream service that supports bulk lookups.
+ * <p>
+ * Unlike Hystrix's own {@link com.netflix.hystrix.HystrixCollapser}, the window is timed on Ratpack's compute threads,
+ * and the bulk command is executed in its own Ratpack execution, which lasts until the command has completed.
+ * Request scoped Hystrix features, such as request variables and the request cache, are scoped to that execution
+ * when they are used on its thread, e.g. while the command's observable is created and subscribed to.
+ * <p>
+ * Instances are created via {@link HystrixRatpack#collapser(ratpack.exec.ExecControl, long, java.util.concurrent.TimeUnit, int, ratpack.func.Function)}
+ * and should be shared (e.g. as a singleton), as only requests made through the same instance are collapsed.
+ *
+ * @param <K> the type of key
+ * @param <V> the type of value
+ */
+public interface RequestCollapser<K, V> {
+
+  /**
+   * Requests the value for the given key.
+   * <p>
+   * The returned promise is fulfilled with the value for the key in the result of the bulk command, or {@code null} if the result has no value for the key.
+   * If the bulk command fails, the promise fails with the same exception.
+   *
+   * @param key the key of the value to request
+   * @return a promise for the value of the key
+   */
+  Promise<V> get(K key);
+
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.hystrix.internal;
+
+import com.google.common.collect.ImmutableSet;
+import com.netflix.hystrix.HystrixObservableCommand;
+import ratpack.exec.ExecControl;
+import ratpack.exec.Execution;
+import ratpack.exec.Fulfiller;
+import ratpack.exec.Promise;
+import ratpack.func.Action;
+import ratpack.func.Function;
+import ratpack.hystrix.RequestCollapser;
+import rx.Subscriber;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+public class DefaultRequestCollapser<K, V> implements RequestCollapser<K, V> {
+
+  private final ExecControl execControl;
+  private final long window;
+  private final TimeUnit unit;
+  private final int maxBatchSize;
+  private final Function<? super Set<K>, ? extends HystrixObservableCommand<Map<K, V>>> commandFactory;
+
+  private Batch batch;
+
+  public DefaultRequestCollapser(ExecControl execControl, long window, TimeUnit unit, int maxBatchSize, Function<? super Set<K>, ? extends HystrixObservableCommand<Map<K, V>>> commandFactory) {
+    this.execControl = execControl;
+    this.window = window;
+    this.unit = unit;
+    this.maxBatchSize = maxBatchSize;
+    this.commandFactory = commandFactory;
+  }
+
+  @Override
+  public Promise<V> get(final K key) {
+    return execControl.promise(new Action<Fulfiller<V>>() {
+      @Override
+      public void execute(Fulfiller<V> fulfiller) throws Exception {
+        Batch full = null;
+        synchronized (DefaultRequestCollapser.this) {
+          if (batch == null) {
+            batch = new Batch();
+            scheduleFlush(batch);
+          }
+          batch.add(key, fulfiller);
+          if (batch.waiters.size() >= maxBatchSize) {
+            full = batch;
+            batch = null;
+          }
+        }
+        if (full != null) {
+          full.execute();
+        }
+      }
+    });
+  }
+
+  private void scheduleFlush(final Batch scheduled) {
+    execControl.getController().getExecutor().schedule(new Runnable() {
+      @Override
+      public void run() {
+        synchronized (DefaultRequestCollapser.this) {
+          if (batch != scheduled) { // already flushed because it was full
+            return;
+          }
+          batch = null;
+        }
+        scheduled.execute();
+      }
+    }, window, unit);
+  }
+
+  private class Batch {
+    private final Map<K, List<Fulfiller<? super V>>> waiters = new LinkedHashMap<>();
+
+    private void add(K key, Fulfiller<? super V> fulfiller) {
+      List<Fulfiller<? super V>> keyWaiters = waiters.get(key);
+      if (keyWaiters == null) {
+        keyWaiters = new LinkedList<>();
+        waiters.put(key, keyWaiters);
+      }
+      keyWaiters.add(fulfiller);
+    }
+
+    // The command is executed in its own execution, which waits for the command to complete,
+    // so that request scoped Hystrix features have an execution to be scoped to for the whole command
+    private void execute() {
+      execControl.fork(new Action<Execution>() {
+        @Override
+        public void execute(Execution execution) throws Exception {
+          final HystrixObservableCommand<Map<K, V>> command = commandFactory.apply(ImmutableSet.copyOf(waiters.keySet()));
+          execution.getControl().promise(new Action<Fulfiller<Map<K, V>>>() {
+            @Override
+            public void execute(final Fulfiller<Map<K, V>> fulfiller) throws Exception {
+              command.toObservable().subscribe(new Subscriber<Map<K, V>>() {
+                private final Map<K, V> results = new HashMap<>();
+
+                @Override
+                public void onNext(Map<K, V> values) {
+                  results.putAll(values);
+                }
+
+                @Override
+                public void onCompleted() {
+                  fulfiller.success(results);
+                }
+
+                @Override
+                public void onError(Throwable e) {
+                  fulfiller.error(e);
+                }
+              });
+            }
+          }).onError(new Action<Throwable>() {
+            @Override
+            public void execute(Throwable throwable) throws Exception {
+              fail(throwable);
+            }
+          }).then(new Action<Map<K, V>>() {
+            @Override
+            public void execute(Map<K, V> results) throws Exception {
+              for (Map.Entry<K, List<Fulfiller<? super V>>> entry : waiters.entrySet()) {
+                V value = results.get(entry.getKey());
+                for (Fulfiller<? super V> fulfiller : entry.getValue()) {
+                  fulfiller.success(value);
+                }
+              }
+            }
+          });
+        }
+      }, new Action<Throwable>() {
+        @Override
+        public void execute(Throwable throwable) throws Exception {
+          fail(throwable);
+        }
+      });
+    }
+
+    private void fail(Throwable e) {
+      for (List<Fulfiller<? super V>> keyWaiters : waiters.values()) {
+        for (Fulfiller<? super V> fulfiller : keyWaiters) {
+          fulfiller.error(e);
+        }
+      }
+    }
+  }
+
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.hystrix.internal;
+
+import ratpack.exec.Fulfiller;
+import rx.Subscriber;
+
+public class FulfillingSubscriber<T> extends Subscriber<T> {
+
+  private final Fulfiller<? super T> fulfiller;
+  private T value;
+
+  public FulfillingSubscriber(Fulfiller<? super T> fulfiller) {
+    this.fulfiller = fulfiller;
+  }
+
+  @Override
+  public void onNext(T value) {
+    this.value = value;
+  }
+
+  @Override
+  public void onCompleted() {
+    fulfiller.success(value);
+  }
+
+  @Override
+  public void onError(Throwable e) {
+    fulfiller.error(e);
+  }
+
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.hystrix
+
+import com.netflix.hystrix.HystrixCommandGroupKey
+import com.netflix.hystrix.HystrixObservableCommand
+import com.netflix.hystrix.strategy.HystrixPlugins
+import com.netflix.hystrix.strategy.concurrency.HystrixRequestVariableLifecycle
+import ratpack.exec.internal.DefaultExecController
+import ratpack.test.internal.RatpackGroovyDslSpec
+import rx.Observable
+import spock.util.concurrent.PollingConditions
+
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.CyclicBarrier
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS
+
+class HystrixRequestCollapsingSpec extends RatpackGroovyDslSpec {
+
+  def bulkRequests = new ConcurrentLinkedQueue<Set<String>>()
+
+  def setup() {
+    HystrixRatpack.initialize()
+  }
+
+  HystrixObservableCommand<Map<String, String>> bulkCommand(Set<String> ids) {
+    bulkRequests << ids
+    new HystrixObservableCommand<Map<String, String>>(HystrixCommandGroupKey.Factory.asKey("bulk")) {
+      @Override
+      protected Observable<Map<String, String>> run() {
+        Observable.from([ids.collectEntries { [it, "value-$it".toString()] }])
+      }
+    }
+  }
+
+  def "concurrent requests are collapsed into one command"() {
+    given:
+    handlers {
+      def collapser = HystrixRatpack.collapser(launchConfig.execController.control, 200, MILLISECONDS, 100) { Set<String> ids -> bulkCommand(ids) }
+      get(":id") {
+        collapser.get(pathTokens.id).then { render it }
+      }
+    }
+
+    when:
+    def barrier = new CyclicBarrier(5)
+    def results = (1..5).collect { id ->
+      def result = null
+      [Thread.start { barrier.await(); result = new URL("${applicationUnderTest.address}$id").text }, { result }]
+    }.collect { thread, result -> thread.join(); result() }
+
+    then:
+    results == (1..5).collect { "value-$it".toString() }
+    bulkRequests.size() == 1
+    bulkRequests.first() == (1..5)*.toString() as Set
+  }
+
+  def "bulk commands can use request variables, and their execution lasts until they complete"() {
+    given:
+    def events = new ConcurrentLinkedQueue<String>()
+    def variable = HystrixPlugins.instance.concurrencyStrategy.getRequestVariable(new HystrixRequestVariableLifecycle<String>() {
+      String initialValue() { "request-scoped" }
+
+      void shutdown(String value) {}
+    })
+
+    handlers {
+      def collapser = HystrixRatpack.collapser(launchConfig.execController.control, 10, MILLISECONDS, 100) { Set<String> ids ->
+        new HystrixObservableCommand<Map<String, String>>(HystrixCommandGroupKey.Factory.asKey("bulk")) {
+          @Override
+          protected Observable<Map<String, String>> run() {
+            def value = variable.get()
+            DefaultExecController.threadBoundController.get().control.execution.onCleanup({ events << "execution closed" } as AutoCloseable)
+            Observable.timer(100, MILLISECONDS).map { ids.collectEntries { [it, value] } as Map<String, String> }.doOnCompleted { events << "command completed" }
+          }
+        }
+      }
+      get(":id") {
+        collapser.get(pathTokens.id).then { render it }
+      }
+    }
+
+    expect:
+    getText("1") == "request-scoped"
+    new PollingConditions().eventually {
+      assert events.toList() == ["command completed", "execution closed"]
+    }
+  }
+
+  def "batches are flushed when they reach the max size"() {
+    given:
+    handlers {
+      def collapser = HystrixRatpack.collapser(launchConfig.execController.control, 10000, MILLISECONDS, 1) { Set<String> ids -> bulkCommand(ids) }
+      get(":id") {
+        collapser.get(pathTokens.id).then { render it }
+      }
+    }
+
+    expect:
+    getText("1") == "value-1"
+    getText("2") == "value-2"
+    bulkRequests.toList() == [["1"] as Set, ["2"] as Set]
+  }
+
+  def "can get a promise for an observable command"() {
+    given:
+    handlers {
+      get {
+        HystrixRatpack.promise(context, bulkCommand(["a"] as Set)).then { render it.a }
+      }
+    }
+
+    expect:
+    text == "value-a"
+  }
+
+}
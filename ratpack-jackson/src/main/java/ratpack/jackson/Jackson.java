@@ -19,10 +19,14 @@ package ratpack.jackson;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
+import com.google.common.reflect.TypeParameter;
 import com.google.common.reflect.TypeToken;
 import ratpack.api.Nullable;
+import org.reactivestreams.Publisher;
 import ratpack.jackson.internal.DefaultJsonParseOpts;
 import ratpack.jackson.internal.DefaultJsonRender;
+import ratpack.jackson.internal.DefaultJsonStreamRender;
+import ratpack.jackson.internal.IterablePublisher;
 import ratpack.parse.Parse;
 
 
@@ -56,6 +60,11 @@ import ratpack.parse.Parse;
  *   }
  * }
  * </pre>
+ * <p>
+ * The methods that return a {@link JsonStreamRender} render a stream of objects, serializing each element as it becomes available.
+ * Use {@link #jsonArray(org.reactivestreams.Publisher)} to render the elements as a JSON array, or {@link #jsonLines(org.reactivestreams.Publisher)}
+ * to render them as newline delimited JSON.
+ * </p>
  * <h3>Parsing JSON requests</h3>
  * <p>
  * The methods that return a {@link JsonParseOpts} are to be used with the {@link ratpack.handling.Context#parse(ratpack.parse.Parse)} method for deserializing
@@ -75,6 +84,10 @@ import ratpack.parse.Parse;
  *   }
  * }
  * </pre>
+ * <p>
+ * The {@code fromJsonArray} methods parse the elements of a JSON array body incrementally, as a {@link Publisher}.
+ * Each element is only deserialized when it is requested by the subscriber, and the full tree of the array is never built.
+ * </p>
  */
 public abstract class Jackson {
 
@@ -101,6 +114,82 @@ public abstract class Jackson {
     return new DefaultJsonRender<>(object, objectWriter);
   }
 
+  /**
+   * Jackson rendering of the elements of the given publisher as a JSON array, using the default object writer.
+   * <p>
+   * The response is chunked, with each element being serialized to its own chunk as it is emitted.
+   *
+   * @param publisher The publisher of the elements to render as JSON.
+   * @param <T> The type of the elements to render as JSON.
+   * @return A JSON stream type wrapper for the given publisher.
+   */
+  public static <T> JsonStreamRender<T> jsonArray(Publisher<T> publisher) {
+    return jsonArray(publisher, null);
+  }
+
+  /**
+   * Jackson rendering of the elements of the given publisher as a JSON array, using the given object writer.
+   *
+   * @param publisher The publisher of the elements to render as JSON.
+   * @param objectWriter The writer to use to render each element as JSON. If null, the default object writer will be used by the renderer.
+   * @param <T> The type of the elements to render as JSON.
+   * @return A JSON stream type wrapper for the given publisher.
+   */
+  public static <T> JsonStreamRender<T> jsonArray(Publisher<T> publisher, @Nullable ObjectWriter objectWriter) {
+    return new DefaultJsonStreamRender<>(publisher, JsonStreamRender.Format.ARRAY, objectWriter);
+  }
+
+  /**
+   * Jackson rendering of the elements of the given iterable as a JSON array, using the default object writer.
+   * <p>
+   * The iterable is iterated lazily, as the response is written.
+   *
+   * @param iterable The elements to render as JSON.
+   * @param <T> The type of the elements to render as JSON.
+   * @return A JSON stream type wrapper for the given iterable.
+   */
+  public static <T> JsonStreamRender<T> jsonArray(Iterable<T> iterable) {
+    return jsonArray(new IterablePublisher<>(iterable));
+  }
+
+  /**
+   * Jackson rendering of the elements of the given publisher as newline delimited JSON, using the default object writer.
+   * <p>
+   * The response is chunked, with each element being serialized to its own line and chunk as it is emitted.
+   *
+   * @param publisher The publisher of the elements to render as JSON.
+   * @param <T> The type of the elements to render as JSON.
+   * @return A JSON stream type wrapper for the given publisher.
+   */
+  public static <T> JsonStreamRender<T> jsonLines(Publisher<T> publisher) {
+    return jsonLines(publisher, null);
+  }
+
+  /**
+   * Jackson rendering of the elements of the given publisher as newline delimited JSON, using the given object writer.
+   *
+   * @param publisher The publisher of the elements to render as JSON.
+   * @param objectWriter The writer to use to render each element as JSON. If null, the default object writer will be used by the renderer.
+   * @param <T> The type of the elements to render as JSON.
+   * @return A JSON stream type wrapper for the given publisher.
+   */
+  public static <T> JsonStreamRender<T> jsonLines(Publisher<T> publisher, @Nullable ObjectWriter objectWriter) {
+    return new DefaultJsonStreamRender<>(publisher, JsonStreamRender.Format.LINES, objectWriter);
+  }
+
+  /**
+   * Jackson rendering of the elements of the given iterable as newline delimited JSON, using the default object writer.
+   * <p>
+   * The iterable is iterated lazily, as the response is written.
+   *
+   * @param iterable The elements to render as JSON.
+   * @param <T> The type of the elements to render as JSON.
+   * @return A JSON stream type wrapper for the given iterable.
+   */
+  public static <T> JsonStreamRender<T> jsonLines(Iterable<T> iterable) {
+    return jsonLines(new IterablePublisher<>(iterable));
+  }
+
   public static Parse<JsonNode, JsonParseOpts> jsonNode() {
     return jsonNode(null);
   }
@@ -125,4 +214,45 @@ public abstract class Jackson {
     return Parse.<T, JsonParseOpts>of(type, new DefaultJsonParseOpts(objectMapper));
   }
 
+  /**
+   * Parses the elements of a JSON array request body incrementally, using the default object mapper.
+   * <p>
+   * Elements are deserialized one at a time, as they are requested from the returned publisher.
+   * If the body is not an array, the publisher emits the root value(s) of the body.
+   * The publisher can only be subscribed to once.
+   *
+   * @param elementType The type of the elements of the array.
+   * @param <T> The type of the elements of the array.
+   * @return A parse object for a publisher of the elements of the array.
+   */
+  public static <T> Parse<Publisher<T>, JsonParseOpts> fromJsonArray(Class<T> elementType) {
+    return fromJsonArray(TypeToken.of(elementType), null);
+  }
+
+  /**
+   * Parses the elements of a JSON array request body incrementally, using the default object mapper.
+   *
+   * @param elementType The type of the elements of the array.
+   * @param <T> The type of the elements of the array.
+   * @return A parse object for a publisher of the elements of the array.
+   * @see #fromJsonArray(Class)
+   */
+  public static <T> Parse<Publisher<T>, JsonParseOpts> fromJsonArray(TypeToken<T> elementType) {
+    return fromJsonArray(elementType, null);
+  }
+
+  /**
+   * Parses the elements of a JSON array request body incrementally, using the given object mapper.
+   *
+   * @param elementType The type of the elements of the array.
+   * @param objectMapper The object mapper to use to deserialize the elements. If null, the default object mapper will be used.
+   * @param <T> The type of the elements of the array.
+   * @return A parse object for a publisher of the elements of the array.
+   * @see #fromJsonArray(Class)
+   */
+  public static <T> Parse<Publisher<T>, JsonParseOpts> fromJsonArray(TypeToken<T> elementType, @Nullable ObjectMapper objectMapper) {
+    TypeToken<Publisher<T>> type = new TypeToken<Publisher<T>>() {}.where(new TypeParameter<T>() {}, elementType);
+    return Parse.<Publisher<T>, JsonParseOpts>of(type, new DefaultJsonParseOpts(objectMapper));
+  }
+
 }
@@ -25,13 +25,15 @@ import com.google.inject.AbstractModule;
 import com.google.inject.Provides;
 import com.google.inject.Scopes;
 import ratpack.jackson.internal.DefaultJsonRenderer;
+import ratpack.jackson.internal.DefaultJsonStreamRenderer;
 import ratpack.jackson.internal.JsonNoOptParser;
 import ratpack.jackson.internal.JsonParser;
 
 import javax.inject.Singleton;
 
 /**
- * A Guice module that provides an implementation of {@link JsonRenderer}, a renderer for {@link Jackson} object.
+ * A Guice module that provides an implementation of {@link JsonRenderer}, a renderer for {@link Jackson} object,
+ * and of {@link JsonStreamRenderer}, a renderer for streams of objects.
  * <p>
  * Also provides a default instance of {@link ObjectMapper}, which is the engine for serialization, and an
  * instance of {@link ObjectWriter} derived from this which is used by the {@link JsonRenderer} implementation.
@@ -60,6 +62,7 @@ public class JacksonModule extends AbstractModule {
     bind(JsonParser.class).in(Scopes.SINGLETON);
     bind(JsonNoOptParser.class).in(Scopes.SINGLETON);
     bind(JsonRenderer.class).to(DefaultJsonRenderer.class);
+    bind(JsonStreamRenderer.class).to(DefaultJsonStreamRenderer.class);
   }
 
   @Provides
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ratpack.jackson;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.reactivestreams.Publisher;
+import ratpack.api.Nullable;
+
+/**
+ * A stream of objects to be rendered as JSON, one element at a time.
+ * <p>
+ * Each element is serialized to its own chunk of the response as it is emitted by the publisher,
+ * so the whole of the stream never needs to be held in memory.
+ *
+ * @param <T> The type of the elements of the stream
+ * @see Jackson#jsonArray(org.reactivestreams.Publisher)
+ * @see Jackson#jsonLines(org.reactivestreams.Publisher)
+ */
+public interface JsonStreamRender<T> {
+
+  /**
+   * The format of a JSON stream.
+   */
+  enum Format {
+
+    /**
+     * The elements are rendered as a single JSON array, with the content type {@code application/json}.
+     */
+    ARRAY,
+
+    /**
+     * The elements are rendered as newline delimited JSON documents, with the content type {@code application/x-ndjson}.
+     * <p>
+     * Each element is written on a single line, regardless of the pretty printing configuration of the object writer.
+     */
+    LINES
+
+  }
+
+  /**
+   * The publisher of the elements to render.
+   *
+   * @return The publisher of the elements to render.
+   */
+  Publisher<T> getPublisher();
+
+  /**
+   * The format to render the elements in.
+   *
+   * @return The format to render the elements in.
+   */
+  Format getFormat();
+
+  /**
+   * The object writer to use to render each element as JSON.
+   * <p>
+   * If null, the "default" writer should be used by the renderer.
+   *
+   * @return The object writer to be used.
+   */
+  @Nullable
+  ObjectWriter getObjectWriter();
+
+}
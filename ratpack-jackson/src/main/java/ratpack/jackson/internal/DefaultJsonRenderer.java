@@ -16,8 +16,9 @@
 
 package ratpack.jackson.internal;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectWriter;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
 import ratpack.func.Action;
 import ratpack.handling.ByContentSpec;
 import ratpack.handling.Context;
@@ -50,15 +51,17 @@ public class DefaultJsonRenderer extends RendererSupport<JsonRender<?>> implemen
               writer = defaultObjectWriter;
             }
 
-            byte[] bytes;
+            // Serialize straight into a (pooled) buffer, instead of via an intermediate byte[]
+            ByteBuf buffer = context.getLaunchConfig().getBufferAllocator().buffer();
             try {
-              bytes = writer.writeValueAsBytes(object.getObject());
-            } catch (JsonProcessingException e) {
+              writer.writeValue(new ByteBufOutputStream(buffer), object.getObject());
+            } catch (Exception e) {
+              buffer.release();
               context.error(e);
               return;
             }
 
-            context.getResponse().send(bytes);
+            context.getResponse().send(buffer);
           }
         });
       }
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ratpack.jackson.internal;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.reactivestreams.Publisher;
+import ratpack.api.Nullable;
+import ratpack.jackson.JsonStreamRender;
+
+public class DefaultJsonStreamRender<T> implements JsonStreamRender<T> {
+
+  private final Publisher<T> publisher;
+  private final Format format;
+  private final ObjectWriter objectWriter;
+
+  public DefaultJsonStreamRender(Publisher<T> publisher, Format format, @Nullable ObjectWriter objectWriter) {
+    this.publisher = publisher;
+    this.format = format;
+    this.objectWriter = objectWriter;
+  }
+
+  @Override
+  public Publisher<T> getPublisher() {
+    return publisher;
+  }
+
+  @Override
+  public Format getFormat() {
+    return format;
+  }
+
+  @Override
+  public ObjectWriter getObjectWriter() {
+    return objectWriter;
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ratpack.jackson;
+package ratpack.jackson.internal;
+
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.netty.handler.codec.http.HttpHeaders;
+import ratpack.handling.Context;
+import ratpack.http.Response;
+import ratpack.jackson.JsonStreamRender;
+import ratpack.jackson.JsonStreamRenderer;
+import ratpack.render.RendererSupport;
+
+import javax.inject.Inject;
+
+public class DefaultJsonStreamRenderer extends RendererSupport<JsonStreamRender<?>> implements JsonStreamRenderer {
+
+  private final ObjectWriter defaultObjectWriter;
+
+  @Inject
+  public DefaultJsonStreamRenderer(ObjectWriter defaultObjectWriter) {
+    this.defaultObjectWriter = defaultObjectWriter;
+  }
+
+  @Override
+  public void render(Context context, JsonStreamRender<?> object) throws Exception {
+    stream(context, object);
+  }
+
+  private <T> void stream(Context context, JsonStreamRender<T> object) {
+    ObjectWriter writer = object.getObjectWriter();
+    if (writer == null) {
+      writer = defaultObjectWriter;
+    }
+
+    Response response = context.getResponse();
+    if (object.getFormat() == JsonStreamRender.Format.LINES) {
+      response.contentType("application/x-ndjson");
+      writer = writer.with(new MinimalPrettyPrinter());
+    } else {
+      response.contentType("application/json");
+    }
+
+    response.getHeaders().add(HttpHeaders.Names.TRANSFER_ENCODING, HttpHeaders.Values.CHUNKED);
+    response.sendStream(context, new JsonStreamEncoder<>(object.getPublisher(), context.getLaunchConfig().getBufferAllocator(), writer, object.getFormat()));
+  }
+
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ratpack.jackson;
+package ratpack.jackson.internal;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+
+/**
+ * Publishes the elements of an iterable, only iterating as far as the subscriber has requested.
+ * <p>
+ * If the iterator is {@link AutoCloseable}, it is closed once the stream has completed, failed or been cancelled.
+ */
+public class IterablePublisher<T> implements Publisher<T> {
+
+  private final static Logger LOGGER = LoggerFactory.getLogger(IterablePublisher.class);
+
+  private final Iterable<T> iterable;
+
+  public IterablePublisher(Iterable<T> iterable) {
+    this.iterable = iterable;
+  }
+
+  @Override
+  public void subscribe(final Subscriber<T> subscriber) {
+    subscriber.onSubscribe(new IteratorSubscription<>(iterable.iterator(), subscriber));
+  }
+
+  private static class IteratorSubscription<T> implements Subscription {
+
+    private final Iterator<T> iterator;
+    private final Subscriber<T> subscriber;
+
+    private long demand;
+    private boolean draining;
+    private boolean stopped;
+    private boolean closed;
+
+    IteratorSubscription(Iterator<T> iterator, Subscriber<T> subscriber) {
+      this.iterator = iterator;
+      this.subscriber = subscriber;
+    }
+
+    @Override
+    public void request(int n) {
+      if (n <= 0) {
+        cancel();
+        subscriber.onError(new IllegalArgumentException("the number of elements requested must be positive, was " + n));
+        return;
+      }
+
+      synchronized (this) {
+        if (stopped) {
+          return;
+        }
+        demand += n;
+        if (draining) { // a drain loop further up the stack will see the new demand
+          return;
+        }
+        draining = true;
+      }
+
+      drain();
+    }
+
+    private void drain() {
+      while (true) {
+        synchronized (this) {
+          if (stopped || demand == 0) {
+            draining = false;
+            if (stopped) {
+              close();
+            }
+            return;
+          }
+          --demand;
+        }
+
+        T next;
+        try {
+          if (!iterator.hasNext()) {
+            stop();
+            subscriber.onComplete();
+            return;
+          }
+          next = iterator.next();
+        } catch (Throwable e) {
+          stop();
+          subscriber.onError(e);
+          return;
+        }
+
+        subscriber.onNext(next);
+      }
+    }
+
+    private synchronized void stop() {
+      stopped = true;
+      draining = false;
+      close();
+    }
+
+    @Override
+    public synchronized void cancel() {
+      stopped = true;
+      if (!draining) { // otherwise, the drain loop closes the iterator when it sees the cancellation
+        close();
+      }
+    }
+
+    private void close() {
+      if (!closed) {
+        closed = true;
+        if (iterator instanceof AutoCloseable) {
+          try {
+            ((AutoCloseable) iterator).close();
+          } catch (Exception e) {
+            LOGGER.warn("exception raised closing iterator " + iterator, e);
+          }
+        }
+      }
+    }
+  }
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ratpack.jackson;
+package ratpack.jackson.internal;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static ratpack.util.ExceptionUtils.uncheck;
+
+/**
+ * Publishes the elements of a JSON array in a buffer, deserializing them one at a time as they are requested.
+ * <p>
+ * The buffer is retained until the stream finishes, so that the stream can outlive the request body
+ * (e.g. when it is the source of a streamed response).
+ * If the publisher has not been subscribed to by the time the request is closed, the buffer is released then
+ * via {@link #discard()}.
+ * The publisher can only be subscribed to once.
+ */
+public class JsonArrayPublisher<T> implements Publisher<T> {
+
+  private final ByteBuf buffer;
+  private final ObjectReader reader;
+  private final AtomicBoolean claimed = new AtomicBoolean();
+
+  public JsonArrayPublisher(ByteBuf buffer, ObjectReader reader) {
+    this.buffer = buffer.retain();
+    this.reader = reader;
+  }
+
+  @Override
+  public void subscribe(Subscriber<T> subscriber) {
+    if (claimed.compareAndSet(false, true)) {
+      new IterablePublisher<>(new Iterable<T>() {
+        @Override
+        public Iterator<T> iterator() {
+          return new ElementIterator();
+        }
+      }).subscribe(subscriber);
+    } else {
+      subscriber.onSubscribe(new Subscription() {
+        @Override
+        public void request(int n) {}
+
+        @Override
+        public void cancel() {}
+      });
+      subscriber.onError(new IllegalStateException("JSON array publisher can only be subscribed to once, before the request is closed"));
+    }
+  }
+
+  public void discard() {
+    if (claimed.compareAndSet(false, true)) {
+      buffer.release();
+    }
+  }
+
+  private class ElementIterator implements Iterator<T>, AutoCloseable {
+
+    private MappingIterator<T> elements;
+
+    private MappingIterator<T> getElements() {
+      if (elements == null) {
+        try {
+          elements = reader.readValues(new ByteBufInputStream(buffer));
+        } catch (IOException e) {
+          throw uncheck(e);
+        }
+      }
+      return elements;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return getElements().hasNext();
+    }
+
+    @Override
+    public T next() {
+      return getElements().next();
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void close() {
+      buffer.release();
+    }
+  }
+
+}
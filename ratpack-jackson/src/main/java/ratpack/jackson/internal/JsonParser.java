@@ -16,11 +16,19 @@
 
 package ratpack.jackson.internal;
 
-import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import com.google.common.reflect.TypeToken;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import org.reactivestreams.Publisher;
+import ratpack.func.Action;
 import ratpack.handling.Context;
+import ratpack.handling.RequestOutcome;
 import ratpack.http.TypedData;
 import ratpack.jackson.JsonParseOpts;
 import ratpack.parse.Parse;
@@ -39,6 +47,20 @@ public class JsonParser extends ParserSupport<JsonParseOpts> {
 
   private final ObjectMapper objectMapper;
 
+  // Readers are immutable and thread safe, and looking up the deserializer for a type is comparatively expensive.
+  // Keyed by mapper identity, so that readers for mappers given via the parse opts are also reused.
+  private final LoadingCache<ObjectMapper, LoadingCache<TypeToken<?>, ObjectReader>> readers = CacheBuilder.newBuilder().weakKeys().build(new CacheLoader<ObjectMapper, LoadingCache<TypeToken<?>, ObjectReader>>() {
+    @Override
+    public LoadingCache<TypeToken<?>, ObjectReader> load(@SuppressWarnings("NullableProblems") final ObjectMapper objectMapper) throws Exception {
+      return CacheBuilder.newBuilder().build(new CacheLoader<TypeToken<?>, ObjectReader>() {
+        @Override
+        public ObjectReader load(@SuppressWarnings("NullableProblems") TypeToken<?> type) throws Exception {
+          return objectMapper.reader(objectMapper.getTypeFactory().constructType(type.getType()));
+        }
+      });
+    }
+  });
+
   @Inject
   public JsonParser(ObjectMapper objectMapper) {
     super("application/json");
@@ -51,20 +73,37 @@ public class JsonParser extends ParserSupport<JsonParseOpts> {
     TypeToken<T> type = parse.getType();
 
     ObjectMapper objectMapper = getObjectMapper(opts);
+    if (type.getRawType().equals(Publisher.class)) {
+      TypeToken<?> elementType = type.resolveType(Publisher.class.getTypeParameters()[0]);
+      return cast(stream(context, body.getBuffer(), getReader(objectMapper, elementType)));
+    }
+
+    // Request bodies are usually direct or composite buffers, so are read in place rather than copied to an array first
+    InputStream inputStream = new ByteBufInputStream(body.getBuffer());
     try {
-      InputStream inputStream = body.getInputStream();
       if (type.equals(JSON_NODE_TYPE)) {
         return cast(objectMapper.readTree(inputStream));
       } else {
-        return objectMapper.readValue(inputStream, toJavaType(type, objectMapper));
+        return getReader(objectMapper, type).readValue(inputStream);
       }
     } catch (IOException e) {
       throw uncheck(e);
     }
   }
 
-  private <T> JavaType toJavaType(TypeToken<T> type, ObjectMapper objectMapper) {
-    return objectMapper.getTypeFactory().constructType(type.getType());
+  private <T> JsonArrayPublisher<T> stream(Context context, ByteBuf buffer, ObjectReader reader) {
+    final JsonArrayPublisher<T> publisher = new JsonArrayPublisher<>(buffer, reader);
+    context.onClose(new Action<RequestOutcome>() {
+      @Override
+      public void execute(RequestOutcome requestOutcome) throws Exception {
+        publisher.discard();
+      }
+    });
+    return publisher;
+  }
+
+  private ObjectReader getReader(ObjectMapper objectMapper, TypeToken<?> type) {
+    return readers.getUnchecked(objectMapper).getUnchecked(type);
   }
 
   private ObjectMapper getObjectMapper(JsonParseOpts opts) {
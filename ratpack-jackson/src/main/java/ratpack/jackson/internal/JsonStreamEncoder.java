@@ -0,0 +1,109 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ratpack.jackson;
+package ratpack.jackson.internal;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufOutputStream;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscription;
+import ratpack.jackson.JsonStreamRender;
+import ratpack.stream.internal.StreamProcessorSupport;
+
+/**
+ * Serializes each element of a stream directly into its own buffer.
+ * <p>
+ * Elements are only requested from the source as the downstream subscriber requests chunks.
+ * In {@link JsonStreamRender.Format#ARRAY} format, the closing bracket is emitted as a final chunk when the source completes.
+ */
+public class JsonStreamEncoder<T> extends StreamProcessorSupport<T> {
+
+  private final ByteBufAllocator allocator;
+  private final ObjectWriter objectWriter;
+  private final JsonStreamRender.Format format;
+
+  private Subscription subscription;
+  private boolean started;
+  private boolean failed;
+
+  public JsonStreamEncoder(Publisher<T> sourcePublisher, ByteBufAllocator allocator, ObjectWriter objectWriter, JsonStreamRender.Format format) {
+    super(sourcePublisher);
+    this.allocator = allocator;
+    this.objectWriter = objectWriter;
+    this.format = format;
+  }
+
+  @Override
+  public void onSubscribe(Subscription s) {
+    this.subscription = s;
+    super.onSubscribe(s);
+  }
+
+  @Override
+  public void onNext(T element) {
+    if (failed) {
+      return;
+    }
+
+    ByteBuf buffer = allocator.buffer();
+    try {
+      if (format == JsonStreamRender.Format.ARRAY) {
+        buffer.writeByte(started ? ',' : '[');
+      }
+      objectWriter.writeValue(new ByteBufOutputStream(buffer), element);
+      if (format == JsonStreamRender.Format.LINES) {
+        buffer.writeByte('\n');
+      }
+    } catch (Exception e) {
+      buffer.release();
+      failed = true;
+      subscription.cancel();
+      targetSubscriber.onError(e);
+      return;
+    }
+
+    started = true;
+    targetSubscriber.onNext(buffer);
+  }
+
+  @Override
+  public void onError(Throwable t) {
+    if (!failed) {
+      failed = true;
+      super.onError(t);
+    }
+  }
+
+  @Override
+  public void onComplete() {
+    if (failed) {
+      return;
+    }
+
+    if (format == JsonStreamRender.Format.ARRAY) {
+      ByteBuf buffer = allocator.buffer(2);
+      if (!started) {
+        buffer.writeByte('[');
+      }
+      buffer.writeByte(']');
+      targetSubscriber.onNext(buffer);
+    }
+    super.onComplete();
+  }
+
+}
@@ -17,11 +17,16 @@
 package ratpack.jackson
 
 import com.fasterxml.jackson.databind.JsonNode
+import com.fasterxml.jackson.databind.ObjectMapper
 import com.google.common.reflect.TypeToken
+import org.reactivestreams.Subscriber
+import org.reactivestreams.Subscription
 import ratpack.http.client.RequestSpec
 import ratpack.test.internal.RatpackGroovyDslSpec
 import spock.lang.Unroll
 
+import static Jackson.fromJsonArray
+import static Jackson.jsonArray
 import static Jackson.jsonNode
 
 class JacksonParsingSpec extends RatpackGroovyDslSpec {
@@ -100,4 +105,51 @@ class JacksonParsingSpec extends RatpackGroovyDslSpec {
     postText() == "[java.lang.Integer]"
   }
 
+  def "can parse json array elements incrementally"() {
+    when:
+    handlers {
+      post {
+        def elements = parse fromJsonArray(Map)
+        render jsonArray(elements, new ObjectMapper().writer())
+      }
+    }
+
+    and:
+    requestSpec { RequestSpec requestSpec ->
+      requestSpec.body.type("application/json")
+      requestSpec.body.stream({ it << /[{"value": "a"}, {"value": "b"}, {"value": "c"}]/ })
+    }
+
+    then:
+    postText() == '[{"value":"a"},{"value":"b"},{"value":"c"}]'
+  }
+
+  def "streamed json array parse errors are propagated to the subscriber"() {
+    when:
+    handlers {
+      post {
+        def elements = parse fromJsonArray(Integer)
+        def received = []
+        elements.subscribe(new Subscriber<Integer>() {
+          void onSubscribe(Subscription s) { s.request(10) }
+
+          void onNext(Integer i) { received << i }
+
+          void onError(Throwable t) { render "$received:${t.class.simpleName}" }
+
+          void onComplete() { render "$received:complete" }
+        })
+      }
+    }
+
+    and:
+    requestSpec { RequestSpec requestSpec ->
+      requestSpec.body.type("application/json")
+      requestSpec.body.stream({ it << /[1, 2, "x"]/ })
+    }
+
+    then:
+    postText() == "[1, 2]:RuntimeJsonMappingException"
+  }
+
 }
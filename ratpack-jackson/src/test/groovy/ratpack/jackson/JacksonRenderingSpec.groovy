@@ -19,6 +19,8 @@ package ratpack.jackson
 import ratpack.test.internal.RatpackGroovyDslSpec
 
 import static Jackson.json
+import static Jackson.jsonArray
+import static Jackson.jsonLines
 
 class JacksonRenderingSpec extends RatpackGroovyDslSpec {
 
@@ -78,4 +80,50 @@ class JacksonRenderingSpec extends RatpackGroovyDslSpec {
     text == prettyString
   }
 
+  def "can render iterable as streamed json array"() {
+    when:
+    handlers {
+      get {
+        render jsonArray([new User(username: "foo", password: "bar"), new User(username: "baz", password: "qux")])
+      }
+    }
+
+    then:
+    with(get()) {
+      headers.get("content-type") == "application/json"
+      body.text == '[{"username":"foo","password":"bar"},{"username":"baz","password":"qux"}]'
+    }
+  }
+
+  def "can render empty iterable as streamed json array"() {
+    when:
+    handlers {
+      get {
+        render jsonArray([])
+      }
+    }
+
+    then:
+    text == '[]'
+  }
+
+  def "can render iterable as newline delimited json"() {
+    when:
+    modules.clear()
+    modules << new JacksonModule()
+
+    and:
+    handlers {
+      get {
+        render jsonLines([[a: 1], [a: 2]])
+      }
+    }
+
+    then:
+    with(get()) {
+      headers.get("content-type") == "application/x-ndjson"
+      body.text == '{"a":1}\n{"a":2}\n'
+    }
+  }
+
 }
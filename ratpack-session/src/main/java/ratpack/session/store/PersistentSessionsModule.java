@@ -0,0 +1,176 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.session.store;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Injector;
+import com.google.inject.Provides;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.GenericFutureListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ratpack.exec.ExecController;
+import ratpack.guice.HandlerDecoratingModule;
+import ratpack.handling.Handler;
+import ratpack.launch.LaunchConfig;
+import ratpack.session.SessionManager;
+import ratpack.session.store.internal.PersistentSessionStore;
+import ratpack.session.store.internal.SessionStorageBindingHandler;
+
+import javax.inject.Singleton;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An extension module that provides a {@link SessionStore} that persists sessions to the local file system, so that they survive application restarts.
+ * <h3>Provides</h3>
+ * <ul>
+ * <li>{@link SessionStorage} - using an in-memory index, backed by memory mapped segment files</li>
+ * </ul>
+ * <h3>Prerequisites:</h3>
+ * <ul>
+ * <li>{@link SessionManager} (can be provided by {@link ratpack.session.SessionModule})</li>
+ * </ul>
+ * <h3>Storage</h3>
+ * <p>
+ * All session data is held in memory, so reads are as fast as with {@link MapSessionsModule}.
+ * Every change to a session is additionally appended to a memory mapped segment file in the given directory.
+ * Sessions that are only read are recorded as accessed at most once per tenth of the idle timeout, so that they are not expired early after a restart.
+ * When the application starts, the segments are replayed to restore the sessions.
+ * <p>
+ * The segments are periodically compacted (on a blocking thread) by writing the live sessions to a new segment and deleting the old ones.
+ * Sessions that have been idle for longer than the idle timeout are discarded at this time.
+ * When the application stops, compaction is stopped and the current segment is flushed and unmapped.
+ * <p>
+ * Values placed in the session storage must be {@link java.io.Serializable}.
+ * Only changes made via the storage's mutation methods are recorded immediately;
+ * changes made to a mutable value after it was put into the storage are only captured at the next compaction.
+ * The storage's collection views are read only.
+ * <p>
+ * This module {@linkplain #decorate(com.google.inject.Injector, ratpack.handling.Handler) decorates the handler} to make
+ * the {@link SessionStorage} available during request processing, in the same way as {@link MapSessionsModule}.
+ */
+public class PersistentSessionsModule extends AbstractModule implements HandlerDecoratingModule {
+
+  private final static Logger LOGGER = LoggerFactory.getLogger(PersistentSessionsModule.class);
+
+  private final Path storeDir;
+  private final int idleTimeoutMinutes;
+  private int segmentSizeBytes = 16 * 1024 * 1024;
+  private int compactionIntervalMinutes = 10;
+
+  /**
+   * Creates a new module with the given configuration for session storage.
+   *
+   * @param storeDir The directory to store the session segments in (will be created if necessary)
+   * @param idleTimeoutMinutes How long a session can be idle before its considered inactive and able to be evicted
+   */
+  public PersistentSessionsModule(Path storeDir, int idleTimeoutMinutes) {
+    this.storeDir = storeDir;
+    this.idleTimeoutMinutes = idleTimeoutMinutes;
+  }
+
+  /**
+   * The size of each memory mapped segment file.
+   * <p>
+   * Defaults to 16MB.
+   *
+   * @return the size of each segment, in bytes
+   */
+  public int getSegmentSizeBytes() {
+    return segmentSizeBytes;
+  }
+
+  /**
+   * Sets the size of each memory mapped segment file.
+   *
+   * @param segmentSizeBytes the size of each segment, in bytes
+   */
+  public void setSegmentSizeBytes(int segmentSizeBytes) {
+    this.segmentSizeBytes = segmentSizeBytes;
+  }
+
+  /**
+   * How often the segments are compacted.
+   * <p>
+   * Defaults to 10 minutes.
+   *
+   * @return the compaction interval, in minutes
+   */
+  public int getCompactionIntervalMinutes() {
+    return compactionIntervalMinutes;
+  }
+
+  /**
+   * Sets how often the segments are compacted.
+   *
+   * @param compactionIntervalMinutes the compaction interval, in minutes
+   */
+  public void setCompactionIntervalMinutes(int compactionIntervalMinutes) {
+    this.compactionIntervalMinutes = compactionIntervalMinutes;
+  }
+
+  @Override
+  protected void configure() {}
+
+  @SuppressWarnings("UnusedDeclaration")
+  @Provides
+  @Singleton
+  SessionStore providePersistentSessionStore(SessionManager sessionManager, LaunchConfig launchConfig) throws IOException {
+    final PersistentSessionStore store = new PersistentSessionStore(storeDir, segmentSizeBytes, idleTimeoutMinutes);
+    sessionManager.addSessionListener(store);
+
+    final ExecController execController = launchConfig.getExecController();
+    final ScheduledFuture<?> compaction = execController.getExecutor().scheduleWithFixedDelay(new Runnable() {
+      public void run() {
+        execController.getBlockingExecutor().submit(new Runnable() {
+          public void run() {
+            try {
+              store.compact();
+            } catch (Exception e) {
+              LOGGER.warn("Failed to compact session store in " + storeDir, e);
+            }
+          }
+        });
+      }
+    }, compactionIntervalMinutes, compactionIntervalMinutes, TimeUnit.MINUTES);
+
+    // The exec controller is shut down when the application stops
+    execController.getEventLoopGroup().terminationFuture().addListener(new GenericFutureListener<Future<Object>>() {
+      @Override
+      public void operationComplete(Future<Object> future) throws Exception {
+        compaction.cancel(false);
+        store.close();
+      }
+    });
+
+    return store;
+  }
+
+  /**
+   * Makes {@link SessionStorage} available in the exchange service.
+   *
+   * @param injector The injector created from all the application modules
+   * @param handler The application handler
+   * @return A handler that provides a {@link SessionStorage} impl in the exchange service
+   */
+  public Handler decorate(Injector injector, Handler handler) {
+    return new SessionStorageBindingHandler(handler);
+  }
+}
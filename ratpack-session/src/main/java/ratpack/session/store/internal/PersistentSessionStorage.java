@@ -0,0 +1,175 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.session.store.internal;
+
+import ratpack.session.store.SessionStorage;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Session storage that writes each mutation through to the backing log.
+ * <p>
+ * Mutations are performed under the storage's monitor so that the order of records in the log matches the order of changes to the map.
+ * The collection views are read only, as changes made through them could not be recorded.
+ */
+public class PersistentSessionStorage implements SessionStorage {
+
+  private final String id;
+  private final PersistentSessionStore store;
+  private final ConcurrentMap<String, Object> delegate = new ConcurrentHashMap<>();
+  private volatile long lastAccess;
+  private volatile long lastRecordedAccess;
+
+  public PersistentSessionStorage(String id, PersistentSessionStore store, long lastAccess) {
+    this.id = id;
+    this.store = store;
+    this.lastAccess = lastAccess;
+    this.lastRecordedAccess = lastAccess;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  long getLastAccess() {
+    return lastAccess;
+  }
+
+  void touch(long now) {
+    lastAccess = now;
+  }
+
+  long getLastRecordedAccess() {
+    return lastRecordedAccess;
+  }
+
+  void recordedAccess(long timestamp) {
+    lastRecordedAccess = timestamp;
+  }
+
+  Map<String, Object> getDelegate() {
+    return delegate;
+  }
+
+  public synchronized Object putIfAbsent(String key, Object value) {
+    byte[] bytes = store.serializeValue(value);
+    Object existing = delegate.putIfAbsent(key, value);
+    if (existing == null) {
+      store.recordPut(this, key, bytes);
+    }
+    return existing;
+  }
+
+  public synchronized boolean remove(Object key, Object value) {
+    boolean removed = delegate.remove(key, value);
+    if (removed) {
+      store.recordRemove(this, (String) key);
+    }
+    return removed;
+  }
+
+  public synchronized boolean replace(String key, Object oldValue, Object newValue) {
+    byte[] bytes = store.serializeValue(newValue);
+    boolean replaced = delegate.replace(key, oldValue, newValue);
+    if (replaced) {
+      store.recordPut(this, key, bytes);
+    }
+    return replaced;
+  }
+
+  public synchronized Object replace(String key, Object value) {
+    byte[] bytes = store.serializeValue(value);
+    Object previous = delegate.replace(key, value);
+    if (previous != null) {
+      store.recordPut(this, key, bytes);
+    }
+    return previous;
+  }
+
+  public int size() {
+    return delegate.size();
+  }
+
+  public boolean isEmpty() {
+    return delegate.isEmpty();
+  }
+
+  public boolean containsKey(Object key) {
+    return delegate.containsKey(key);
+  }
+
+  public boolean containsValue(Object value) {
+    return delegate.containsValue(value);
+  }
+
+  public Object get(Object key) {
+    return delegate.get(key);
+  }
+
+  public synchronized Object put(String key, Object value) {
+    byte[] bytes = store.serializeValue(value);
+    Object previous = delegate.put(key, value);
+    store.recordPut(this, key, bytes);
+    return previous;
+  }
+
+  public synchronized Object remove(Object key) {
+    Object previous = delegate.remove(key);
+    if (previous != null) {
+      store.recordRemove(this, (String) key);
+    }
+    return previous;
+  }
+
+  public synchronized void putAll(Map<? extends String, ?> m) {
+    for (Entry<? extends String, ?> entry : m.entrySet()) {
+      put(entry.getKey(), entry.getValue());
+    }
+  }
+
+  public synchronized void clear() {
+    delegate.clear();
+    store.recordClear(this);
+  }
+
+  public Set<String> keySet() {
+    return Collections.unmodifiableSet(delegate.keySet());
+  }
+
+  public Collection<Object> values() {
+    return Collections.unmodifiableCollection(delegate.values());
+  }
+
+  public Set<Entry<String, Object>> entrySet() {
+    return Collections.unmodifiableSet(delegate.entrySet());
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return delegate.equals(o);
+  }
+
+  @Override
+  public int hashCode() {
+    return delegate.hashCode();
+  }
+}
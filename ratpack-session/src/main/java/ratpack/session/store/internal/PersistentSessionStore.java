@@ -0,0 +1,339 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.session.store.internal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ratpack.session.SessionListener;
+import ratpack.session.store.SessionStorage;
+import ratpack.session.store.SessionStore;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import static ratpack.util.ExceptionUtils.uncheck;
+
+/**
+ * A session store that keeps all sessions in memory, and writes every mutation to a {@link SessionSegmentLog} so that sessions survive restarts.
+ * <p>
+ * Reads are served from memory.
+ * Accesses that don't change a session are recorded at most once per tenth of the idle timeout, so that read only sessions don't expire early after a restart.
+ * The log is periodically compacted by writing a snapshot of the live sessions to a new segment and deleting the older segments.
+ * A snapshot is only honoured during recovery if it was completely written, so a crash during compaction loses nothing.
+ */
+public class PersistentSessionStore implements SessionStore, SessionListener, AutoCloseable {
+
+  private final static Logger LOGGER = LoggerFactory.getLogger(PersistentSessionStore.class);
+
+  private final SessionSegmentLog log;
+  private final long idleTimeoutMillis;
+  private final long touchIntervalMillis;
+  private final ConcurrentMap<String, PersistentSessionStorage> index = new ConcurrentHashMap<>();
+
+  public PersistentSessionStore(Path dir, int segmentSize, int idleTimeoutMinutes) throws IOException {
+    this(dir, segmentSize, TimeUnit.MINUTES.toMillis(idleTimeoutMinutes), TimeUnit.MINUTES.toMillis(idleTimeoutMinutes) / 10);
+  }
+
+  PersistentSessionStore(Path dir, int segmentSize, long idleTimeoutMillis, long touchIntervalMillis) throws IOException {
+    this.log = new SessionSegmentLog(dir, segmentSize);
+    this.idleTimeoutMillis = idleTimeoutMillis;
+    this.touchIntervalMillis = touchIntervalMillis;
+    recover();
+    compact();
+  }
+
+  public void sessionInitiated(String id) {
+  }
+
+  public void sessionTerminated(String id) {
+    PersistentSessionStorage storage = index.get(id);
+    if (storage != null) {
+      terminate(storage);
+    }
+  }
+
+  public SessionStorage get(String sessionId) {
+    long now = System.currentTimeMillis();
+    PersistentSessionStorage storage = index.get(sessionId);
+    if (storage != null && isExpired(storage, now)) {
+      terminate(storage);
+      storage = null;
+    }
+
+    if (storage == null) {
+      PersistentSessionStorage created = new PersistentSessionStorage(sessionId, this, now);
+      storage = index.putIfAbsent(sessionId, created);
+      if (storage == null) {
+        storage = created;
+      }
+    }
+
+    storage.touch(now);
+    if (now - storage.getLastRecordedAccess() >= touchIntervalMillis) {
+      recordTouch(storage, now);
+    }
+    return storage;
+  }
+
+  public long size() {
+    return index.size();
+  }
+
+  /**
+   * Rewrites the live sessions into a fresh segment, discarding idle sessions and all older segments.
+   *
+   * @throws IOException if the snapshot cannot be written
+   */
+  public void compact() throws IOException {
+    long now = System.currentTimeMillis();
+    synchronized (log) {
+      long snapshotSegment = log.roll();
+      log.append(SessionSegmentLog.SNAPSHOT_START, now, null, null, null);
+      for (PersistentSessionStorage storage : index.values()) {
+        if (isExpired(storage, now)) {
+          index.remove(storage.getId(), storage);
+          continue;
+        }
+
+        long lastAccess = storage.getLastAccess();
+        log.append(SessionSegmentLog.SNAPSHOT_SESSION, lastAccess, storage.getId(), null, null);
+        for (Map.Entry<String, Object> entry : storage.getDelegate().entrySet()) {
+          byte[] value;
+          try {
+            value = serialize(entry.getValue());
+          } catch (IOException e) {
+            LOGGER.warn("Dropping session value '{}' that can no longer be serialized", entry.getKey(), e);
+            continue;
+          }
+          log.append(SessionSegmentLog.SNAPSHOT_VALUE, lastAccess, storage.getId(), entry.getKey(), value);
+        }
+      }
+      log.append(SessionSegmentLog.SNAPSHOT_END, now, null, null, null);
+      log.force();
+      log.deleteBefore(snapshotSegment);
+    }
+  }
+
+  @Override
+  public void close() {
+    log.close();
+  }
+
+  byte[] serializeValue(Object value) {
+    try {
+      return serialize(value);
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Values stored in a persistent session must be serializable: " + value.getClass().getName(), e);
+    }
+  }
+
+  void recordPut(PersistentSessionStorage storage, String key, byte[] value) {
+    append(storage, SessionSegmentLog.PUT, key, value);
+  }
+
+  void recordRemove(PersistentSessionStorage storage, String key) {
+    append(storage, SessionSegmentLog.REMOVE, key, null);
+  }
+
+  void recordClear(PersistentSessionStorage storage) {
+    append(storage, SessionSegmentLog.CLEAR, null, null);
+  }
+
+  private void recordTouch(PersistentSessionStorage storage, long now) {
+    append(storage, SessionSegmentLog.TOUCH, now, null, null);
+  }
+
+  private void append(PersistentSessionStorage storage, byte type, String key, byte[] value) {
+    append(storage, type, System.currentTimeMillis(), key, value);
+  }
+
+  private void append(PersistentSessionStorage storage, byte type, long timestamp, String key, byte[] value) {
+    // a terminated session may still be referenced by an in flight request, but must not be resurrected by it
+    if (index.get(storage.getId()) != storage) {
+      return;
+    }
+    try {
+      log.append(type, timestamp, storage.getId(), key, value);
+    } catch (IOException e) {
+      throw uncheck(e);
+    }
+    // every record is replayed as an access of the session
+    storage.recordedAccess(timestamp);
+  }
+
+  private void terminate(PersistentSessionStorage storage) {
+    synchronized (storage) {
+      if (index.remove(storage.getId(), storage)) {
+        try {
+          log.append(SessionSegmentLog.TERMINATE, System.currentTimeMillis(), storage.getId(), null, null);
+        } catch (IOException e) {
+          throw uncheck(e);
+        }
+      }
+    }
+  }
+
+  private boolean isExpired(PersistentSessionStorage storage, long now) {
+    return now - storage.getLastAccess() > idleTimeoutMillis;
+  }
+
+  private void recover() throws IOException {
+    RecoveringVisitor visitor = new RecoveringVisitor();
+    log.replay(visitor);
+    visitor.discardOpenSnapshot();
+
+    for (Map.Entry<String, Map<String, byte[]>> session : visitor.sessions.entrySet()) {
+      String id = session.getKey();
+      PersistentSessionStorage storage = new PersistentSessionStorage(id, this, visitor.lastAccess.get(id));
+      for (Map.Entry<String, byte[]> entry : session.getValue().entrySet()) {
+        try {
+          storage.getDelegate().put(entry.getKey(), deserialize(entry.getValue()));
+        } catch (IOException | ClassNotFoundException e) {
+          LOGGER.warn("Dropping session value '{}' that could not be deserialized", entry.getKey(), e);
+        }
+      }
+      index.put(id, storage);
+    }
+  }
+
+  private static byte[] serialize(Object value) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(value);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static Object deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+    try (ObjectInputStream in = new ContextClassLoaderObjectInputStream(new ByteArrayInputStream(bytes))) {
+      return in.readObject();
+    }
+  }
+
+  private static class ContextClassLoaderObjectInputStream extends ObjectInputStream {
+    public ContextClassLoaderObjectInputStream(InputStream in) throws IOException {
+      super(in);
+    }
+
+    @Override
+    protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+      ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+      if (classLoader != null) {
+        try {
+          return Class.forName(desc.getName(), false, classLoader);
+        } catch (ClassNotFoundException ignore) {
+          // fall back to the default resolution
+        }
+      }
+      return super.resolveClass(desc);
+    }
+  }
+
+  /**
+   * Rebuilds session state from the log.
+   * <p>
+   * Snapshot records are collected separately and only replace the accumulated state when the snapshot's end marker is seen.
+   * Any ordinary record appearing inside an open snapshot means the snapshot was torn, in which case it is discarded.
+   */
+  private static class RecoveringVisitor implements SessionSegmentLog.Visitor {
+    private Map<String, Map<String, byte[]>> sessions = new LinkedHashMap<>();
+    private Map<String, Long> lastAccess = new HashMap<>();
+
+    private Map<String, Map<String, byte[]>> snapshotSessions;
+    private Map<String, Long> snapshotLastAccess;
+
+    public void visit(byte type, long timestamp, String sessionId, String key, byte[] value) {
+      switch (type) {
+        case SessionSegmentLog.SNAPSHOT_START:
+          snapshotSessions = new LinkedHashMap<>();
+          snapshotLastAccess = new HashMap<>();
+          break;
+        case SessionSegmentLog.SNAPSHOT_SESSION:
+          if (snapshotSessions != null) {
+            session(snapshotSessions, snapshotLastAccess, sessionId, timestamp);
+          }
+          break;
+        case SessionSegmentLog.SNAPSHOT_VALUE:
+          if (snapshotSessions != null) {
+            session(snapshotSessions, snapshotLastAccess, sessionId, timestamp).put(key, value);
+          }
+          break;
+        case SessionSegmentLog.SNAPSHOT_END:
+          if (snapshotSessions != null) {
+            sessions = snapshotSessions;
+            lastAccess = snapshotLastAccess;
+            discardOpenSnapshot();
+          }
+          break;
+        case SessionSegmentLog.PUT:
+          discardOpenSnapshot();
+          session(sessions, lastAccess, sessionId, timestamp).put(key, value);
+          break;
+        case SessionSegmentLog.REMOVE:
+          discardOpenSnapshot();
+          session(sessions, lastAccess, sessionId, timestamp).remove(key);
+          break;
+        case SessionSegmentLog.CLEAR:
+          discardOpenSnapshot();
+          session(sessions, lastAccess, sessionId, timestamp).clear();
+          break;
+        case SessionSegmentLog.TOUCH:
+          discardOpenSnapshot();
+          session(sessions, lastAccess, sessionId, timestamp);
+          break;
+        case SessionSegmentLog.TERMINATE:
+          discardOpenSnapshot();
+          sessions.remove(sessionId);
+          lastAccess.remove(sessionId);
+          break;
+        default:
+          LOGGER.warn("Ignoring unknown session log record type {}", type);
+      }
+    }
+
+    public void discardOpenSnapshot() {
+      snapshotSessions = null;
+      snapshotLastAccess = null;
+    }
+
+    private static Map<String, byte[]> session(Map<String, Map<String, byte[]>> sessions, Map<String, Long> lastAccess, String sessionId, long timestamp) {
+      Map<String, byte[]> session = sessions.get(sessionId);
+      if (session == null) {
+        session = new HashMap<>();
+        sessions.put(sessionId, session);
+      }
+      Long previous = lastAccess.get(sessionId);
+      if (previous == null || previous < timestamp) {
+        lastAccess.put(sessionId, timestamp);
+      }
+      return session;
+    }
+  }
+
+}
@@ -0,0 +1,294 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.session.store.internal;
+
+import io.netty.util.internal.PlatformDependent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * An append only log of session mutations and accesses, stored as a sequence of memory mapped segment files.
+ * <p>
+ * Each record is laid out as {@code [int length][int crc][byte type][long timestamp][payload]}, where the length covers everything after the crc.
+ * Segments are pre-sized and zero filled, so a zero length marks the end of the written portion of a segment.
+ * A record that does not pass its checksum (i.e. a write torn by a crash) terminates the scan of its segment.
+ */
+public class SessionSegmentLog implements AutoCloseable {
+
+  public static final byte PUT = 1;
+  public static final byte REMOVE = 2;
+  public static final byte CLEAR = 3;
+  public static final byte TERMINATE = 4;
+  public static final byte SNAPSHOT_START = 5;
+  public static final byte SNAPSHOT_SESSION = 6;
+  public static final byte SNAPSHOT_VALUE = 7;
+  public static final byte SNAPSHOT_END = 8;
+  public static final byte TOUCH = 9;
+
+  public interface Visitor {
+    void visit(byte type, long timestamp, String sessionId, String key, byte[] value);
+  }
+
+  private static final String PREFIX = "sessions-";
+  private static final String SUFFIX = ".seg";
+  private static final int MAGIC = 0x52505353; // RPSS
+  private static final int HEADER_SIZE = 4;
+  private static final int RECORD_OVERHEAD = 8;
+
+  private final Path dir;
+  private final int segmentSize;
+
+  private long currentSequence;
+  private MappedByteBuffer current;
+  private boolean closed;
+
+  public SessionSegmentLog(Path dir, int segmentSize) throws IOException {
+    this.dir = dir;
+    this.segmentSize = segmentSize;
+    Files.createDirectories(dir);
+    List<Long> sequences = sequences();
+    this.currentSequence = sequences.isEmpty() ? 0 : sequences.get(sequences.size() - 1);
+  }
+
+  /**
+   * Replays all intact records, oldest segment first.
+   *
+   * @param visitor the receiver of the records
+   * @throws IOException if a segment cannot be read
+   */
+  public synchronized void replay(Visitor visitor) throws IOException {
+    for (Long sequence : sequences()) {
+      Path segment = segmentPath(sequence);
+      try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+          continue;
+        }
+        replaySegment(buffer, visitor);
+      }
+    }
+  }
+
+  private static void replaySegment(ByteBuffer buffer, Visitor visitor) {
+    CRC32 crc = new CRC32();
+    while (buffer.remaining() >= RECORD_OVERHEAD) {
+      int length = buffer.getInt();
+      int checksum = buffer.getInt();
+      if (length <= 0 || length > buffer.remaining()) {
+        return;
+      }
+
+      byte[] record = new byte[length];
+      buffer.get(record);
+      crc.reset();
+      crc.update(record, 0, length);
+      if ((int) crc.getValue() != checksum) {
+        return;
+      }
+
+      ByteBuffer in = ByteBuffer.wrap(record);
+      try {
+        byte type = in.get();
+        long timestamp = in.getLong();
+        String sessionId = readString(in);
+        String key = readString(in);
+        byte[] value = null;
+        int valueLength = in.getInt();
+        if (valueLength >= 0) {
+          value = new byte[valueLength];
+          in.get(value);
+        }
+        visitor.visit(type, timestamp, sessionId, key, value);
+      } catch (BufferUnderflowException e) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Appends a record to the current segment, rolling to a new segment if it does not fit.
+   *
+   * @param type the record type
+   * @param timestamp the time of the mutation
+   * @param sessionId the session id (may be null for snapshot markers)
+   * @param key the storage key (may be null)
+   * @param value the serialized value (may be null)
+   * @throws IOException if the record cannot be written
+   */
+  public synchronized void append(byte type, long timestamp, String sessionId, String key, byte[] value) throws IOException {
+    byte[] record = encode(type, timestamp, sessionId, key, value);
+    int required = record.length + RECORD_OVERHEAD;
+    if (current == null || current.remaining() < required + RECORD_OVERHEAD) {
+      roll(required);
+    }
+
+    CRC32 crc = new CRC32();
+    crc.update(record, 0, record.length);
+
+    // Write the payload before the length so that a partially written record is never seen as complete
+    int start = current.position();
+    current.position(start + RECORD_OVERHEAD);
+    current.put(record);
+    int end = current.position();
+    current.putInt(start + 4, (int) crc.getValue());
+    current.putInt(start, record.length);
+    current.position(end);
+  }
+
+  /**
+   * Starts a new segment, returning its sequence number.
+   *
+   * @return the sequence number of the new current segment
+   * @throws IOException if the segment cannot be created
+   */
+  public synchronized long roll() throws IOException {
+    roll(0);
+    return currentSequence;
+  }
+
+  private void roll(int required) throws IOException {
+    if (closed) {
+      throw new IllegalStateException("Session log in " + dir + " is closed");
+    }
+    release();
+    long sequence = currentSequence + 1;
+    int size = Math.max(segmentSize, HEADER_SIZE + required + RECORD_OVERHEAD);
+    try (FileChannel channel = FileChannel.open(segmentPath(sequence), StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      current = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+    current.putInt(MAGIC);
+    currentSequence = sequence;
+  }
+
+  /**
+   * Deletes all segments older than the given sequence number.
+   *
+   * @param sequence the oldest segment to retain
+   * @throws IOException if a segment cannot be deleted
+   */
+  public synchronized void deleteBefore(long sequence) throws IOException {
+    for (Long existing : sequences()) {
+      if (existing < sequence) {
+        Files.deleteIfExists(segmentPath(existing));
+      }
+    }
+  }
+
+  public synchronized int getSegmentCount() throws IOException {
+    return sequences().size();
+  }
+
+  /**
+   * Flushes the current segment to the storage device.
+   */
+  public synchronized void force() {
+    if (current != null) {
+      current.force();
+    }
+  }
+
+  /**
+   * Flushes and unmaps the current segment. Nothing can be appended after this.
+   */
+  @Override
+  public synchronized void close() {
+    closed = true;
+    release();
+  }
+
+  private void release() {
+    if (current != null) {
+      current.force();
+      // Unmap now instead of when the buffer is garbage collected, which may be never for a long lived heap
+      PlatformDependent.freeDirectBuffer(current);
+      current = null;
+    }
+  }
+
+  private Path segmentPath(long sequence) {
+    return dir.resolve(String.format("%s%016d%s", PREFIX, sequence, SUFFIX));
+  }
+
+  private List<Long> sequences() throws IOException {
+    List<Long> sequences = new ArrayList<>();
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, PREFIX + "*" + SUFFIX)) {
+      for (Path path : stream) {
+        String name = path.getFileName().toString();
+        try {
+          sequences.add(Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())));
+        } catch (NumberFormatException ignore) {
+          // not one of ours
+        }
+      }
+    }
+    Collections.sort(sequences);
+    return sequences;
+  }
+
+  private static byte[] encode(byte type, long timestamp, String sessionId, String key, byte[] value) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + (value == null ? 0 : value.length));
+    DataOutputStream out = new DataOutputStream(bytes);
+    out.writeByte(type);
+    out.writeLong(timestamp);
+    writeString(out, sessionId);
+    writeString(out, key);
+    if (value == null) {
+      out.writeInt(-1);
+    } else {
+      out.writeInt(value.length);
+      out.write(value);
+    }
+    out.flush();
+    return bytes.toByteArray();
+  }
+
+  private static void writeString(DataOutputStream out, String string) throws IOException {
+    if (string == null) {
+      out.writeInt(-1);
+    } else {
+      byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+      out.writeInt(bytes.length);
+      out.write(bytes);
+    }
+  }
+
+  private static String readString(ByteBuffer in) {
+    int length = in.getInt();
+    if (length < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    in.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.session.store
+
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import ratpack.session.SessionModule
+import ratpack.test.internal.RatpackGroovyDslSpec
+import spock.util.concurrent.PollingConditions
+
+class PersistentSessionsModuleSpec extends RatpackGroovyDslSpec {
+
+  @Rule TemporaryFolder sessionsDir
+
+  def "store is closed when the application stops"() {
+    given:
+    SessionStore sessionStore = null
+    modules << new SessionModule()
+    modules << new PersistentSessionsModule(sessionsDir.root.toPath(), 5)
+
+    when:
+    handlers {
+      get { SessionStorage storage, SessionStore store ->
+        sessionStore = store
+        storage.value = "foo"
+        render storage.value.toString()
+      }
+    }
+
+    then:
+    text == "foo"
+
+    when:
+    server.stop()
+
+    then:
+    new PollingConditions().eventually {
+      try {
+        sessionStore.get("other").put("value", "bar")
+        assert false
+      } catch (IllegalStateException ignore) {
+      }
+    }
+  }
+
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.session.store.internal
+
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import spock.lang.Specification
+
+class PersistentSessionStoreSpec extends Specification {
+
+  @Rule TemporaryFolder temporaryFolder
+
+  PersistentSessionStore openStore(int segmentSize = 1024) {
+    new PersistentSessionStore(temporaryFolder.root.toPath(), segmentSize, 5)
+  }
+
+  def "sessions survive reopening the store"() {
+    given:
+    def store = openStore()
+    store.get("a").put("foo", "bar")
+    store.get("a").put("list", [1, 2, 3])
+    store.get("b").put("foo", "baz")
+    store.get("b").remove("foo")
+    store.close()
+
+    when:
+    def reopened = openStore()
+
+    then:
+    reopened.size() == 2
+    reopened.get("a") == [foo: "bar", list: [1, 2, 3]]
+    reopened.get("b").isEmpty()
+  }
+
+  def "accesses of read only sessions survive reopening the store"() {
+    given:
+    def store = new PersistentSessionStore(temporaryFolder.root.toPath(), 1024, 60000, 0)
+    store.get("a").put("foo", "bar")
+    sleep 20
+    store.get("a")
+    def lastAccess = store.index["a"].lastAccess
+    store.close()
+
+    when:
+    def reopened = new PersistentSessionStore(temporaryFolder.root.toPath(), 1024, 60000, 0)
+
+    then:
+    reopened.index["a"].lastAccess == lastAccess
+  }
+
+  def "accesses are only recorded once per touch interval"() {
+    given:
+    def store = new PersistentSessionStore(temporaryFolder.root.toPath(), 1024, 60000, 30000)
+    store.get("a").put("foo", "bar")
+    def recordedAccess = store.index["a"].lastRecordedAccess
+    sleep 20
+    store.get("a")
+    store.close()
+
+    when:
+    def reopened = new PersistentSessionStore(temporaryFolder.root.toPath(), 1024, 60000, 30000)
+
+    then:
+    reopened.index["a"].lastAccess == recordedAccess
+  }
+
+  def "terminated sessions are not recovered"() {
+    given:
+    def store = openStore()
+    store.get("a").put("foo", "bar")
+    store.sessionTerminated("a")
+    store.close()
+
+    expect:
+    openStore().size() == 0
+  }
+
+  def "records roll over to new segments and compaction removes old ones"() {
+    given:
+    def store = openStore(256)
+
+    when:
+    100.times { store.get("a").put("value", "x" * 50 + it) }
+
+    then:
+    temporaryFolder.root.listFiles().size() > 2
+
+    when:
+    store.compact()
+    store.close()
+
+    then:
+    temporaryFolder.root.listFiles().size() == 1
+    openStore(256).get("a") == [value: "x" * 50 + 99]
+  }
+
+  def "nothing can be written after the store is closed"() {
+    given:
+    def store = openStore()
+    store.get("a").put("foo", "bar")
+    store.close()
+
+    when:
+    store.get("a").put("foo", "baz")
+
+    then:
+    thrown IllegalStateException
+    openStore().get("a") == [foo: "bar"]
+  }
+
+  def "torn snapshot is ignored during recovery"() {
+    given:
+    def store = openStore()
+    store.get("a").put("foo", "bar")
+    store.close()
+
+    and:
+    def log = new SessionSegmentLog(temporaryFolder.root.toPath(), 1024)
+    log.roll()
+    log.append(SessionSegmentLog.SNAPSHOT_START, 0, null, null, null)
+    log.append(SessionSegmentLog.PUT, System.currentTimeMillis(), "b", "foo", store.serializeValue("baz"))
+    log.close()
+
+    when:
+    def reopened = openStore()
+
+    then:
+    reopened.get("a") == [foo: "bar"]
+    reopened.get("b") == [foo: "baz"]
+  }
+
+  def "corrupt trailing record is ignored during recovery"() {
+    given:
+    def store = openStore()
+    store.get("a").put("foo", "bar")
+    store.get("a").put("foo", "baz")
+    store.close()
+
+    and:
+    def segment = temporaryFolder.root.listFiles().sort().last()
+    def bytes = segment.bytes
+    def lastNonZero = bytes.findLastIndexOf { it != 0 }
+    bytes[lastNonZero] = (byte) (bytes[lastNonZero] + 1)
+    segment.bytes = bytes
+
+    expect:
+    openStore().get("a") == [foo: "bar"]
+  }
+
+  def "values must be serializable"() {
+    when:
+    openStore().get("a").put("foo", new Object())
+
+    then:
+    thrown IllegalArgumentException
+  }
+
+}
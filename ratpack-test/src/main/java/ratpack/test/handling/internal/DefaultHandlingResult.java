@@ -77,7 +77,7 @@ public class DefaultHandlingResult implements HandlingResult {
 
     final CountDownLatch latch = new CountDownLatch(1);
 
-    final StreamTransmitter streamTransmitter = new DefaultStreamTransmitter(null, null, null); //TODO: what test support is required here?
+    final StreamTransmitter streamTransmitter = new DefaultStreamTransmitter(null, null, null, null); //TODO: what test support is required here?
 
     final EventController<RequestOutcome> eventController = new DefaultEventController<>();
 
@@ -162,7 +162,7 @@ public class DefaultHandlingResult implements HandlingResult {
     );
 
     ExecControl execControl = launchConfig.getExecController().getControl();
-    DefaultContext.start(execControl, requestConstants, effectiveRegistry, new Handler[]{handler}, next, Actions.noop());
+    DefaultContext.start(execControl, launchConfig.getExecController().getEventLoopGroup().next(), requestConstants, effectiveRegistry, new Handler[]{handler}, next, Actions.noop());
 
     try {
       if (!latch.await(timeout, TimeUnit.SECONDS)) {
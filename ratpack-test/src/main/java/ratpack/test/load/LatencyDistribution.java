@@ -0,0 +1,68 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.test.load;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The distribution of latencies measured by a load test.
+ * <p>
+ * Latencies are recorded at microsecond resolution, with 3 significant digits of precision.
+ */
+public interface LatencyDistribution {
+
+  /**
+   * The number of recorded latencies.
+   *
+   * @return the number of recorded latencies
+   */
+  long getCount();
+
+  /**
+   * The latency at the given percentile.
+   *
+   * @param percentile the percentile (e.g. {@code 99.9})
+   * @param unit the unit to return the latency in
+   * @return the latency that the given percentage of recorded latencies are less than or equal to
+   */
+  long getPercentile(double percentile, TimeUnit unit);
+
+  /**
+   * The mean latency.
+   *
+   * @param unit the unit to return the latency in
+   * @return the mean latency
+   */
+  double getMean(TimeUnit unit);
+
+  /**
+   * The greatest recorded latency.
+   *
+   * @param unit the unit to return the latency in
+   * @return the greatest recorded latency
+   */
+  long getMax(TimeUnit unit);
+
+  /**
+   * Combines this distribution with another, such as to aggregate the results of repeatedly running the same load test.
+   *
+   * @param other a distribution measured by {@link LoadDriver}
+   * @return the distribution of the latencies recorded in both this and {@code other}
+   */
+  LatencyDistribution plus(LatencyDistribution other);
+
+}
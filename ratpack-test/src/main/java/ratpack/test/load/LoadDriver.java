@@ -0,0 +1,90 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.test.load;
+
+import ratpack.func.Action;
+import ratpack.test.ApplicationUnderTest;
+import ratpack.test.load.internal.DefaultLoadSpec;
+import ratpack.test.load.internal.LoadRun;
+
+import java.net.URI;
+
+/**
+ * Static methods for putting an application under concurrent load, and measuring how it copes.
+ * <p>
+ * This allows writing tests that assert on throughput and latency, such as that an endpoint sustains a given rate of requests with a bounded 99th percentile latency.
+ * Requests are sent over keep-alive connections by an asynchronous client, so that many requests can be in flight at once.
+ *
+ * <pre class="tested">
+ * import ratpack.test.load.LoadDriver
+ * import java.util.concurrent.TimeUnit
+ *
+ * import static ratpack.groovy.test.embed.EmbeddedApplications.embeddedApp
+ *
+ * def app = embeddedApp {
+ *   handlers {
+ *     get {
+ *       render "ok"
+ *     }
+ *   }
+ * }
+ *
+ * def result = LoadDriver.drive(app) {
+ *   it.concurrency(4).rate(200).duration(1, TimeUnit.SECONDS)
+ * }
+ *
+ * assert result.errorCount == 0
+ * assert result.requestCount == 200
+ * assert result.latency.getPercentile(99, TimeUnit.MILLISECONDS) &lt; 1000
+ *
+ * app.close()
+ * </pre>
+ *
+ * @see LoadSpec
+ */
+public abstract class LoadDriver {
+
+  private LoadDriver() {
+  }
+
+  /**
+   * Puts the given application under load, blocking until the test is complete.
+   *
+   * @param application the application to put under load
+   * @param action the configuration of the load test
+   * @return the outcome of the load test
+   * @throws Exception if the configuration action throws, or a connection to the application cannot be established
+   */
+  public static LoadResult drive(ApplicationUnderTest application, Action<? super LoadSpec> action) throws Exception {
+    return drive(application.getAddress(), action);
+  }
+
+  /**
+   * Puts the application at the given address under load, blocking until the test is complete.
+   *
+   * @param address the address of the application to put under load
+   * @param action the configuration of the load test
+   * @return the outcome of the load test
+   * @throws Exception if the configuration action throws, or a connection to the application cannot be established
+   */
+  public static LoadResult drive(URI address, Action<? super LoadSpec> action) throws Exception {
+    DefaultLoadSpec spec = new DefaultLoadSpec();
+    action.execute(spec);
+    return new LoadRun(address, spec).run();
+  }
+
+}
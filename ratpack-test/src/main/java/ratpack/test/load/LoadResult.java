@@ -0,0 +1,68 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.test.load;
+
+import java.util.Map;
+
+/**
+ * The outcome of a load test run by {@link LoadDriver}.
+ */
+public interface LoadResult {
+
+  /**
+   * The number of measured requests that were sent.
+   *
+   * @return the number of measured requests that were sent
+   */
+  long getRequestCount();
+
+  /**
+   * The number of measured requests that did not receive a response, because of a connection error or {@link LoadSpec#timeout timeout}.
+   *
+   * @return the number of measured requests that did not receive a response
+   */
+  long getFailureCount();
+
+  /**
+   * The number of measured requests that failed, or received a response with a 4xx or 5xx status.
+   *
+   * @return the number of measured requests that failed, or received a response with a 4xx or 5xx status
+   */
+  long getErrorCount();
+
+  /**
+   * The number of measured responses received, by status code.
+   *
+   * @return the number of measured responses received, by status code
+   */
+  Map<Integer, Long> getStatusCounts();
+
+  /**
+   * The rate at which responses were received while measuring.
+   *
+   * @return the number of responses received per second
+   */
+  double getRequestsPerSecond();
+
+  /**
+   * The latency of the measured requests that received a response.
+   *
+   * @return the latency of the measured requests that received a response
+   */
+  LatencyDistribution getLatency();
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.test.load;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configures a load test run by {@link LoadDriver}.
+ * <p>
+ * By default, a single connection sends {@code GET} requests for the root of the application back to back (i.e. closed loop) for 10 seconds.
+ * If a {@link #rate(int) rate} is set, requests are instead sent at a constant rate regardless of how quickly responses arrive (i.e. open loop),
+ * over as many connections as the {@link #concurrency(int) concurrency}.
+ * In that case, latency is measured from when each request was due to be sent,
+ * so that time spent waiting for a free connection behind a slow response counts towards latency.
+ */
+public interface LoadSpec {
+
+  /**
+   * The request method to use.
+   *
+   * @param method the request method (default {@code GET})
+   * @return {@code this}
+   */
+  LoadSpec method(String method);
+
+  /**
+   * The path and query string to request, relative to the address of the application.
+   *
+   * @param path the path to request (default {@code ""})
+   * @return {@code this}
+   */
+  LoadSpec path(String path);
+
+  /**
+   * Adds a header to every request.
+   *
+   * @param name the header name
+   * @param value the header value
+   * @return {@code this}
+   */
+  LoadSpec header(String name, String value);
+
+  /**
+   * The body to send with every request.
+   *
+   * @param body the request body
+   * @return {@code this}
+   */
+  LoadSpec body(byte[] body);
+
+  /**
+   * The number of connections to send requests over.
+   *
+   * @param concurrency the number of connections (default 1)
+   * @return {@code this}
+   */
+  LoadSpec concurrency(int concurrency);
+
+  /**
+   * The rate to send requests at.
+   *
+   * @param requestsPerSecond the number of requests to send per second, or 0 to send each request as soon as a connection is free (default 0)
+   * @return {@code this}
+   */
+  LoadSpec rate(int requestsPerSecond);
+
+  /**
+   * How long to send requests for, after the warmup.
+   *
+   * @param duration the measured duration (default 10 seconds)
+   * @param unit the unit of {@code duration}
+   * @return {@code this}
+   */
+  LoadSpec duration(long duration, TimeUnit unit);
+
+  /**
+   * How long to send requests for before measuring.
+   * <p>
+   * Responses to requests sent during the warmup are not included in the result.
+   *
+   * @param duration the warmup duration (default 0)
+   * @param unit the unit of {@code duration}
+   * @return {@code this}
+   */
+  LoadSpec warmup(long duration, TimeUnit unit);
+
+  /**
+   * The maximum number of requests to send after the warmup.
+   * <p>
+   * The test stops when either this many requests have been sent, or the {@link #duration(long, TimeUnit) duration} has elapsed.
+   *
+   * @param requests the maximum number of measured requests (default unlimited)
+   * @return {@code this}
+   */
+  LoadSpec requests(long requests);
+
+  /**
+   * How long to wait for each response.
+   * <p>
+   * Requests that do not receive a response in time are counted as failures, and their connection is replaced.
+   *
+   * @param timeout the response timeout (default 5 seconds)
+   * @param unit the unit of {@code timeout}
+   * @return {@code this}
+   */
+  LoadSpec timeout(long timeout, TimeUnit unit);
+
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.test.load.internal;
+
+import com.google.common.collect.ImmutableMap;
+import org.HdrHistogram.Histogram;
+import ratpack.test.load.LatencyDistribution;
+import ratpack.test.load.LoadResult;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class DefaultLoadResult implements LoadResult {
+
+  private final long requestCount;
+  private final long failureCount;
+  private final long errorCount;
+  private final Map<Integer, Long> statusCounts;
+  private final double requestsPerSecond;
+  private final LatencyDistribution latency;
+
+  public DefaultLoadResult(long requestCount, long failureCount, Map<Integer, Long> statusCounts, double requestsPerSecond, Histogram latencyMicros) {
+    this.requestCount = requestCount;
+    this.failureCount = failureCount;
+    this.statusCounts = ImmutableMap.copyOf(statusCounts);
+    this.requestsPerSecond = requestsPerSecond;
+    this.latency = new HistogramLatencyDistribution(latencyMicros);
+
+    long errorCount = failureCount;
+    for (Map.Entry<Integer, Long> entry : statusCounts.entrySet()) {
+      if (entry.getKey() >= 400) {
+        errorCount += entry.getValue();
+      }
+    }
+    this.errorCount = errorCount;
+  }
+
+  @Override
+  public long getRequestCount() {
+    return requestCount;
+  }
+
+  @Override
+  public long getFailureCount() {
+    return failureCount;
+  }
+
+  @Override
+  public long getErrorCount() {
+    return errorCount;
+  }
+
+  @Override
+  public Map<Integer, Long> getStatusCounts() {
+    return statusCounts;
+  }
+
+  @Override
+  public double getRequestsPerSecond() {
+    return requestsPerSecond;
+  }
+
+  @Override
+  public LatencyDistribution getLatency() {
+    return latency;
+  }
+
+  @Override
+  public String toString() {
+    TimeUnit unit = TimeUnit.MICROSECONDS;
+    return String.format(
+      "LoadResult{requests=%d, errors=%d, failures=%d, requestsPerSecond=%.1f, latencyMicros={mean=%.1f, p50=%d, p99=%d, p99.9=%d, max=%d}, statuses=%s}",
+      requestCount, errorCount, failureCount, requestsPerSecond,
+      latency.getMean(unit), latency.getPercentile(50, unit), latency.getPercentile(99, unit), latency.getPercentile(99.9, unit), latency.getMax(unit),
+      statusCounts
+    );
+  }
+
+  private static class HistogramLatencyDistribution implements LatencyDistribution {
+
+    private final Histogram histogram;
+
+    private HistogramLatencyDistribution(Histogram histogram) {
+      this.histogram = histogram;
+    }
+
+    @Override
+    public long getCount() {
+      return histogram.getTotalCount();
+    }
+
+    @Override
+    public long getPercentile(double percentile, TimeUnit unit) {
+      return unit.convert(histogram.getValueAtPercentile(percentile), TimeUnit.MICROSECONDS);
+    }
+
+    @Override
+    public double getMean(TimeUnit unit) {
+      return histogram.getMean() * TimeUnit.MICROSECONDS.toNanos(1) / unit.toNanos(1);
+    }
+
+    @Override
+    public long getMax(TimeUnit unit) {
+      return unit.convert(histogram.getMaxValue(), TimeUnit.MICROSECONDS);
+    }
+
+    @Override
+    public LatencyDistribution plus(LatencyDistribution other) {
+      if (!(other instanceof HistogramLatencyDistribution)) {
+        throw new IllegalArgumentException("Can only combine with distributions measured by LoadDriver, not " + other);
+      }
+      Histogram combined = new Histogram(histogram.getHighestTrackableValue(), histogram.getNumberOfSignificantValueDigits());
+      combined.add(histogram);
+      combined.add(((HistogramLatencyDistribution) other).histogram);
+      return new HistogramLatencyDistribution(combined);
+    }
+  }
+
+}
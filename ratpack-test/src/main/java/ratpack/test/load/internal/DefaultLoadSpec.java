@@ -0,0 +1,148 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.test.load.internal;
+
+import com.google.common.collect.ImmutableList;
+import ratpack.test.load.LoadSpec;
+
+import java.util.AbstractMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+public class DefaultLoadSpec implements LoadSpec {
+
+  private String method = "GET";
+  private String path = "";
+  private final ImmutableList.Builder<Map.Entry<String, String>> headers = ImmutableList.builder();
+  private byte[] body = new byte[0];
+  private int concurrency = 1;
+  private int rate;
+  private long durationNanos = TimeUnit.SECONDS.toNanos(10);
+  private long warmupNanos;
+  private long requests = Long.MAX_VALUE;
+  private long timeoutNanos = TimeUnit.SECONDS.toNanos(5);
+
+  @Override
+  public LoadSpec method(String method) {
+    this.method = method.toUpperCase();
+    return this;
+  }
+
+  @Override
+  public LoadSpec path(String path) {
+    this.path = path;
+    return this;
+  }
+
+  @Override
+  public LoadSpec header(String name, String value) {
+    headers.add(new AbstractMap.SimpleImmutableEntry<>(name, value));
+    return this;
+  }
+
+  @Override
+  public LoadSpec body(byte[] body) {
+    this.body = body;
+    return this;
+  }
+
+  @Override
+  public LoadSpec concurrency(int concurrency) {
+    checkArgument(concurrency > 0, "concurrency must be > 0");
+    this.concurrency = concurrency;
+    return this;
+  }
+
+  @Override
+  public LoadSpec rate(int requestsPerSecond) {
+    checkArgument(requestsPerSecond >= 0, "rate must be >= 0");
+    this.rate = requestsPerSecond;
+    return this;
+  }
+
+  @Override
+  public LoadSpec duration(long duration, TimeUnit unit) {
+    checkArgument(duration > 0, "duration must be > 0");
+    this.durationNanos = unit.toNanos(duration);
+    return this;
+  }
+
+  @Override
+  public LoadSpec warmup(long duration, TimeUnit unit) {
+    checkArgument(duration >= 0, "warmup must be >= 0");
+    this.warmupNanos = unit.toNanos(duration);
+    return this;
+  }
+
+  @Override
+  public LoadSpec requests(long requests) {
+    checkArgument(requests > 0, "requests must be > 0");
+    this.requests = requests;
+    return this;
+  }
+
+  @Override
+  public LoadSpec timeout(long timeout, TimeUnit unit) {
+    checkArgument(timeout > 0, "timeout must be > 0");
+    this.timeoutNanos = unit.toNanos(timeout);
+    return this;
+  }
+
+  public String getMethod() {
+    return method;
+  }
+
+  public String getPath() {
+    return path;
+  }
+
+  public List<Map.Entry<String, String>> getHeaders() {
+    return headers.build();
+  }
+
+  public byte[] getBody() {
+    return body;
+  }
+
+  public int getConcurrency() {
+    return concurrency;
+  }
+
+  public int getRate() {
+    return rate;
+  }
+
+  public long getDurationNanos() {
+    return durationNanos;
+  }
+
+  public long getWarmupNanos() {
+    return warmupNanos;
+  }
+
+  public long getRequests() {
+    return requests;
+  }
+
+  public long getTimeoutNanos() {
+    return timeoutNanos;
+  }
+
+}
@@ -0,0 +1,380 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.test.load.internal;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.*;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.http.*;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.ScheduledFuture;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ratpack.test.load.LoadResult;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A single load test.
+ * <p>
+ * In open loop mode (i.e. a rate is set), the calling thread adds the intended start time of each request to a backlog as it falls due,
+ * and idle connections take requests from the backlog.
+ * Both sides add to their queue before trying to pair a request with a connection, so that neither can be stranded.
+ * In closed loop mode, each connection sends its next request as soon as it has received a response.
+ * <p>
+ * Each connection only touches its own state on its event loop.
+ */
+public class LoadRun {
+
+  private final static Logger LOGGER = LoggerFactory.getLogger(LoadRun.class);
+
+  private final static long MAX_LATENCY_MICROS = TimeUnit.HOURS.toMicros(1);
+  private final static int LATENCY_PRECISION = 3;
+  private final static long NOT_IN_FLIGHT = Long.MIN_VALUE;
+  private final static long DRAIN_GRACE_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+  private final DefaultLoadSpec spec;
+  private final String host;
+  private final int port;
+  private final String path;
+  private final HttpMethod method;
+  private final List<Map.Entry<String, String>> headers;
+
+  private final NioEventLoopGroup eventLoopGroup;
+  private final Bootstrap bootstrap;
+
+  private final Queue<Long> backlog = new ConcurrentLinkedQueue<>();
+  private final Queue<Connection> idle = new ConcurrentLinkedQueue<>();
+
+  // starts at 1 on behalf of the sending thread, so that it can't reach 0 until sending is finished
+  private final AtomicLong inFlight = new AtomicLong(1);
+  private final CountDownLatch drained = new CountDownLatch(1);
+  private final AtomicLong claimed = new AtomicLong();
+  private final CountDownLatch exhausted = new CountDownLatch(1);
+
+  private volatile boolean closing;
+  private volatile long measureFrom;
+  private volatile long endAt;
+
+  // guarded by this
+  private final Histogram latency = new Histogram(MAX_LATENCY_MICROS, LATENCY_PRECISION);
+  private final Map<Integer, Long> statusCounts = new HashMap<>();
+  private long failures;
+  private long lastResponseAt;
+
+  public LoadRun(URI address, DefaultLoadSpec spec) {
+    if (!"http".equals(address.getScheme())) {
+      throw new IllegalArgumentException(String.format("URL '%s' is not a http url", address));
+    }
+
+    this.spec = spec;
+    this.host = address.getHost();
+    this.port = address.getPort() < 0 ? 80 : address.getPort();
+    this.method = HttpMethod.valueOf(spec.getMethod());
+    this.headers = spec.getHeaders();
+
+    URI target = address.resolve(spec.getPath());
+    String path = target.getRawPath().isEmpty() ? "/" : target.getRawPath();
+    this.path = target.getRawQuery() == null ? path : path + "?" + target.getRawQuery();
+
+    this.eventLoopGroup = new NioEventLoopGroup(Math.min(spec.getConcurrency(), Runtime.getRuntime().availableProcessors()), new DefaultThreadFactory("ratpack-load", true));
+    this.bootstrap = new Bootstrap()
+      .group(eventLoopGroup)
+      .channel(NioSocketChannel.class)
+      .option(ChannelOption.TCP_NODELAY, true);
+  }
+
+  public LoadResult run() throws InterruptedException {
+    try {
+      for (int i = 0; i < spec.getConcurrency(); ++i) {
+        idle.add(open());
+      }
+
+      long startedAt = System.nanoTime();
+      measureFrom = startedAt + spec.getWarmupNanos();
+      endAt = measureFrom + spec.getDurationNanos();
+
+      if (spec.getRate() > 0) {
+        sendAtRate(startedAt);
+      } else {
+        for (Connection connection : idle) {
+          idle.remove(connection);
+          sendNext(connection);
+        }
+        exhausted.await(endAt - System.nanoTime(), TimeUnit.NANOSECONDS);
+      }
+
+      complete();
+      if (!drained.await(spec.getTimeoutNanos() + DRAIN_GRACE_NANOS, TimeUnit.NANOSECONDS)) {
+        LOGGER.warn("Gave up waiting for " + inFlight.get() + " requests to complete");
+      }
+
+      synchronized (this) {
+        closing = true;
+        failures += inFlight.get();
+        long responses = latency.getTotalCount();
+        double requestsPerSecond = responses == 0 ? 0 : responses / ((double) (lastResponseAt - measureFrom) / TimeUnit.SECONDS.toNanos(1));
+        return new DefaultLoadResult(Math.min(claimed.get(), spec.getRequests()), failures, statusCounts, requestsPerSecond, latency);
+      }
+    } finally {
+      closing = true;
+      eventLoopGroup.shutdownGracefully(0, 0, TimeUnit.SECONDS).syncUninterruptibly();
+    }
+  }
+
+  private void sendAtRate(long startedAt) {
+    long interval = TimeUnit.SECONDS.toNanos(1) / spec.getRate();
+    long intendedStart = startedAt;
+    while (intendedStart < endAt && (intendedStart < measureFrom || claim())) {
+      long delay;
+      while ((delay = intendedStart - System.nanoTime()) > 0) {
+        LockSupport.parkNanos(delay);
+      }
+
+      inFlight.incrementAndGet();
+      backlog.add(intendedStart);
+      dispatch();
+
+      intendedStart += interval;
+    }
+  }
+
+  private boolean claim() {
+    if (claimed.incrementAndGet() <= spec.getRequests()) {
+      return true;
+    } else {
+      exhausted.countDown();
+      return false;
+    }
+  }
+
+  private void dispatch() {
+    while (!backlog.isEmpty()) {
+      Connection connection = idle.poll();
+      if (connection == null) {
+        return;
+      }
+      Long intendedStart = backlog.poll();
+      if (intendedStart == null) {
+        idle.add(connection);
+      } else {
+        connection.send(intendedStart);
+      }
+    }
+  }
+
+  private void sendNext(Connection connection) {
+    long now = System.nanoTime();
+    if (now < endAt && (now < measureFrom || claim())) {
+      inFlight.incrementAndGet();
+      connection.send(now);
+    }
+  }
+
+  private void release(Connection connection) {
+    if (closing) {
+      return;
+    }
+
+    if (spec.getRate() > 0) {
+      idle.add(connection);
+      dispatch();
+    } else {
+      sendNext(connection);
+    }
+  }
+
+  private void complete() {
+    if (inFlight.decrementAndGet() == 0) {
+      drained.countDown();
+    }
+  }
+
+  private void record(long intendedStart, int status) {
+    if (intendedStart >= measureFrom) {
+      long now = System.nanoTime();
+      synchronized (this) {
+        if (!closing) {
+          latency.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(now - intendedStart), MAX_LATENCY_MICROS));
+          Long count = statusCounts.get(status);
+          statusCounts.put(status, count == null ? 1 : count + 1);
+          lastResponseAt = now;
+        }
+      }
+    }
+    complete();
+  }
+
+  private void recordFailure(long intendedStart) {
+    if (intendedStart >= measureFrom) {
+      synchronized (this) {
+        if (!closing) {
+          ++failures;
+        }
+      }
+    }
+    complete();
+  }
+
+  private Connection open() {
+    Connection connection = new Connection();
+    connection.channel = connect(connection).syncUninterruptibly().channel();
+    return connection;
+  }
+
+  private void replace() {
+    final Connection connection = new Connection();
+    connect(connection).addListener(new ChannelFutureListener() {
+      @Override
+      public void operationComplete(ChannelFuture future) throws Exception {
+        if (future.isSuccess()) {
+          connection.channel = future.channel();
+          release(connection);
+        } else if (!closing) {
+          LOGGER.warn("Failed to connect to " + host + ":" + port, future.cause());
+        }
+      }
+    });
+  }
+
+  private ChannelFuture connect(final Connection connection) {
+    return bootstrap.clone()
+      .handler(new ChannelInitializer<SocketChannel>() {
+        @Override
+        protected void initChannel(SocketChannel ch) throws Exception {
+          ch.pipeline().addLast("codec", new HttpClientCodec());
+          ch.pipeline().addLast("handler", connection);
+        }
+      })
+      .connect(host, port);
+  }
+
+  private class Connection extends SimpleChannelInboundHandler<HttpObject> {
+
+    private Channel channel;
+    private long intendedStart = NOT_IN_FLIGHT;
+    private int status;
+    private boolean keepAlive;
+    private ScheduledFuture<?> timeout;
+
+    private void send(final long intendedStart) {
+      if (channel.eventLoop().inEventLoop()) {
+        doSend(intendedStart);
+      } else {
+        channel.eventLoop().execute(new Runnable() {
+          @Override
+          public void run() {
+            doSend(intendedStart);
+          }
+        });
+      }
+    }
+
+    private void doSend(long intendedStart) {
+      this.intendedStart = intendedStart;
+
+      FullHttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, method, path, Unpooled.wrappedBuffer(spec.getBody()));
+      HttpHeaders requestHeaders = request.headers();
+      requestHeaders.set(HttpHeaders.Names.HOST, host);
+      for (Map.Entry<String, String> header : headers) {
+        requestHeaders.add(header.getKey(), header.getValue());
+      }
+      if (request.content().isReadable()) {
+        requestHeaders.set(HttpHeaders.Names.CONTENT_LENGTH, request.content().readableBytes());
+      }
+
+      timeout = channel.eventLoop().schedule(new Runnable() {
+        @Override
+        public void run() {
+          fail();
+          channel.close();
+        }
+      }, spec.getTimeoutNanos(), TimeUnit.NANOSECONDS);
+
+      channel.writeAndFlush(request).addListener(new ChannelFutureListener() {
+        @Override
+        public void operationComplete(ChannelFuture future) throws Exception {
+          if (!future.isSuccess()) {
+            fail();
+            channel.close();
+          }
+        }
+      });
+    }
+
+    @Override
+    protected void channelRead0(ChannelHandlerContext ctx, HttpObject msg) throws Exception {
+      if (msg instanceof HttpResponse) {
+        HttpResponse response = (HttpResponse) msg;
+        status = response.getStatus().code();
+        keepAlive = HttpHeaders.isKeepAlive(response);
+      }
+
+      if (msg instanceof LastHttpContent && intendedStart != NOT_IN_FLIGHT) {
+        long intendedStart = this.intendedStart;
+        this.intendedStart = NOT_IN_FLIGHT;
+        timeout.cancel(false);
+        record(intendedStart, status);
+
+        if (keepAlive) {
+          release(this);
+        } else {
+          ctx.close();
+        }
+      }
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
+      LOGGER.debug("Closing load test connection after error", cause);
+      ctx.close();
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+      fail();
+      if (!closing) {
+        // replace the connection, so that the concurrency is maintained
+        replace();
+      }
+    }
+
+    private void fail() {
+      if (intendedStart != NOT_IN_FLIGHT) {
+        long intendedStart = this.intendedStart;
+        this.intendedStart = NOT_IN_FLIGHT;
+        timeout.cancel(false);
+        recordFailure(intendedStart);
+      }
+    }
+
+  }
+
+}
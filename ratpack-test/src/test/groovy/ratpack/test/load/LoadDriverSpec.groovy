@@ -0,0 +1,126 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ratpack.test.load
+
+import ratpack.exec.Fulfiller
+import ratpack.test.internal.RatpackGroovyDslSpec
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS
+import static java.util.concurrent.TimeUnit.SECONDS
+
+class LoadDriverSpec extends RatpackGroovyDslSpec {
+
+  def "sends requests at a constant rate"() {
+    given:
+    handlers {
+      get {
+        render "ok"
+      }
+    }
+
+    when:
+    def result = LoadDriver.drive(applicationUnderTest) {
+      it.concurrency(2).rate(100).duration(500, MILLISECONDS)
+    }
+
+    then:
+    result.requestCount == 50
+    result.latency.count == 50
+    result.statusCounts == [200: 50L]
+    result.errorCount == 0
+    result.requestsPerSecond > 0
+    result.latency.getPercentile(50, MILLISECONDS) <= result.latency.getMax(MILLISECONDS)
+  }
+
+  def "can combine the latencies of repeated runs"() {
+    given:
+    handlers {
+      get {
+        render "ok"
+      }
+    }
+
+    when:
+    def results = (1..2).collect {
+      LoadDriver.drive(applicationUnderTest) { it.requests(10) }
+    }
+    def latency = results[0].latency.plus(results[1].latency)
+
+    then:
+    latency.count == 20
+    latency.getMax(MILLISECONDS) == Math.max(results[0].latency.getMax(MILLISECONDS), results[1].latency.getMax(MILLISECONDS))
+    results[0].latency.count == 10
+  }
+
+  def "can limit the number of requests sent back to back"() {
+    given:
+    handlers {
+      post("echo") {
+        render request.body.text
+      }
+    }
+
+    when:
+    def result = LoadDriver.drive(applicationUnderTest) {
+      it.method("post").path("echo").body("foo".bytes).concurrency(3).requests(20)
+    }
+
+    then:
+    result.requestCount == 20
+    result.statusCounts == [200: 20L]
+  }
+
+  def "counts error responses"() {
+    given:
+    handlers {
+      get {
+        response.status(500).send()
+      }
+    }
+
+    when:
+    def result = LoadDriver.drive(applicationUnderTest) {
+      it.requests(10)
+    }
+
+    then:
+    result.requestCount == 10
+    result.errorCount == 10
+    result.failureCount == 0
+  }
+
+  def "counts requests that time out as failures"() {
+    given:
+    handlers {
+      get {
+        promise { Fulfiller<String> fulfiller -> }.then { render it }
+      }
+    }
+
+    when:
+    def result = LoadDriver.drive(applicationUnderTest) {
+      it.requests(3).timeout(100, MILLISECONDS).duration(10, SECONDS)
+    }
+
+    then:
+    result.requestCount == 3
+    result.failureCount == 3
+    result.errorCount == 3
+    result.latency.count == 0
+  }
+
+}
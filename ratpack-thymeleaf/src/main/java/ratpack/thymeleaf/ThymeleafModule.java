@@ -52,6 +52,16 @@ import java.util.Set;
  * Response content type can be manually specified, i.e. {@code thymeleafTemplate("template", model, "text/html")} if
  * not specified will default to {@code text/html}.
  * </p>
+ * <p>
+ * Templates are rendered straight into a response buffer.
+ * For large pages, a streaming chunk size can be set using {@link #setStreamingChunkSize(Integer)} or the
+ * {@code other.thymeleaf.streamingChunkSize} configuration property.
+ * Templates are then rendered on a blocking thread, and the response is sent with chunked transfer encoding
+ * a chunk at a time as the template produces it.
+ * The blocking thread is held until the client has received the whole response, so slow clients each tie up a blocking thread,
+ * which can be capped with the {@linkplain ratpack.launch.LaunchConfig#getMaxBlockingConcurrency() max blocking concurrency}.
+ * Errors that occur while rendering in this mode truncate the response, as the response status has already been sent.
+ * </p>
  *
  * Example usage: (Java DSL)
  * <pre class="tested">
@@ -169,6 +179,7 @@ public class ThymeleafModule extends AbstractModule {
   private String templatesPrefix;
   private String templatesSuffix;
   private Integer templatesCacheSize;
+  private Integer streamingChunkSize;
 
   public String getTemplatesMode() {
     return templatesMode;
@@ -202,13 +213,28 @@ public class ThymeleafModule extends AbstractModule {
     this.templatesCacheSize = templatesCacheSize;
   }
 
+  public Integer getStreamingChunkSize() {
+    return streamingChunkSize;
+  }
+
+  public void setStreamingChunkSize(Integer streamingChunkSize) {
+    this.streamingChunkSize = streamingChunkSize;
+  }
+
   @Override
   protected void configure() {
     Multibinder.newSetBinder(binder(), IDialect.class);
-    bind(ThymeleafTemplateRenderer.class).in(Singleton.class);
     bind(ICacheManager.class).to(StandardCacheManager.class).in(Singleton.class);
   }
 
+  @SuppressWarnings("UnusedDeclaration")
+  @Provides
+  @Singleton
+  ThymeleafTemplateRenderer provideTemplateRenderer(TemplateEngine templateEngine, LaunchConfig launchConfig) {
+    int chunkSize = streamingChunkSize == null ? Integer.parseInt(launchConfig.getOther("thymeleaf.streamingChunkSize", "0")) : streamingChunkSize;
+    return new ThymeleafTemplateRenderer(templateEngine, chunkSize);
+  }
+
   @SuppressWarnings("UnusedDeclaration")
   @Provides
   @Singleton
@@ -17,29 +17,33 @@
 package ratpack.thymeleaf.internal;
 
 import org.thymeleaf.TemplateEngine;
+import ratpack.func.Action;
 import ratpack.handling.Context;
 import ratpack.render.RendererSupport;
+import ratpack.render.internal.WriterRendering;
 import ratpack.thymeleaf.Template;
 
-import javax.inject.Inject;
+import java.io.Writer;
 
 public class ThymeleafTemplateRenderer extends RendererSupport<Template> {
 
   private final TemplateEngine thymeleaf;
+  private final int streamingChunkSize;
 
-  @Inject
-  public ThymeleafTemplateRenderer(TemplateEngine thymeleaf) {
+  public ThymeleafTemplateRenderer(TemplateEngine thymeleaf, int streamingChunkSize) {
     this.thymeleaf = thymeleaf;
+    this.streamingChunkSize = streamingChunkSize;
   }
 
   @Override
-  public void render(Context context, Template template) {
+  public void render(Context context, final Template template) {
     String contentType = template.getContentType();
     contentType = contentType == null ? "text/html" : contentType;
-    try {
-      context.getResponse().send(contentType, thymeleaf.process(template.getName(), template.getModel()));
-    } catch (Exception e) {
-      context.error(e);
-    }
+    WriterRendering.render(context, contentType, streamingChunkSize, new Action<Writer>() {
+      @Override
+      public void execute(Writer writer) throws Exception {
+        thymeleaf.process(template.getName(), template.getModel(), writer);
+      }
+    });
   }
 }